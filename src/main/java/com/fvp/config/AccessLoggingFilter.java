@@ -11,6 +11,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import com.fvp.service.AccessFrequencyTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
@@ -26,6 +27,12 @@ public class AccessLoggingFilter implements Filter {
   private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS_LOG");
   private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
+  private final AccessFrequencyTracker accessFrequencyTracker;
+
+  public AccessLoggingFilter(AccessFrequencyTracker accessFrequencyTracker) {
+    this.accessFrequencyTracker = accessFrequencyTracker;
+  }
+
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
     // No initialization needed
@@ -85,6 +92,9 @@ public class AccessLoggingFilter implements Filter {
       );
       
       accessLogger.info(accessLogEntry);
+
+      // Feed the cache warm-up with what is actually being requested
+      accessFrequencyTracker.record(httpRequest, statusCode);
     }
   }
 
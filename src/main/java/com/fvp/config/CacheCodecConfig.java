@@ -0,0 +1,26 @@
+package com.fvp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.codec")
+@Data
+public class CacheCodecConfig {
+
+  /**
+   * Serialization format for new cache entries: json or smile
+   */
+  private String format = "smile";
+
+  /**
+   * Compression for entries above the threshold: none, deflate or lz4
+   */
+  private String compression = "lz4";
+
+  /**
+   * Minimum serialized size in bytes before compression is applied
+   */
+  private int compressionThreshold = 1024;
+}
@@ -0,0 +1,46 @@
+package com.fvp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.warmup")
+@Data
+public class CacheWarmupConfig {
+
+  /**
+   * Whether caches are warmed up after startup and after a Redis flush
+   */
+  private boolean enabled = true;
+
+  /**
+   * Number of most requested endpoints to rebuild on warm-up
+   */
+  private int topRequests = 500;
+
+  /**
+   * Number of threads rebuilding cache entries in parallel
+   */
+  private int threads = 4;
+
+  /**
+   * Upper bound on warm-up requests started per second, to keep load off Elasticsearch
+   */
+  private int maxRequestsPerSecond = 20;
+
+  /**
+   * Maximum number of distinct requests tracked, locally and in Redis
+   */
+  private int maxTrackedRequests = 5000;
+
+  /**
+   * Redis sorted set holding the request counts of all nodes
+   */
+  private String accessCountsKey = "warmup:accessCounts";
+
+  /**
+   * Redis key whose disappearance tells that the cache was flushed
+   */
+  private String sentinelKey = "warmup:sentinel";
+}
@@ -0,0 +1,32 @@
+package com.fvp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "elasticsearch.async")
+@Data
+public class ElasticsearchAsyncConfig {
+
+  /**
+   * Maximum number of Elasticsearch requests in flight at once; further requests wait in a queue
+   */
+  private int maxInFlight = 32;
+
+  /**
+   * Maximum number of requests waiting for a slot; requests beyond it fail immediately
+   */
+  private int maxQueued = 1000;
+
+  /**
+   * Default time a request may take, including its wait for a slot
+   */
+  private long timeoutMs = 5000;
+
+  /**
+   * Threads completing the returned futures, so callbacks never run on the HTTP client's I/O
+   * threads
+   */
+  private int callbackThreads = 4;
+}
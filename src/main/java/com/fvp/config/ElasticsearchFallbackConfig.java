@@ -0,0 +1,52 @@
+package com.fvp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "elasticsearch.fallback")
+@Data
+public class ElasticsearchFallbackConfig {
+
+  /**
+   * Serve category and model reads from MySQL while Elasticsearch is unhealthy
+   */
+  private boolean enabled = true;
+
+  /**
+   * Serve reads from MySQL regardless of Elasticsearch health, e.g. during a reindex
+   */
+  private boolean forced = false;
+
+  /**
+   * Time between two health probes of the cluster
+   */
+  private long probeIntervalMs = 5000;
+
+  /**
+   * Time a health probe may take before it counts as failed
+   */
+  private int probeTimeoutMs = 1000;
+
+  /**
+   * A probe answering slower than this counts as failed, so a struggling cluster is relieved too
+   */
+  private long slowThresholdMs = 500;
+
+  /**
+   * Consecutive failed probes after which reads go to MySQL
+   */
+  private int failureThreshold = 2;
+
+  /**
+   * Consecutive successful probes after which reads go back to Elasticsearch
+   */
+  private int recoveryThreshold = 3;
+
+  /**
+   * Longest time a value may be cached while reads are served from MySQL, so fallback results
+   * are replaced by Elasticsearch ones soon after the cluster recovers
+   */
+  private long cacheTtlSeconds = 30;
+}
@@ -23,4 +23,82 @@ public class ElasticsearchSyncConfig {
    * Thread pool size for background processing
    */
   private int threadPoolSize = 20;
-} 
\ No newline at end of file
+
+  /**
+   * Index actions collected before a bulk request is sent
+   */
+  private int bulkActions = 1000;
+
+  /**
+   * Size in megabytes collected before a bulk request is sent
+   */
+  private int bulkSizeMb = 5;
+
+  /**
+   * Bulk requests in flight while the next one is being filled; 0 sends synchronously
+   */
+  private int bulkConcurrentRequests = 2;
+
+  /**
+   * Send a partly filled bulk request after this long
+   */
+  private long bulkFlushIntervalMs = 5000;
+
+  /**
+   * How often a document is resent after a retryable item failure (rejected, unavailable)
+   */
+  private int bulkItemRetries = 3;
+
+  /**
+   * Delay before the first resend of a failed item; doubled on every further attempt
+   */
+  private long bulkRetryBackoffMs = 500;
+
+  /**
+   * Pages read ahead of the indexer during a full sync
+   */
+  private int scanQueueBatches = 4;
+
+  /**
+   * Rows between two checkpoints of a full sync; at each one the bulk indexer is drained
+   */
+  private int checkpointIntervalRows = 10000;
+
+  /**
+   * Replicas a rebuilt index gets once loaded; it is loaded without any
+   */
+  private int rebuildReplicas = 0;
+
+  /**
+   * Segments per shard a rebuilt index is force-merged to before it goes live
+   */
+  private int rebuildMaxSegments = 1;
+
+  /**
+   * How long a rebuild waits for the force-merge before it fails without switching the alias
+   */
+  private long rebuildMergeTimeoutMs = 2 * 60 * 60 * 1000L;
+
+  /**
+   * How long a reindex or backfill running as an Elasticsearch task is followed before it is
+   * reported as failed; the task itself keeps running
+   */
+  private long taskTimeoutMs = 12 * 60 * 60 * 1000L;
+
+  /**
+   * TTL of the Redis lock that keeps a full or partitioned link sync to one node; the running
+   * node refreshes it every lock-refresh-ms
+   */
+  private long lockTtlMs = 60000;
+
+  /**
+   * Whether links, categories and models changed in MySQL are indexed every incremental-interval-ms
+   */
+  private boolean incrementalEnabled = true;
+
+  /**
+   * Changes younger than this are left to the next run, so rows of transactions that commit late
+   * are not skipped by the watermark
+   */
+  private int incrementalLagSeconds = 5;
+}
@@ -0,0 +1,48 @@
+package com.fvp.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.near")
+@Data
+public class NearCacheConfig {
+
+  /**
+   * Whether the in-process (L1) cache in front of Redis is enabled
+   */
+  private boolean enabled = true;
+
+  /**
+   * Maximum number of entries kept in the in-process cache before LRU eviction
+   */
+  private int maxEntries = 10000;
+
+  /**
+   * Default time-to-live in seconds for in-process entries
+   */
+  private long defaultTtlSeconds = 60;
+
+  /**
+   * Per cache name time-to-live overrides in seconds, e.g. cache.near.ttl-seconds.categoryLinks=30
+   */
+  private Map<String, Long> ttlSeconds = new HashMap<>();
+
+  /**
+   * Redis pub/sub channel used to broadcast invalidations to the other nodes
+   */
+  private String invalidationChannel = "fvp:cache:invalidate";
+
+  /**
+   * Resolve the in-process TTL for a cache name
+   * @param cacheName the cache name
+   * @return TTL in seconds
+   */
+  public long getTtlSeconds(String cacheName) {
+    Long ttl = ttlSeconds.get(cacheName);
+    return ttl != null ? ttl : defaultTtlSeconds;
+  }
+}
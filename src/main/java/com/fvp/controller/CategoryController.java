@@ -2,10 +2,10 @@ package com.fvp.controller;
 
 import com.fvp.dto.CategoryWithCountDTO;
 import com.fvp.dto.CategoryWithLinkDTO;
+import com.fvp.service.CacheWarmupService;
 import com.fvp.service.CategoryService;
 import com.fvp.service.CategoryUtilService;
 import com.fvp.service.CategoryMappingService;
-import com.fvp.util.CacheBypassUtil;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -23,7 +23,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -36,7 +35,7 @@ public class CategoryController {
   private final int minLinkCountThreshold;
 
   @Autowired
-  private ExecutorService executorService;
+  private CacheWarmupService cacheWarmupService;
 
   @Autowired
   public CategoryController(CategoryService categoryService,
@@ -207,31 +206,12 @@ public class CategoryController {
     logger.info("Received request to build system cache");
     long startTime = System.currentTimeMillis();
     
-    try {
-      // Set cache bypass flag to true for this thread
-      CacheBypassUtil.setCacheBypass(true);
-      logger.debug("Cache bypass flag set to true for cache building");
-      
-      // Execute cache building in background thread with cache bypass flag propagated
-      CacheBypassUtil.executeWithCacheBypass(executorService, () -> {
-        logger.info("Starting cache building process in background thread");
-        categoryService.buildSystemCache();
-        logger.info("Cache building process completed successfully");
-        return null;
-      });
-      
-      long duration = System.currentTimeMillis() - startTime;
-      logger.info("Cache build request initiated successfully in {} ms", duration);
-      return ResponseEntity.ok("Cache build started successfully");
-    } catch (Exception e) {
-      long duration = System.currentTimeMillis() - startTime;
-      logger.error("Error initiating cache build after {} ms: {}", duration, e.getMessage(), e);
-      throw e;
-    } finally {
-      // Clear the cache bypass flag
-      CacheBypassUtil.clearCacheBypass();
-      logger.debug("Cache bypass flag cleared");
-    }
+    // Rebuilds the most requested entries of every tenant, bypassing what is cached
+    boolean started = cacheWarmupService.warmUpAsync(true);
+    long duration = System.currentTimeMillis() - startTime;
+    logger.info("Cache build request handled in {} ms (started: {})", duration, started);
+    return ResponseEntity.ok(started ? "Cache build started successfully"
+        : "Cache build already in progress");
   }
 
   @GetMapping("/all")
@@ -1,6 +1,8 @@
 package com.fvp.controller;
 
+import com.fvp.service.ElasticsearchHealthMonitor;
 import com.fvp.service.ElasticsearchSyncService;
+import com.fvp.service.IncrementalSyncService;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,15 +18,27 @@ import org.springframework.web.bind.annotation.RestController;
 public class ElasticsearchSyncController {
 
   private final ElasticsearchSyncService elasticsearchSyncService;
+  private final ElasticsearchHealthMonitor elasticsearchHealthMonitor;
+  private final IncrementalSyncService incrementalSyncService;
 
   @Autowired
-  public ElasticsearchSyncController(ElasticsearchSyncService elasticsearchSyncService) {
+  public ElasticsearchSyncController(ElasticsearchSyncService elasticsearchSyncService,
+      ElasticsearchHealthMonitor elasticsearchHealthMonitor,
+      IncrementalSyncService incrementalSyncService) {
     this.elasticsearchSyncService = elasticsearchSyncService;
+    this.elasticsearchHealthMonitor = elasticsearchHealthMonitor;
+    this.incrementalSyncService = incrementalSyncService;
   }
 
   @PostMapping("/links")
   public ResponseEntity<Map<String, Object>> syncLinks(@RequestParam(required = false) Integer startIndex) {
     Map<String, Object> response = new HashMap<>();
+    String activeLinkSync = elasticsearchSyncService.getActiveLinkSync();
+    if (activeLinkSync != null) {
+      response.put("status", "error");
+      response.put("message", "A " + activeLinkSync + " link sync is already running");
+      return ResponseEntity.ok(response);
+    }
     try {
       elasticsearchSyncService.syncAllLinksToElasticsearch(startIndex);
       response.put("status", "success");
@@ -38,6 +52,29 @@ public class ElasticsearchSyncController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Start a partitioned full sync of links, or resume an unfinished one with its original slices
+   */
+  @PostMapping("/links/partitioned")
+  public ResponseEntity<Map<String, Object>> syncLinksPartitioned(
+      @RequestParam(defaultValue = "8") int slices) {
+    Map<String, Object> response = new HashMap<>();
+    response.put("status", "success");
+    response.put("message", elasticsearchSyncService.startPartitionedLinkSync(slices));
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Per-slice position, throughput and ETA of the current or last partitioned link sync
+   */
+  @GetMapping("/links/partitioned")
+  public ResponseEntity<Map<String, Object>> getPartitionedSyncProgress() {
+    Map<String, Object> response = new HashMap<>();
+    response.put("status", elasticsearchSyncService.getPartitionedSyncStatus());
+    response.put("slices", elasticsearchSyncService.getPartitionedSyncProgress());
+    return ResponseEntity.ok(response);
+  }
+
   @PostMapping("/categories")
   public ResponseEntity<Map<String, Object>> syncCategories() {
     Map<String, Object> response = new HashMap<>();
@@ -66,12 +103,108 @@ public class ElasticsearchSyncController {
     return ResponseEntity.ok(response);
   }
 
+  @PostMapping("/has-thumb")
+  public ResponseEntity<Map<String, Object>> backfillHasThumb() {
+    Map<String, Object> response = new HashMap<>();
+    try {
+      String task = elasticsearchSyncService.backfillHasThumb();
+      response.put("status", "success");
+      response.put("task", task);
+      response.put("message", "hasThumb backfill started; its outcome is shown under tasks in "
+          + "/status");
+    } catch (Exception e) {
+      response.put("status", "error");
+      response.put("message", "Error backfilling hasThumb: " + e.getMessage());
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  @PostMapping("/tenant-routing")
+  public ResponseEntity<Map<String, Object>> reindexWithTenantRouting(
+      @RequestParam(defaultValue = "links_routed") String targetIndex,
+      @RequestParam(defaultValue = "1") int shards) {
+    Map<String, Object> response = new HashMap<>();
+    try {
+      String task = elasticsearchSyncService.reindexWithTenantRouting(targetIndex, shards);
+      response.put("status", "success");
+      response.put("task", task);
+      response.put("message", "Reindex into " + targetIndex
+          + " started; its outcome is shown under tasks in /status");
+    } catch (Exception e) {
+      response.put("status", "error");
+      response.put("message", "Error reindexing with tenant routing: " + e.getMessage());
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Rebuild links, categories or models into a new versioned index and switch its alias to it
+   */
+  @PostMapping("/rebuild")
+  public ResponseEntity<Map<String, Object>> rebuildIndex(@RequestParam String index) {
+    Map<String, Object> response = new HashMap<>();
+    if (!ElasticsearchSyncService.REBUILDABLE_INDICES.contains(index)) {
+      response.put("status", "error");
+      response.put("message", "Index must be one of " + ElasticsearchSyncService.REBUILDABLE_INDICES);
+      return ResponseEntity.badRequest().body(response);
+    }
+    try {
+      elasticsearchSyncService.rebuildIndex(index);
+      response.put("status", "success");
+      response.put("message", "Rebuild of " + index + " started");
+    } catch (Exception e) {
+      response.put("status", "error");
+      response.put("message", "Error rebuilding " + index + ": " + e.getMessage());
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Point an alias at another index, e.g. back at the previous version to roll a rebuild back
+   */
+  @PostMapping("/alias")
+  public ResponseEntity<Map<String, Object>> switchAlias(@RequestParam String alias,
+      @RequestParam String index) {
+    Map<String, Object> response = new HashMap<>();
+    if (!ElasticsearchSyncService.REBUILDABLE_INDICES.contains(alias)) {
+      response.put("status", "error");
+      response.put("message", "Alias must be one of " + ElasticsearchSyncService.REBUILDABLE_INDICES);
+      return ResponseEntity.badRequest().body(response);
+    }
+    try {
+      response.put("previous", elasticsearchSyncService.switchAlias(alias, index));
+      response.put("status", "success");
+    } catch (Exception e) {
+      response.put("status", "error");
+      response.put("message", "Error switching alias " + alias + ": " + e.getMessage());
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Serve category and model reads from MySQL while forced, e.g. around a reindex
+   */
+  @PostMapping("/read-fallback")
+  public ResponseEntity<Map<String, Object>> forceReadFallback(@RequestParam boolean forced) {
+    elasticsearchHealthMonitor.setForced(forced);
+    Map<String, Object> response = new HashMap<>();
+    response.put("status", "success");
+    response.put("forced", forced);
+    response.put("readSource", elasticsearchHealthMonitor.useFallback() ? "mysql" : "elasticsearch");
+    return ResponseEntity.ok(response);
+  }
+
   @GetMapping("/status")
   public ResponseEntity<Map<String, Object>> getSyncStatus() {
     Map<String, Object> response = new HashMap<>();
     response.put("links", elasticsearchSyncService.getLinkSyncStatus());
     response.put("categories", elasticsearchSyncService.getCategorySyncStatus());
     response.put("models", elasticsearchSyncService.getModelSyncStatus());
+    response.put("linksPartitioned", elasticsearchSyncService.getPartitionedSyncStatus());
+    response.put("rebuild", elasticsearchSyncService.getRebuildStatus());
+    response.put("tasks", elasticsearchSyncService.getTaskStatus());
+    response.put("incremental", incrementalSyncService.getLastRun());
+    response.put("readSource", elasticsearchHealthMonitor.useFallback() ? "mysql" : "elasticsearch");
     return ResponseEntity.ok(response);
   }
 } 
\ No newline at end of file
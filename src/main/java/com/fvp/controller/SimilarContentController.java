@@ -182,6 +182,10 @@ public class SimilarContentController {
       // Get all models for the tenant
       List<com.fvp.dto.ModelWithoutLinkDTO> allModels = modelService.getAllModels(tenantId);
       
+      // First links of all similar models, looked up together
+      Map<String, ModelWithLinkDTO> firstLinks = modelService.getModelFirstLinks(tenantId,
+          similarModelNames);
+
       // Filter to only include similar models and convert to ModelWithLinkDTO
       List<ModelWithLinkDTO> similarModels = new ArrayList<>();
       
@@ -203,7 +207,7 @@ public class SimilarContentController {
               
               // Get first link for this model
               try {
-                ModelWithLinkDTO modelWithFirstLink = modelService.getModelFirstLink(tenantId, similarModelName);
+                ModelWithLinkDTO modelWithFirstLink = firstLinks.get(similarModelName);
                 if (modelWithFirstLink != null) {
                   modelWithLink.setLink(modelWithFirstLink.getLink());
                   modelWithLink.setLinkTitle(modelWithFirstLink.getLinkTitle());
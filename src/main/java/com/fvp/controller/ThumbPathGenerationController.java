@@ -3,6 +3,7 @@ package com.fvp.controller;
 import com.fvp.entity.Link;
 import com.fvp.repository.LinkRepository;
 import com.fvp.service.GoogleSheetProcessingService;
+import com.fvp.service.LinkChanges;
 import com.fvp.service.LinkProcessingService;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -127,6 +128,8 @@ public class ThumbPathGenerationController {
       }
 
       List<CompletableFuture<Void>> futures = new ArrayList<>();
+      // Link and category caches are invalidated once per tenant per batch, not once per link
+      LinkChanges changedLinks = new LinkChanges();
 
       logger.info("Processing batch {} with {} records", currentPage,
           linksPage.getContent().size());
@@ -135,7 +138,7 @@ public class ThumbPathGenerationController {
       for (Link link : linksPage.getContent()) {
         CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
           try {
-            boolean success = processLink(link);
+            boolean success = processLink(link, changedLinks);
             if (success) {
               totalProcessed.incrementAndGet();
             } else {
@@ -151,6 +154,7 @@ public class ThumbPathGenerationController {
 
       // Wait for all futures to complete
       CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+      linkProcessingService.invalidateLinkChanges(changedLinks);
 
       logger.info("Batch {} completed. Processed: {}, Failed: {}, Total progress: {}/{}",
           currentPage, totalProcessed.get(), totalFailed.get(),
@@ -224,6 +228,15 @@ public class ThumbPathGenerationController {
   }
 
   private boolean processLink(Link link) {
+    LinkChanges changedLinks = new LinkChanges();
+    try {
+      return processLink(link, changedLinks);
+    } finally {
+      linkProcessingService.invalidateLinkChanges(changedLinks);
+    }
+  }
+
+  private boolean processLink(Link link, LinkChanges changedLinks) {
     long startTime = System.currentTimeMillis();
     logger.info("Starting to process link ID: {}, thumbnail URL: {}", link.getId(), link.getThumbnail());
     
@@ -294,7 +307,7 @@ public class ThumbPathGenerationController {
       // Update Elasticsearch document
       long esUpdateStartTime = System.currentTimeMillis();
       try {
-        linkProcessingService.updateElasticsearchDocument(link);
+        linkProcessingService.updateElasticsearchDocument(link, changedLinks);
         long esUpdateDuration = System.currentTimeMillis() - esUpdateStartTime;
         logger.info("Updated Elasticsearch for link ID {} (ES update time: {} ms)", 
             link.getId(), esUpdateDuration);
@@ -535,14 +548,16 @@ public class ThumbPathGenerationController {
 
       // Update Elasticsearch for all affected records
       List<Link> updatedLinks = linkRepository.findByThumbPathProcessed(1);
+      LinkChanges changedLinks = new LinkChanges();
       for (Link link : updatedLinks) {
         try {
-          linkProcessingService.updateElasticsearchDocument(link);
+          linkProcessingService.updateElasticsearchDocument(link, changedLinks);
         } catch (Exception e) {
           logger.error("Error updating Elasticsearch for link ID {}: {}", link.getId(),
               e.getMessage());
         }
       }
+      linkProcessingService.invalidateLinkChanges(changedLinks);
 
       long duration = System.currentTimeMillis() - startTime;
       Map<String, Object> response = new HashMap<>();
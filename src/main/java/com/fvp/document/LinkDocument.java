@@ -30,4 +30,14 @@ public class LinkDocument {
   private Integer trailerPresent;
   private Integer hd;
   private Date createdOn;
+  private Boolean hasThumb;
+
+  /**
+   * Whether a thumb path points at a usable thumbnail. Indexed as hasThumb so queries can filter
+   * on one cached term instead of checking thumbPath.
+   */
+  public static boolean isUsableThumbPath(String thumbPath) {
+    return thumbPath != null && !thumbPath.isEmpty() && !"NA".equals(thumbPath)
+        && !"null".equals(thumbPath);
+  }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.fvp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached value with a logical (soft) expiry. The Redis TTL of the entry is the hard expiry;
+ * after the soft expiry the value is still served while it is refreshed in the background.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope<T> {
+
+  private long softExpiresAt;
+  private T value;
+}
@@ -0,0 +1,36 @@
+package com.fvp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A cacheable API request, as recorded by the access tracker and replayed by the cache warm-up
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupRequest {
+
+  public static final String CATEGORY_HOME = "categoryHome";
+  public static final String CATEGORY_HOME_SEO = "categoryHomeSeo";
+  public static final String CATEGORY_ALL = "categoryAll";
+  public static final String CATEGORY_FIRST = "categoryFirst";
+  public static final String CATEGORY_LINKS = "categoryLinks";
+  public static final String MODEL_ALL = "modelAll";
+  public static final String MODEL_FIRST = "modelFirst";
+  public static final String MODEL_LINKS = "modelLinks";
+
+  private String type;
+  private Integer tenantId;
+  private String name;
+  private Integer page;
+  private Integer size;
+  private Integer minDuration;
+  private Integer maxDuration;
+  private String quality;
+
+  public static WarmupRequest of(String type, Integer tenantId) {
+    return new WarmupRequest(type, tenantId, null, null, null, null, null, null);
+  }
+}
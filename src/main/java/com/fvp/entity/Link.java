@@ -13,6 +13,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import lombok.Data;
@@ -22,7 +23,7 @@ import org.hibernate.annotations.CreationTimestamp;
 
 @Data
 @Entity
-@Table(name = "link")
+@Table(name = "link", indexes = @Index(name = "idx_updated_at_id", columnList = "updated_at, id"))
 @NoArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -93,4 +94,11 @@ public class Link implements Serializable {
 
   @Column(name = "hd")
   private Integer hd = 0;
-} 
\ No newline at end of file
+
+  /**
+   * Maintained by MySQL on every insert and update; the watermark of the incremental sync
+   */
+  @Column(name = "updated_at", insertable = false, updatable = false, columnDefinition =
+      "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)")
+  private LocalDateTime updatedAt;
+}
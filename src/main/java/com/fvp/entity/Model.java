@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,7 +14,7 @@ import org.hibernate.annotations.CreationTimestamp;
 
 @Data
 @Entity
-@Table(name = "model")
+@Table(name = "model", indexes = @Index(name = "idx_updated_at_id", columnList = "updated_at, id"))
 @NoArgsConstructor
 public class Model {
 
@@ -51,4 +52,11 @@ public class Model {
   @CreationTimestamp
   @Column(name = "created_at")
   private LocalDateTime createdAt;
-} 
\ No newline at end of file
+
+  /**
+   * Maintained by MySQL on every insert and update; the watermark of the incremental sync
+   */
+  @Column(name = "updated_at", insertable = false, updatable = false, columnDefinition =
+      "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)")
+  private LocalDateTime updatedAt;
+}
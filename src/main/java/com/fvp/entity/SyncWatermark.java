@@ -0,0 +1,34 @@
+package com.fvp.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position of an incremental Elasticsearch sync job in its table. Kept in MySQL with the rows it
+ * points into, where a cache flush cannot reset it.
+ */
+@Data
+@Entity
+@Table(name = "sync_watermark")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncWatermark {
+
+  @Id
+  @Column(name = "job", length = 64)
+  private String job;
+
+  /**
+   * updated_at of the last row indexed, in epoch milliseconds
+   */
+  @Column(name = "updated_at_ms", nullable = false)
+  private Long updatedAtMs;
+
+  @Column(name = "last_id", nullable = false)
+  private Integer lastId;
+}
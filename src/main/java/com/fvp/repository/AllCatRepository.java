@@ -2,7 +2,9 @@ package com.fvp.repository;
 
 import com.fvp.entity.AllCat;
 import com.sun.org.apache.xpath.internal.operations.Bool;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -40,4 +42,16 @@ public interface AllCatRepository extends JpaRepository<AllCat, Integer> {
       @Param("tenantId") Integer tenantId,
       @Param("names") List<String> names
   );
-} 
\ No newline at end of file
+
+  /**
+   * The next keyset page of rows changed after a watermark, in (updatedAt, id) order
+   *
+   * @param updatedAt updatedAt of the last row already read
+   * @param afterId ID of the last row already read
+   * @param before only rows changed before this time
+   */
+  @Query("SELECT a FROM AllCat a WHERE (a.updatedAt > :updatedAt OR (a.updatedAt = :updatedAt AND a.id > :afterId)) "
+      + "AND a.updatedAt < :before ORDER BY a.updatedAt, a.id")
+  List<AllCat> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+      @Param("afterId") Integer afterId, @Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -0,0 +1,98 @@
+package com.fvp.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+/**
+ * Distinct values of a keyword field, in term order, read page by page with a composite
+ * aggregation. Only one page of buckets is held at a time, on either side, and there is no upper
+ * limit on the number of values. The next page is requested when the current one is used up;
+ * failures surface as {@link UncheckedIOException}.
+ */
+class CompositeTermsIterator implements Iterator<String> {
+
+  private static final String AGGREGATION = "distinct_terms";
+
+  private final RestHighLevelClient esClient;
+  private final LinkQueryFactory linkQueryFactory;
+  private final QueryBuilder query;
+  private final Integer tenantId;
+  private final String field;
+  private final int pageSize;
+  private final Deque<String> page = new ArrayDeque<>();
+  private Map<String, Object> afterKey;
+  private boolean exhausted;
+
+  CompositeTermsIterator(RestHighLevelClient esClient, LinkQueryFactory linkQueryFactory,
+      QueryBuilder query, Integer tenantId, String field, int pageSize) {
+    this.esClient = esClient;
+    this.linkQueryFactory = linkQueryFactory;
+    this.query = query;
+    this.tenantId = tenantId;
+    this.field = field;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (page.isEmpty() && !exhausted) {
+      fetchPage();
+    }
+    return !page.isEmpty();
+  }
+
+  @Override
+  public String next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return page.poll();
+  }
+
+  private void fetchPage() {
+    CompositeAggregationBuilder aggregation = AggregationBuilders.composite(AGGREGATION,
+        Collections.singletonList(new TermsValuesSourceBuilder(field).field(field)))
+        .size(pageSize);
+    if (afterKey != null) {
+      aggregation.aggregateAfter(afterKey);
+    }
+    SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(query,
+        LinkProjection.COUNT_ONLY);
+    searchSourceBuilder.size(0);
+    searchSourceBuilder.aggregation(aggregation);
+    try {
+      SearchResponse response = esClient.search(
+          linkQueryFactory.cachedRequest(searchSourceBuilder, tenantId, "distinct:" + field),
+          RequestOptions.DEFAULT);
+      Aggregations aggregations = response.getAggregations();
+      CompositeAggregation composite = aggregations != null ? aggregations.get(AGGREGATION) : null;
+      if (composite == null) {
+        exhausted = true;
+        return;
+      }
+      for (CompositeAggregation.Bucket bucket : composite.getBuckets()) {
+        page.add(String.valueOf(bucket.getKey().get(field)));
+      }
+      afterKey = composite.afterKey();
+      exhausted = afterKey == null || composite.getBuckets().size() < pageSize;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read distinct values of " + field, e);
+    }
+  }
+}
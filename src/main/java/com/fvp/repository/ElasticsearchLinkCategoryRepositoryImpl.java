@@ -1,343 +1,136 @@
 package com.fvp.repository;
 
 import com.fvp.document.LinkDocument;
+import com.fvp.service.ElasticsearchAsyncClient;
 import com.fvp.service.ElasticsearchClientService;
 import org.slf4j.Logger;
 import com.fvp.util.LoggingUtil;
-import com.fvp.util.ThreadSafeRandomGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class ElasticsearchLinkCategoryRepositoryImpl implements ElasticsearchLinkCategoryRepository {
 
     private static final Logger log = LoggingUtil.getLogger(ElasticsearchLinkCategoryRepositoryImpl.class);
+    private static final int MAX_CATEGORY_BUCKETS = 10000;
+    private static final int MAX_RESULT_WINDOW = 10000; // Elasticsearch default
+    private static final int DISTINCT_PAGE_SIZE = 1000;
     private final ElasticsearchClientService elasticsearchClientService;
-    private final ThreadSafeRandomGenerator randomGenerator;
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final LinkQueryFactory linkQueryFactory;
 
     @Autowired
-    public ElasticsearchLinkCategoryRepositoryImpl(ElasticsearchClientService elasticsearchClientService, 
-                                                   ThreadSafeRandomGenerator randomGenerator) {
+    public ElasticsearchLinkCategoryRepositoryImpl(ElasticsearchClientService elasticsearchClientService,
+                                                   ElasticsearchAsyncClient elasticsearchAsyncClient,
+                                                   LinkQueryFactory linkQueryFactory) {
         this.elasticsearchClientService = elasticsearchClientService;
-        this.randomGenerator = randomGenerator;
+        this.elasticsearchAsyncClient = elasticsearchAsyncClient;
+        this.linkQueryFactory = linkQueryFactory;
     }
 
     @Override
     public Optional<LinkDocument> findRandomRecentLinkByCategory(Integer tenantId, String category, Long recentDays) {
         log.info("Starting findRandomRecentLinkByCategory - tenantId: {}, category: {}, recentDays: {}", tenantId, category, recentDays);
         long startTime = System.currentTimeMillis();
-        
-        // Calculate date threshold
-        java.util.Date thresholdDate = java.util.Date.from(java.time.LocalDateTime.now()
-                .minusDays(recentDays)
-                .atZone(java.time.ZoneId.systemDefault())
-                .toInstant());
-        log.debug("Calculated threshold date: {} for recentDays: {}", thresholdDate, recentDays);
-
-        // Build ES query
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.rangeQuery("createdAt").gte(thresholdDate))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        
-        log.debug("Built Elasticsearch query for findRandomRecentLinkByCategory");
-
-        // First, get the total count for this query
-        org.elasticsearch.search.builder.SearchSourceBuilder countBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        countBuilder.query(boolQuery);
-        countBuilder.size(0);
-        countBuilder.trackTotalHits(true);
-        
-        try {
-            org.elasticsearch.action.search.SearchRequest countRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            countRequest.source(countBuilder);
-            org.elasticsearch.action.search.SearchResponse countResponse =
-                    elasticsearchClientService.getEsClient().search(countRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            
-            long totalCount = countResponse.getHits().getTotalHits().value;
-            if (totalCount == 0) {
-                return Optional.empty();
-            }
 
-            // Use a safer approach for large result sets
-            int maxResultWindow = 10000; // Elasticsearch default
-            int randomOffset;
-            
-            if (totalCount <= maxResultWindow) {
-                // If total count is within limits, use random offset
-                randomOffset = randomGenerator.getRandomValue((int) totalCount);
-                
-                org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-                searchSourceBuilder.query(boolQuery);
-                searchSourceBuilder.from(randomOffset);
-                searchSourceBuilder.size(1);
-
-                org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-                searchRequest.source(searchSourceBuilder);
-                log.info("Elasticsearch query for findRandomRecentLinkByCategory: {}", searchSourceBuilder.toString());
-                org.elasticsearch.action.search.SearchResponse response =
-                        elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-                for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                    java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                    LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                    document.setLinkId(hit.getId());
-                    return Optional.of(document);
-                }
-            } else {
-                // For large result sets, get a random sample and pick from it
-                int sampleSize = Math.min(1000, maxResultWindow - 1); // Safe sample size
-                randomOffset = randomGenerator.getRandomValue(sampleSize);
-                
-                org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-                searchSourceBuilder.query(boolQuery);
-                searchSourceBuilder.from(randomOffset);
-                searchSourceBuilder.size(1);
-
-                org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-                searchRequest.source(searchSourceBuilder);
-                log.info("Elasticsearch query for findRandomRecentLinkByCategory (large result set): {}", searchSourceBuilder.toString());
-                org.elasticsearch.action.search.SearchResponse response =
-                        elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-                for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                    java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                    LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                    document.setLinkId(hit.getId());
-                    return Optional.of(document);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error in findRandomRecentLinkByCategory for tenantId: {}, category: {}, recentDays: {}", 
+        Optional<LinkDocument> result;
+        try {
+            result = findRandomLink(tenantId, linkQueryFactory.recentCategoryLinks(tenantId, category, recentDays),
+                    "recent:" + tenantId + ":" + category.toLowerCase(), "findRandomRecentLinkByCategory");
+        } catch (java.io.IOException e) {
+            log.error("Error in findRandomRecentLinkByCategory for tenantId: {}, category: {}, recentDays: {}",
                     tenantId, category, recentDays, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        
+
         long totalDuration = System.currentTimeMillis() - startTime;
-        log.info("findRandomRecentLinkByCategory completed in {} ms for tenantId: {}, category: {}", 
+        log.info("findRandomRecentLinkByCategory completed in {} ms for tenantId: {}, category: {}",
             totalDuration, tenantId, category);
-        return Optional.empty();
+        return result;
     }
 
     @Override
     public Optional<LinkDocument> findRandomLinkByCategory(Integer tenantId, String category) {
-        // Build ES query
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-
-        // First, get the total count for this query
-        org.elasticsearch.search.builder.SearchSourceBuilder countBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        countBuilder.query(boolQuery);
-        countBuilder.size(0);
-        countBuilder.trackTotalHits(true);
-        
         try {
-            org.elasticsearch.action.search.SearchRequest countRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            countRequest.source(countBuilder);
-            org.elasticsearch.action.search.SearchResponse countResponse =
-                    elasticsearchClientService.getEsClient().search(countRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            
-            long totalCount = countResponse.getHits().getTotalHits().value;
-            if (totalCount == 0) {
-                return Optional.empty();
-            }
-
-            // Use a safer approach for large result sets
-            int maxResultWindow = 10000; // Elasticsearch default
-            int randomOffset;
-            
-            if (totalCount <= maxResultWindow) {
-                // If total count is within limits, use random offset
-                randomOffset = randomGenerator.getRandomValue((int) totalCount);
-                
-                org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-                searchSourceBuilder.query(boolQuery);
-                searchSourceBuilder.from(randomOffset);
-                searchSourceBuilder.size(1);
-
-                org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-                searchRequest.source(searchSourceBuilder);
-                log.info("Elasticsearch query for findRandomLinkByCategory: {}", searchSourceBuilder.toString());
-                org.elasticsearch.action.search.SearchResponse response =
-                        elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-                for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                    java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                    LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                    document.setLinkId(hit.getId());
-                    return Optional.of(document);
-                }
-            } else {
-                // For large result sets, get a random sample and pick from it
-                int sampleSize = Math.min(1000, maxResultWindow - 1); // Safe sample size
-                randomOffset = randomGenerator.getRandomValue(sampleSize);
-                
-                org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-                searchSourceBuilder.query(boolQuery);
-                searchSourceBuilder.from(randomOffset);
-                searchSourceBuilder.size(1);
-
-                org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-                searchRequest.source(searchSourceBuilder);
-                log.info("Elasticsearch query for findRandomLinkByCategory (large result set): {}", searchSourceBuilder.toString());
-                org.elasticsearch.action.search.SearchResponse response =
-                        elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-                for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                    java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                    LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                    document.setLinkId(hit.getId());
-                    return Optional.of(document);
-                }
-            }
-        } catch (Exception e) {
+            return findRandomLink(tenantId, linkQueryFactory.categoryLinks(tenantId, category),
+                    tenantId + ":" + category.toLowerCase(), "findRandomLinkByCategory");
+        } catch (java.io.IOException e) {
             log.error("Error in findRandomLinkByCategory for tenantId: {}, category: {}", tenantId, category, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return Optional.empty();
     }
 
     @Override
     public Long countByTenantIdAndCategory(Integer tenantId, String category) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
-        searchSourceBuilder.size(0);
-        searchSourceBuilder.trackTotalHits(true);
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for countByTenantIdAndCategory: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            return response.getHits().getTotalHits().value;
-        } catch (Exception e) {
+            return count(linkQueryFactory.categoryLinks(tenantId, category), tenantId, category,
+                    "countByTenantIdAndCategory");
+        } catch (java.io.IOException e) {
             log.error("Error in countByTenantIdAndCategory for tenantId: {}, category: {}", tenantId, category, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return 0L;
+    }
+
+    @Override
+    public CompletableFuture<Long> countByTenantIdAndCategoryAsync(Integer tenantId, String category) {
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder =
+                countSource(linkQueryFactory.categoryLinks(tenantId, category));
+        LinkQueryFactory.logQuery(log, "countByTenantIdAndCategoryAsync", searchSourceBuilder);
+        return elasticsearchAsyncClient.search(linkQueryFactory.cachedRequest(searchSourceBuilder, tenantId, category))
+                .thenApply(response -> response.getHits().getTotalHits().value)
+                .whenComplete((count, e) -> {
+                    if (e != null) {
+                        log.error("Error in countByTenantIdAndCategoryAsync for tenantId: {}, category: {}", tenantId, category, e);
+                    }
+                });
     }
 
     @Override
     public List<LinkDocument> findByTenantIdAndLinkId(Integer tenantId, Integer linkId) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("linkId", linkId))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.link(tenantId, linkId, null), LinkProjection.DETAIL);
         searchSourceBuilder.size(100); // reasonable default page size
-
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByTenantIdAndLinkId: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, tenantId, "findByTenantIdAndLinkId");
+        } catch (java.io.IOException e) {
             log.error("Error in findByTenantIdAndLinkId for tenantId: {}, linkId: {}", tenantId, linkId, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     @Override
     public List<String> findAllDistinctCategories(Integer tenantId) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId));
-
-        org.elasticsearch.search.aggregations.AggregationBuilder aggregation =
-                org.elasticsearch.search.aggregations.AggregationBuilders.terms("distinct_categories")
-                        .field("categories.keyword")
-                        .size(1000); // adjust as needed for expected cardinality
-
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
-        searchSourceBuilder.aggregation(aggregation);
-        searchSourceBuilder.size(0); // no hits, only aggregation
-
         List<String> categories = new java.util.ArrayList<>();
-        try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findAllDistinctCategories: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            org.elasticsearch.search.aggregations.Aggregations aggs = response.getAggregations();
-            if (aggs != null) {
-                org.elasticsearch.search.aggregations.bucket.terms.Terms terms = aggs.get("distinct_categories");
-                if (terms != null) {
-                    for (org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket bucket : terms.getBuckets()) {
-                        categories.add(bucket.getKeyAsString());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error in findAllDistinctCategories for tenantId: {}", tenantId, e);
-        }
+        iterateDistinctCategories(tenantId).forEachRemaining(categories::add);
         return categories;
     }
 
+    /**
+     * Distinct categories of a tenant in name order, fetched a page of buckets at a time
+     */
+    @Override
+    public java.util.Iterator<String> iterateDistinctCategories(Integer tenantId) {
+        return new CompositeTermsIterator(elasticsearchClientService.getEsClient(), linkQueryFactory,
+                linkQueryFactory.tenant(tenantId), tenantId, "categories", DISTINCT_PAGE_SIZE);
+    }
+
 
     @Override
     public List<LinkDocument> findByTenantIdAndCategory(Integer tenantId, String category) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.categoryLinks(tenantId, category), LinkProjection.CARD);
         searchSourceBuilder.size(1000); // reasonable default page size
         searchSourceBuilder.sort("hd", org.elasticsearch.search.sort.SortOrder.DESC);
         searchSourceBuilder.sort("trailerPresent", org.elasticsearch.search.sort.SortOrder.DESC);
-
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByTenantIdAndCategory: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, tenantId, "findByTenantIdAndCategory");
+        } catch (java.io.IOException e) {
             log.error("Error in findByTenantIdAndCategory for tenantId: {}, category: {}", tenantId, category, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     @Override
@@ -348,172 +141,183 @@ public class ElasticsearchLinkCategoryRepositoryImpl implements ElasticsearchLin
 
     @Override
     public List<LinkDocument> findByCategoryWithFiltersPageable(Integer tenantId, String category, Integer minDuration, Integer maxDuration, String quality, int offset, int limit) {
-        int maxResultWindow = 10000; // Elasticsearch default
-        if (offset > maxResultWindow) {
-            log.warn("Requested offset {} exceeds max_result_window {}. Returning empty result.", offset, maxResultWindow);
-            return new java.util.ArrayList<>();
-        }
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        if (minDuration != null || maxDuration != null) {
-            org.elasticsearch.index.query.RangeQueryBuilder rangeQuery = org.elasticsearch.index.query.QueryBuilders.rangeQuery("duration");
-            if (minDuration != null) rangeQuery.gte(minDuration);
-            if (maxDuration != null) rangeQuery.lte(maxDuration);
-            boolQuery.must(rangeQuery);
-        }
-        if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-            boolQuery.must(org.elasticsearch.index.query.QueryBuilders.termQuery("hd", 1));
-        }
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
-        searchSourceBuilder.from(offset);
-        searchSourceBuilder.size(limit);
-        searchSourceBuilder.sort("hd", org.elasticsearch.search.sort.SortOrder.DESC);
-        searchSourceBuilder.sort("trailerPresent", org.elasticsearch.search.sort.SortOrder.DESC);
-        searchSourceBuilder.sort("randomOrder", org.elasticsearch.search.sort.SortOrder.ASC);
-
-        List<LinkDocument> results = new java.util.ArrayList<>();
-        try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByCategoryWithFiltersPageable: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
-            log.error("Error in findByCategoryWithFiltersPageable for tenantId: {}, category: {}, minDuration: {}, maxDuration: {}, quality: {}, offset: {}, limit: {}", 
-                    tenantId, category, minDuration, maxDuration, quality, offset, limit, e);
-        }
-        return results;
+        return findByCategoryWithFilters(tenantId, category, minDuration, maxDuration, quality, null, offset, limit,
+                "findByCategoryWithFiltersPageable");
     }
 
     @Override
     public Long countByCategoryWithFilters(Integer tenantId, String category, Integer minDuration, Integer maxDuration, String quality) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        if (minDuration != null || maxDuration != null) {
-            org.elasticsearch.index.query.RangeQueryBuilder rangeQuery = org.elasticsearch.index.query.QueryBuilders.rangeQuery("duration");
-            if (minDuration != null) rangeQuery.gte(minDuration);
-            if (maxDuration != null) rangeQuery.lte(maxDuration);
-            boolQuery.must(rangeQuery);
-        }
-        if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-            boolQuery.must(org.elasticsearch.index.query.QueryBuilders.termQuery("hd", 1));
-        }
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
-        searchSourceBuilder.size(0);
-        searchSourceBuilder.trackTotalHits(true);
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for countByCategoryWithFilters: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            return response.getHits().getTotalHits().value;
-        } catch (Exception e) {
-            log.error("Error in countByCategoryWithFilters for tenantId: {}, category: {}, minDuration: {}, maxDuration: {}, quality: {}", 
+            return count(linkQueryFactory.withFilters(linkQueryFactory.categoryLinks(tenantId, category),
+                    minDuration, maxDuration, quality, null), tenantId, category, "countByCategoryWithFilters");
+        } catch (java.io.IOException e) {
+            log.error("Error in countByCategoryWithFilters for tenantId: {}, category: {}, minDuration: {}, maxDuration: {}, quality: {}",
                     tenantId, category, minDuration, maxDuration, quality, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return 0L;
     }
 
     @Override
     public List<LinkDocument> findByCategoryWithFiltersExcludingLinkPageable(Integer tenantId, String category, Integer minDuration, Integer maxDuration, String quality, Integer excludeId, int offset, int limit) {
-        int maxResultWindow = 10000; // Elasticsearch default
-        if (offset > maxResultWindow) {
-            log.warn("Requested offset {} exceeds max_result_window {}. Returning empty result.", offset, maxResultWindow);
+        return findByCategoryWithFilters(tenantId, category, minDuration, maxDuration, quality, excludeId, offset, limit,
+                "findByCategoryWithFiltersExcludingLinkPageable");
+    }
+
+    private List<LinkDocument> findByCategoryWithFilters(Integer tenantId, String category, Integer minDuration,
+                                                         Integer maxDuration, String quality, Integer excludeId,
+                                                         int offset, int limit, String operation) {
+        if (offset > MAX_RESULT_WINDOW) {
+            log.warn("Requested offset {} exceeds max_result_window {}. Returning empty result.", offset, MAX_RESULT_WINDOW);
             return new java.util.ArrayList<>();
         }
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        if (minDuration != null || maxDuration != null) {
-            org.elasticsearch.index.query.RangeQueryBuilder rangeQuery = org.elasticsearch.index.query.QueryBuilders.rangeQuery("duration");
-            if (minDuration != null) rangeQuery.gte(minDuration);
-            if (maxDuration != null) rangeQuery.lte(maxDuration);
-            boolQuery.must(rangeQuery);
-        }
-        if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-            boolQuery.must(org.elasticsearch.index.query.QueryBuilders.termQuery("hd", 1));
-        }
-        if (excludeId != null) {
-            boolQuery.mustNot(org.elasticsearch.index.query.QueryBuilders.termQuery("linkId", excludeId.toString()));
-        }
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.withFilters(linkQueryFactory.categoryLinks(tenantId, category),
+                        minDuration, maxDuration, quality, excludeId),
+                LinkProjection.CARD);
         searchSourceBuilder.from(offset);
         searchSourceBuilder.size(limit);
         searchSourceBuilder.sort("hd", org.elasticsearch.search.sort.SortOrder.DESC);
         searchSourceBuilder.sort("trailerPresent", org.elasticsearch.search.sort.SortOrder.DESC);
         searchSourceBuilder.sort("randomOrder", org.elasticsearch.search.sort.SortOrder.ASC);
-
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByCategoryWithFiltersExcludingLinkPageable: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
-            log.error("Error in findByCategoryWithFiltersExcludingLinkPageable for tenantId: {}, category: {}, minDuration: {}, maxDuration: {}, quality: {}, excludeId: {}, offset: {}, limit: {}", 
-                    tenantId, category, minDuration, maxDuration, quality, excludeId, offset, limit, e);
+            return search(searchSourceBuilder, tenantId, operation);
+        } catch (java.io.IOException e) {
+            log.error("Error in {} for tenantId: {}, category: {}, minDuration: {}, maxDuration: {}, quality: {}, excludeId: {}, offset: {}, limit: {}",
+                    operation, tenantId, category, minDuration, maxDuration, quality, excludeId, offset, limit, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
 
     @Override
     public List<Object[]> countByTenantIdAndCategories(Integer tenantId, List<String> categoryNames) {
         List<Object[]> result = new java.util.ArrayList<>();
+        if (categoryNames == null || categoryNames.isEmpty()) {
+            return result;
+        }
+        String[] lowerCaseNames = categoryNames.stream()
+                .map(String::toLowerCase)
+                .distinct()
+                .toArray(String[]::new);
+        java.util.Map<String, Long> counts = countCategories(tenantId, lowerCaseNames);
         for (String category : categoryNames) {
-            long count = countByTenantIdAndCategory(tenantId, category);
-            result.add(new Object[]{category, count});
+            result.add(new Object[]{category, counts.getOrDefault(category.toLowerCase(), 0L)});
         }
         return result;
     }
 
     @Override
-    public List<LinkDocument> findRandomLinksByCategoryNames(Integer tenantId, List<String> categoryNames) {
-        List<LinkDocument> result = new java.util.ArrayList<>();
+    public java.util.Map<String, Long> countAllCategoriesByTenantId(Integer tenantId) {
+        return countCategories(tenantId, null);
+    }
+
+    /**
+     * Count links per category with a single terms aggregation, using the same filter as
+     * countByTenantIdAndCategory. Keys of the returned map are the lower-cased category names.
+     *
+     * @param tenantId the tenant ID
+     * @param lowerCaseNames categories to count, or null for all categories of the tenant
+     * @return map of category name to link count, categories without links are absent
+     * @throws java.io.UncheckedIOException when the search fails, so a failure is never taken
+     *         for a tenant without links
+     */
+    private java.util.Map<String, Long> countCategories(Integer tenantId, String[] lowerCaseNames) {
+        org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder aggregation =
+                org.elasticsearch.search.aggregations.AggregationBuilders.terms("category_counts")
+                        .field("categories")
+                        .size(lowerCaseNames != null ? lowerCaseNames.length : MAX_CATEGORY_BUCKETS);
+        if (lowerCaseNames != null) {
+            aggregation.includeExclude(
+                    new org.elasticsearch.search.aggregations.bucket.terms.IncludeExclude(lowerCaseNames, null));
+        }
+
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.tenantLinks(tenantId), LinkProjection.COUNT_ONLY);
+        searchSourceBuilder.aggregation(aggregation);
+        searchSourceBuilder.size(0);
+
+        java.util.Map<String, Long> counts = new java.util.HashMap<>();
+        try {
+            LinkQueryFactory.logQuery(log, "countCategories", searchSourceBuilder);
+            org.elasticsearch.action.search.SearchResponse response = elasticsearchClientService.getEsClient()
+                    .search(linkQueryFactory.cachedRequest(searchSourceBuilder, tenantId, null),
+                            org.elasticsearch.client.RequestOptions.DEFAULT);
+            org.elasticsearch.search.aggregations.Aggregations aggs = response.getAggregations();
+            if (aggs != null) {
+                org.elasticsearch.search.aggregations.bucket.terms.Terms terms = aggs.get("category_counts");
+                if (terms != null) {
+                    for (org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket bucket : terms.getBuckets()) {
+                        counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+                    }
+                }
+            }
+        } catch (java.io.IOException e) {
+            log.error("Error in countCategories for tenantId: {}", tenantId, e);
+            throw new java.io.UncheckedIOException(e);
+        }
+        return counts;
+    }
+
+    /**
+     * One random link per category in a single _msearch round trip, each sub-search picking the
+     * same link {@link #findRandomLinkByCategory} would. A category maps to an empty Optional when
+     * it has no link; categories whose sub-search failed are absent.
+     */
+    @Override
+    public java.util.Map<String, Optional<LinkDocument>> findRandomLinksByCategoryNames(Integer tenantId, List<String> categoryNames) {
+        return findRandomLinksByCategoryNamesAsync(tenantId, categoryNames).join();
+    }
+
+    @Override
+    public CompletableFuture<java.util.Map<String, Optional<LinkDocument>>> findRandomLinksByCategoryNamesAsync(
+            Integer tenantId, List<String> categoryNames) {
+        if (categoryNames == null || categoryNames.isEmpty()) {
+            return CompletableFuture.completedFuture(new java.util.LinkedHashMap<>());
+        }
+        long startTime = System.currentTimeMillis();
+        org.elasticsearch.action.search.MultiSearchRequest multiSearchRequest = new org.elasticsearch.action.search.MultiSearchRequest();
         for (String category : categoryNames) {
-            findRandomLinkByCategory(tenantId, category).ifPresent(result::add);
+            // Same seed as findRandomLinkByCategory, so both pick the same link for a category
+            multiSearchRequest.add(linkQueryFactory.request(randomLinkSource(
+                    linkQueryFactory.categoryLinks(tenantId, category), tenantId + ":" + category.toLowerCase()),
+                    tenantId));
         }
-        return result;
+
+        return elasticsearchAsyncClient.msearch(multiSearchRequest).thenApply(response -> {
+            java.util.Map<String, Optional<LinkDocument>> result = new java.util.LinkedHashMap<>();
+            org.elasticsearch.action.search.MultiSearchResponse.Item[] items = response.getResponses();
+            for (int i = 0; i < items.length; i++) {
+                String category = categoryNames.get(i);
+                if (items[i].isFailure()) {
+                    // Left out rather than reported empty, so the caller doesn't cache it as missing
+                    log.error("Error in findRandomLinksByCategoryNames for tenantId: {}, category: {}: {}",
+                            tenantId, category, items[i].getFailureMessage());
+                    continue;
+                }
+                List<LinkDocument> documents = toLinkDocuments(items[i].getResponse());
+                result.put(category, documents.isEmpty() ? Optional.empty() : Optional.of(documents.get(0)));
+            }
+            log.debug("findRandomLinksByCategoryNames answered {} of {} categories in {} ms for tenantId: {}",
+                    result.size(), categoryNames.size(), System.currentTimeMillis() - startTime, tenantId);
+            return result;
+        });
     }
 
     @Override
     public void deleteByLinkId(Integer linkId) {
+        // A rebuild of the links index replays this on the new index once it is live
+        elasticsearchClientService.deleted(LinkQueryFactory.LINKS_INDEX, linkId.toString());
         try {
-            org.elasticsearch.action.delete.DeleteRequest deleteRequest = new org.elasticsearch.action.delete.DeleteRequest("links", linkId.toString());
+            if (linkQueryFactory.isTenantRoutingEnabled()) {
+                // The document's routing (its tenant) is unknown here, so delete it wherever it is
+                org.elasticsearch.index.reindex.DeleteByQueryRequest deleteRequest =
+                        new org.elasticsearch.index.reindex.DeleteByQueryRequest(LinkQueryFactory.LINKS_INDEX);
+                deleteRequest.setQuery(org.elasticsearch.index.query.QueryBuilders.idsQuery().addIds(linkId.toString()));
+                elasticsearchClientService.getEsClient().deleteByQuery(deleteRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
+                return;
+            }
+            org.elasticsearch.action.delete.DeleteRequest deleteRequest =
+                    new org.elasticsearch.action.delete.DeleteRequest(LinkQueryFactory.LINKS_INDEX, linkId.toString());
             elasticsearchClientService.getEsClient().delete(deleteRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
         } catch (Exception e) {
             log.error("Error in deleteByLinkId for linkId: {}", linkId, e);
@@ -522,173 +326,123 @@ public class ElasticsearchLinkCategoryRepositoryImpl implements ElasticsearchLin
 
     @Override
     public List<LinkDocument> findByLinkIdAndCategory(Integer linkId, String category) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("linkId", linkId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.link(null, linkId, category), LinkProjection.DETAIL);
         searchSourceBuilder.size(100);
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByLinkIdAndCategory: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, null, "findByLinkIdAndCategory");
+        } catch (java.io.IOException e) {
             log.error("Error in findByLinkIdAndCategory for linkId: {}, category: {}", linkId, category, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     @Override
     public List<LinkDocument> findByCategoryAndTenantId(String category, Integer tenantId) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.categoryLinks(tenantId, category), LinkProjection.CARD);
         searchSourceBuilder.size(1000);
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByCategoryAndTenantId: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, tenantId, "findByCategoryAndTenantId");
+        } catch (java.io.IOException e) {
             log.error("Error in findByCategoryAndTenantId for category: {}, tenantId: {}", category, tenantId, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     @Override
     public List<LinkDocument> findByLinkId(Integer linkId) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("linkId", linkId))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.link(null, linkId, null), LinkProjection.DETAIL);
         searchSourceBuilder.size(100);
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByLinkId: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, null, "findByLinkId");
+        } catch (java.io.IOException e) {
             log.error("Error in findByLinkId for linkId: {}", linkId, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     @Override
     public List<LinkDocument> findByTenantId(Integer tenantId) {
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.tenantLinks(tenantId), LinkProjection.DETAIL);
         searchSourceBuilder.size(1000);
-        List<LinkDocument> results = new java.util.ArrayList<>();
         try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findByTenantId: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                results.add(document);
-            }
-        } catch (Exception e) {
+            return search(searchSourceBuilder, tenantId, "findByTenantId");
+        } catch (java.io.IOException e) {
             log.error("Error in findByTenantId for tenantId: {}", tenantId, e);
+            throw new java.io.UncheckedIOException(e);
         }
-        return results;
     }
 
     /**
-     * Alternative random method using random offset - more reliable for true randomness
+     * Alternative random pick that varies with the tenant and category only, not the query shape
      */
     public Optional<LinkDocument> findRandomLinkByCategoryWithOffset(Integer tenantId, String category) {
-        // First, get the total count
-        Long totalCount = countByTenantIdAndCategory(tenantId, category);
-        if (totalCount == 0) {
-            return Optional.empty();
+        try {
+            return findRandomLink(tenantId, linkQueryFactory.categoryLinks(tenantId, category),
+                    "offset:" + tenantId + ":" + category.toLowerCase(), "findRandomLinkByCategoryWithOffset");
+        } catch (java.io.IOException e) {
+            log.error("Error in findRandomLinkByCategoryWithOffset for tenantId: {}, category: {}", tenantId, category, e);
+            throw new java.io.UncheckedIOException(e);
         }
+    }
 
-        // Generate random offset
-        int randomOffset = randomGenerator.getRandomValue(totalCount.intValue());
-
-        // Build ES query
-        org.elasticsearch.index.query.BoolQueryBuilder boolQuery = org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("tenantId", tenantId))
-                .must(org.elasticsearch.index.query.QueryBuilders.termQuery("categories", category.toLowerCase()))
-                .must(org.elasticsearch.index.query.QueryBuilders.existsQuery("thumbPath"))
-                .mustNot(org.elasticsearch.index.query.QueryBuilders.boolQuery()
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", ""))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "NA"))
-                        .should(org.elasticsearch.index.query.QueryBuilders.termQuery("thumbPath", "null")));
-
-        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = new org.elasticsearch.search.builder.SearchSourceBuilder();
-        searchSourceBuilder.query(boolQuery);
-        searchSourceBuilder.from(randomOffset);
+    /**
+     * Pick one matching link in a single query: random_score ranks the matches and the top hit is
+     * returned, so there is no count query and no deep from offset.
+     */
+    private Optional<LinkDocument> findRandomLink(Integer tenantId, org.elasticsearch.index.query.QueryBuilder query,
+                                                  String seedKey, String operation) throws java.io.IOException {
+        List<LinkDocument> documents = search(randomLinkSource(query, seedKey), tenantId, operation);
+        return documents.isEmpty() ? Optional.empty() : Optional.of(documents.get(0));
+    }
+
+    private org.elasticsearch.search.builder.SearchSourceBuilder randomLinkSource(
+            org.elasticsearch.index.query.QueryBuilder query, String seedKey) {
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+                linkQueryFactory.randomScore(query, seedKey), LinkProjection.FIRST_LINK);
         searchSourceBuilder.size(1);
+        searchSourceBuilder.trackTotalHits(false);
+        return searchSourceBuilder;
+    }
 
-        try {
-            org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest("links");
-            searchRequest.source(searchSourceBuilder);
-            log.info("Elasticsearch query for findRandomLinkByCategoryWithOffset: {}", searchSourceBuilder.toString());
-            org.elasticsearch.action.search.SearchResponse response =
-                    elasticsearchClientService.getEsClient().search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-            for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-                java.util.Map<String, Object> sourceAsMap = hit.getSourceAsMap();
-                LinkDocument document = elasticsearchClientService.convertToLinkDocument(sourceAsMap);
-                document.setLinkId(hit.getId());
-                return Optional.of(document);
-            }
-        } catch (Exception e) {
-            log.error("Error in findRandomLinkByCategoryWithOffset for tenantId: {}, category: {}", tenantId, category, e);
+    private List<LinkDocument> search(org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder,
+                                      Integer tenantId, String operation) throws java.io.IOException {
+        LinkQueryFactory.logQuery(log, operation, searchSourceBuilder);
+        org.elasticsearch.action.search.SearchResponse response = elasticsearchClientService.getEsClient()
+                .search(linkQueryFactory.request(searchSourceBuilder, tenantId),
+                        org.elasticsearch.client.RequestOptions.DEFAULT);
+        return toLinkDocuments(response);
+    }
+
+    private long count(org.elasticsearch.index.query.QueryBuilder query, Integer tenantId, String category,
+                       String operation) throws java.io.IOException {
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder = countSource(query);
+        LinkQueryFactory.logQuery(log, operation, searchSourceBuilder);
+        org.elasticsearch.action.search.SearchResponse response = elasticsearchClientService.getEsClient()
+                .search(linkQueryFactory.cachedRequest(searchSourceBuilder, tenantId, category),
+                        org.elasticsearch.client.RequestOptions.DEFAULT);
+        return response.getHits().getTotalHits().value;
+    }
+
+    private org.elasticsearch.search.builder.SearchSourceBuilder countSource(
+            org.elasticsearch.index.query.QueryBuilder query) {
+        org.elasticsearch.search.builder.SearchSourceBuilder searchSourceBuilder =
+                linkQueryFactory.source(query, LinkProjection.COUNT_ONLY);
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.trackTotalHits(true);
+        return searchSourceBuilder;
+    }
+
+    private List<LinkDocument> toLinkDocuments(org.elasticsearch.action.search.SearchResponse response) {
+        List<LinkDocument> results = new java.util.ArrayList<>();
+        for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
+            LinkDocument document = elasticsearchClientService.convertToLinkDocument(hit.getSourceAsMap());
+            document.setLinkId(hit.getId());
+            results.add(document);
         }
-        return Optional.empty();
+        return results;
     }
-} 
\ No newline at end of file
+}
@@ -2,8 +2,10 @@ package com.fvp.repository;
 
 import com.fvp.document.ModelDocument;
 import com.fvp.document.LinkDocument;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface ElasticsearchLinkModelRepository {
     Optional<ModelDocument> findRandomModelByName(Integer tenantId, String modelName);
@@ -19,7 +21,9 @@ public interface ElasticsearchLinkModelRepository {
         int limit
     );
     List<String> findAllDistinctModels(Integer tenantId);
+    Iterator<String> iterateDistinctModels(Integer tenantId);
     Optional<LinkDocument> findRandomLinkByModel(Integer tenantId, String modelName);
+    CompletableFuture<Optional<LinkDocument>> findRandomLinkByModelAsync(Integer tenantId, String modelName);
     List<LinkDocument> findByModelWithFiltersExcludingLinkPageable(Integer tenantId, String modelName, Integer maxDuration, String quality, Integer excludeId, int offset, int limit);
     List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName, Integer maxDuration, String quality, int offset, int limit);
     Long countByModelWithFilters(Integer tenantId, String modelName, Integer maxDuration, String quality);
@@ -2,16 +2,23 @@ package com.fvp.repository;
 
 import com.fvp.document.LinkDocument;
 import com.fvp.document.ModelDocument;
+import com.fvp.service.ElasticsearchAsyncClient;
 import com.fvp.service.ElasticsearchClientService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.RangeQueryBuilder;
-import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,375 +28,244 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class ElasticsearchLinkModelRepositoryImpl implements ElasticsearchLinkModelRepository {
 
+  private static final int DISTINCT_PAGE_SIZE = 1000;
+
   private final ElasticsearchClientService elasticsearchClientService;
+  private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+  private final LinkQueryFactory linkQueryFactory;
 
   @Autowired
   public ElasticsearchLinkModelRepositoryImpl(
-      ElasticsearchClientService elasticsearchClientService) {
+      ElasticsearchClientService elasticsearchClientService,
+      ElasticsearchAsyncClient elasticsearchAsyncClient,
+      LinkQueryFactory linkQueryFactory) {
     this.elasticsearchClientService = elasticsearchClientService;
+    this.elasticsearchAsyncClient = elasticsearchAsyncClient;
+    this.linkQueryFactory = linkQueryFactory;
   }
 
   @Override
   public Optional<ModelDocument> findRandomModelByName(Integer tenantId, String modelName) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-
-    // First, get the total count for this query
-    SearchSourceBuilder countBuilder = new SearchSourceBuilder();
-    countBuilder.query(boolQuery);
-    countBuilder.size(0);
-    countBuilder.trackTotalHits(true);
-
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+        .query(linkQueryFactory.randomScore(linkQueryFactory.modelLinks(tenantId, modelName),
+            "model:" + tenantId + ":" + modelName.toLowerCase()))
+        .size(1)
+        .trackTotalHits(false);
     try {
-      org.elasticsearch.action.search.SearchRequest countRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      countRequest.source(countBuilder);
-      org.elasticsearch.action.search.SearchResponse countResponse =
-          elasticsearchClientService.getEsClient()
-              .search(countRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-
-      long totalCount = countResponse.getHits().getTotalHits().value;
-      if (totalCount == 0) {
-        return Optional.empty();
-      }
-
-      // Generate random offset
-      int randomOffset = (int) (Math.random() * totalCount);
-
-      // Use random offset for true randomness
-      SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-      searchSourceBuilder.query(boolQuery);
-      searchSourceBuilder.from(randomOffset);
-      searchSourceBuilder.size(1);
-
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findRandomModelByName: {}", searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        ModelDocument document = elasticsearchClientService.convertToModelDocument(
-            hit.getSourceAsMap());
-        document.setId(hit.getId());
-        return Optional.of(document);
-      }
-    } catch (Exception e) {
+      List<ModelDocument> documents = searchModels(searchSourceBuilder, tenantId, "findRandomModelByName");
+      return documents.isEmpty() ? Optional.empty() : Optional.of(documents.get(0));
+    } catch (IOException e) {
       log.error("Error in findRandomModelByName", e);
+      throw new UncheckedIOException(e);
     }
-    return Optional.empty();
   }
 
   @Override
   public Long countByTenantIdAndModel(Integer tenantId, String modelName) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.size(0);
-    searchSourceBuilder.trackTotalHits(true);
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for countByTenantIdAndModel: {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      return response.getHits().getTotalHits().value;
-    } catch (Exception e) {
+      return count(linkQueryFactory.modelLinks(tenantId, modelName), tenantId, modelName,
+          "countByTenantIdAndModel");
+    } catch (IOException e) {
       log.error("Error in countByTenantIdAndModel", e);
+      throw new UncheckedIOException(e);
     }
-    return 0L;
   }
 
 
   @Override
   public List<ModelDocument> findByTenantIdAndModel(Integer tenantId, String modelName) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.size(1000);
-    List<ModelDocument> results = new ArrayList<>();
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+        .query(linkQueryFactory.modelLinks(tenantId, modelName))
+        .size(1000);
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findByTenantIdAndModel: {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        ModelDocument document = elasticsearchClientService.convertToModelDocument(
-            hit.getSourceAsMap());
-        document.setId(hit.getId());
-        results.add(document);
-      }
-    } catch (Exception e) {
+      return searchModels(searchSourceBuilder, tenantId, "findByTenantIdAndModel");
+    } catch (IOException e) {
       log.error("Error in findByTenantIdAndModel", e);
+      throw new UncheckedIOException(e);
     }
-    return results;
   }
 
   @Override
   public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
       Integer minAge, Integer maxAge, String country, int offset, int limit) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    if (minAge != null || maxAge != null) {
-      RangeQueryBuilder rangeQuery = QueryBuilders.rangeQuery("modelAge");
+    QueryBuilder query = linkQueryFactory.modelLinks(tenantId, modelName);
+    boolean hasCountry = country != null && !country.isEmpty();
+    if (minAge != null || maxAge != null || hasCountry) {
+      BoolQueryBuilder boolQuery = QueryBuilders.boolQuery().filter(query);
+      if (minAge != null || maxAge != null) {
+        RangeQueryBuilder rangeQuery = QueryBuilders.rangeQuery("modelAge");
         if (minAge != null) {
-            rangeQuery.gte(minAge);
+          rangeQuery.gte(minAge);
         }
         if (maxAge != null) {
-            rangeQuery.lte(maxAge);
+          rangeQuery.lte(maxAge);
         }
-      boolQuery.must(rangeQuery);
-    }
-    if (country != null && !country.isEmpty()) {
-      boolQuery.must(QueryBuilders.termQuery("modelCountry", country));
+        boolQuery.filter(rangeQuery);
+      }
+      if (hasCountry) {
+        boolQuery.filter(QueryBuilders.termQuery("modelCountry", country));
+      }
+      query = boolQuery;
     }
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.from(offset);
-    searchSourceBuilder.size(limit);
-    searchSourceBuilder.sort("hd", SortOrder.DESC);
-    searchSourceBuilder.sort("trailerPresent", SortOrder.DESC);
-
-    List<LinkDocument> results = new ArrayList<>();
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findByModelWithFiltersPageable: {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        LinkDocument document = elasticsearchClientService.convertToLinkDocument(
-            hit.getSourceAsMap());
-        document.setLinkId(hit.getId());
-        results.add(document);
-      }
-    } catch (Exception e) {
+      return searchLinks(pageSource(query, offset, limit), tenantId, "findByModelWithFiltersPageable");
+    } catch (IOException e) {
       log.error("Error in findByModelWithFiltersPageable", e);
+      throw new UncheckedIOException(e);
     }
-    return results;
   }
 
   @Override
   public List<LinkDocument> findByModelWithFiltersExcludingLinkPageable(Integer tenantId,
       String modelName, Integer maxDuration, String quality, Integer excludeId, int offset,
       int limit) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    if (maxDuration != null) {
-      boolQuery.must(QueryBuilders.rangeQuery("duration").lte(maxDuration));
-    }
-    if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-      boolQuery.must(QueryBuilders.termQuery("hd", 1));
-    }
-    if (excludeId != null) {
-      boolQuery.mustNot(QueryBuilders.termQuery("linkId", excludeId.toString()));
-    }
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.from(offset);
-    searchSourceBuilder.size(limit);
-    searchSourceBuilder.sort("hd", SortOrder.DESC);
-    searchSourceBuilder.sort("trailerPresent", SortOrder.DESC);
-
-    List<LinkDocument> results = new ArrayList<>();
+    QueryBuilder query = linkQueryFactory.withFilters(
+        linkQueryFactory.modelLinks(tenantId, modelName), null, maxDuration, quality, excludeId);
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findByModelWithFiltersExcludingLinkPageable: {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        LinkDocument document = elasticsearchClientService.convertToLinkDocument(
-            hit.getSourceAsMap());
-        document.setLinkId(hit.getId());
-        results.add(document);
-      }
-    } catch (Exception e) {
+      return searchLinks(pageSource(query, offset, limit), tenantId,
+          "findByModelWithFiltersExcludingLinkPageable");
+    } catch (IOException e) {
       log.error("Error in findByModelWithFiltersExcludingLinkPageable", e);
+      throw new UncheckedIOException(e);
     }
-    return results;
   }
 
   @Override
   public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
       Integer maxDuration, String quality, int offset, int limit) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    if (maxDuration != null) {
-      boolQuery.must(QueryBuilders.rangeQuery("duration").lte(maxDuration));
-    }
-    if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-      boolQuery.must(QueryBuilders.termQuery("hd", 1));
-    }
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.from(offset);
-    searchSourceBuilder.size(limit);
-    searchSourceBuilder.sort("hd", SortOrder.DESC);
-    searchSourceBuilder.sort("trailerPresent", SortOrder.DESC);
-
-    List<LinkDocument> results = new ArrayList<>();
+    QueryBuilder query = linkQueryFactory.withFilters(
+        linkQueryFactory.modelLinks(tenantId, modelName), null, maxDuration, quality, null);
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findByModelWithFiltersPageable (duration/quality): {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        LinkDocument document = elasticsearchClientService.convertToLinkDocument(
-            hit.getSourceAsMap());
-        document.setLinkId(hit.getId());
-        results.add(document);
-      }
-    } catch (Exception e) {
+      return searchLinks(pageSource(query, offset, limit), tenantId,
+          "findByModelWithFiltersPageable (duration/quality)");
+    } catch (IOException e) {
       log.error("Error in findByModelWithFiltersPageable", e);
+      throw new UncheckedIOException(e);
     }
-    return results;
   }
 
   @Override
   public Long countByModelWithFilters(Integer tenantId, String modelName, Integer maxDuration,
       String quality) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
-    if (maxDuration != null) {
-      boolQuery.must(QueryBuilders.rangeQuery("duration").lte(maxDuration));
-    }
-    if (quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd")) {
-      boolQuery.must(QueryBuilders.termQuery("hd", 1));
-    }
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.size(0);
-    searchSourceBuilder.trackTotalHits(true);
     try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for countByModelWithFilters (duration/quality): {}",
-          searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      return response.getHits().getTotalHits().value;
-    } catch (Exception e) {
+      return count(linkQueryFactory.withFilters(linkQueryFactory.modelLinks(tenantId, modelName),
+          null, maxDuration, quality, null), tenantId, modelName,
+          "countByModelWithFilters (duration/quality)");
+    } catch (IOException e) {
       log.error("Error in countByModelWithFilters", e);
+      throw new UncheckedIOException(e);
     }
-    return 0L;
   }
 
 
   @Override
   public List<String> findAllDistinctModels(Integer tenantId) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId));
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.query(boolQuery);
-    searchSourceBuilder.size(0);
-    searchSourceBuilder.aggregation(AggregationBuilders.terms("distinct_models")
-        .field("models")
-        .size(10000));
     List<String> models = new ArrayList<>();
-    try {
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findAllDistinctModels: {}", searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      org.elasticsearch.search.aggregations.Aggregations aggs = response.getAggregations();
-      if (aggs != null) {
-        Terms terms = aggs.get("distinct_models");
-        if (terms != null) {
-          for (Terms.Bucket bucket : terms.getBuckets()) {
-            models.add(bucket.getKeyAsString());
-          }
-        }
-      }
-    } catch (Exception e) {
-      log.error("Error in findAllDistinctModels", e);
-    }
+    iterateDistinctModels(tenantId).forEachRemaining(models::add);
     return models;
   }
 
+  /**
+   * Distinct models of a tenant in name order, fetched a page of buckets at a time
+   */
+  @Override
+  public Iterator<String> iterateDistinctModels(Integer tenantId) {
+    return new CompositeTermsIterator(elasticsearchClientService.getEsClient(), linkQueryFactory,
+        linkQueryFactory.tenant(tenantId), tenantId, "models", DISTINCT_PAGE_SIZE);
+  }
+
 
   @Override
   public Optional<LinkDocument> findRandomLinkByModel(Integer tenantId, String modelName) {
-    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery()
-        .must(QueryBuilders.termQuery("tenantId", tenantId))
-        .must(QueryBuilders.termQuery("models", modelName.toLowerCase()));
+    try {
+      List<LinkDocument> documents = searchLinks(randomLinkSource(tenantId, modelName), tenantId,
+          "findRandomLinkByModel");
+      return documents.isEmpty() ? Optional.empty() : Optional.of(documents.get(0));
+    } catch (IOException e) {
+      log.error("Error in findRandomLinkByModel", e);
+      throw new UncheckedIOException(e);
+    }
+  }
 
-    // First, get the total count for this query
-    SearchSourceBuilder countBuilder = new SearchSourceBuilder();
-    countBuilder.query(boolQuery);
-    countBuilder.size(0);
-    countBuilder.trackTotalHits(true);
+  @Override
+  public CompletableFuture<Optional<LinkDocument>> findRandomLinkByModelAsync(Integer tenantId,
+      String modelName) {
+    SearchSourceBuilder searchSourceBuilder = randomLinkSource(tenantId, modelName);
+    LinkQueryFactory.logQuery(log, "findRandomLinkByModelAsync", searchSourceBuilder);
+    return elasticsearchAsyncClient.search(linkQueryFactory.request(searchSourceBuilder, tenantId))
+        .thenApply(response -> {
+          List<LinkDocument> documents = toLinkDocuments(response);
+          return documents.isEmpty() ? Optional.<LinkDocument>empty() : Optional.of(documents.get(0));
+        })
+        .whenComplete((document, e) -> {
+          if (e != null) {
+            log.error("Error in findRandomLinkByModelAsync", e);
+          }
+        });
+  }
 
-    try {
-      org.elasticsearch.action.search.SearchRequest countRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      countRequest.source(countBuilder);
-      org.elasticsearch.action.search.SearchResponse countResponse =
-          elasticsearchClientService.getEsClient()
-              .search(countRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
+  private SearchSourceBuilder randomLinkSource(Integer tenantId, String modelName) {
+    SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(
+        linkQueryFactory.randomScore(linkQueryFactory.modelLinks(tenantId, modelName),
+            tenantId + ":" + modelName.toLowerCase()),
+        LinkProjection.FIRST_LINK);
+    searchSourceBuilder.size(1);
+    searchSourceBuilder.trackTotalHits(false);
+    return searchSourceBuilder;
+  }
 
-      long totalCount = countResponse.getHits().getTotalHits().value;
-      if (totalCount == 0) {
-        return Optional.empty();
-      }
+  /**
+   * One page of link IDs, best links first
+   */
+  private SearchSourceBuilder pageSource(QueryBuilder query, int offset, int limit) {
+    SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(query, LinkProjection.ID_ONLY);
+    searchSourceBuilder.from(offset);
+    searchSourceBuilder.size(limit);
+    searchSourceBuilder.sort("hd", SortOrder.DESC);
+    searchSourceBuilder.sort("trailerPresent", SortOrder.DESC);
+    return searchSourceBuilder;
+  }
 
-      // Generate random offset
-      int randomOffset = (int) (Math.random() * totalCount);
+  private long count(QueryBuilder query, Integer tenantId, String modelName, String operation)
+      throws IOException {
+    SearchSourceBuilder searchSourceBuilder = linkQueryFactory.source(query, LinkProjection.COUNT_ONLY);
+    searchSourceBuilder.size(0);
+    searchSourceBuilder.trackTotalHits(true);
+    LinkQueryFactory.logQuery(log, operation, searchSourceBuilder);
+    SearchResponse response = elasticsearchClientService.getEsClient()
+        .search(linkQueryFactory.cachedRequest(searchSourceBuilder, tenantId, "model:" + modelName),
+            RequestOptions.DEFAULT);
+    return response.getHits().getTotalHits().value;
+  }
 
-      // Use random offset for true randomness
-      SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-      searchSourceBuilder.query(boolQuery);
-      searchSourceBuilder.from(randomOffset);
-      searchSourceBuilder.size(1);
+  private List<LinkDocument> searchLinks(SearchSourceBuilder searchSourceBuilder, Integer tenantId,
+      String operation) throws IOException {
+    LinkQueryFactory.logQuery(log, operation, searchSourceBuilder);
+    return toLinkDocuments(elasticsearchClientService.getEsClient()
+        .search(linkQueryFactory.request(searchSourceBuilder, tenantId), RequestOptions.DEFAULT));
+  }
 
-      org.elasticsearch.action.search.SearchRequest searchRequest = new org.elasticsearch.action.search.SearchRequest(
-          "links");
-      searchRequest.source(searchSourceBuilder);
-      log.info("Elasticsearch query for findRandomLinkByModel: {}", searchSourceBuilder.toString());
-      org.elasticsearch.action.search.SearchResponse response =
-          elasticsearchClientService.getEsClient()
-              .search(searchRequest, org.elasticsearch.client.RequestOptions.DEFAULT);
-      for (org.elasticsearch.search.SearchHit hit : response.getHits().getHits()) {
-        LinkDocument document = elasticsearchClientService.convertToLinkDocument(
-            hit.getSourceAsMap());
-        document.setLinkId(hit.getId());
-        return Optional.of(document);
-      }
-    } catch (Exception e) {
-      log.error("Error in findRandomLinkByModel", e);
+  private List<LinkDocument> toLinkDocuments(SearchResponse response) {
+    List<LinkDocument> results = new ArrayList<>();
+    for (SearchHit hit : response.getHits().getHits()) {
+      LinkDocument document = elasticsearchClientService.convertToLinkDocument(hit.getSourceAsMap());
+      document.setLinkId(hit.getId());
+      results.add(document);
+    }
+    return results;
+  }
+
+  private List<ModelDocument> searchModels(SearchSourceBuilder searchSourceBuilder,
+      Integer tenantId, String operation) throws IOException {
+    LinkQueryFactory.logQuery(log, operation, searchSourceBuilder);
+    SearchResponse response = elasticsearchClientService.getEsClient()
+        .search(linkQueryFactory.request(searchSourceBuilder, tenantId), RequestOptions.DEFAULT);
+    List<ModelDocument> results = new ArrayList<>();
+    for (SearchHit hit : response.getHits().getHits()) {
+      ModelDocument document = elasticsearchClientService.convertToModelDocument(hit.getSourceAsMap());
+      document.setId(hit.getId());
+      results.add(document);
     }
-    return Optional.empty();
+    return results;
   }
-} 
\ No newline at end of file
+}
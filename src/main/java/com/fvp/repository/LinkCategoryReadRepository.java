@@ -0,0 +1,58 @@
+package com.fvp.repository;
+
+import com.fvp.document.LinkDocument;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Category reads over link documents, served by Elasticsearch or, while it is unhealthy, by the
+ * MySQL fallback. Writes are in {@link ElasticsearchLinkCategoryRepository}.
+ */
+public interface LinkCategoryReadRepository {
+    Optional<LinkDocument> findRandomRecentLinkByCategory(Integer tenantId, String category, Long recentDays);
+    Optional<LinkDocument> findRandomLinkByCategory(Integer tenantId, String category);
+    Long countByTenantIdAndCategory(Integer tenantId, String category);
+    CompletableFuture<Long> countByTenantIdAndCategoryAsync(Integer tenantId, String category);
+    List<LinkDocument> findByTenantIdAndLinkId(Integer tenantId, Integer linkId);
+    List<String> findAllDistinctCategories(Integer tenantId);
+    Iterator<String> iterateDistinctCategories(Integer tenantId);
+    List<LinkDocument> findByTenantId(Integer tenantId);
+    List<LinkDocument> findByTenantIdAndCategory(Integer tenantId, String category);
+    List<LinkDocument> findByTenantIdAndCategoryOrderByRandomOrder(Integer tenantId, String category);
+    List<LinkDocument> findByLinkId(Integer linkId);
+    List<LinkDocument> findByCategoryAndTenantId(String category, Integer tenantId);
+    List<LinkDocument> findByLinkIdAndCategory(Integer linkId, String category);
+    List<LinkDocument> findByCategoryWithFiltersPageable(
+        Integer tenantId,
+        String category,
+        Integer minDuration,
+        Integer maxDuration,
+        String quality,
+        int offset,
+        int limit
+    );
+    Long countByCategoryWithFilters(
+        Integer tenantId,
+        String category,
+        Integer minDuration,
+        Integer maxDuration,
+        String quality
+    );
+    List<LinkDocument> findByCategoryWithFiltersExcludingLinkPageable(
+        Integer tenantId,
+        String category,
+        Integer minDuration,
+        Integer maxDuration,
+        String quality,
+        Integer excludeId,
+        int offset,
+        int limit
+    );
+    Map<String, Optional<LinkDocument>> findRandomLinksByCategoryNames(Integer tenantId, List<String> categoryNames);
+    CompletableFuture<Map<String, Optional<LinkDocument>>> findRandomLinksByCategoryNamesAsync(Integer tenantId, List<String> categoryNames);
+    List<Object[]> countByTenantIdAndCategories(Integer tenantId, List<String> categoryNames);
+    Map<String, Long> countAllCategoriesByTenantId(Integer tenantId);
+} 
\ No newline at end of file
@@ -3,9 +3,11 @@ package com.fvp.repository;
 import com.fvp.entity.LinkModel;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -134,4 +136,45 @@ public interface LinkModelRepository extends JpaRepository<LinkModel, Integer> {
   @Modifying
   @Query("DELETE FROM LinkModel lm WHERE lm.id IN :ids")
   int deleteByIdIn(@Param("ids") List<Integer> ids);
+
+  // Queries of the MySQL read fallback (MysqlLinkModelRepository), filtering like the
+  // Elasticsearch model queries: quality containing "hd" keeps HD links only.
+
+  @Query(value = "SELECT l.id FROM link_model lm JOIN link l ON lm.link_id = l.id " +
+      "WHERE lm.tenant_id = :tenantId AND lm.model = :model " +
+      "AND (:maxDuration IS NULL OR l.duration <= :maxDuration) " +
+      "AND (:hdOnly = 0 OR l.hd = 1) " +
+      "AND (:excludeId IS NULL OR l.id != :excludeId) " +
+      "AND l.thumb_path_processed = 1 " +
+      "ORDER BY l.hd DESC, l.trailer_present DESC, lm.random_order LIMIT :limit OFFSET :offset",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = LinkRepository.FALLBACK_QUERY_TIMEOUT))
+  List<Integer> findModelLinkIdsPageable(
+      @Param("tenantId") Integer tenantId,
+      @Param("model") String model,
+      @Param("maxDuration") Integer maxDuration,
+      @Param("hdOnly") int hdOnly,
+      @Param("excludeId") Integer excludeId,
+      @Param("offset") int offset,
+      @Param("limit") int limit
+  );
+
+  @Query(value = "SELECT COUNT(lm.id) FROM link_model lm JOIN link l ON lm.link_id = l.id " +
+      "WHERE lm.tenant_id = :tenantId AND lm.model = :model " +
+      "AND (:maxDuration IS NULL OR l.duration <= :maxDuration) " +
+      "AND (:hdOnly = 0 OR l.hd = 1) " +
+      "AND l.thumb_path_processed = 1",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = LinkRepository.FALLBACK_QUERY_TIMEOUT))
+  Long countModelLinks(
+      @Param("tenantId") Integer tenantId,
+      @Param("model") String model,
+      @Param("maxDuration") Integer maxDuration,
+      @Param("hdOnly") int hdOnly
+  );
+
+  @Query(value = "SELECT DISTINCT LOWER(lm.model) FROM link_model lm WHERE lm.tenant_id = :tenantId ORDER BY 1",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = LinkRepository.FALLBACK_QUERY_TIMEOUT))
+  List<String> findDistinctModels(@Param("tenantId") Integer tenantId);
 } 
\ No newline at end of file
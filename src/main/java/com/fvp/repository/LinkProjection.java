@@ -0,0 +1,58 @@
+package com.fvp.repository;
+
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+
+/**
+ * The parts of a links-index document each kind of read actually uses. Applying a projection
+ * sends _source includes/excludes with the search, so Elasticsearch only returns those bytes.
+ */
+public enum LinkProjection {
+
+  /**
+   * A link card in category listings, also what LinkCategoryService maps to LinkCategory
+   */
+  CARD(new String[]{"tenantId", "title", "link", "thumbnail", "thumbPath", "duration", "source",
+      "trailer", "randomOrder", "hd", "trailerPresent", "createdOn"}, null),
+
+  /**
+   * The first link shown on a category or model tile
+   */
+  FIRST_LINK(new String[]{"tenantId", "title", "link", "thumbnail", "thumbPath", "duration",
+      "source", "trailer", "createdOn"}, null),
+
+  /**
+   * Only the hit ID, for reads whose links are loaded from the database afterwards
+   */
+  ID_ONLY(FetchSourceContext.DO_NOT_FETCH_SOURCE),
+
+  /**
+   * Counts and aggregations, which never read a document
+   */
+  COUNT_ONLY(FetchSourceContext.DO_NOT_FETCH_SOURCE),
+
+  /**
+   * Whole documents for lookups by link, minus the fields only used for search
+   */
+  DETAIL(null, new String[]{"searchableText", "sheetName"});
+
+  private final FetchSourceContext fetchSourceContext;
+
+  LinkProjection(String[] includes, String[] excludes) {
+    this(new FetchSourceContext(true, includes, excludes));
+  }
+
+  LinkProjection(FetchSourceContext fetchSourceContext) {
+    this.fetchSourceContext = fetchSourceContext;
+  }
+
+  /**
+   * Restrict the _source returned for the search to this projection
+   *
+   * @param searchSourceBuilder the search to restrict
+   * @return the same builder
+   */
+  public SearchSourceBuilder apply(SearchSourceBuilder searchSourceBuilder) {
+    return searchSourceBuilder.fetchSource(fetchSourceContext);
+  }
+}
@@ -0,0 +1,252 @@
+package com.fvp.repository;
+
+import com.fvp.util.ThreadSafeRandomGenerator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.lucene.search.function.CombineFunction;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the queries of the link repositories. Filter combinations that repeat across requests
+ * (tenant, category or model, thumbnail, duration range, quality, recency) are compiled once into
+ * query fragments and reused, so a request only allocates the clauses that are specific to it.
+ * Cached fragments are shared between threads and must never be modified; callers wrap them in a
+ * new bool query instead.
+ */
+@Component
+public class LinkQueryFactory {
+
+  public static final String LINKS_INDEX = "links";
+  private static final int MAX_CACHED_FRAGMENTS = 20000;
+
+  private final ThreadSafeRandomGenerator randomGenerator;
+  private final Map<String, QueryBuilder> fragments = new ConcurrentHashMap<>();
+  private QueryBuilder hasThumbFilter;
+  private QueryBuilder hdFilter;
+
+  @Value("${elasticsearch.has-thumb-filter.enabled:false}")
+  private boolean hasThumbFilterEnabled;
+
+  @Value("${elasticsearch.tenant-routing.enabled:false}")
+  private boolean tenantRoutingEnabled;
+
+  public LinkQueryFactory(ThreadSafeRandomGenerator randomGenerator) {
+    this.randomGenerator = randomGenerator;
+  }
+
+  @PostConstruct
+  public void init() {
+    // Uses the index-time hasThumb flag once all documents carry it (see
+    // ElasticsearchSyncService#backfillHasThumb), otherwise the equivalent thumbPath checks
+    hasThumbFilter = hasThumbFilterEnabled
+        ? QueryBuilders.termQuery("hasThumb", true)
+        : QueryBuilders.boolQuery()
+            .filter(QueryBuilders.existsQuery("thumbPath"))
+            .mustNot(QueryBuilders.termsQuery("thumbPath", "", "NA", "null"));
+    hdFilter = QueryBuilders.termQuery("hd", 1);
+  }
+
+  /**
+   * Links of a tenant with a usable thumbnail
+   */
+  public QueryBuilder tenantLinks(Integer tenantId) {
+    return cached("tenantLinks:" + tenantId, () -> QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery("tenantId", tenantId))
+        .filter(hasThumbFilter));
+  }
+
+  /**
+   * All documents of a tenant, for aggregations over the whole tenant
+   */
+  public QueryBuilder tenant(Integer tenantId) {
+    return cached("tenant:" + tenantId, () -> QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery("tenantId", tenantId)));
+  }
+
+  /**
+   * Links of a category with a usable thumbnail
+   */
+  public QueryBuilder categoryLinks(Integer tenantId, String category) {
+    String lowerCaseCategory = category.toLowerCase();
+    return cached("category:" + tenantId + ":" + lowerCaseCategory, () -> QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery("tenantId", tenantId))
+        .filter(QueryBuilders.termQuery("categories", lowerCaseCategory))
+        .filter(hasThumbFilter));
+  }
+
+  /**
+   * Links of a category created in the last days. The cut-off is rounded to the hour so the
+   * fragment, and Elasticsearch's cache of it, stay valid for an hour.
+   */
+  public QueryBuilder recentCategoryLinks(Integer tenantId, String category, long recentDays) {
+    // Resolved outside the supplier: computeIfAbsent must not update the map recursively
+    QueryBuilder categoryLinks = categoryLinks(tenantId, category);
+    return cached("recent:" + tenantId + ":" + category.toLowerCase() + ":" + recentDays,
+        () -> QueryBuilders.boolQuery()
+            .filter(categoryLinks)
+            .filter(QueryBuilders.rangeQuery("createdAt").gte("now-" + recentDays + "d/h")));
+  }
+
+  /**
+   * Links of a model
+   */
+  public QueryBuilder modelLinks(Integer tenantId, String modelName) {
+    String lowerCaseModel = modelName.toLowerCase();
+    return cached("model:" + tenantId + ":" + lowerCaseModel, () -> QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery("tenantId", tenantId))
+        .filter(QueryBuilders.termQuery("models", lowerCaseModel)));
+  }
+
+  /**
+   * Documents of a link with a usable thumbnail, optionally restricted to a tenant or category.
+   * Not cached: link IDs rarely repeat.
+   */
+  public QueryBuilder link(Integer tenantId, Integer linkId, String category) {
+    BoolQueryBuilder query = QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery("linkId", linkId))
+        .filter(hasThumbFilter);
+    if (tenantId != null) {
+      query.filter(QueryBuilders.termQuery("tenantId", tenantId));
+    }
+    if (category != null) {
+      query.filter(QueryBuilders.termQuery("categories", category.toLowerCase()));
+    }
+    return query;
+  }
+
+  /**
+   * Narrow a base query by the listing filters. Returns the base itself when no filter is set.
+   *
+   * @param base query from one of the methods above
+   * @param minDuration minimum duration, or null
+   * @param maxDuration maximum duration, or null
+   * @param quality requested quality; anything containing "hd" keeps HD links only
+   * @param excludeId link ID to leave out, or null
+   * @return the narrowed query
+   */
+  public QueryBuilder withFilters(QueryBuilder base, Integer minDuration, Integer maxDuration,
+      String quality, Integer excludeId) {
+    boolean durationFilter = minDuration != null || maxDuration != null;
+    boolean hdOnly = quality != null && !quality.isEmpty() && quality.toLowerCase().contains("hd");
+    if (!durationFilter && !hdOnly && excludeId == null) {
+      return base;
+    }
+    BoolQueryBuilder query = QueryBuilders.boolQuery().filter(base);
+    if (durationFilter) {
+      query.filter(cached("duration:" + minDuration + ":" + maxDuration, () -> {
+        RangeQueryBuilder rangeQuery = QueryBuilders.rangeQuery("duration");
+        if (minDuration != null) {
+          rangeQuery.gte(minDuration);
+        }
+        if (maxDuration != null) {
+          rangeQuery.lte(maxDuration);
+        }
+        return rangeQuery;
+      }));
+    }
+    if (hdOnly) {
+      query.filter(hdFilter);
+    }
+    if (excludeId != null) {
+      query.mustNot(QueryBuilders.termQuery("linkId", excludeId.toString()));
+    }
+    return query;
+  }
+
+  /**
+   * Rank the matches of a query randomly. The seed combines the generator's current value with
+   * the given key, so the same key keeps its pick until the generator refreshes.
+   */
+  public QueryBuilder randomScore(QueryBuilder query, String seedKey) {
+    long seed = 31L * randomGenerator.getCurrentRandomValue() + seedKey.hashCode();
+    // The wrapped query only filters and scores 0, so the random score must replace it
+    return QueryBuilders.functionScoreQuery(query,
+        ScoreFunctionBuilders.randomFunction().seed(seed).setField("_seq_no"))
+        .boostMode(CombineFunction.REPLACE);
+  }
+
+  /**
+   * A search of the links index returning only the fields of the projection
+   */
+  public SearchSourceBuilder source(QueryBuilder query, LinkProjection projection) {
+    return projection.apply(new SearchSourceBuilder().query(query));
+  }
+
+  public SearchRequest request(SearchSourceBuilder source) {
+    return new SearchRequest(LINKS_INDEX).source(source);
+  }
+
+  /**
+   * A search about one tenant. With elasticsearch.tenant-routing.enabled it only goes to the
+   * shard holding the tenant's documents.
+   *
+   * @param source the search
+   * @param tenantId tenant the query is about, or null to search all shards
+   * @return the search request
+   */
+  public SearchRequest request(SearchSourceBuilder source, Integer tenantId) {
+    SearchRequest request = request(source);
+    if (tenantRoutingEnabled && tenantId != null) {
+      request.routing(routing(tenantId));
+    }
+    return request;
+  }
+
+  public boolean isTenantRoutingEnabled() {
+    return tenantRoutingEnabled;
+  }
+
+  /**
+   * Routing value of a tenant's link documents
+   */
+  public static String routing(Integer tenantId) {
+    return String.valueOf(tenantId);
+  }
+
+  /**
+   * A size-0 count or aggregation served from the shard request cache. The preference sends
+   * repeats of the same query to the same shard copies, so they hit the copy that cached it.
+   *
+   * @param source the search, which must not return hits
+   * @param tenantId tenant the query is about
+   * @param scope category or model the query is about, or null for the whole tenant
+   * @return the search request
+   */
+  public SearchRequest cachedRequest(SearchSourceBuilder source, Integer tenantId, String scope) {
+    // Custom preference values must not start with an underscore
+    String preference = "tenant-" + tenantId + (scope != null ? ":" + scope.toLowerCase() : "");
+    return request(source, tenantId).requestCache(true).preference(preference);
+  }
+
+  /**
+   * Log the query JSON at debug level; rendering it is skipped entirely otherwise
+   */
+  public static void logQuery(Logger log, String operation, SearchSourceBuilder source) {
+    if (log.isDebugEnabled()) {
+      log.debug("Elasticsearch query for {}: {}", operation, source);
+    }
+  }
+
+  private QueryBuilder cached(String key, Supplier<QueryBuilder> builder) {
+    QueryBuilder fragment = fragments.get(key);
+    if (fragment != null) {
+      return fragment;
+    }
+    if (fragments.size() >= MAX_CACHED_FRAGMENTS) {
+      // Keys are bounded by tenants x categories/models in practice; this only guards leaks
+      fragments.clear();
+    }
+    return fragments.computeIfAbsent(key, k -> builder.get());
+  }
+}
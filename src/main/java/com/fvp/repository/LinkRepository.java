@@ -71,6 +71,9 @@ public interface LinkRepository extends JpaRepository<Link, Integer> {
   @Query("SELECT COUNT(l) FROM Link l WHERE l.thumbPathProcessed = :status")
   long countByThumbPathProcessed(@Param("status") int status);
 
+  @Query("SELECT COUNT(l) FROM Link l WHERE l.thumbPathProcessed = :status AND l.id <= :maxId")
+  long countByThumbPathProcessedUpTo(@Param("status") int status, @Param("maxId") int maxId);
+
   @Modifying
   @Transactional
   @Query("UPDATE Link l SET l.thumbPathProcessed = :newStatus WHERE l.thumbPathProcessed = :oldStatus")
@@ -87,4 +90,102 @@ public interface LinkRepository extends JpaRepository<Link, Integer> {
 
   @Query(value = "SELECT MAX(id) FROM link", nativeQuery = true)
   Integer findMaxLinkId();
+
+  // Queries of the MySQL read fallback (MysqlLinkCategoryRepository). They use the
+  // (tenant_id, category) index of link_category and give up after FALLBACK_QUERY_TIMEOUT ms.
+
+  String FALLBACK_QUERY_TIMEOUT = "2000";
+
+  List<Link> findTop1000ByTenantIdAndThumbPathProcessedOrderByIdDesc(Integer tenantId,
+      Integer thumbPathProcessed);
+
+  @Query(value = "SELECT l.* FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND lc.category = :category " +
+      "AND l.created_at >= :createdAfter " +
+      "AND l.thumb_path_processed = 1 " +
+      "ORDER BY lc.random_order LIMIT :limit",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<Link> findRandomCategoryLinkCandidates(
+      @Param("tenantId") Integer tenantId,
+      @Param("category") String category,
+      @Param("createdAfter") LocalDateTime createdAfter,
+      @Param("limit") int limit
+  );
+
+  @Query(value = "SELECT l.* FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND lc.category = :category " +
+      "AND (:minDuration IS NULL OR l.duration >= :minDuration) " +
+      "AND (:maxDuration IS NULL OR l.duration <= :maxDuration) " +
+      "AND (:hdOnly = 0 OR l.hd = 1) " +
+      "AND (:excludeId IS NULL OR l.id != :excludeId) " +
+      "AND l.thumb_path_processed = 1 " +
+      "ORDER BY l.hd DESC, l.trailer_present DESC, lc.random_order LIMIT :limit OFFSET :offset",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<Link> findCategoryLinksPageable(
+      @Param("tenantId") Integer tenantId,
+      @Param("category") String category,
+      @Param("minDuration") Integer minDuration,
+      @Param("maxDuration") Integer maxDuration,
+      @Param("hdOnly") int hdOnly,
+      @Param("excludeId") Integer excludeId,
+      @Param("offset") int offset,
+      @Param("limit") int limit
+  );
+
+  @Query(value = "SELECT COUNT(*) FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND lc.category = :category " +
+      "AND (:minDuration IS NULL OR l.duration >= :minDuration) " +
+      "AND (:maxDuration IS NULL OR l.duration <= :maxDuration) " +
+      "AND (:hdOnly = 0 OR l.hd = 1) " +
+      "AND l.thumb_path_processed = 1",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  Long countCategoryLinks(
+      @Param("tenantId") Integer tenantId,
+      @Param("category") String category,
+      @Param("minDuration") Integer minDuration,
+      @Param("maxDuration") Integer maxDuration,
+      @Param("hdOnly") int hdOnly
+  );
+
+  @Query(value = "SELECT LOWER(lc.category), COUNT(*) FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND l.thumb_path_processed = 1 " +
+      "GROUP BY LOWER(lc.category)",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<Object[]> countLinksPerCategory(@Param("tenantId") Integer tenantId);
+
+  @Query(value = "SELECT LOWER(lc.category), COUNT(*) FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND lc.category IN :categories AND l.thumb_path_processed = 1 " +
+      "GROUP BY LOWER(lc.category)",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<Object[]> countLinksPerCategoryIn(
+      @Param("tenantId") Integer tenantId,
+      @Param("categories") List<String> categories
+  );
+
+  /**
+   * Newest link of each category, as rows of lower-cased category and link ID
+   */
+  @Query(value = "SELECT LOWER(lc.category), MAX(lc.link_id) FROM link_category lc JOIN link l ON lc.link_id = l.id " +
+      "WHERE lc.tenant_id = :tenantId AND lc.category IN :categories AND l.thumb_path_processed = 1 " +
+      "GROUP BY LOWER(lc.category)",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<Object[]> findLatestLinkIdPerCategoryIn(
+      @Param("tenantId") Integer tenantId,
+      @Param("categories") List<String> categories
+  );
+
+  @Query(value = "SELECT DISTINCT LOWER(lc.category) FROM link_category lc WHERE lc.tenant_id = :tenantId ORDER BY 1",
+      nativeQuery = true)
+  @QueryHints(value = @QueryHint(name = "javax.persistence.query.timeout", value = FALLBACK_QUERY_TIMEOUT))
+  List<String> findDistinctCategories(@Param("tenantId") Integer tenantId);
+
+  @Query(value = "SELECT DISTINCT LOWER(lc.category) FROM link_category lc WHERE lc.link_id = :linkId",
+      nativeQuery = true)
+  List<String> findCategoriesByLinkId(@Param("linkId") Integer linkId);
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.fvp.repository;
+
+import com.fvp.entity.Link;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads processed links in ID order for syncs, a keyset page at a time: every page is an index
+ * range scan starting after the last ID seen, so the thousandth page costs what the first did.
+ * Rows are mapped with plain JDBC into detached {@link Link} objects; no persistence context
+ * keeps them alive after a page is processed.
+ */
+@Repository
+public class LinkRowReader {
+
+  private static final String SELECT_LINK = "SELECT id, tenant_id, title, category, duration, "
+      + "thumbnail, thumbpath, sheet_name, link, source, star, created_at, trailer, quality, "
+      + "created_on, random_order, thumb_path_processed, trailer_present, hd, updated_at "
+      + "FROM link ";
+  private static final String SELECT_AFTER = SELECT_LINK
+      + "WHERE id > ? AND id <= ? AND thumb_path_processed = 1 ORDER BY id LIMIT ?";
+  private static final String SELECT_CHANGED_AFTER = SELECT_LINK
+      + "WHERE (updated_at > ? OR (updated_at = ? AND id > ?)) AND updated_at < ? "
+      + "ORDER BY updated_at, id LIMIT ?";
+
+  private static final RowMapper<Link> LINK_ROW_MAPPER = LinkRowReader::mapRow;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LinkRowReader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * The next page of processed links
+   *
+   * @param afterId ID of the last link already read, 0 to start from the beginning
+   * @param limit page size
+   * @return up to limit links with IDs above afterId, in ID order
+   */
+  public List<Link> readAfter(int afterId, int limit) {
+    return readRange(afterId, Integer.MAX_VALUE, limit);
+  }
+
+  /**
+   * The next page of processed links within an ID range, e.g. one slice of a partitioned sync
+   *
+   * @param afterId ID of the last link already read, exclusive
+   * @param toId last ID of the range, inclusive
+   * @param limit page size
+   * @return up to limit links with IDs in (afterId, toId], in ID order
+   */
+  public List<Link> readRange(int afterId, int toId, int limit) {
+    return jdbcTemplate.query(SELECT_AFTER, LINK_ROW_MAPPER, afterId, toId, limit);
+  }
+
+  /**
+   * The next page of links changed after a watermark, by keyset on (updated_at, id). Links that
+   * are not processed are included too, as a change may have taken them out of the index.
+   *
+   * @param updatedAt updated_at of the last link already read
+   * @param afterId ID of the last link already read
+   * @param before only links changed before this time
+   * @param limit page size
+   * @return up to limit links, in (updated_at, id) order
+   */
+  public List<Link> readChangedAfter(Timestamp updatedAt, int afterId, Timestamp before,
+      int limit) {
+    return jdbcTemplate.query(SELECT_CHANGED_AFTER, LINK_ROW_MAPPER, updatedAt, updatedAt, afterId,
+        before, limit);
+  }
+
+  private static Link mapRow(ResultSet rs, int rowNum) throws SQLException {
+    Link link = new Link();
+    link.setId(rs.getInt("id"));
+    link.setTenantId(rs.getInt("tenant_id"));
+    link.setTitle(rs.getString("title"));
+    link.setCategory(rs.getString("category"));
+    link.setDuration(rs.getInt("duration"));
+    link.setThumbnail(rs.getString("thumbnail"));
+    link.setThumbpath(rs.getString("thumbpath"));
+    link.setSheetName(rs.getString("sheet_name"));
+    link.setLink(rs.getString("link"));
+    link.setSource(rs.getString("source"));
+    link.setStar(rs.getString("star"));
+    link.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+    link.setTrailer(rs.getString("trailer"));
+    link.setQuality(rs.getString("quality"));
+    link.setCreatedOn(toLocalDateTime(rs.getTimestamp("created_on")));
+    link.setRandomOrder(getInteger(rs, "random_order"));
+    link.setThumbPathProcessed(getInteger(rs, "thumb_path_processed"));
+    link.setTrailerPresent(getInteger(rs, "trailer_present"));
+    link.setHd(getInteger(rs, "hd"));
+    link.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+    return link;
+  }
+
+  private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+    int value = rs.getInt(column);
+    return rs.wasNull() ? null : value;
+  }
+
+  private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
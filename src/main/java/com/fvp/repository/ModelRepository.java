@@ -1,7 +1,9 @@
 package com.fvp.repository;
 
 import com.fvp.entity.Model;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -34,4 +36,16 @@ public interface ModelRepository extends JpaRepository<Model, Integer> {
 
   @Query("SELECT DISTINCT m.country FROM Model m WHERE m.tenantId = :tenantId AND m.country IS NOT NULL")
   List<String> findAllDistinctCountries(Integer tenantId);
-} 
\ No newline at end of file
+
+  /**
+   * The next keyset page of rows changed after a watermark, in (updatedAt, id) order
+   *
+   * @param updatedAt updatedAt of the last row already read
+   * @param afterId ID of the last row already read
+   * @param before only rows changed before this time
+   */
+  @Query("SELECT m FROM Model m WHERE (m.updatedAt > :updatedAt OR (m.updatedAt = :updatedAt AND m.id > :afterId)) "
+      + "AND m.updatedAt < :before ORDER BY m.updatedAt, m.id")
+  List<Model> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+      @Param("afterId") Integer afterId, @Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -0,0 +1,323 @@
+package com.fvp.repository;
+
+import com.fvp.document.LinkDocument;
+import com.fvp.entity.Link;
+import com.fvp.util.LoggingUtil;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Category reads served from MySQL (link_category joined with link) while Elasticsearch is
+ * unhealthy; see {@link RoutingLinkCategoryRepository}. Results match the Elasticsearch
+ * repository's filters, but random picks come from a small window of link_category.random_order
+ * and the first link of a category is its newest one. Failed and timed out queries throw, so an
+ * overloaded database is never taken for an empty result. Only reads are implemented.
+ */
+@Repository
+public class MysqlLinkCategoryRepository implements LinkCategoryReadRepository {
+
+  private static final Logger logger = LoggingUtil.getLogger(MysqlLinkCategoryRepository.class);
+  private static final int PAGE_LIMIT = 1000;
+  private static final int RANDOM_CANDIDATES = 20;
+  private static final LocalDateTime ANY_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+  private static final int PROCESSED = 1;
+
+  private final LinkRepository linkRepository;
+  private final LinkModelRepository linkModelRepository;
+
+  public MysqlLinkCategoryRepository(LinkRepository linkRepository,
+      LinkModelRepository linkModelRepository) {
+    this.linkRepository = linkRepository;
+    this.linkModelRepository = linkModelRepository;
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomRecentLinkByCategory(Integer tenantId, String category,
+      Long recentDays) {
+    return findRandomLink(tenantId, category, LocalDateTime.now().minusDays(recentDays));
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomLinkByCategory(Integer tenantId, String category) {
+    return findRandomLink(tenantId, category, ANY_TIME);
+  }
+
+  @Override
+  public Long countByTenantIdAndCategory(Integer tenantId, String category) {
+    return countByCategoryWithFilters(tenantId, category, null, null, null);
+  }
+
+  @Override
+  public CompletableFuture<Long> countByTenantIdAndCategoryAsync(Integer tenantId,
+      String category) {
+    return completed(() -> countByTenantIdAndCategory(tenantId, category));
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndLinkId(Integer tenantId, Integer linkId) {
+    return findByLinkId(linkId).stream()
+        .filter(document -> tenantId.equals(document.getTenantId()))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<String> findAllDistinctCategories(Integer tenantId) {
+    try {
+      return linkRepository.findDistinctCategories(tenantId);
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findAllDistinctCategories for tenantId: {}", tenantId, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Iterator<String> iterateDistinctCategories(Integer tenantId) {
+    return findAllDistinctCategories(tenantId).iterator();
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantId(Integer tenantId) {
+    try {
+      return linkRepository.findTop1000ByTenantIdAndThumbPathProcessedOrderByIdDesc(tenantId,
+          PROCESSED).stream().map(link -> toLinkDocument(link, null)).collect(Collectors.toList());
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findByTenantId for tenantId: {}", tenantId, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndCategory(Integer tenantId, String category) {
+    return findByCategoryWithFiltersPageable(tenantId, category, null, null, null, 0, PAGE_LIMIT);
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndCategoryOrderByRandomOrder(Integer tenantId,
+      String category) {
+    return findByTenantIdAndCategory(tenantId, category);
+  }
+
+  @Override
+  public List<LinkDocument> findByLinkId(Integer linkId) {
+    try {
+      Optional<Link> link = linkRepository.findById(linkId);
+      if (!link.isPresent() || !Integer.valueOf(PROCESSED).equals(link.get().getThumbPathProcessed())) {
+        return new ArrayList<>();
+      }
+      LinkDocument document = toLinkDocument(link.get(),
+          linkRepository.findCategoriesByLinkId(linkId));
+      document.setModels(linkModelRepository.findByLinkId(linkId).stream()
+          .map(linkModel -> linkModel.getModel().toLowerCase())
+          .distinct()
+          .collect(Collectors.toList()));
+      return new ArrayList<>(Collections.singletonList(document));
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findByLinkId for linkId: {}", linkId, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryAndTenantId(String category, Integer tenantId) {
+    return findByTenantIdAndCategory(tenantId, category);
+  }
+
+  @Override
+  public List<LinkDocument> findByLinkIdAndCategory(Integer linkId, String category) {
+    String lowerCaseCategory = category.toLowerCase();
+    return findByLinkId(linkId).stream()
+        .filter(document -> document.getCategories().contains(lowerCaseCategory))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryWithFiltersPageable(Integer tenantId, String category,
+      Integer minDuration, Integer maxDuration, String quality, int offset, int limit) {
+    return findByCategoryWithFiltersExcludingLinkPageable(tenantId, category, minDuration,
+        maxDuration, quality, null, offset, limit);
+  }
+
+  @Override
+  public Long countByCategoryWithFilters(Integer tenantId, String category, Integer minDuration,
+      Integer maxDuration, String quality) {
+    try {
+      return linkRepository.countCategoryLinks(tenantId, category, minDuration, maxDuration,
+          hdOnly(quality));
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback countByCategoryWithFilters for tenantId: {}, category: {}",
+          tenantId, category, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryWithFiltersExcludingLinkPageable(Integer tenantId,
+      String category, Integer minDuration, Integer maxDuration, String quality, Integer excludeId,
+      int offset, int limit) {
+    try {
+      String lowerCaseCategory = category.toLowerCase();
+      return linkRepository.findCategoryLinksPageable(tenantId, category, minDuration, maxDuration,
+          hdOnly(quality), excludeId, offset, limit).stream()
+          .map(link -> toLinkDocument(link, Collections.singletonList(lowerCaseCategory)))
+          .collect(Collectors.toList());
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback category page for tenantId: {}, category: {}, offset: {}",
+          tenantId, category, offset, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Map<String, Optional<LinkDocument>> findRandomLinksByCategoryNames(Integer tenantId,
+      List<String> categoryNames) {
+    Map<String, Optional<LinkDocument>> result = new LinkedHashMap<>();
+    if (categoryNames == null || categoryNames.isEmpty()) {
+      return result;
+    }
+    try {
+      Map<String, Integer> linkIds = new HashMap<>();
+      for (Object[] row : linkRepository.findLatestLinkIdPerCategoryIn(tenantId, categoryNames)) {
+        linkIds.put((String) row[0], ((Number) row[1]).intValue());
+      }
+      Map<Integer, Link> links = new HashMap<>();
+      for (Link link : linkRepository.findAllById(linkIds.values())) {
+        links.put(link.getId(), link);
+      }
+      for (String category : categoryNames) {
+        String lowerCaseCategory = category.toLowerCase();
+        Link link = links.get(linkIds.get(lowerCaseCategory));
+        result.put(category, link != null
+            ? Optional.of(toLinkDocument(link, Collections.singletonList(lowerCaseCategory)))
+            : Optional.empty());
+      }
+      return result;
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findRandomLinksByCategoryNames for tenantId: {}", tenantId, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Optional<LinkDocument>>> findRandomLinksByCategoryNamesAsync(
+      Integer tenantId, List<String> categoryNames) {
+    return completed(() -> findRandomLinksByCategoryNames(tenantId, categoryNames));
+  }
+
+  @Override
+  public List<Object[]> countByTenantIdAndCategories(Integer tenantId,
+      List<String> categoryNames) {
+    List<Object[]> result = new ArrayList<>();
+    if (categoryNames == null || categoryNames.isEmpty()) {
+      return result;
+    }
+    Map<String, Long> counts = toCounts(
+        linkRepository.countLinksPerCategoryIn(tenantId, categoryNames));
+    for (String category : categoryNames) {
+      result.add(new Object[]{category, counts.getOrDefault(category.toLowerCase(), 0L)});
+    }
+    return result;
+  }
+
+  @Override
+  public Map<String, Long> countAllCategoriesByTenantId(Integer tenantId) {
+    // Failures propagate: an empty map means the tenant has no links
+    return toCounts(linkRepository.countLinksPerCategory(tenantId));
+  }
+
+  private Optional<LinkDocument> findRandomLink(Integer tenantId, String category,
+      LocalDateTime createdAfter) {
+    try {
+      List<Link> candidates = linkRepository.findRandomCategoryLinkCandidates(tenantId, category,
+          createdAfter, RANDOM_CANDIDATES);
+      if (candidates.isEmpty()) {
+        return Optional.empty();
+      }
+      Link link = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+      return Optional.of(toLinkDocument(link, Collections.singletonList(category.toLowerCase())));
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback random link for tenantId: {}, category: {}", tenantId,
+          category, e);
+      throw e;
+    }
+  }
+
+  /**
+   * The result of a synchronous fallback read as a future, failed rather than thrown so async
+   * callers see errors the same way as with Elasticsearch
+   */
+  static <T> CompletableFuture<T> completed(Supplier<T> read) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      future.complete(read.get());
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  private static Map<String, Long> toCounts(List<Object[]> rows) {
+    Map<String, Long> counts = new HashMap<>();
+    for (Object[] row : rows) {
+      counts.put((String) row[0], ((Number) row[1]).longValue());
+    }
+    return counts;
+  }
+
+  /**
+   * Same rule as LinkQueryFactory#withFilters: a quality containing "hd" keeps HD links only
+   */
+  static int hdOnly(String quality) {
+    return quality != null && quality.toLowerCase().contains("hd") ? 1 : 0;
+  }
+
+  /**
+   * The fields LinkProcessingService indexes for a link, read from the row itself
+   *
+   * @param link the link row
+   * @param categories its lower-cased categories, or null when not needed
+   */
+  static LinkDocument toLinkDocument(Link link, List<String> categories) {
+    LinkDocument document = new LinkDocument();
+    document.setLinkId(String.valueOf(link.getId()));
+    document.setTenantId(link.getTenantId());
+    document.setLink(link.getLink());
+    document.setLinkTitle(link.getTitle());
+    document.setLinkThumbnail(link.getThumbnail());
+    document.setLinkThumbPath(link.getThumbpath());
+    document.setHasThumb(LinkDocument.isUsableThumbPath(link.getThumbpath()));
+    document.setLinkDuration(link.getDuration());
+    document.setLinkSource(link.getSource());
+    document.setLinkTrailer(link.getTrailer());
+    document.setQuality(link.getQuality());
+    document.setSheetName(link.getSheetName());
+    document.setRandomOrder(link.getRandomOrder());
+    document.setThumbPathProcessed(link.getThumbPathProcessed());
+    document.setTrailerPresent(link.getTrailerPresent());
+    document.setHd(link.getHd());
+    document.setCreatedAt(toDate(link.getCreatedAt()));
+    document.setCreatedOn(toDate(link.getCreatedOn()));
+    if (categories != null) {
+      document.setCategories(new ArrayList<>(categories));
+    }
+    return document;
+  }
+
+  private static Date toDate(LocalDateTime dateTime) {
+    return dateTime != null ? Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()) : null;
+  }
+}
@@ -0,0 +1,191 @@
+package com.fvp.repository;
+
+import com.fvp.document.LinkDocument;
+import com.fvp.document.ModelDocument;
+import com.fvp.entity.Link;
+import com.fvp.entity.LinkModel;
+import com.fvp.entity.Model;
+import com.fvp.util.LoggingUtil;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Model reads served from MySQL (link_model joined with link, and the model table) while
+ * Elasticsearch is unhealthy; see {@link RoutingLinkModelRepository}. Pages return link IDs only,
+ * like the Elasticsearch repository. Failed and timed out queries throw instead of returning an
+ * empty result.
+ */
+@Repository
+public class MysqlLinkModelRepository implements ElasticsearchLinkModelRepository {
+
+  private static final Logger logger = LoggingUtil.getLogger(MysqlLinkModelRepository.class);
+
+  private final LinkRepository linkRepository;
+  private final LinkModelRepository linkModelRepository;
+  private final ModelRepository modelRepository;
+
+  public MysqlLinkModelRepository(LinkRepository linkRepository,
+      LinkModelRepository linkModelRepository, ModelRepository modelRepository) {
+    this.linkRepository = linkRepository;
+    this.linkModelRepository = linkModelRepository;
+    this.modelRepository = modelRepository;
+  }
+
+  @Override
+  public Optional<ModelDocument> findRandomModelByName(Integer tenantId, String modelName) {
+    List<ModelDocument> models = findByTenantIdAndModel(tenantId, modelName);
+    return models.isEmpty() ? Optional.empty() : Optional.of(models.get(0));
+  }
+
+  @Override
+  public Long countByTenantIdAndModel(Integer tenantId, String modelName) {
+    try {
+      return linkModelRepository.countByTenantIdAndModel(tenantId, modelName);
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback countByTenantIdAndModel for tenantId: {}, model: {}",
+          tenantId, modelName, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<ModelDocument> findByTenantIdAndModel(Integer tenantId, String modelName) {
+    try {
+      Model model = modelRepository.findByTenantIdAndName(tenantId, modelName);
+      return model != null ? new ArrayList<>(Collections.singletonList(toModelDocument(model)))
+          : new ArrayList<>();
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findByTenantIdAndModel for tenantId: {}, model: {}",
+          tenantId, modelName, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Age and country describe the model itself, so they either keep all of its links or none
+   */
+  @Override
+  public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
+      Integer minAge, Integer maxAge, String country, int offset, int limit) {
+    boolean hasCountry = country != null && !country.isEmpty();
+    if (minAge != null || maxAge != null || hasCountry) {
+      Model model = modelRepository.findByTenantIdAndName(tenantId, modelName);
+      if (model == null
+          || (minAge != null && (model.getAge() == null || model.getAge() < minAge))
+          || (maxAge != null && (model.getAge() == null || model.getAge() > maxAge))
+          || (hasCountry && !country.equals(model.getCountry()))) {
+        return new ArrayList<>();
+      }
+    }
+    return page(tenantId, modelName, null, null, null, offset, limit);
+  }
+
+  @Override
+  public List<String> findAllDistinctModels(Integer tenantId) {
+    try {
+      return linkModelRepository.findDistinctModels(tenantId);
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findAllDistinctModels for tenantId: {}", tenantId, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Iterator<String> iterateDistinctModels(Integer tenantId) {
+    return findAllDistinctModels(tenantId).iterator();
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomLinkByModel(Integer tenantId, String modelName) {
+    try {
+      Optional<LinkModel> linkModel = linkModelRepository.findRandomLinkByModel(tenantId, modelName);
+      if (linkModel.isPresent()) {
+        Optional<Link> link = linkRepository.findById(linkModel.get().getLinkId());
+        if (link.isPresent()) {
+          LinkDocument document = MysqlLinkCategoryRepository.toLinkDocument(link.get(), null);
+          document.setModels(new ArrayList<>(Collections.singletonList(modelName.toLowerCase())));
+          return Optional.of(document);
+        }
+      }
+      return Optional.empty();
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback findRandomLinkByModel for tenantId: {}, model: {}",
+          tenantId, modelName, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<Optional<LinkDocument>> findRandomLinkByModelAsync(Integer tenantId,
+      String modelName) {
+    return MysqlLinkCategoryRepository.completed(() -> findRandomLinkByModel(tenantId, modelName));
+  }
+
+  @Override
+  public List<LinkDocument> findByModelWithFiltersExcludingLinkPageable(Integer tenantId,
+      String modelName, Integer maxDuration, String quality, Integer excludeId, int offset,
+      int limit) {
+    return page(tenantId, modelName, maxDuration, quality, excludeId, offset, limit);
+  }
+
+  @Override
+  public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
+      Integer maxDuration, String quality, int offset, int limit) {
+    return page(tenantId, modelName, maxDuration, quality, null, offset, limit);
+  }
+
+  @Override
+  public Long countByModelWithFilters(Integer tenantId, String modelName, Integer maxDuration,
+      String quality) {
+    try {
+      return linkModelRepository.countModelLinks(tenantId, modelName, maxDuration,
+          MysqlLinkCategoryRepository.hdOnly(quality));
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback countByModelWithFilters for tenantId: {}, model: {}",
+          tenantId, modelName, e);
+      throw e;
+    }
+  }
+
+  private List<LinkDocument> page(Integer tenantId, String modelName, Integer maxDuration,
+      String quality, Integer excludeId, int offset, int limit) {
+    try {
+      return linkModelRepository.findModelLinkIdsPageable(tenantId, modelName, maxDuration,
+          MysqlLinkCategoryRepository.hdOnly(quality), excludeId, offset, limit).stream()
+          .map(linkId -> {
+            LinkDocument document = new LinkDocument();
+            document.setLinkId(String.valueOf(linkId));
+            return document;
+          })
+          .collect(Collectors.toList());
+    } catch (RuntimeException e) {
+      logger.error("Error in fallback model page for tenantId: {}, model: {}, offset: {}",
+          tenantId, modelName, offset, e);
+      throw e;
+    }
+  }
+
+  private static ModelDocument toModelDocument(Model model) {
+    ModelDocument document = new ModelDocument();
+    document.setId(String.valueOf(model.getId()));
+    document.setTenantId(model.getTenantId());
+    document.setName(model.getName());
+    document.setDescription(model.getDescription());
+    document.setCountry(model.getCountry());
+    document.setThumbnail(model.getThumbnail());
+    document.setThumbPath(model.getThumbpath());
+    document.setAge(model.getAge());
+    document.setCreatedAt(model.getCreatedAt() != null
+        ? Date.from(model.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()) : null);
+    return document;
+  }
+}
@@ -0,0 +1,155 @@
+package com.fvp.repository;
+
+import com.fvp.document.LinkDocument;
+import com.fvp.service.ElasticsearchHealthMonitor;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The category repository the services use. Reads go to Elasticsearch, or to MySQL while
+ * {@link ElasticsearchHealthMonitor} reports the cluster unhealthy; deletes always go to
+ * Elasticsearch. While reads come from MySQL, CacheService keeps what it caches for
+ * elasticsearch.fallback.cache-ttl-seconds only.
+ */
+@Primary
+@Repository
+public class RoutingLinkCategoryRepository implements ElasticsearchLinkCategoryRepository {
+
+  private final ElasticsearchLinkCategoryRepositoryImpl elasticsearch;
+  private final MysqlLinkCategoryRepository mysql;
+  private final ElasticsearchHealthMonitor healthMonitor;
+
+  public RoutingLinkCategoryRepository(ElasticsearchLinkCategoryRepositoryImpl elasticsearch,
+      MysqlLinkCategoryRepository mysql, ElasticsearchHealthMonitor healthMonitor) {
+    this.elasticsearch = elasticsearch;
+    this.mysql = mysql;
+    this.healthMonitor = healthMonitor;
+  }
+
+  private LinkCategoryReadRepository reads() {
+    return healthMonitor.useFallback() ? mysql : elasticsearch;
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomRecentLinkByCategory(Integer tenantId, String category,
+      Long recentDays) {
+    return reads().findRandomRecentLinkByCategory(tenantId, category, recentDays);
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomLinkByCategory(Integer tenantId, String category) {
+    return reads().findRandomLinkByCategory(tenantId, category);
+  }
+
+  @Override
+  public Long countByTenantIdAndCategory(Integer tenantId, String category) {
+    return reads().countByTenantIdAndCategory(tenantId, category);
+  }
+
+  @Override
+  public CompletableFuture<Long> countByTenantIdAndCategoryAsync(Integer tenantId,
+      String category) {
+    return reads().countByTenantIdAndCategoryAsync(tenantId, category);
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndLinkId(Integer tenantId, Integer linkId) {
+    return reads().findByTenantIdAndLinkId(tenantId, linkId);
+  }
+
+  @Override
+  public List<String> findAllDistinctCategories(Integer tenantId) {
+    return reads().findAllDistinctCategories(tenantId);
+  }
+
+  @Override
+  public Iterator<String> iterateDistinctCategories(Integer tenantId) {
+    return reads().iterateDistinctCategories(tenantId);
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantId(Integer tenantId) {
+    return reads().findByTenantId(tenantId);
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndCategory(Integer tenantId, String category) {
+    return reads().findByTenantIdAndCategory(tenantId, category);
+  }
+
+  @Override
+  public List<LinkDocument> findByTenantIdAndCategoryOrderByRandomOrder(Integer tenantId,
+      String category) {
+    return reads().findByTenantIdAndCategoryOrderByRandomOrder(tenantId, category);
+  }
+
+  @Override
+  public List<LinkDocument> findByLinkId(Integer linkId) {
+    return reads().findByLinkId(linkId);
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryAndTenantId(String category, Integer tenantId) {
+    return reads().findByCategoryAndTenantId(category, tenantId);
+  }
+
+  @Override
+  public List<LinkDocument> findByLinkIdAndCategory(Integer linkId, String category) {
+    return reads().findByLinkIdAndCategory(linkId, category);
+  }
+
+  @Override
+  public void deleteByLinkId(Integer linkId) {
+    elasticsearch.deleteByLinkId(linkId);
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryWithFiltersPageable(Integer tenantId, String category,
+      Integer minDuration, Integer maxDuration, String quality, int offset, int limit) {
+    return reads().findByCategoryWithFiltersPageable(tenantId, category, minDuration, maxDuration,
+        quality, offset, limit);
+  }
+
+  @Override
+  public Long countByCategoryWithFilters(Integer tenantId, String category, Integer minDuration,
+      Integer maxDuration, String quality) {
+    return reads().countByCategoryWithFilters(tenantId, category, minDuration, maxDuration,
+        quality);
+  }
+
+  @Override
+  public List<LinkDocument> findByCategoryWithFiltersExcludingLinkPageable(Integer tenantId,
+      String category, Integer minDuration, Integer maxDuration, String quality, Integer excludeId,
+      int offset, int limit) {
+    return reads().findByCategoryWithFiltersExcludingLinkPageable(tenantId, category, minDuration,
+        maxDuration, quality, excludeId, offset, limit);
+  }
+
+  @Override
+  public Map<String, Optional<LinkDocument>> findRandomLinksByCategoryNames(Integer tenantId,
+      List<String> categoryNames) {
+    return reads().findRandomLinksByCategoryNames(tenantId, categoryNames);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, Optional<LinkDocument>>> findRandomLinksByCategoryNamesAsync(
+      Integer tenantId, List<String> categoryNames) {
+    return reads().findRandomLinksByCategoryNamesAsync(tenantId, categoryNames);
+  }
+
+  @Override
+  public List<Object[]> countByTenantIdAndCategories(Integer tenantId,
+      List<String> categoryNames) {
+    return reads().countByTenantIdAndCategories(tenantId, categoryNames);
+  }
+
+  @Override
+  public Map<String, Long> countAllCategoriesByTenantId(Integer tenantId) {
+    return reads().countAllCategoriesByTenantId(tenantId);
+  }
+}
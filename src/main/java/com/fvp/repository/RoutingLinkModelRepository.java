@@ -0,0 +1,100 @@
+package com.fvp.repository;
+
+import com.fvp.document.LinkDocument;
+import com.fvp.document.ModelDocument;
+import com.fvp.service.ElasticsearchHealthMonitor;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The model repository the services use. Reads go to Elasticsearch, or to MySQL while
+ * {@link ElasticsearchHealthMonitor} reports the cluster unhealthy. While reads come from MySQL,
+ * CacheService keeps what it caches for elasticsearch.fallback.cache-ttl-seconds only.
+ */
+@Primary
+@Repository
+public class RoutingLinkModelRepository implements ElasticsearchLinkModelRepository {
+
+  private final ElasticsearchLinkModelRepositoryImpl elasticsearch;
+  private final MysqlLinkModelRepository mysql;
+  private final ElasticsearchHealthMonitor healthMonitor;
+
+  public RoutingLinkModelRepository(ElasticsearchLinkModelRepositoryImpl elasticsearch,
+      MysqlLinkModelRepository mysql, ElasticsearchHealthMonitor healthMonitor) {
+    this.elasticsearch = elasticsearch;
+    this.mysql = mysql;
+    this.healthMonitor = healthMonitor;
+  }
+
+  private ElasticsearchLinkModelRepository reads() {
+    return healthMonitor.useFallback() ? mysql : elasticsearch;
+  }
+
+  @Override
+  public Optional<ModelDocument> findRandomModelByName(Integer tenantId, String modelName) {
+    return reads().findRandomModelByName(tenantId, modelName);
+  }
+
+  @Override
+  public Long countByTenantIdAndModel(Integer tenantId, String modelName) {
+    return reads().countByTenantIdAndModel(tenantId, modelName);
+  }
+
+  @Override
+  public List<ModelDocument> findByTenantIdAndModel(Integer tenantId, String modelName) {
+    return reads().findByTenantIdAndModel(tenantId, modelName);
+  }
+
+  @Override
+  public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
+      Integer minAge, Integer maxAge, String country, int offset, int limit) {
+    return reads().findByModelWithFiltersPageable(tenantId, modelName, minAge, maxAge, country,
+        offset, limit);
+  }
+
+  @Override
+  public List<String> findAllDistinctModels(Integer tenantId) {
+    return reads().findAllDistinctModels(tenantId);
+  }
+
+  @Override
+  public Iterator<String> iterateDistinctModels(Integer tenantId) {
+    return reads().iterateDistinctModels(tenantId);
+  }
+
+  @Override
+  public Optional<LinkDocument> findRandomLinkByModel(Integer tenantId, String modelName) {
+    return reads().findRandomLinkByModel(tenantId, modelName);
+  }
+
+  @Override
+  public CompletableFuture<Optional<LinkDocument>> findRandomLinkByModelAsync(Integer tenantId,
+      String modelName) {
+    return reads().findRandomLinkByModelAsync(tenantId, modelName);
+  }
+
+  @Override
+  public List<LinkDocument> findByModelWithFiltersExcludingLinkPageable(Integer tenantId,
+      String modelName, Integer maxDuration, String quality, Integer excludeId, int offset,
+      int limit) {
+    return reads().findByModelWithFiltersExcludingLinkPageable(tenantId, modelName, maxDuration,
+        quality, excludeId, offset, limit);
+  }
+
+  @Override
+  public List<LinkDocument> findByModelWithFiltersPageable(Integer tenantId, String modelName,
+      Integer maxDuration, String quality, int offset, int limit) {
+    return reads().findByModelWithFiltersPageable(tenantId, modelName, maxDuration, quality,
+        offset, limit);
+  }
+
+  @Override
+  public Long countByModelWithFilters(Integer tenantId, String modelName, Integer maxDuration,
+      String quality) {
+    return reads().countByModelWithFilters(tenantId, modelName, maxDuration, quality);
+  }
+}
@@ -0,0 +1,10 @@
+package com.fvp.repository;
+
+import com.fvp.entity.SyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncWatermarkRepository extends JpaRepository<SyncWatermark, String> {
+
+}
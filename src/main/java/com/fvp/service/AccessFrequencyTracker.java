@@ -0,0 +1,222 @@
+package com.fvp.service;
+
+import com.fvp.config.CacheWarmupConfig;
+import com.fvp.dto.WarmupRequest;
+import com.fvp.util.LoggingUtil;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ZParams;
+
+/**
+ * Counts requests to the cacheable category and model endpoints. Counts are collected in memory,
+ * flushed every minute into a Redis sorted set shared by all nodes and halved every few hours, so
+ * the set ranks what is popular now. The cache warm-up replays the top of that ranking.
+ */
+@Service
+public class AccessFrequencyTracker {
+
+  private static final Logger logger = LoggingUtil.getLogger(AccessFrequencyTracker.class);
+  private static final Pattern CATEGORY_PATH = Pattern.compile("^/api/categories/([^/]+)/(first|links)$");
+  private static final Pattern MODEL_PATH = Pattern.compile("^/api/models/([^/]+)/(first|links)$");
+  private static final String DEFAULT_SORT = "randomOrder";
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final String SEPARATOR = "|";
+  private static final double DECAY_WEIGHT = 0.5;
+
+  private final JedisPool jedisPool;
+  private final CacheWarmupConfig config;
+  private final Map<String, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+
+  public AccessFrequencyTracker(JedisPool jedisPool, CacheWarmupConfig config) {
+    this.jedisPool = jedisPool;
+    this.config = config;
+  }
+
+  /**
+   * Count a served request if it targets a cacheable endpoint
+   *
+   * @param request the HTTP request
+   * @param statusCode the response status
+   */
+  public void record(HttpServletRequest request, int statusCode) {
+    if (!config.isEnabled() || statusCode != 200 || !"GET".equals(request.getMethod())) {
+      return;
+    }
+    try {
+      WarmupRequest warmupRequest = parse(request);
+      if (warmupRequest == null) {
+        return;
+      }
+      String member = encode(warmupRequest);
+      LongAdder counter = pendingCounts.get(member);
+      if (counter == null) {
+        if (pendingCounts.size() >= config.getMaxTrackedRequests()) {
+          return;
+        }
+        counter = pendingCounts.computeIfAbsent(member, k -> new LongAdder());
+      }
+      counter.increment();
+    } catch (Exception e) {
+      logger.debug("Could not track request {}: {}", request.getRequestURI(), e.getMessage());
+    }
+  }
+
+  /**
+   * Most requested endpoints across all nodes, most popular first
+   *
+   * @param limit maximum number of requests to return
+   * @return the requests
+   */
+  public List<WarmupRequest> topRequests(int limit) {
+    List<WarmupRequest> result = new ArrayList<>();
+    try (Jedis jedis = jedisPool.getResource()) {
+      for (String member : jedis.zrevrange(config.getAccessCountsKey(), 0, limit - 1)) {
+        WarmupRequest warmupRequest = decode(member);
+        if (warmupRequest != null) {
+          result.add(warmupRequest);
+        }
+      }
+    } catch (Exception e) {
+      logger.error("Error reading request counts: {}", e.getMessage(), e);
+    }
+    return result;
+  }
+
+  @Scheduled(fixedDelayString = "${cache.warmup.flush-interval-ms:60000}")
+  public void flush() {
+    if (pendingCounts.isEmpty()) {
+      return;
+    }
+    Map<String, Long> counts = new HashMap<>();
+    for (String member : new ArrayList<>(pendingCounts.keySet())) {
+      LongAdder counter = pendingCounts.remove(member);
+      if (counter != null) {
+        counts.put(member, counter.sum());
+      }
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      for (Map.Entry<String, Long> entry : counts.entrySet()) {
+        pipeline.zincrby(config.getAccessCountsKey(), entry.getValue(), entry.getKey());
+      }
+      pipeline.sync();
+      logger.debug("Flushed {} request counts", counts.size());
+    } catch (Exception e) {
+      logger.warn("Error flushing request counts: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${cache.warmup.decay-interval-ms:21600000}",
+      initialDelayString = "${cache.warmup.decay-interval-ms:21600000}")
+  public void decay() {
+    String key = config.getAccessCountsKey();
+    try (Jedis jedis = jedisPool.getResource()) {
+      // Halve all scores so old popularity fades, then drop the long tail
+      jedis.zunionstore(key, new ZParams().weights(DECAY_WEIGHT), key);
+      jedis.zremrangeByScore(key, 0, DECAY_WEIGHT);
+      jedis.zremrangeByRank(key, 0, -config.getMaxTrackedRequests() - 1);
+    } catch (Exception e) {
+      logger.warn("Error decaying request counts: {}", e.getMessage());
+    }
+  }
+
+  private WarmupRequest parse(HttpServletRequest request) throws UnsupportedEncodingException {
+    String sort = request.getParameter("sort");
+    if (sort != null && !sort.startsWith(DEFAULT_SORT)) {
+      // Only the default ordering is worth warming
+      return null;
+    }
+    Integer tenantId = parseInteger(request.getHeader("X-Tenant-Id"));
+    if (tenantId == null) {
+      tenantId = 1;
+    }
+    String uri = request.getRequestURI();
+    switch (uri) {
+      case "/api/categories/home":
+        return WarmupRequest.of(WarmupRequest.CATEGORY_HOME, tenantId);
+      case "/api/categories/home-seo":
+        return WarmupRequest.of(WarmupRequest.CATEGORY_HOME_SEO, tenantId);
+      case "/api/categories/all":
+        return WarmupRequest.of(WarmupRequest.CATEGORY_ALL, tenantId);
+      case "/api/models/all":
+        return WarmupRequest.of(WarmupRequest.MODEL_ALL, tenantId);
+      default:
+        break;
+    }
+
+    Matcher matcher = CATEGORY_PATH.matcher(uri);
+    boolean category = matcher.matches();
+    if (!category) {
+      matcher = MODEL_PATH.matcher(uri);
+      if (!matcher.matches()) {
+        return null;
+      }
+    }
+    String name = URLDecoder.decode(matcher.group(1), "UTF-8");
+    if ("first".equals(matcher.group(2))) {
+      return new WarmupRequest(category ? WarmupRequest.CATEGORY_FIRST : WarmupRequest.MODEL_FIRST,
+          tenantId, name, null, null, null, null, null);
+    }
+    Integer page = parseInteger(request.getParameter("page"));
+    Integer size = parseInteger(request.getParameter("size"));
+    return new WarmupRequest(category ? WarmupRequest.CATEGORY_LINKS : WarmupRequest.MODEL_LINKS,
+        tenantId, name, page != null ? page : 0, size != null ? size : DEFAULT_PAGE_SIZE,
+        category ? parseInteger(request.getParameter("minDuration")) : null,
+        parseInteger(request.getParameter("maxDuration")), request.getParameter("quality"));
+  }
+
+  private String encode(WarmupRequest request) throws UnsupportedEncodingException {
+    return String.join(SEPARATOR, request.getType(), String.valueOf(request.getTenantId()),
+        request.getName() != null ? URLEncoder.encode(request.getName(), "UTF-8") : "",
+        toString(request.getPage()), toString(request.getSize()),
+        toString(request.getMinDuration()), toString(request.getMaxDuration()),
+        request.getQuality() != null ? URLEncoder.encode(request.getQuality(), "UTF-8") : "");
+  }
+
+  private WarmupRequest decode(String member) {
+    try {
+      String[] parts = member.split(Pattern.quote(SEPARATOR), -1);
+      if (parts.length != 8) {
+        return null;
+      }
+      return new WarmupRequest(parts[0], Integer.valueOf(parts[1]),
+          parts[2].isEmpty() ? null : URLDecoder.decode(parts[2], "UTF-8"),
+          parseInteger(parts[3]), parseInteger(parts[4]), parseInteger(parts[5]),
+          parseInteger(parts[6]), parts[7].isEmpty() ? null : URLDecoder.decode(parts[7], "UTF-8"));
+    } catch (Exception e) {
+      logger.debug("Ignoring malformed request count entry '{}': {}", member, e.getMessage());
+      return null;
+    }
+  }
+
+  private static Integer parseInteger(String value) {
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String toString(Integer value) {
+    return value != null ? value.toString() : "";
+  }
+}
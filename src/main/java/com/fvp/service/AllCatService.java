@@ -5,8 +5,8 @@ import com.fvp.entity.AllCat;
 import com.fvp.repository.AllCatRepository;
 import com.fvp.util.LoggingUtil;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -27,93 +27,59 @@ public class AllCatService {
   public AllCat findByTenantIdAndName(Integer tenantId, String name) {
     String cacheKey = generateCacheKey(tenantId, name);
 
-    return LoggingUtil.logOperationTime(logger, "find category by tenant and name", () -> {
-      Optional<AllCat> cachedCategory = cacheService.getFromCache(
-          CacheService.CACHE_NAME_CATEGORIES,
-          cacheKey,
-          AllCat.class
-      );
-      if (cachedCategory.isPresent()) {
-        logger.info("Cache hit for category: {}", name);
-        return cachedCategory.get();
-      }
-
-      logger.info("Cache miss for category: {}", name);
-      AllCat category = allCatRepository.findByTenantIdAndName(tenantId, name);
-      if (category != null) {
-        cacheService.putInCacheWithExpiry(
-            CacheService.CACHE_NAME_CATEGORIES,
-            cacheKey,
-            category,
-            CACHE_EXPIRY_MINUTES,
-            TimeUnit.MINUTES
-        );
-      }
-      return category;
-    });
+    return LoggingUtil.logOperationTime(logger, "find category by tenant and name", () ->
+        cacheService.getOrLoadNullable(CacheService.CACHE_NAME_CATEGORIES, cacheKey, AllCat.class,
+            () -> {
+              logger.info("Cache miss for category: {}", name);
+              return allCatRepository.findByTenantIdAndName(tenantId, name);
+            },
+            CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES));
   }
 
   public List<AllCat> findByTenantIdAndHomeOrderByHomeCatOrder(Integer tenantId, Integer home) {
     String cacheKey = generateCacheKey(tenantId, "home_" + home);
 
-    return LoggingUtil.logOperationTime(logger, "find home categories", () -> {
-      TypeReference<List<AllCat>> typeRef = new TypeReference<List<AllCat>>() {
-      };
-      Optional<List<AllCat>> cachedCategories = cacheService.getCollectionFromCache(
-          CacheService.CACHE_NAME_CATEGORIES,
-          cacheKey,
-          typeRef
-      );
-      if (cachedCategories.isPresent()) {
-        logger.info("Cache hit for home categories");
-        return cachedCategories.get();
-      }
-
-      logger.info("Cache miss for home categories");
-      List<AllCat> categories = allCatRepository.findByTenantIdAndHomeOrderByHomeCatOrder(tenantId,
-          home);
-      if (!categories.isEmpty()) {
-        cacheService.putInCacheWithExpiry(
-            CacheService.CACHE_NAME_CATEGORIES,
-            cacheKey,
-            categories,
-            CACHE_EXPIRY_MINUTES,
-            TimeUnit.MINUTES
-        );
-      }
-      return categories;
-    });
+    return LoggingUtil.logOperationTime(logger, "find home categories", () ->
+        getOrLoadCategories(cacheKey, "home categories",
+            () -> allCatRepository.findByTenantIdAndHomeOrderByHomeCatOrder(tenantId, home)));
   }
 
   public List<AllCat> findAllHomeSEOCategories(Integer tenantId) {
     String cacheKey = generateCacheKey(tenantId, "home_seo");
 
-    return LoggingUtil.logOperationTime(logger, "find home SEO categories", () -> {
-      TypeReference<List<AllCat>> typeRef = new TypeReference<List<AllCat>>() {
-      };
-      Optional<List<AllCat>> cachedCategories = cacheService.getCollectionFromCache(
-          CacheService.CACHE_NAME_CATEGORIES,
-          cacheKey,
-          typeRef
-      );
-      if (cachedCategories.isPresent()) {
-        logger.info("Cache hit for home SEO categories");
-        return cachedCategories.get();
-      }
+    return LoggingUtil.logOperationTime(logger, "find home SEO categories", () ->
+        getOrLoadCategories(cacheKey, "home SEO categories",
+            () -> allCatRepository.findAllHomeSEOCategories(tenantId)));
+  }
 
-      logger.info("Cache miss for home SEO categories");
-      List<AllCat> categories = allCatRepository.findAllHomeSEOCategories(tenantId);
-      if (!categories.isEmpty()) {
-        cacheService.putInCacheWithExpiry(
+  /**
+   * Read a category list from cache, loading it once per key on a miss. Empty lists are not
+   * cached.
+   */
+  private List<AllCat> getOrLoadCategories(String cacheKey, String description,
+      Supplier<List<AllCat>> loader) {
+    TypeReference<List<AllCat>> typeRef = new TypeReference<List<AllCat>>() {
+    };
+    return cacheService.getOrLoad(CacheService.CACHE_NAME_CATEGORIES, cacheKey,
+        () -> cacheService.getCollectionFromCache(
             CacheService.CACHE_NAME_CATEGORIES,
             cacheKey,
-            categories,
-            CACHE_EXPIRY_MINUTES,
-            TimeUnit.MINUTES
-        );
-      }
-      return categories;
-    });
+            typeRef
+        ),
+        () -> {
+          logger.info("Cache miss for {}", description);
+          List<AllCat> categories = loader.get();
+          if (!categories.isEmpty()) {
+            cacheService.putInCacheWithExpiry(
+                CacheService.CACHE_NAME_CATEGORIES,
+                cacheKey,
+                categories,
+                CACHE_EXPIRY_MINUTES,
+                TimeUnit.MINUTES
+            );
+          }
+          return categories;
+        });
   }
 
   private String generateCacheKey(Integer tenantId, String suffix) {
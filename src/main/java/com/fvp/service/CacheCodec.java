@@ -0,0 +1,244 @@
+package com.fvp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fvp.config.CacheCodecConfig;
+import com.fvp.config.PageDeserializer;
+import com.fvp.dto.CacheEnvelope;
+import com.fvp.util.LoggingUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodes cache values to the binary form stored in Redis.
+ *
+ * <p>Encoded values start with a 4 byte header: a zero marker byte (never the first byte of a
+ * JSON document), the header version, the serialization format and the compression algorithm.
+ * LZ4 payloads additionally carry the uncompressed length. Values without the marker are legacy
+ * plain JSON strings and are still decoded so entries written before the rollout keep working.
+ * A marker followed by header version 0 and nothing else is a tombstone (negative cache entry).
+ */
+@Component
+public class CacheCodec {
+
+  private static final Logger logger = LoggingUtil.getLogger(CacheCodec.class);
+
+  private static final byte MARKER = 0x00;
+  private static final byte VERSION = 1;
+  // Header version 0 marks a tombstone: a cached "not found" without payload
+  private static final byte TOMBSTONE_VERSION = 0;
+  private static final int HEADER_LENGTH = 4;
+
+  private static final byte FORMAT_JSON = 1;
+  private static final byte FORMAT_SMILE = 2;
+
+  private static final byte COMPRESSION_NONE = 0;
+  private static final byte COMPRESSION_DEFLATE = 1;
+  private static final byte COMPRESSION_LZ4 = 2;
+
+  private final ObjectMapper jsonMapper;
+  private final ObjectMapper smileMapper;
+  private final byte format;
+  private final byte compression;
+  private final int compressionThreshold;
+  private final LZ4Compressor lz4Compressor;
+  private final LZ4FastDecompressor lz4Decompressor;
+
+  @Autowired
+  public CacheCodec(ObjectMapper objectMapper, CacheCodecConfig config) {
+    this.jsonMapper = objectMapper;
+    this.smileMapper = createSmileMapper();
+    this.format = "json".equalsIgnoreCase(config.getFormat()) ? FORMAT_JSON : FORMAT_SMILE;
+    this.compression = parseCompression(config.getCompression());
+    this.compressionThreshold = config.getCompressionThreshold();
+    LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+    this.lz4Compressor = lz4Factory.fastCompressor();
+    this.lz4Decompressor = lz4Factory.fastDecompressor();
+    logger.info("Cache codec initialized with format={}, compression={}, compressionThreshold={}",
+        config.getFormat(), config.getCompression(), compressionThreshold);
+  }
+
+  /**
+   * Serialize a value into the versioned binary representation
+   * @param value the value to encode
+   * @return header followed by the (optionally compressed) payload
+   */
+  public byte[] encode(Object value) throws IOException {
+    byte[] payload = format == FORMAT_SMILE
+        ? smileMapper.writeValueAsBytes(value)
+        : jsonMapper.writeValueAsBytes(value);
+
+    byte appliedCompression = COMPRESSION_NONE;
+    if (compression != COMPRESSION_NONE && payload.length >= compressionThreshold) {
+      byte[] compressed = compression == COMPRESSION_LZ4 ? lz4Compress(payload) : deflate(payload);
+      // Keep the raw payload when compression does not pay off
+      if (compressed.length < payload.length) {
+        payload = compressed;
+        appliedCompression = compression;
+      }
+    }
+
+    byte[] encoded = new byte[HEADER_LENGTH + payload.length];
+    encoded[0] = MARKER;
+    encoded[1] = VERSION;
+    encoded[2] = format;
+    encoded[3] = appliedCompression;
+    System.arraycopy(payload, 0, encoded, HEADER_LENGTH, payload.length);
+    return encoded;
+  }
+
+  /**
+   * Encoded form of a cached "not found"
+   * @return a new tombstone entry
+   */
+  public byte[] tombstone() {
+    return new byte[]{MARKER, TOMBSTONE_VERSION};
+  }
+
+  public boolean isTombstone(byte[] encoded) {
+    return encoded != null && encoded.length == 2 && encoded[0] == MARKER
+        && encoded[1] == TOMBSTONE_VERSION;
+  }
+
+  public <T> T decode(byte[] encoded, Class<T> type) throws IOException {
+    return decode(encoded, jsonMapper.getTypeFactory().constructType(type));
+  }
+
+  public <T> T decode(byte[] encoded, TypeReference<T> typeReference) throws IOException {
+    return decode(encoded, jsonMapper.getTypeFactory().constructType(typeReference));
+  }
+
+  /**
+   * Decode a value written as a {@link CacheEnvelope}
+   * @param encoded the encoded entry
+   * @param valueType the type of the wrapped value
+   * @return the envelope
+   */
+  public <T> CacheEnvelope<T> decodeEnvelope(byte[] encoded, TypeReference<T> valueType)
+      throws IOException {
+    TypeFactory typeFactory = jsonMapper.getTypeFactory();
+    return decode(encoded, typeFactory.constructParametricType(CacheEnvelope.class,
+        typeFactory.constructType(valueType)));
+  }
+
+  private <T> T decode(byte[] encoded, JavaType javaType) throws IOException {
+    if (encoded.length == 0 || encoded[0] != MARKER) {
+      // Legacy entry written as a plain JSON string
+      return jsonMapper.readValue(encoded, javaType);
+    }
+    if (encoded.length < HEADER_LENGTH || encoded[1] != VERSION) {
+      throw new IOException("Unsupported cache entry header version: "
+          + (encoded.length > 1 ? encoded[1] : -1));
+    }
+
+    byte[] payload = Arrays.copyOfRange(encoded, HEADER_LENGTH, encoded.length);
+    switch (encoded[3]) {
+      case COMPRESSION_NONE:
+        break;
+      case COMPRESSION_DEFLATE:
+        payload = inflate(payload);
+        break;
+      case COMPRESSION_LZ4:
+        payload = lz4Decompress(payload);
+        break;
+      default:
+        throw new IOException("Unsupported cache entry compression: " + encoded[3]);
+    }
+
+    ObjectMapper mapper = encoded[2] == FORMAT_SMILE ? smileMapper : jsonMapper;
+    return mapper.readValue(payload, javaType);
+  }
+
+  private byte[] lz4Compress(byte[] data) {
+    int maxLength = lz4Compressor.maxCompressedLength(data.length);
+    ByteBuffer buffer = ByteBuffer.allocate(4 + maxLength);
+    buffer.putInt(data.length);
+    int compressedLength = lz4Compressor.compress(data, 0, data.length, buffer.array(), 4,
+        maxLength);
+    return Arrays.copyOf(buffer.array(), 4 + compressedLength);
+  }
+
+  private byte[] lz4Decompress(byte[] data) {
+    int originalLength = ByteBuffer.wrap(data, 0, 4).getInt();
+    byte[] restored = new byte[originalLength];
+    lz4Decompressor.decompress(data, 4, restored, 0, originalLength);
+    return restored;
+  }
+
+  private byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(buffer);
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private byte[] inflate(byte[] data) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+      byte[] buffer = new byte[8192];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && inflater.needsInput()) {
+          throw new IOException("Truncated deflate payload");
+        }
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt deflate payload", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static byte parseCompression(String compression) {
+    if ("lz4".equalsIgnoreCase(compression)) {
+      return COMPRESSION_LZ4;
+    }
+    if ("deflate".equalsIgnoreCase(compression)) {
+      return COMPRESSION_DEFLATE;
+    }
+    return COMPRESSION_NONE;
+  }
+
+  /**
+   * Smile mapper with the same modules as the primary JSON mapper in JacksonConfig
+   */
+  private static ObjectMapper createSmileMapper() {
+    ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+    SimpleModule pageModule = new SimpleModule();
+    pageModule.addDeserializer(Page.class, new PageDeserializer());
+    mapper.registerModule(pageModule);
+    mapper.registerModule(new JavaTimeModule());
+    return mapper;
+  }
+}
@@ -0,0 +1,142 @@
+package com.fvp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters for {@link CacheService}, tagged by cache name and operation.
+ * <ul>
+ *   <li>fvp.cache.requests (result = hit, miss, bypass, stale, negative)</li>
+ *   <li>fvp.cache.tombstones, negative entries written</li>
+ *   <li>fvp.cache.near.requests (result = hit, miss)</li>
+ *   <li>fvp.cache.errors</li>
+ *   <li>fvp.cache.redis.latency</li>
+ *   <li>fvp.cache.serialization.latency (operation = encode, decode)</li>
+ *   <li>fvp.cache.value.size in bytes, as a histogram</li>
+ * </ul>
+ */
+@Component
+public class CacheMetrics {
+
+  public static final String RESULT_HIT = "hit";
+  public static final String RESULT_MISS = "miss";
+  public static final String RESULT_BYPASS = "bypass";
+  public static final String RESULT_STALE = "stale";
+  public static final String RESULT_NEGATIVE = "negative";
+
+  private static final String TAG_CACHE = "cache";
+  private static final String TAG_OPERATION = "operation";
+  private static final String TAG_RESULT = "result";
+
+  private final MeterRegistry meterRegistry;
+
+  public CacheMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public void recordRequest(String cacheName, String operation, String result) {
+    recordRequests(cacheName, operation, result, 1);
+  }
+
+  public void recordRequests(String cacheName, String operation, String result, long count) {
+    if (count <= 0) {
+      return;
+    }
+    Counter.builder("fvp.cache.requests")
+        .description("Cache lookups by result")
+        .tags(TAG_CACHE, cacheName, TAG_OPERATION, operation, TAG_RESULT, result)
+        .register(meterRegistry)
+        .increment(count);
+  }
+
+  public void recordTombstone(String cacheName) {
+    Counter.builder("fvp.cache.tombstones")
+        .description("Negative (not found) entries written")
+        .tags(TAG_CACHE, cacheName)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public void recordNearCache(String cacheName, boolean hit) {
+    Counter.builder("fvp.cache.near.requests")
+        .description("In-process near cache lookups by result")
+        .tags(TAG_CACHE, cacheName, TAG_RESULT, hit ? RESULT_HIT : RESULT_MISS)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public void recordError(String cacheName, String operation) {
+    Counter.builder("fvp.cache.errors")
+        .description("Failed cache operations")
+        .tags(TAG_CACHE, cacheName, TAG_OPERATION, operation)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public void recordRedisTime(String cacheName, String operation, long nanos) {
+    Timer.builder("fvp.cache.redis.latency")
+        .description("Time spent in Redis round trips")
+        .tags(TAG_CACHE, cacheName, TAG_OPERATION, operation)
+        .register(meterRegistry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordValueSize(String cacheName, int bytes) {
+    DistributionSummary.builder("fvp.cache.value.size")
+        .description("Encoded size of cached values")
+        .baseUnit("bytes")
+        .publishPercentileHistogram()
+        .tags(TAG_CACHE, cacheName)
+        .register(meterRegistry)
+        .record(bytes);
+  }
+
+  /**
+   * Time an encode or decode call
+   * @param cacheName the cache name
+   * @param operation encode or decode
+   * @param codecCall the call to time
+   * @return the result of the call
+   */
+  public <T> T timeSerialization(String cacheName, String operation,
+      SerializationCall<T> codecCall) throws IOException {
+    long startTime = System.nanoTime();
+    try {
+      return codecCall.call();
+    } finally {
+      Timer.builder("fvp.cache.serialization.latency")
+          .description("Time spent encoding and decoding cached values")
+          .tags(TAG_CACHE, cacheName, TAG_OPERATION, operation)
+          .register(meterRegistry)
+          .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Time a Redis round trip
+   * @param cacheName the cache name
+   * @param operation the Redis operation
+   * @param redisCall the call to time
+   * @return the result of the call
+   */
+  public <T> T timeRedis(String cacheName, String operation, Supplier<T> redisCall) {
+    long startTime = System.nanoTime();
+    try {
+      return redisCall.get();
+    } finally {
+      recordRedisTime(cacheName, operation, System.nanoTime() - startTime);
+    }
+  }
+
+  @FunctionalInterface
+  public interface SerializationCall<T> {
+
+    T call() throws IOException;
+  }
+}
@@ -1,18 +1,46 @@
 package com.fvp.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fvp.config.NearCacheConfig;
+import com.fvp.dto.CacheEnvelope;
 import com.fvp.util.CacheBypassUtil;
+import com.fvp.util.NearCache;
+import com.fvp.util.SingleFlight;
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import com.fvp.util.LoggingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
 
 @Service
 public class CacheService {
@@ -24,19 +52,133 @@ public class CacheService {
 
   private static final long DEFAULT_CACHE_TTL = 24 * 60 * 60; // 24 hours in seconds
 
+  private static final String INVALIDATE_KEY = "K";
+  private static final String INVALIDATE_CACHE = "C";
+  private static final String INVALIDATE_ALL = "A";
+  private static final long SUBSCRIBER_RETRY_DELAY_MS = 5000;
+  private static final long LOCK_POLL_INTERVAL_MS = 50;
+  private static final String TAG_KEY_PREFIX = "tags:";
+  // Plain Redis sets written before tag indices were scored by expiry; swept on invalidation
+  // until they have expired on their own
+  private static final String LEGACY_TAG_KEY_PREFIX = "tag:";
+  private static final long TAG_TTL_SECONDS = 2 * DEFAULT_CACHE_TTL;
+  private static final int INVALIDATION_BATCH_SIZE = 500;
+  private static final String LOCK_KEY_PREFIX = "lock:";
+  private static final String OP_GET = "get";
+  private static final String OP_GET_MANY = "getMany";
+  private static final String OP_GET_OR_REFRESH = "getOrRefresh";
+  private static final String OP_PUT = "put";
+  private static final String OP_PUT_MANY = "putMany";
+  private static final String OP_DELETE = "delete";
+  private static final String RELEASE_LOCK_SCRIPT =
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
   private final JedisPool jedisPool;
-  private final ObjectMapper objectMapper;
+  private final CacheCodec cacheCodec;
+  private final NearCacheConfig nearCacheConfig;
+  private final CacheMetrics cacheMetrics;
+  private final NearCache<byte[]> nearCache;
+  private final SingleFlight singleFlight = new SingleFlight();
+  private final boolean distributedLockEnabled;
+  private final long lockTtlMs;
+  private final long loadWaitTimeoutMs;
+  private final long negativeTtlSeconds;
+  private final ElasticsearchHealthMonitor healthMonitor;
+  private final ThreadPoolExecutor refreshExecutor;
+  private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+  private final String instanceId = UUID.randomUUID().toString();
+  private final JedisPubSub invalidationSubscriber = new InvalidationSubscriber();
+  private volatile boolean running;
+  private Thread subscriberThread;
   private static final Logger logger = LoggingUtil.getLogger(CacheService.class);
 
   @Autowired
-  public CacheService(JedisPool jedisPool, ObjectMapper objectMapper) {
+  public CacheService(JedisPool jedisPool, CacheCodec cacheCodec,
+      NearCacheConfig nearCacheConfig, CacheMetrics cacheMetrics,
+      ElasticsearchHealthMonitor healthMonitor,
+      @Value("${cache.single-flight.distributed-lock-enabled:false}") boolean distributedLockEnabled,
+      @Value("${cache.single-flight.lock-ttl-ms:5000}") long lockTtlMs,
+      @Value("${cache.single-flight.wait-timeout-ms:30000}") long loadWaitTimeoutMs,
+      @Value("${cache.refresh.max-threads:4}") int refreshMaxThreads,
+      @Value("${cache.refresh.queue-capacity:100}") int refreshQueueCapacity,
+      @Value("${cache.negative.ttl-seconds:300}") long negativeTtlSeconds) {
     this.jedisPool = jedisPool;
-    this.objectMapper = objectMapper;
+    this.cacheCodec = cacheCodec;
+    this.nearCacheConfig = nearCacheConfig;
+    this.cacheMetrics = cacheMetrics;
+    this.healthMonitor = healthMonitor;
+    this.nearCache = new NearCache<>(nearCacheConfig.getMaxEntries());
+    this.distributedLockEnabled = distributedLockEnabled;
+    this.lockTtlMs = lockTtlMs;
+    this.loadWaitTimeoutMs = loadWaitTimeoutMs;
+    this.negativeTtlSeconds = negativeTtlSeconds;
+    AtomicInteger refreshThreadCount = new AtomicInteger();
+    this.refreshExecutor = new ThreadPoolExecutor(refreshMaxThreads, refreshMaxThreads, 60L,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<>(refreshQueueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "cache-refresh-" + refreshThreadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.refreshExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @PostConstruct
+  public void startInvalidationSubscriber() {
+    if (!nearCacheConfig.isEnabled()) {
+      logger.info("Near cache disabled, invalidation subscriber not started");
+      return;
+    }
+    running = true;
+    subscriberThread = new Thread(this::runInvalidationSubscriber, "cache-invalidation-subscriber");
+    subscriberThread.setDaemon(true);
+    subscriberThread.start();
+    logger.info("Near cache enabled with maxEntries={}, defaultTtlSeconds={}, channel={}, instanceId={}",
+        nearCacheConfig.getMaxEntries(), nearCacheConfig.getDefaultTtlSeconds(),
+        nearCacheConfig.getInvalidationChannel(), instanceId);
+  }
+
+  @PreDestroy
+  public void stopInvalidationSubscriber() {
+    running = false;
+    try {
+      if (invalidationSubscriber.isSubscribed()) {
+        invalidationSubscriber.unsubscribe();
+      }
+    } catch (Exception e) {
+      logger.warn("Error unsubscribing from cache invalidation channel: {}", e.getMessage());
+    }
+    if (subscriberThread != null) {
+      subscriberThread.interrupt();
+    }
+    refreshExecutor.shutdownNow();
+  }
+
+  private void runInvalidationSubscriber() {
+    while (running) {
+      try (Jedis jedis = jedisPool.getResource()) {
+        jedis.subscribe(invalidationSubscriber, nearCacheConfig.getInvalidationChannel());
+      } catch (Exception e) {
+        if (!running) {
+          break;
+        }
+        // Anything cached locally may have been changed elsewhere while we were disconnected
+        nearCache.clear();
+        logger.warn("Cache invalidation subscriber disconnected, retrying in {} ms: {}",
+            SUBSCRIBER_RETRY_DELAY_MS, e.getMessage());
+        try {
+          Thread.sleep(SUBSCRIBER_RETRY_DELAY_MS);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
   }
 
   public <T> Optional<T> getFromCache(String cacheName, String key, Class<T> type) {
     if (CacheBypassUtil.isCacheBypass()) {
-      logger.info("Bypassing the cache for cacheName={}, key={}", cacheName, key);
+      logger.debug("Bypassing the cache for cacheName={}, key={}", cacheName, key);
+      cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_BYPASS);
       return Optional.empty();
     }
 
@@ -44,23 +186,26 @@ public class CacheService {
       String cacheKey = generateCacheKey(cacheName, key);
       logger.debug("Attempting to get from cache - cacheName: {}, key: {}, fullKey: {}", cacheName, key, cacheKey);
       
-      String cachedValue;
       long startTime = System.currentTimeMillis();
-
-      try (Jedis jedis = jedisPool.getResource()) {
-        cachedValue = jedis.get(cacheKey);
-      }
-
+      byte[] cachedValue = readValue(cacheName, cacheKey);
       long duration = System.currentTimeMillis() - startTime;
       
       if (cachedValue == null) {
         logger.debug("Cache MISS for cacheName: {}, key: {} (took {} ms)", cacheName, key, duration);
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_MISS);
         return Optional.empty();
       }
       
+      if (cacheCodec.isTombstone(cachedValue)) {
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_NEGATIVE);
+        return Optional.empty();
+      }
+
       logger.debug("Cache HIT for cacheName: {}, key: {} (took {} ms)", cacheName, key, duration);
-      return Optional.of(objectMapper.readValue(cachedValue, type));
+      cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_HIT);
+      return Optional.of(decode(cacheName, cacheKey, cachedValue, type));
     } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_GET);
       logger.error("Error getting value from cache for cacheName: {}, key: {}: {}", cacheName, key, e.getMessage(), e);
       return Optional.empty();
     }
@@ -68,23 +213,27 @@ public class CacheService {
 
   public <T> Optional<T> getCollectionFromCache(String cacheName, String key, TypeReference<T> typeReference) {
     if (CacheBypassUtil.isCacheBypass()) {
-      logger.info("Bypassing the cache for cacheName={}, key={}", cacheName, key);
+      logger.debug("Bypassing the cache for cacheName={}, key={}", cacheName, key);
+      cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_BYPASS);
       return Optional.empty();
     }
 
     try {
       String cacheKey = generateCacheKey(cacheName, key);
-      String cachedValue;
-
-      try (Jedis jedis = jedisPool.getResource()) {
-        cachedValue = jedis.get(cacheKey);
-      }
+      byte[] cachedValue = readValue(cacheName, cacheKey);
 
       if (cachedValue == null) {
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_MISS);
+        return Optional.empty();
+      }
+      if (cacheCodec.isTombstone(cachedValue)) {
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_NEGATIVE);
         return Optional.empty();
       }
-      return Optional.of(objectMapper.readValue(cachedValue, typeReference));
+      cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_HIT);
+      return Optional.of(decode(cacheName, cacheKey, cachedValue, typeReference));
     } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_GET);
       logger.error("Error getting collection from cache: {}", e.getMessage());
       return Optional.empty();
     }
@@ -95,16 +244,15 @@ public class CacheService {
       String fullKey = generateCacheKey(cacheName, key);
       logger.debug("Putting value in cache - cacheName: {}, key: {}, fullKey: {}", cacheName, key, fullKey);
       
-      String jsonValue = objectMapper.writeValueAsString(value);
+      byte[] encodedValue = encode(cacheName, value);
       long startTime = System.currentTimeMillis();
 
-      try (Jedis jedis = jedisPool.getResource()) {
-        jedis.setex(fullKey, (int) DEFAULT_CACHE_TTL, jsonValue);
-      }
+      writeValue(cacheName, fullKey, encodedValue, DEFAULT_CACHE_TTL);
       
       long duration = System.currentTimeMillis() - startTime;
       logger.debug("Successfully put value in cache - cacheName: {}, key: {} (took {} ms)", cacheName, key, duration);
     } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_PUT);
       logger.error("Error putting value in cache for cacheName: {}, key: {}: {}", cacheName, key, e.getMessage(), e);
     }
   }
@@ -112,24 +260,24 @@ public class CacheService {
   public <T> void putInCacheWithTTL(String cacheName, String key, T value, long ttlSeconds) {
     try {
       String fullKey = generateCacheKey(cacheName, key);
-      String jsonValue = objectMapper.writeValueAsString(value);
+      byte[] encodedValue = encode(cacheName, value);
 
-      try (Jedis jedis = jedisPool.getResource()) {
-        jedis.setex(fullKey, (int) ttlSeconds, jsonValue);
-      }
+      writeValue(cacheName, fullKey, encodedValue, ttlSeconds);
     } catch (Exception e) {
-      // Silently handle exceptions
+      cacheMetrics.recordError(cacheName, OP_PUT);
     }
   }
 
   public void deleteFromCache(String cacheName, String key) {
     try {
       String fullKey = generateCacheKey(cacheName, key);
+      nearCache.remove(fullKey);
       try (Jedis jedis = jedisPool.getResource()) {
-        jedis.del(fullKey);
+        cacheMetrics.timeRedis(cacheName, "DEL", () -> jedis.del(fullKey));
       }
+      publishInvalidation(INVALIDATE_KEY, cacheName, fullKey);
     } catch (Exception e) {
-      // Silently handle exceptions
+      cacheMetrics.recordError(cacheName, OP_DELETE);
     }
   }
 
@@ -145,68 +293,950 @@ public class CacheService {
       TimeUnit unit) {
     try {
       String fullKey = generateCacheKey(cacheName, key);
-      String jsonValue = objectMapper.writeValueAsString(value);
+      byte[] encodedValue = encode(cacheName, value);
       int seconds = (int) unit.toSeconds(timeout);
 
-      try (Jedis jedis = jedisPool.getResource()) {
-        jedis.setex(fullKey, seconds, jsonValue);
+      writeValue(cacheName, fullKey, encodedValue, seconds);
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_PUT);
+    }
+  }
+
+  /**
+   * Get several values of the same cache in one round trip. Keys already held in the near cache
+   * are served locally, the rest are fetched with a single MGET.
+   * @param cacheName the cache name
+   * @param keys the keys to look up (without the cache name prefix)
+   * @param type the value type
+   * @return map of key to value, containing only the keys that were found, in request order
+   */
+  public <T> Map<String, T> getManyFromCache(String cacheName, Collection<String> keys,
+      Class<T> type) {
+    Map<String, T> result = new LinkedHashMap<>();
+    if (keys == null || keys.isEmpty()) {
+      return result;
+    }
+    if (CacheBypassUtil.isCacheBypass()) {
+      logger.debug("Bypassing the cache for cacheName={}, {} keys", cacheName, keys.size());
+      cacheMetrics.recordRequests(cacheName, OP_GET_MANY, CacheMetrics.RESULT_BYPASS, keys.size());
+      return result;
+    }
+
+    try {
+      long startTime = System.currentTimeMillis();
+      Map<String, byte[]> rawValues = readValues(cacheName, keys);
+      int negativeHits = 0;
+      for (Map.Entry<String, byte[]> entry : rawValues.entrySet()) {
+        if (cacheCodec.isTombstone(entry.getValue())) {
+          negativeHits++;
+          continue;
+        }
+        try {
+          result.put(entry.getKey(), decode(cacheName, generateCacheKey(cacheName, entry.getKey()),
+              entry.getValue(), type));
+        } catch (Exception e) {
+          cacheMetrics.recordError(cacheName, OP_GET_MANY);
+          logger.error("Error deserializing cached value for cacheName: {}, key: {}: {}",
+              cacheName, entry.getKey(), e.getMessage());
+        }
       }
+      cacheMetrics.recordRequests(cacheName, OP_GET_MANY, CacheMetrics.RESULT_HIT, result.size());
+      cacheMetrics.recordRequests(cacheName, OP_GET_MANY, CacheMetrics.RESULT_NEGATIVE,
+          negativeHits);
+      cacheMetrics.recordRequests(cacheName, OP_GET_MANY, CacheMetrics.RESULT_MISS,
+          keys.size() - result.size() - negativeHits);
+      logger.debug("Bulk cache lookup for cacheName: {} - {} hits out of {} keys (took {} ms)",
+          cacheName, result.size(), keys.size(), System.currentTimeMillis() - startTime);
     } catch (Exception e) {
-      // Silently handle exceptions
+      cacheMetrics.recordError(cacheName, OP_GET_MANY);
+      logger.error("Error getting values from cache for cacheName: {}: {}", cacheName,
+          e.getMessage(), e);
     }
+    return result;
   }
 
-  public <T> T getOrCompute(String cacheName, String key, Supplier<T> supplier, Class<T> type) {
-    Optional<T> cachedValue = getFromCache(cacheName, key, type);
+  /**
+   * Put several values into the same cache with the default TTL using one pipelined round trip
+   * @param cacheName the cache name
+   * @param values map of key (without the cache name prefix) to value
+   */
+  public <T> void putManyInCache(String cacheName, Map<String, T> values) {
+    putManyInCache(cacheName, values, DEFAULT_CACHE_TTL, TimeUnit.SECONDS);
+  }
 
-    if (!cachedValue.isPresent()) {
+  /**
+   * Put several values into the same cache using one pipelined round trip
+   * @param cacheName the cache name
+   * @param values map of key (without the cache name prefix) to value
+   * @param timeout expiry of every entry
+   * @param unit unit of the timeout
+   */
+  public <T> void putManyInCache(String cacheName, Map<String, T> values, long timeout,
+      TimeUnit unit) {
+    if (values == null || values.isEmpty()) {
+      return;
+    }
+
+    try {
+      long ttlSeconds = unit.toSeconds(timeout);
+      Map<String, byte[]> rawValues = new LinkedHashMap<>();
+      for (Map.Entry<String, T> entry : values.entrySet()) {
+        try {
+          rawValues.put(generateCacheKey(cacheName, entry.getKey()),
+              encode(cacheName, entry.getValue()));
+        } catch (Exception e) {
+          cacheMetrics.recordError(cacheName, OP_PUT_MANY);
+          logger.error("Error serializing value for cacheName: {}, key: {}: {}", cacheName,
+              entry.getKey(), e.getMessage());
+        }
+      }
+      long startTime = System.currentTimeMillis();
+      writeValues(cacheName, rawValues, ttlSeconds);
+      logger.debug("Bulk put of {} values in cache {} (took {} ms)", rawValues.size(), cacheName,
+          System.currentTimeMillis() - startTime);
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_PUT_MANY);
+      logger.error("Error putting values in cache for cacheName: {}: {}", cacheName,
+          e.getMessage(), e);
+    }
+  }
+
+  public <T> T getOrCompute(String cacheName, String key, Supplier<T> supplier, Class<T> type) {
+    return getOrLoad(cacheName, key, () -> getFromCache(cacheName, key, type), () -> {
       T value = supplier.get();
       if (value != null) {
         putInCache(cacheName, key, value);
       }
       return value;
+    });
+  }
+
+  /**
+   * Like {@link #getOrLoad}, but also caches "not found": when the loader returns null a tombstone
+   * is stored for the short negative TTL (cache.negative.ttl-seconds), so repeated lookups of
+   * unknown names cost one cache read instead of a database or Elasticsearch round trip.
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param type the value type
+   * @param loader computes the value; returns null only for a confirmed miss and throws when the
+   * lookup fails, so a failure is never cached as "not found"; must not write to the cache itself
+   * @param ttl expiry of found values
+   * @param unit unit of the ttl
+   * @param tags tags of the entry, see {@link #putInCacheWithTags}
+   * @return the cached or loaded value, null when not found
+   */
+  public <T> T getOrLoadNullable(String cacheName, String key, Class<T> type, Supplier<T> loader,
+      long ttl, TimeUnit unit, String... tags) {
+    Supplier<NullableValue<T>> loadAndStore = () -> {
+      T value = loader.get();
+      if (value == null) {
+        putNotFound(cacheName, key);
+      } else {
+        putInCacheWithExpiry(cacheName, key, value, ttl, unit);
+      }
+      // Tombstones are tagged too, so ingesting the missing item invalidates them
+      if (value == null) {
+        tagKey(cacheName, key, negativeTtlSeconds, TimeUnit.SECONDS, tags);
+      } else {
+        tagKey(cacheName, key, ttl, unit, tags);
+      }
+      return new NullableValue<>(value);
+    };
+    if (CacheBypassUtil.isCacheBypass()) {
+      return loadAndStore.get().value;
+    }
+
+    Supplier<Optional<NullableValue<T>>> lookup = () -> getNullable(cacheName, key, type);
+    Optional<NullableValue<T>> cachedValue = lookup.get();
+    if (cachedValue.isPresent()) {
+      return cachedValue.get().value;
+    }
+    return loadSingleFlight(cacheName, key, lookup, loadAndStore).value;
+  }
+
+  /**
+   * {@link #getOrLoadNullable(String, String, Class, Supplier, long, TimeUnit, String...)} with
+   * the default TTL for found values
+   */
+  public <T> T getOrLoadNullable(String cacheName, String key, Class<T> type, Supplier<T> loader,
+      String... tags) {
+    return getOrLoadNullable(cacheName, key, type, loader, DEFAULT_CACHE_TTL, TimeUnit.SECONDS,
+        tags);
+  }
+
+  /**
+   * Cache that a key has no value, for the negative TTL
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   */
+  public void putNotFound(String cacheName, String key) {
+    try {
+      writeValue(cacheName, generateCacheKey(cacheName, key), cacheCodec.tombstone(),
+          negativeTtlSeconds);
+      cacheMetrics.recordTombstone(cacheName);
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_PUT);
+      logger.error("Error caching not-found for cacheName: {}, key: {}: {}", cacheName, key,
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Read a key that may hold a tombstone
+   * @return empty on miss, a null value for a tombstone
+   */
+  private <T> Optional<NullableValue<T>> getNullable(String cacheName, String key, Class<T> type) {
+    try {
+      String fullKey = generateCacheKey(cacheName, key);
+      byte[] cachedValue = readValue(cacheName, fullKey);
+      if (cachedValue == null) {
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_MISS);
+        return Optional.empty();
+      }
+      if (cacheCodec.isTombstone(cachedValue)) {
+        cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_NEGATIVE);
+        return Optional.of(new NullableValue<>(null));
+      }
+      cacheMetrics.recordRequest(cacheName, OP_GET, CacheMetrics.RESULT_HIT);
+      return Optional.of(new NullableValue<>(decode(cacheName, fullKey, cachedValue, type)));
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_GET);
+      logger.error("Error getting value from cache for cacheName: {}, key: {}: {}", cacheName, key,
+          e.getMessage());
+      return Optional.empty();
     }
+  }
 
-    return cachedValue.get();
+  /**
+   * Return the cached value or load it, letting only one caller per key run the loader.
+   * Concurrent misses for the same key in this JVM wait for the first caller's result. When the
+   * distributed lock is enabled, the loader also takes a short Redis lock (SET NX PX) so other
+   * nodes wait for the value to appear in the cache instead of loading it again.
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param lookup reads the value from the cache, empty on miss
+   * @param loader computes the value and is responsible for putting it in the cache
+   * @return the cached or loaded value
+   */
+  public <T> T getOrLoad(String cacheName, String key, Supplier<Optional<T>> lookup,
+      Supplier<T> loader) {
+    if (CacheBypassUtil.isCacheBypass()) {
+      return loader.get();
+    }
+
+    Optional<T> cachedValue = lookup.get();
+    if (cachedValue.isPresent()) {
+      return cachedValue.get();
+    }
+    return loadSingleFlight(cacheName, key, lookup, loader);
+  }
+
+  /**
+   * Miss path of {@link #getOrLoad} for callers that already looked the key up themselves
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param lookup reads the value from the cache, empty on miss
+   * @param loader computes the value and is responsible for putting it in the cache
+   * @return the loaded value, or the value loaded by a concurrent caller
+   */
+  public <T> T loadSingleFlight(String cacheName, String key, Supplier<Optional<T>> lookup,
+      Supplier<T> loader) {
+    if (CacheBypassUtil.isCacheBypass()) {
+      return loader.get();
+    }
+
+    String fullKey = generateCacheKey(cacheName, key);
+    return singleFlight.execute(fullKey, () -> {
+      // The previous leader may have filled the cache between our miss and becoming leader
+      Optional<T> recheckedValue = lookup.get();
+      if (recheckedValue.isPresent()) {
+        return recheckedValue.get();
+      }
+      if (!distributedLockEnabled) {
+        return loader.get();
+      }
+      return loadWithDistributedLock(fullKey, lookup, loader);
+    }, loadWaitTimeoutMs);
+  }
+
+  private <T> T loadWithDistributedLock(String fullKey, Supplier<Optional<T>> lookup,
+      Supplier<T> loader) {
+    String lockKey = LOCK_KEY_PREFIX + fullKey;
+    String token = instanceId + ":" + Thread.currentThread().getId();
+
+    if (!tryLock(lockKey, token)) {
+      // Another node is loading this key, wait for it to publish the value
+      long deadline = System.currentTimeMillis() + lockTtlMs;
+      while (System.currentTimeMillis() < deadline) {
+        try {
+          Thread.sleep(LOCK_POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        Optional<T> value = lookup.get();
+        if (value.isPresent()) {
+          return value.get();
+        }
+        // The owner is done but cached nothing (empty result or failure): waiting longer is
+        // pointless
+        if (!isLocked(lockKey)) {
+          logger.debug("Remote load of fullKey: {} finished without a cached value, loading locally",
+              fullKey);
+          return loader.get();
+        }
+      }
+      logger.debug("Timed out waiting for remote load of fullKey: {}, loading locally", fullKey);
+      return loader.get();
+    }
+
+    try {
+      return loader.get();
+    } finally {
+      releaseLock(lockKey, token);
+    }
+  }
+
+  private boolean tryLock(String lockKey, String token) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return "OK".equals(jedis.set(lockKey, token, SetParams.setParams().nx().px(lockTtlMs)));
+    } catch (Exception e) {
+      // Without Redis there is nobody to coordinate with, load locally
+      logger.warn("Failed to acquire load lock {}: {}", lockKey, e.getMessage());
+      return true;
+    }
+  }
+
+  private boolean isLocked(String lockKey) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      return jedis.exists(lockKey);
+    } catch (Exception e) {
+      logger.warn("Failed to check load lock {}: {}", lockKey, e.getMessage());
+      return false;
+    }
+  }
+
+  private void releaseLock(String lockKey, String token) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.eval(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey),
+          Collections.singletonList(token));
+    } catch (Exception e) {
+      logger.warn("Failed to release load lock {}: {}", lockKey, e.getMessage());
+    }
+  }
+
+  /**
+   * Stale-while-revalidate read. Values are stored in a {@link CacheEnvelope} with a soft expiry;
+   * the Redis TTL is the hard expiry.
+   * <ul>
+   *   <li>fresh entry: returned as is</li>
+   *   <li>entry past its soft TTL: returned immediately while a background refresh runs on the
+   *   bounded refresh executor; if that refresh fails the stale value keeps being served until the
+   *   hard TTL (stale-if-error)</li>
+   *   <li>no entry: loaded synchronously, once per key (see {@link #loadSingleFlight})</li>
+   * </ul>
+   * Null values and empty collections or pages are returned but not cached.
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param typeReference the type of the cached value
+   * @param loader computes the value; must not write it to the cache itself
+   * @param softTtl time after which the value is refreshed in the background
+   * @param hardTtl time after which the value is gone from the cache
+   * @param unit unit of both TTLs
+   * @return the cached or loaded value
+   */
+  public <T> T getOrRefresh(String cacheName, String key, TypeReference<T> typeReference,
+      Supplier<T> loader, long softTtl, long hardTtl, TimeUnit unit) {
+    long softTtlMillis = unit.toMillis(softTtl);
+    long hardTtlSeconds = unit.toSeconds(hardTtl);
+    Supplier<T> loadAndStore = () -> {
+      T value = loader.get();
+      putEnvelope(cacheName, key, value, softTtlMillis, hardTtlSeconds);
+      return value;
+    };
+
+    if (CacheBypassUtil.isCacheBypass()) {
+      cacheMetrics.recordRequest(cacheName, OP_GET_OR_REFRESH, CacheMetrics.RESULT_BYPASS);
+      return loadAndStore.get();
+    }
+
+    Optional<CacheEnvelope<T>> envelope = getEnvelope(cacheName, key, typeReference);
+    if (envelope.isPresent()) {
+      if (System.currentTimeMillis() >= envelope.get().getSoftExpiresAt()) {
+        cacheMetrics.recordRequest(cacheName, OP_GET_OR_REFRESH, CacheMetrics.RESULT_STALE);
+        scheduleRefresh(cacheName, key, loadAndStore);
+      } else {
+        cacheMetrics.recordRequest(cacheName, OP_GET_OR_REFRESH, CacheMetrics.RESULT_HIT);
+      }
+      return envelope.get().getValue();
+    }
+    cacheMetrics.recordRequest(cacheName, OP_GET_OR_REFRESH, CacheMetrics.RESULT_MISS);
+
+    return loadSingleFlight(cacheName, key,
+        () -> getEnvelope(cacheName, key, typeReference).map(CacheEnvelope::getValue),
+        loadAndStore);
+  }
+
+  private <T> Optional<CacheEnvelope<T>> getEnvelope(String cacheName, String key,
+      TypeReference<T> typeReference) {
+    String fullKey = generateCacheKey(cacheName, key);
+    try {
+      byte[] cachedValue = readValue(cacheName, fullKey);
+      if (cachedValue == null || cacheCodec.isTombstone(cachedValue)) {
+        return Optional.empty();
+      }
+      return Optional.of(decodeLocal(cacheName, fullKey, cachedValue,
+          new SimpleImmutableEntry<>(CacheEnvelope.class, typeReference.getType()),
+          () -> cacheCodec.decodeEnvelope(cachedValue, typeReference)));
+    } catch (IOException e) {
+      // Entries written before the key opted in to envelopes are treated as a miss
+      logger.debug("Ignoring non-envelope cache entry for fullKey: {}: {}", fullKey, e.getMessage());
+      return Optional.empty();
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_GET_OR_REFRESH);
+      logger.error("Error getting envelope from cache for fullKey: {}: {}", fullKey, e.getMessage(), e);
+      return Optional.empty();
+    }
+  }
+
+  private <T> void putEnvelope(String cacheName, String key, T value, long softTtlMillis,
+      long hardTtlSeconds) {
+    if (!isCacheable(value)) {
+      return;
+    }
+    try {
+      String fullKey = generateCacheKey(cacheName, key);
+      CacheEnvelope<T> envelope = new CacheEnvelope<>(System.currentTimeMillis() + softTtlMillis,
+          value);
+      writeValue(cacheName, fullKey, encode(cacheName, envelope), hardTtlSeconds);
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_PUT);
+      logger.error("Error putting envelope in cache for cacheName: {}, key: {}: {}", cacheName, key,
+          e.getMessage(), e);
+    }
+  }
+
+  private void scheduleRefresh(String cacheName, String key, Supplier<?> loadAndStore) {
+    String fullKey = generateCacheKey(cacheName, key);
+    if (!refreshingKeys.add(fullKey)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        String lockKey = LOCK_KEY_PREFIX + fullKey;
+        String token = instanceId + ":" + Thread.currentThread().getId();
+        boolean locked = !distributedLockEnabled || tryLock(lockKey, token);
+        try {
+          if (locked) {
+            singleFlight.execute(fullKey, loadAndStore, loadWaitTimeoutMs);
+            logger.debug("Refreshed stale cache entry for fullKey: {}", fullKey);
+          }
+        } catch (Exception e) {
+          cacheMetrics.recordError(cacheName, "refresh");
+          logger.warn("Background refresh failed for fullKey: {}, serving stale value: {}",
+              fullKey, e.getMessage());
+        } finally {
+          if (locked && distributedLockEnabled) {
+            releaseLock(lockKey, token);
+          }
+          refreshingKeys.remove(fullKey);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshingKeys.remove(fullKey);
+      logger.warn("Refresh queue full, skipping background refresh for fullKey: {}", fullKey);
+    }
+  }
+
+  private static boolean isCacheable(Object value) {
+    if (value == null) {
+      return false;
+    }
+    return !(value instanceof Iterable) || ((Iterable<?>) value).iterator().hasNext();
   }
 
   public void evictFromCache(String cacheName, String key) {
     try {
       String fullKey = generateCacheKey(cacheName, key);
+      nearCache.remove(fullKey);
       try (Jedis jedis = jedisPool.getResource()) {
-        jedis.del(fullKey);
+        cacheMetrics.timeRedis(cacheName, "DEL", () -> jedis.del(fullKey));
       }
+      publishInvalidation(INVALIDATE_KEY, cacheName, fullKey);
     } catch (Exception e) {
-      // Silently handle exceptions
+      cacheMetrics.recordError(cacheName, OP_DELETE);
     }
   }
 
   public void clearCache(String cacheName) {
     try {
       String pattern = generateCacheKey(cacheName, "*");
-      Set<String> keys;
+      nearCache.removeByPrefix(generateCacheKey(cacheName, ""));
+      ScanParams scanParams = new ScanParams().match(pattern).count(INVALIDATION_BATCH_SIZE);
+      String cursor = ScanParams.SCAN_POINTER_START;
+      long removed = 0;
 
+      // Incremental SCAN instead of KEYS so a large keyspace never blocks Redis
       try (Jedis jedis = jedisPool.getResource()) {
-        keys = jedis.keys(pattern);
+        do {
+          ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+          List<String> keys = scanResult.getResult();
+          if (!keys.isEmpty()) {
+            jedis.unlink(keys.toArray(new String[0]));
+            removed += keys.size();
+          }
+          cursor = scanResult.getCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
       }
+      publishInvalidation(INVALIDATE_CACHE, cacheName, "");
+      logger.info("Cleared {} keys from cache {}", removed, cacheName);
+    } catch (Exception e) {
+      logger.error("Error clearing cache {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  /**
+   * Put a value with the default TTL and tag it so it can later be removed with
+   * {@link #invalidateTag}
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param value the value
+   * @param tags tags such as {@link #tenantTag} or {@link #categoryTag}
+   */
+  public <T> void putInCacheWithTags(String cacheName, String key, T value, String... tags) {
+    putInCache(cacheName, key, value);
+    tagKey(cacheName, key, tags);
+  }
 
-      if (keys != null && !keys.isEmpty()) {
-        try (Jedis jedis = jedisPool.getResource()) {
-          jedis.del(keys.toArray(new String[0]));
+  /**
+   * Record the key under each tag, for an entry with the default TTL
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param tags the tags to add the key to
+   */
+  public void tagKey(String cacheName, String key, String... tags) {
+    tagKey(cacheName, key, DEFAULT_CACHE_TTL, TimeUnit.SECONDS, tags);
+  }
+
+  /**
+   * Record the key under each tag. A tag is a sorted set of full cache keys scored by the time
+   * the entry expires, so members whose entry has already expired are trimmed on every write and
+   * the set stays as large as the live entries it references.
+   * @param cacheName the cache name
+   * @param key the key (without the cache name prefix)
+   * @param ttl expiry of the tagged entry
+   * @param unit unit of the ttl
+   * @param tags the tags to add the key to
+   */
+  public void tagKey(String cacheName, String key, long ttl, TimeUnit unit, String... tags) {
+    if (tags == null || tags.length == 0) {
+      return;
+    }
+    String fullKey = generateCacheKey(cacheName, key);
+    long now = System.currentTimeMillis();
+    int tagTtlSeconds = (int) Math.max(TAG_TTL_SECONDS, unit.toSeconds(ttl));
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      for (String tag : tags) {
+        if (tag == null) {
+          continue;
         }
+        String tagKey = TAG_KEY_PREFIX + tag;
+        pipeline.zadd(tagKey, now + unit.toMillis(ttl), fullKey);
+        pipeline.zremrangeByScore(tagKey, "-inf", "(" + now);
+        pipeline.expire(tagKey, tagTtlSeconds);
       }
+      pipeline.sync();
     } catch (Exception e) {
-      // Silently handle exceptions
+      logger.error("Error tagging cache key {} with tags {}: {}", fullKey, tags, e.getMessage());
     }
   }
 
+  /**
+   * Delete every live cache entry recorded under the tag. Expired members are dropped first, then
+   * the tag is walked with ZSCAN and the entries are removed with UNLINK in batches, so neither
+   * step blocks Redis.
+   * @param tag the tag, e.g. {@code tenant:1}
+   * @return number of keys removed
+   */
+  public long invalidateTag(String tag) {
+    String tagKey = TAG_KEY_PREFIX + tag;
+    String legacyTagKey = LEGACY_TAG_KEY_PREFIX + tag;
+    ScanParams scanParams = new ScanParams().count(INVALIDATION_BATCH_SIZE);
+    long removed = 0;
+
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.zremrangeByScore(tagKey, "-inf", "(" + System.currentTimeMillis());
+      String cursor = ScanParams.SCAN_POINTER_START;
+      do {
+        ScanResult<Tuple> scanResult = jedis.zscan(tagKey, cursor, scanParams);
+        List<String> fullKeys = new ArrayList<>(scanResult.getResult().size());
+        for (Tuple member : scanResult.getResult()) {
+          fullKeys.add(member.getElement());
+        }
+        removed += unlinkKeys(jedis, fullKeys);
+        cursor = scanResult.getCursor();
+      } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+
+      cursor = ScanParams.SCAN_POINTER_START;
+      do {
+        ScanResult<String> scanResult = jedis.sscan(legacyTagKey, cursor, scanParams);
+        removed += unlinkKeys(jedis, scanResult.getResult());
+        cursor = scanResult.getCursor();
+      } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+      jedis.unlink(tagKey, legacyTagKey);
+      logger.info("Invalidated {} cache keys for tag {}", removed, tag);
+    } catch (Exception e) {
+      logger.error("Error invalidating cache tag {}: {}", tag, e.getMessage(), e);
+    }
+    return removed;
+  }
+
+  private int unlinkKeys(Jedis jedis, List<String> fullKeys) {
+    if (fullKeys.isEmpty()) {
+      return 0;
+    }
+    Pipeline pipeline = jedis.pipelined();
+    pipeline.unlink(fullKeys.toArray(new String[0]));
+    for (String fullKey : fullKeys) {
+      nearCache.remove(fullKey);
+      if (nearCacheConfig.isEnabled()) {
+        pipeline.publish(nearCacheConfig.getInvalidationChannel(),
+            invalidationMessage(INVALIDATE_KEY, "", fullKey));
+      }
+    }
+    pipeline.sync();
+    return fullKeys.size();
+  }
+
+  /**
+   * Delete several entries of a cache in one round trip
+   * @param cacheName the cache name
+   * @param keys the keys (without the cache name prefix)
+   */
+  public void deleteManyFromCache(String cacheName, Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    List<String> fullKeys = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      fullKeys.add(generateCacheKey(cacheName, key));
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      unlinkKeys(jedis, fullKeys);
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, OP_DELETE);
+      logger.error("Error deleting {} keys from cache {}: {}", keys.size(), cacheName,
+          e.getMessage());
+    }
+  }
+
+  public static String tenantTag(Integer tenantId) {
+    return "tenant:" + tenantId;
+  }
+
+  public static String categoryTag(Integer tenantId, String category) {
+    return "tenant:" + tenantId + ":category:"
+        + (category == null ? "" : category.toLowerCase());
+  }
+
+  /**
+   * Tag of the lookups that depend on which categories a tenant's links have at all, such as the
+   * list of its category names
+   */
+  public static String categoryNamesTag(Integer tenantId) {
+    return "tenant:" + tenantId + ":names";
+  }
+
   public void clearAllCaches() {
     try {
+      nearCache.clear();
       try (Jedis jedis = jedisPool.getResource()) {
         jedis.flushDB();
       }
+      publishInvalidation(INVALIDATE_ALL, "", "");
     } catch (Exception e) {
       // Silently handle exceptions
     }
   }
+
+  private byte[] encode(String cacheName, Object value) throws IOException {
+    byte[] encodedValue = cacheMetrics.timeSerialization(cacheName, "encode",
+        () -> cacheCodec.encode(value));
+    cacheMetrics.recordValueSize(cacheName, encodedValue.length);
+    return encodedValue;
+  }
+
+  private <T> T decode(String cacheName, String fullKey, byte[] encodedValue, Class<T> type)
+      throws IOException {
+    return decodeLocal(cacheName, fullKey, encodedValue, type,
+        () -> cacheCodec.decode(encodedValue, type));
+  }
+
+  private <T> T decode(String cacheName, String fullKey, byte[] encodedValue,
+      TypeReference<T> typeReference) throws IOException {
+    return decodeLocal(cacheName, fullKey, encodedValue, typeReference.getType(),
+        () -> cacheCodec.decode(encodedValue, typeReference));
+  }
+
+  /**
+   * Decode a value read through {@link #readValue}, reusing the object the near cache entry was
+   * last decoded to when it still holds the same bytes. Decoded values are shared between
+   * callers, so they must not be modified.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T decodeLocal(String cacheName, String fullKey, byte[] encodedValue, Object type,
+      CacheMetrics.SerializationCall<T> codecCall) throws IOException {
+    if (!nearCacheConfig.isEnabled()) {
+      return cacheMetrics.timeSerialization(cacheName, "decode", codecCall);
+    }
+    Object localValue = nearCache.getDecoded(fullKey, encodedValue, type);
+    if (localValue != null) {
+      return (T) localValue;
+    }
+    T value = cacheMetrics.timeSerialization(cacheName, "decode", codecCall);
+    if (value != null) {
+      nearCache.putDecoded(fullKey, encodedValue, type, value);
+    }
+    return value;
+  }
+
+  /**
+   * Read a raw value through the near cache. A fresh local entry is returned without touching
+   * Redis; when Redis cannot be reached the last locally known value is served instead.
+   */
+  private byte[] readValue(String cacheName, String fullKey) {
+    if (!nearCacheConfig.isEnabled()) {
+      try (Jedis jedis = jedisPool.getResource()) {
+        return cacheMetrics.timeRedis(cacheName, "GET",
+            () -> jedis.get(SafeEncoder.encode(fullKey)));
+      }
+    }
+
+    byte[] localValue = nearCache.get(fullKey);
+    cacheMetrics.recordNearCache(cacheName, localValue != null);
+    if (localValue != null) {
+      logger.debug("Near cache HIT for cacheName: {}, fullKey: {}", cacheName, fullKey);
+      return localValue;
+    }
+
+    byte[] cachedValue;
+    long remainingMillis;
+    try (Jedis jedis = jedisPool.getResource()) {
+      // Fetch the value and its remaining TTL in one round trip
+      byte[] binaryKey = SafeEncoder.encode(fullKey);
+      Pipeline pipeline = jedis.pipelined();
+      Response<byte[]> valueResponse = pipeline.get(binaryKey);
+      Response<Long> ttlResponse = pipeline.pttl(binaryKey);
+      long startTime = System.nanoTime();
+      pipeline.sync();
+      cacheMetrics.recordRedisTime(cacheName, "GET", System.nanoTime() - startTime);
+      cachedValue = valueResponse.get();
+      remainingMillis = ttlResponse.get() != null ? ttlResponse.get() : -1;
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, "GET");
+      byte[] staleValue = nearCache.getStale(fullKey);
+      if (staleValue != null) {
+        logger.warn("Redis unavailable, serving near cache entry for fullKey: {}: {}", fullKey,
+            e.getMessage());
+        return staleValue;
+      }
+      throw e;
+    }
+
+    if (cachedValue != null) {
+      long localTtlMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTtlSeconds(cacheName));
+      // Never keep a local copy longer than Redis itself would
+      if (remainingMillis > 0) {
+        localTtlMillis = Math.min(localTtlMillis, remainingMillis);
+      }
+      nearCache.put(fullKey, cachedValue, localTtlMillis);
+    }
+    return cachedValue;
+  }
+
+  /**
+   * Write a raw value to Redis and the near cache, then tell the other nodes to drop their copy.
+   * The local copy is kept even when Redis is down so this node keeps serving it. Values written
+   * while reads are served from the MySQL fallback only live for the fallback cache TTL.
+   */
+  private void writeValue(String cacheName, String fullKey, byte[] encodedValue,
+      long requestedTtlSeconds) {
+    long ttlSeconds = healthMonitor.cacheTtlSeconds(requestedTtlSeconds);
+    if (nearCacheConfig.isEnabled()) {
+      long localTtlMillis = Math.min(TimeUnit.SECONDS.toMillis(ttlSeconds),
+          TimeUnit.SECONDS.toMillis(nearCacheConfig.getTtlSeconds(cacheName)));
+      nearCache.put(fullKey, encodedValue, localTtlMillis);
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      cacheMetrics.timeRedis(cacheName, "SETEX",
+          () -> jedis.setex(SafeEncoder.encode(fullKey), (int) ttlSeconds, encodedValue));
+    }
+    publishInvalidation(INVALIDATE_KEY, cacheName, fullKey);
+  }
+
+  /**
+   * Bulk variant of {@link #readValue}: near cache first, then one pipelined MGET plus PTTL for
+   * the remaining keys. Falls back to stale local entries when Redis cannot be reached.
+   */
+  private Map<String, byte[]> readValues(String cacheName, Collection<String> keys) {
+    Map<String, byte[]> result = new LinkedHashMap<>();
+    List<String> remoteKeys = new ArrayList<>();
+    List<String> remoteFullKeys = new ArrayList<>();
+
+    for (String key : keys) {
+      String fullKey = generateCacheKey(cacheName, key);
+      byte[] localValue = null;
+      if (nearCacheConfig.isEnabled()) {
+        localValue = nearCache.get(fullKey);
+        cacheMetrics.recordNearCache(cacheName, localValue != null);
+      }
+      if (localValue != null) {
+        result.put(key, localValue);
+      } else {
+        remoteKeys.add(key);
+        remoteFullKeys.add(fullKey);
+      }
+    }
+    if (remoteKeys.isEmpty()) {
+      return result;
+    }
+
+    List<byte[]> remoteValues;
+    List<Response<Long>> ttlResponses = new ArrayList<>();
+    try (Jedis jedis = jedisPool.getResource()) {
+      byte[][] binaryKeys = new byte[remoteFullKeys.size()][];
+      for (int i = 0; i < binaryKeys.length; i++) {
+        binaryKeys[i] = SafeEncoder.encode(remoteFullKeys.get(i));
+      }
+      Pipeline pipeline = jedis.pipelined();
+      Response<List<byte[]>> valuesResponse = pipeline.mget(binaryKeys);
+      if (nearCacheConfig.isEnabled()) {
+        for (byte[] binaryKey : binaryKeys) {
+          ttlResponses.add(pipeline.pttl(binaryKey));
+        }
+      }
+      long startTime = System.nanoTime();
+      pipeline.sync();
+      cacheMetrics.recordRedisTime(cacheName, "MGET", System.nanoTime() - startTime);
+      remoteValues = valuesResponse.get();
+    } catch (Exception e) {
+      cacheMetrics.recordError(cacheName, "MGET");
+      if (!nearCacheConfig.isEnabled()) {
+        throw e;
+      }
+      logger.warn("Redis unavailable, serving near cache entries for cacheName: {}: {}",
+          cacheName, e.getMessage());
+      for (int i = 0; i < remoteKeys.size(); i++) {
+        byte[] staleValue = nearCache.getStale(remoteFullKeys.get(i));
+        if (staleValue != null) {
+          result.put(remoteKeys.get(i), staleValue);
+        }
+      }
+      return result;
+    }
+
+    long localTtlMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTtlSeconds(cacheName));
+    for (int i = 0; i < remoteKeys.size(); i++) {
+      byte[] value = remoteValues.get(i);
+      if (value == null) {
+        continue;
+      }
+      result.put(remoteKeys.get(i), value);
+      if (nearCacheConfig.isEnabled()) {
+        Long remainingMillis = ttlResponses.get(i).get();
+        long ttlMillis = remainingMillis != null && remainingMillis > 0
+            ? Math.min(localTtlMillis, remainingMillis) : localTtlMillis;
+        nearCache.put(remoteFullKeys.get(i), value, ttlMillis);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Bulk variant of {@link #writeValue}: pipelined SETEX plus invalidation publishes.
+   */
+  private void writeValues(String cacheName, Map<String, byte[]> rawValues,
+      long requestedTtlSeconds) {
+    if (rawValues.isEmpty()) {
+      return;
+    }
+    long ttlSeconds = healthMonitor.cacheTtlSeconds(requestedTtlSeconds);
+    if (nearCacheConfig.isEnabled()) {
+      long localTtlMillis = Math.min(TimeUnit.SECONDS.toMillis(ttlSeconds),
+          TimeUnit.SECONDS.toMillis(nearCacheConfig.getTtlSeconds(cacheName)));
+      for (Map.Entry<String, byte[]> entry : rawValues.entrySet()) {
+        nearCache.put(entry.getKey(), entry.getValue(), localTtlMillis);
+      }
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      Pipeline pipeline = jedis.pipelined();
+      for (Map.Entry<String, byte[]> entry : rawValues.entrySet()) {
+        pipeline.setex(SafeEncoder.encode(entry.getKey()), (int) ttlSeconds, entry.getValue());
+        if (nearCacheConfig.isEnabled()) {
+          pipeline.publish(nearCacheConfig.getInvalidationChannel(),
+              invalidationMessage(INVALIDATE_KEY, cacheName, entry.getKey()));
+        }
+      }
+      long startTime = System.nanoTime();
+      pipeline.sync();
+      cacheMetrics.recordRedisTime(cacheName, "SETEX", System.nanoTime() - startTime);
+    }
+  }
+
+  private void publishInvalidation(String type, String cacheName, String fullKey) {
+    if (!nearCacheConfig.isEnabled()) {
+      return;
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.publish(nearCacheConfig.getInvalidationChannel(),
+          invalidationMessage(type, cacheName, fullKey));
+    } catch (Exception e) {
+      logger.warn("Failed to publish cache invalidation for cacheName: {}, fullKey: {}: {}",
+          cacheName, fullKey, e.getMessage());
+    }
+  }
+
+  private String invalidationMessage(String type, String cacheName, String fullKey) {
+    return instanceId + "|" + type + "|" + cacheName + "|" + fullKey;
+  }
+
+  /**
+   * A cache read result that can represent a cached "not found"
+   */
+  private static final class NullableValue<T> {
+
+    private final T value;
+
+    private NullableValue(T value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Applies invalidations published by other nodes to the local near cache.
+   */
+  private class InvalidationSubscriber extends JedisPubSub {
+
+    @Override
+    public void onMessage(String channel, String message) {
+      String[] parts = message.split("\\|", 4);
+      if (parts.length < 4 || instanceId.equals(parts[0])) {
+        return;
+      }
+      switch (parts[1]) {
+        case INVALIDATE_KEY:
+          nearCache.remove(parts[3]);
+          break;
+        case INVALIDATE_CACHE:
+          nearCache.removeByPrefix(generateCacheKey(parts[2], ""));
+          break;
+        case INVALIDATE_ALL:
+          nearCache.clear();
+          break;
+        default:
+          logger.warn("Ignoring unknown cache invalidation message: {}", message);
+      }
+    }
+  }
 } 
\ No newline at end of file
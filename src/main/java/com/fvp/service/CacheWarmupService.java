@@ -0,0 +1,242 @@
+package com.fvp.service;
+
+import com.fvp.config.CacheWarmupConfig;
+import com.fvp.dto.WarmupRequest;
+import com.fvp.repository.AllCatRepository;
+import com.fvp.util.CacheBypassUtil;
+import com.fvp.util.LoggingUtil;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Rebuilds the most requested cache entries after a deploy or a Redis flush. The requests to
+ * rebuild come from {@link AccessFrequencyTracker}, plus the home and listing endpoints of every
+ * tenant, and are replayed through the same services the controllers call, so the cache keys are
+ * exactly the ones real requests read. Replays run on a bounded pool and are rate limited.
+ */
+@Service
+public class CacheWarmupService {
+
+  private static final Logger logger = LoggingUtil.getLogger(CacheWarmupService.class);
+  private static final String DEFAULT_SORT = "randomOrder";
+
+  private final CacheWarmupConfig config;
+  private final AccessFrequencyTracker accessFrequencyTracker;
+  private final AllCatRepository allCatRepository;
+  private final CategoryService categoryService;
+  private final CategoryUtilService categoryUtilService;
+  private final CategoryMappingService categoryMappingService;
+  private final ModelService modelService;
+  private final ModelUtilService modelUtilService;
+  private final JedisPool jedisPool;
+  private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "cache-warmup");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  public CacheWarmupService(CacheWarmupConfig config,
+      AccessFrequencyTracker accessFrequencyTracker,
+      AllCatRepository allCatRepository,
+      CategoryService categoryService,
+      CategoryUtilService categoryUtilService,
+      CategoryMappingService categoryMappingService,
+      ModelService modelService,
+      ModelUtilService modelUtilService,
+      JedisPool jedisPool) {
+    this.config = config;
+    this.accessFrequencyTracker = accessFrequencyTracker;
+    this.allCatRepository = allCatRepository;
+    this.categoryService = categoryService;
+    this.categoryUtilService = categoryUtilService;
+    this.categoryMappingService = categoryMappingService;
+    this.modelService = modelService;
+    this.modelUtilService = modelUtilService;
+    this.jedisPool = jedisPool;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    coordinator.shutdownNow();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUpAfterStartup() {
+    if (config.isEnabled()) {
+      markWarm();
+      warmUpAsync(false);
+    }
+  }
+
+  /**
+   * Detect a Redis flush through the sentinel key and warm the cache up again
+   */
+  @Scheduled(fixedDelayString = "${cache.warmup.flush-check-interval-ms:60000}",
+      initialDelayString = "${cache.warmup.flush-check-interval-ms:60000}")
+  public void warmUpAfterFlush() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      // SET NX: only the node that notices the flush first runs the warm-up
+      if ("OK".equals(jedis.set(config.getSentinelKey(), String.valueOf(System.currentTimeMillis()),
+          SetParams.setParams().nx()))) {
+        logger.info("Cache flush detected, starting warm-up");
+        warmUpAsync(false);
+      }
+    } catch (Exception e) {
+      logger.warn("Error checking cache warm-up sentinel: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Start a warm-up in the background unless one is already running
+   *
+   * @param force reload every entry even if it is still cached
+   * @return true if a warm-up was started
+   */
+  public boolean warmUpAsync(boolean force) {
+    if (!running.compareAndSet(false, true)) {
+      logger.info("Cache warm-up already running, skipping");
+      return false;
+    }
+    coordinator.execute(() -> {
+      try {
+        warmUp(force);
+      } catch (Exception e) {
+        logger.error("Cache warm-up failed: {}", e.getMessage(), e);
+      } finally {
+        running.set(false);
+      }
+    });
+    return true;
+  }
+
+  private void warmUp(boolean force) {
+    long startTime = System.currentTimeMillis();
+    Set<WarmupRequest> requests = new LinkedHashSet<>();
+    for (Integer tenantId : allCatRepository.findAllDistinctTenantIds()) {
+      requests.add(WarmupRequest.of(WarmupRequest.CATEGORY_HOME, tenantId));
+      requests.add(WarmupRequest.of(WarmupRequest.CATEGORY_HOME_SEO, tenantId));
+      requests.add(WarmupRequest.of(WarmupRequest.CATEGORY_ALL, tenantId));
+      requests.add(WarmupRequest.of(WarmupRequest.MODEL_ALL, tenantId));
+    }
+    requests.addAll(accessFrequencyTracker.topRequests(config.getTopRequests()));
+    logger.info("Starting cache warm-up of {} requests (force: {})", requests.size(), force);
+
+    int threads = Math.max(1, config.getThreads());
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L,
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 2), runnable -> {
+          Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    long intervalMillis = 1000L / Math.max(1, config.getMaxRequestsPerSecond());
+    AtomicInteger failures = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (WarmupRequest request : requests) {
+        futures.add(executor.submit(() -> {
+          CacheBypassUtil.setCacheBypass(force);
+          try {
+            replay(request);
+          } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.warn("Cache warm-up failed for {}: {}", request, e.getMessage());
+          } finally {
+            CacheBypassUtil.clearCacheBypass();
+          }
+        }));
+        Thread.sleep(intervalMillis);
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("Cache warm-up interrupted");
+    } catch (Exception e) {
+      logger.error("Error during cache warm-up: {}", e.getMessage(), e);
+    } finally {
+      executor.shutdownNow();
+    }
+    logger.info("Cache warm-up of {} requests completed in {} ms with {} failures",
+        requests.size(), System.currentTimeMillis() - startTime, failures.get());
+  }
+
+  private void replay(WarmupRequest request) {
+    Integer tenantId = request.getTenantId();
+    switch (request.getType()) {
+      case WarmupRequest.CATEGORY_HOME:
+        categoryService.getHomeCategoriesWithLinks(tenantId);
+        break;
+      case WarmupRequest.CATEGORY_HOME_SEO:
+        categoryService.getHomeSeoCategories(tenantId);
+        break;
+      case WarmupRequest.CATEGORY_ALL:
+        categoryService.getAllCategoriesWithLinkCounts(tenantId);
+        break;
+      case WarmupRequest.CATEGORY_FIRST:
+        categoryService.getCategoryFirstLink(tenantId,
+            categoryMappingService.mapToActualCategoryNameWithFallback(request.getName()));
+        break;
+      case WarmupRequest.CATEGORY_LINKS:
+        categoryUtilService.getCategoryLinks(tenantId,
+            categoryMappingService.mapToActualCategoryNameWithFallback(request.getName()),
+            pageable(request), request.getMinDuration(), request.getMaxDuration(),
+            request.getQuality());
+        break;
+      case WarmupRequest.MODEL_ALL:
+        modelService.getAllModels(tenantId);
+        break;
+      case WarmupRequest.MODEL_FIRST:
+        modelService.getModelFirstLink(tenantId, request.getName());
+        break;
+      case WarmupRequest.MODEL_LINKS:
+        modelUtilService.getModelLinks(tenantId, request.getName(), pageable(request),
+            request.getMaxDuration(), request.getQuality());
+        break;
+      default:
+        logger.debug("Unknown warm-up request type: {}", request.getType());
+    }
+  }
+
+  private void markWarm() {
+    try (Jedis jedis = jedisPool.getResource()) {
+      jedis.set(config.getSentinelKey(), String.valueOf(System.currentTimeMillis()));
+    } catch (Exception e) {
+      logger.warn("Error setting cache warm-up sentinel: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Same pageable the controllers get from {@code @PageableDefault(size = 20, sort = "randomOrder")}
+   */
+  private static Pageable pageable(WarmupRequest request) {
+    return PageRequest.of(request.getPage(), request.getSize(), Sort.by(DEFAULT_SORT));
+  }
+}
@@ -0,0 +1,194 @@
+package com.fvp.service;
+
+import com.fvp.repository.AllCatRepository;
+import com.fvp.repository.ElasticsearchLinkCategoryRepository;
+import com.fvp.util.CacheBypassUtil;
+import com.fvp.util.LoggingUtil;
+import com.fvp.util.SingleFlight;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+
+/**
+ * Per-tenant table of category link counts. All counts of a tenant are computed with one terms
+ * aggregation and kept in a single Redis hash (field = lower-cased category name), so any list of
+ * categories is answered with one HMGET. Tables are rebuilt on a schedule, and tenants touched by
+ * link ingestion are rebuilt on the next short refresh cycle.
+ */
+@Service
+public class CategoryLinkCountStore {
+
+  private static final Logger logger = LoggingUtil.getLogger(CategoryLinkCountStore.class);
+  private static final String TABLE_KEY_PREFIX = "linkCountTable:";
+  // Marker field so that a tenant without any links still has a table
+  private static final String COMPUTED_AT_FIELD = "__computedAt";
+  private static final long REFRESH_WAIT_TIMEOUT_MS = 30000;
+
+  private final JedisPool jedisPool;
+  private final ElasticsearchLinkCategoryRepository elasticsearchLinkCategoryRepository;
+  private final AllCatRepository allCatRepository;
+  private final Set<Integer> staleTenants = ConcurrentHashMap.newKeySet();
+  private final SingleFlight singleFlight = new SingleFlight();
+
+  @Value("${link-count.table.ttl-hours:25}")
+  private long tableTtlHours;
+
+  @Value("${scheduler.enabled:true}")
+  private boolean schedulerEnabled;
+
+  public CategoryLinkCountStore(JedisPool jedisPool,
+      ElasticsearchLinkCategoryRepository elasticsearchLinkCategoryRepository,
+      AllCatRepository allCatRepository) {
+    this.jedisPool = jedisPool;
+    this.elasticsearchLinkCategoryRepository = elasticsearchLinkCategoryRepository;
+    this.allCatRepository = allCatRepository;
+  }
+
+  /**
+   * Get the link counts of the given categories. Categories without links count as 0.
+   *
+   * @param tenantId the tenant ID
+   * @param categoryNames the category names
+   * @return map of category name (as passed in) to link count
+   */
+  public Map<String, Long> getCounts(Integer tenantId, Collection<String> categoryNames) {
+    Map<String, Long> result = new LinkedHashMap<>();
+    if (categoryNames == null || categoryNames.isEmpty()) {
+      return result;
+    }
+    if (CacheBypassUtil.isCacheBypass()) {
+      return fromTable(elasticsearchLinkCategoryRepository.countAllCategoriesByTenantId(tenantId),
+          categoryNames);
+    }
+
+    List<String> names = new ArrayList<>(categoryNames);
+    List<String> values = null;
+    try (Jedis jedis = jedisPool.getResource()) {
+      String[] fields = new String[names.size() + 1];
+      fields[0] = COMPUTED_AT_FIELD;
+      for (int i = 0; i < names.size(); i++) {
+        fields[i + 1] = names.get(i).toLowerCase();
+      }
+      values = jedis.hmget(tableKey(tenantId), fields);
+    } catch (Exception e) {
+      logger.error("Error reading link count table for tenant {}: {}", tenantId, e.getMessage());
+    }
+
+    if (values == null || values.get(0) == null) {
+      // No table yet (or Redis is down): compute it, which also answers this request
+      return fromTable(singleFlight.execute(tableKey(tenantId), () -> refresh(tenantId),
+          REFRESH_WAIT_TIMEOUT_MS), categoryNames);
+    }
+    for (int i = 0; i < names.size(); i++) {
+      String value = values.get(i + 1);
+      result.put(names.get(i), value != null ? Long.parseLong(value) : 0L);
+    }
+    return result;
+  }
+
+  /**
+   * Recompute the table of a tenant with one aggregation and replace the Redis hash. A failed
+   * aggregation throws and leaves the previous table in place; a tenant without links gets a table
+   * holding only the computed-at marker.
+   *
+   * @param tenantId the tenant ID
+   * @return map of lower-cased category name to link count
+   */
+  public Map<String, Long> refresh(Integer tenantId) {
+    long startTime = System.currentTimeMillis();
+    Map<String, Long> counts = elasticsearchLinkCategoryRepository
+        .countAllCategoriesByTenantId(tenantId);
+
+    Map<String, String> fields = new HashMap<>();
+    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+      fields.put(entry.getKey(), String.valueOf(entry.getValue()));
+    }
+    fields.put(COMPUTED_AT_FIELD, String.valueOf(System.currentTimeMillis()));
+
+    String tableKey = tableKey(tenantId);
+    String tmpKey = tableKey + ":tmp";
+    try (Jedis jedis = jedisPool.getResource()) {
+      // Build the new table aside and swap it in so readers never see a partial hash
+      Pipeline pipeline = jedis.pipelined();
+      pipeline.del(tmpKey);
+      pipeline.hset(tmpKey, fields);
+      pipeline.expire(tmpKey, (int) TimeUnit.HOURS.toSeconds(tableTtlHours));
+      pipeline.rename(tmpKey, tableKey);
+      pipeline.sync();
+    } catch (Exception e) {
+      logger.error("Error storing link count table for tenant {}: {}", tenantId, e.getMessage());
+    }
+    staleTenants.remove(tenantId);
+    logger.info("Refreshed link count table for tenant {} with {} categories in {} ms", tenantId,
+        counts.size(), System.currentTimeMillis() - startTime);
+    return counts;
+  }
+
+  /**
+   * Mark a tenant's table as outdated, e.g. after links were ingested. It is rebuilt on the next
+   * refresh cycle rather than per link.
+   *
+   * @param tenantId the tenant ID
+   */
+  public void markStale(Integer tenantId) {
+    if (tenantId != null) {
+      staleTenants.add(tenantId);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${link-count.table.stale-refresh-interval-ms:60000}")
+  public void refreshStaleTenants() {
+    if (!schedulerEnabled) {
+      return;
+    }
+    for (Integer tenantId : new ArrayList<>(staleTenants)) {
+      try {
+        refresh(tenantId);
+      } catch (Exception e) {
+        logger.error("Error refreshing link count table for tenant {}: {}", tenantId,
+            e.getMessage(), e);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${link-count.table.refresh-interval-ms:3600000}",
+      initialDelayString = "${link-count.table.refresh-interval-ms:3600000}")
+  public void refreshAllTenants() {
+    if (!schedulerEnabled) {
+      return;
+    }
+    for (Integer tenantId : allCatRepository.findAllDistinctTenantIds()) {
+      try {
+        refresh(tenantId);
+      } catch (Exception e) {
+        logger.error("Error refreshing link count table for tenant {}: {}", tenantId,
+            e.getMessage(), e);
+      }
+    }
+  }
+
+  private Map<String, Long> fromTable(Map<String, Long> table, Collection<String> categoryNames) {
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (String categoryName : categoryNames) {
+      result.put(categoryName, table.getOrDefault(categoryName.toLowerCase(), 0L));
+    }
+    return result;
+  }
+
+  private String tableKey(Integer tenantId) {
+    return TABLE_KEY_PREFIX + tenantId;
+  }
+}
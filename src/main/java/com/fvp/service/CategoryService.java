@@ -9,29 +9,22 @@ import com.fvp.entity.LinkCategory;
 import com.fvp.repository.AllCatRepository;
 import com.fvp.repository.LinkRepository;
 import com.fvp.util.LoggingUtil;
-import com.fvp.util.CacheBypassUtil;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import redis.clients.jedis.Jedis;
@@ -43,11 +36,12 @@ public class CategoryService {
   private static final Logger logger = LoggingUtil.getLogger(CategoryService.class);
   private static final String HOME_CATEGORIES_CACHE = "homeCategories";
   private static final String CATEGORY_FIRST_LINK_CACHE = "categoryFirstLink";
-  private static final String CATEGORY_LINKS_CACHE = "categoryLinks";
   private static final String CATEGORY_PREFIX = "homeCategories_";
   private static final int BATCH_SIZE = 1000;
   private static final int CHUNK_SIZE = 100;
   private static final String ALL_CATEGORIES_CACHE = "allCategories";
+  private static final long CATEGORY_LISTS_SOFT_TTL_MINUTES = 60;
+  private static final long CATEGORY_LISTS_HARD_TTL_MINUTES = 24 * 60;
 
   private final AllCatRepository allCatRepository;
   private final LinkRepository linkRepository;
@@ -58,7 +52,6 @@ public class CategoryService {
   private final LinkCountCacheService linkCountCacheService;
   private final LinkCategoryService linkCategoryService;
   private final int recentLinksDays;
-  private final ExecutorService executorService;
 
   public CategoryService(
       AllCatRepository allCatRepository,
@@ -79,7 +72,6 @@ public class CategoryService {
     this.linkCountCacheService = linkCountCacheService;
     this.linkCategoryService = linkCategoryService;
     this.recentLinksDays = recentLinksDays;
-    this.executorService = Executors.newFixedThreadPool(30);
   }
 
   public List<CategoryWithLinkDTO> getHomeCategoriesWithLinks(Integer tenantId) {
@@ -89,85 +81,64 @@ public class CategoryService {
     
     return LoggingUtil.logOperationTime(logger, "get home categories with links", () -> {
       String cacheKey = CacheService.generateCacheKey(HOME_CATEGORIES_CACHE, tenantId);
-      logger.info("Generated cache key: '{}'", cacheKey);
+      logger.debug("Generated cache key: '{}'", cacheKey);
 
       TypeReference<List<CategoryWithLinkDTO>> typeRef = new TypeReference<List<CategoryWithLinkDTO>>() {
       };
 
-      // Try to get from cache first
-      long cacheStartTime = System.currentTimeMillis();
-      Optional<List<CategoryWithLinkDTO>> cachedResult = cacheService.getCollectionFromCache(
-          CacheService.CACHE_NAME_CATEGORIES,
-          cacheKey,
-          typeRef
-      );
-      long cacheDuration = System.currentTimeMillis() - cacheStartTime;
-
-      if (cachedResult.isPresent() && !cachedResult.get().isEmpty()) {
-        logger.info("Cache HIT for home categories - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
-            cacheKey, cacheDuration, cachedResult.get().size(), tenantId);
-        return cachedResult.get();
-      }
+      // Served stale while refreshing in the background once past the soft TTL
+      return cacheService.getOrRefresh(CacheService.CACHE_NAME_CATEGORIES, cacheKey, typeRef,
+          () -> loadHomeCategoriesWithLinks(tenantId, methodStartTime),
+          CATEGORY_LISTS_SOFT_TTL_MINUTES, CATEGORY_LISTS_HARD_TTL_MINUTES, TimeUnit.MINUTES);
+    });
+  }
 
-      logger.info("Cache MISS for home categories - key: '{}', cache lookup duration: {} ms for tenant {}", 
-          cacheKey, cacheDuration, tenantId);
+  private List<CategoryWithLinkDTO> loadHomeCategoriesWithLinks(Integer tenantId,
+      long methodStartTime) {
+    // Get all categories with home=1 ordered by home_cat_order
+    logger.info("Fetching home categories from database - tenantId: {}, home=1", tenantId);
+    List<AllCat> categories = LoggingUtil.logOperationTime(
+        logger,
+        "fetch home categories from database",
+        () -> allCatService.findByTenantIdAndHomeOrderByHomeCatOrder(tenantId, 1)
+    );
 
-      // Get all categories with home=1 ordered by home_cat_order
-      logger.info("Fetching home categories from database - tenantId: {}, home=1", tenantId);
-      List<AllCat> categories = LoggingUtil.logOperationTime(
-          logger,
-          "fetch home categories from database",
-          () -> allCatService.findByTenantIdAndHomeOrderByHomeCatOrder(tenantId, 1)
-      );
+    if (categories.isEmpty()) {
+      logger.info("No home categories found for tenant {} - returning empty list", tenantId);
+      return Collections.emptyList();
+    }
+    
+    logger.info("Found {} home categories for tenant {} - extracting category names", 
+        categories.size(), tenantId);
 
-      if (categories.isEmpty()) {
-        logger.info("No home categories found for tenant {} - returning empty list", tenantId);
-        return Collections.emptyList();
-      }
-      
-      logger.info("Found {} home categories for tenant {} - extracting category names", 
-          categories.size(), tenantId);
+    // Extract category names
+    List<String> categoryNames = categories.stream()
+        .map(AllCat::getName)
+        .collect(Collectors.toList());
+    logger.info("Extracted {} category names: {}", categoryNames.size(), categoryNames);
 
-      // Extract category names
-      List<String> categoryNames = categories.stream()
-          .map(AllCat::getName)
-          .collect(Collectors.toList());
-      logger.info("Extracted {} category names: {}", categoryNames.size(), categoryNames);
-
-      // Get first links for all categories in bulk
-      logger.info("Getting first links for {} categories in bulk for tenant {}", 
-          categoryNames.size(), tenantId);
-      List<CategoryWithLinkDTO> firstLinks = getCategoryFirstLinks(tenantId, categoryNames);
-      logger.info("Retrieved {} first links for home categories", firstLinks.size());
-
-      // Create a map for easy lookup
-      Map<String, CategoryWithLinkDTO> dtoMap = firstLinks.stream()
-          .collect(Collectors.toMap(CategoryWithLinkDTO::getName, dto -> dto));
-      logger.info("Created DTO map with {} entries for lookup", dtoMap.size());
-
-      // Create final result list preserving original order
-      List<CategoryWithLinkDTO> result = categories.stream()
-          .map(category -> dtoMap.get(category.getName()))
-          .filter(Objects::nonNull)
-          .collect(Collectors.toList());
-      logger.info("Created final result list with {} items (preserving original order)", result.size());
-
-      // Store in cache
-      logger.info("Storing {} home categories in cache with key: '{}'", result.size(), cacheKey);
-      LoggingUtil.logOperationTime(
-          logger,
-          "store home categories in cache",
-          () -> {
-            cacheService.putInCache(CacheService.CACHE_NAME_CATEGORIES, cacheKey, result);
-            return null;
-          }
-      );
-
-      long methodDuration = System.currentTimeMillis() - methodStartTime;
-      logger.info("=== Method completed in {} ms - stored {} home categories in cache for tenant {} ===", 
-          methodDuration, result.size(), tenantId);
-      return result;
-    });
+    // Get first links for all categories in bulk
+    logger.info("Getting first links for {} categories in bulk for tenant {}", 
+        categoryNames.size(), tenantId);
+    List<CategoryWithLinkDTO> firstLinks = getCategoryFirstLinks(tenantId, categoryNames);
+    logger.info("Retrieved {} first links for home categories", firstLinks.size());
+
+    // Create a map for easy lookup
+    Map<String, CategoryWithLinkDTO> dtoMap = firstLinks.stream()
+        .collect(Collectors.toMap(CategoryWithLinkDTO::getName, dto -> dto));
+    logger.info("Created DTO map with {} entries for lookup", dtoMap.size());
+
+    // Create final result list preserving original order
+    List<CategoryWithLinkDTO> result = categories.stream()
+        .map(category -> dtoMap.get(category.getName()))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    logger.info("Created final result list with {} items (preserving original order)", result.size());
+
+    long methodDuration = System.currentTimeMillis() - methodStartTime;
+    logger.info("=== Method completed in {} ms - loaded {} home categories for tenant {} ===", 
+        methodDuration, result.size(), tenantId);
+    return result;
   }
 
   public CategoryWithLinkDTO getCategoryFirstLink(Integer tenantId, String categoryName) {
@@ -182,7 +153,7 @@ public class CategoryService {
     }
 
     String cacheKey = tenantId + "_" + categoryName;
-    logger.info("Generated cache key: '{}'", cacheKey);
+    logger.debug("Generated cache key: '{}'", cacheKey);
 
     // Try to get from cache first
     long cacheStartTime = System.currentTimeMillis();
@@ -198,14 +169,22 @@ public class CategoryService {
     long cacheDuration = System.currentTimeMillis() - cacheStartTime;
 
     if (cachedResult.isPresent()) {
-      logger.info("Cache HIT for category first link - key: '{}', duration: {} ms for tenant {} and category '{}'",
+      logger.debug("Cache HIT for category first link - key: '{}', duration: {} ms for tenant {} and category '{}'",
           cacheKey, cacheDuration, tenantId, categoryName);
       return cachedResult.get();
     }
 
-    logger.info("Cache MISS for category first link - key: '{}', cache lookup duration: {} ms for tenant {} and category '{}'",
+    logger.debug("Cache MISS for category first link - key: '{}', cache lookup duration: {} ms for tenant {} and category '{}'",
         cacheKey, cacheDuration, tenantId, categoryName);
 
+    return cacheService.loadSingleFlight(CATEGORY_FIRST_LINK_CACHE, cacheKey,
+        () -> cacheService.getFromCache(CATEGORY_FIRST_LINK_CACHE, cacheKey,
+            CategoryWithLinkDTO.class),
+        () -> loadCategoryFirstLink(tenantId, categoryName, cacheKey, methodStartTime));
+  }
+
+  private CategoryWithLinkDTO loadCategoryFirstLink(Integer tenantId, String categoryName,
+      String cacheKey, long methodStartTime) {
     // Get the category by name
     logger.info("Fetching category from database - tenantId: {}, categoryName: '{}'", tenantId, categoryName);
     AllCat category = LoggingUtil.logOperationTime(
@@ -223,14 +202,10 @@ public class CategoryService {
     logger.info("Category found - ID: {}, Name: '{}', Description: '{}', TenantId: {}", 
         category.getId(), category.getName(), category.getDescription(), category.getTenantId());
 
-    // Get the count of links for this category
+    // Count the links of this category while the random link is looked up
     logger.info("Counting links for category - tenantId: {}, categoryName: '{}'", tenantId, categoryName);
-    Long linkCount = LoggingUtil.logOperationTime(
-        logger,
-        "count links for category",
-        () -> linkCategoryService.countByTenantIdAndCategory(tenantId, categoryName)
-    );
-    logger.info("Link count for category '{}': {}", categoryName, linkCount);
+    CompletableFuture<Long> linkCountFuture =
+        linkCategoryService.countByTenantIdAndCategoryAsync(tenantId, categoryName);
 
     // Get a random link for this category
     logger.info("Finding random link for category - tenantId: {}, categoryName: '{}'", tenantId, categoryName);
@@ -246,6 +221,13 @@ public class CategoryService {
       return null;
     }
 
+    Long linkCount = LoggingUtil.logOperationTime(
+        logger,
+        "count links for category",
+        linkCountFuture::join
+    );
+    logger.info("Link count for category '{}': {}", categoryName, linkCount);
+
     Link link = randomLinkCategory.get().getLink();
     logger.info("Random link found - ID: {}, Title: '{}', Link: '{}', TenantId: {}", 
         link.getId(), link.getTitle(), link.getLink(), link.getTenantId());
@@ -274,7 +256,7 @@ public class CategoryService {
     dto.setCreatedOn(link.getCreatedOn());
 
     // Store in cache
-    logger.info("Storing category first link in cache with key: '{}'", cacheKey);
+    logger.debug("Storing category first link in cache with key: '{}'", cacheKey);
     LoggingUtil.logOperationTime(
         logger,
         "store category first link in cache",
@@ -297,12 +279,13 @@ public class CategoryService {
     List<CategoryWithLinkDTO> chunkResults = new ArrayList<>();
 
     // Get link counts from cache
-    logger.info("Getting link counts from cache for {} categories", categoryChunk.size());
+    logger.debug("Getting link counts from cache for {} categories", categoryChunk.size());
     Map<String, Long> linkCountMap = linkCountCacheService.getLinkCounts(tenantId, categoryChunk);
     logger.info("Retrieved link counts for {} categories", linkCountMap.size());
 
     int processedCount = 0;
     int skippedCount = 0;
+    Map<String, CategoryWithLinkDTO> toCache = new LinkedHashMap<>();
 
     for (LinkCategory linkCategory : linkCategories) {
       String categoryName = linkCategory.getCategory();
@@ -336,12 +319,14 @@ public class CategoryService {
       chunkResults.add(dto);
       processedCount++;
 
-      String cacheKey = tenantId + "_" + categoryName;
-      cacheService.putInCache(CATEGORY_FIRST_LINK_CACHE, cacheKey, dto);
-      logger.info("Created and cached DTO for category '{}' with link '{}'", 
+      toCache.put(tenantId + "_" + categoryName, dto);
+      logger.info("Created DTO for category '{}' with link '{}'", 
           categoryName, link.getLink());
     }
 
+    // Cache all DTOs of the chunk in one pipelined round trip
+    cacheService.putManyInCache(CATEGORY_FIRST_LINK_CACHE, toCache);
+
     logger.info("Chunk processing completed - Processed: {}, Skipped: {}, Total DTOs: {} for tenant {}", 
         processedCount, skippedCount, chunkResults.size(), tenantId);
     return chunkResults;
@@ -363,33 +348,33 @@ public class CategoryService {
     List<CategoryWithLinkDTO> results = new ArrayList<>();
     List<String> missedCategories = new ArrayList<>();
 
-    logger.info("Checking cache for {} categories", categoryNames.size());
-    // First try to get all from cache
+    logger.debug("Checking cache for {} categories", categoryNames.size());
+    // First try to get all from cache in a single round trip
+    Map<String, String> cacheKeyToCategory = new LinkedHashMap<>();
     for (String categoryName : categoryNames) {
-      String cacheKey = tenantId + "_" + categoryName;
+      cacheKeyToCategory.put(tenantId + "_" + categoryName, categoryName);
+    }
 
-      Optional<CategoryWithLinkDTO> cachedResult = LoggingUtil.logOperationTime(
-          logger,
-          "get category first link from cache for " + categoryName,
-          () -> cacheService.getFromCache(
-              CATEGORY_FIRST_LINK_CACHE,
-              cacheKey,
-              CategoryWithLinkDTO.class
-          )
-      );
-
-      if (cachedResult.isPresent()) {
-        logger.info("Cache HIT for category first link - tenant: {}, category: '{}'",
-            tenantId, categoryName);
-        results.add(cachedResult.get());
+    Map<String, CategoryWithLinkDTO> cachedResults = LoggingUtil.logOperationTime(
+        logger,
+        "get category first links from cache",
+        () -> cacheService.getManyFromCache(
+            CATEGORY_FIRST_LINK_CACHE,
+            cacheKeyToCategory.keySet(),
+            CategoryWithLinkDTO.class
+        )
+    );
+
+    for (Map.Entry<String, String> entry : cacheKeyToCategory.entrySet()) {
+      CategoryWithLinkDTO cachedResult = cachedResults.get(entry.getKey());
+      if (cachedResult != null) {
+        results.add(cachedResult);
       } else {
-        logger.info("Cache MISS for category first link - tenant: {}, category: '{}'",
-            tenantId, categoryName);
-        missedCategories.add(categoryName);
+        missedCategories.add(entry.getValue());
       }
     }
     
-    logger.info("Cache check completed - Hits: {}, Misses: {} out of {} categories", 
+    logger.debug("Cache check completed - Hits: {}, Misses: {} out of {} categories", 
         results.size(), missedCategories.size(), categoryNames.size());
 
     // If we have cache misses, process them in chunks
@@ -404,60 +389,26 @@ public class CategoryService {
       }
       logger.info("Split missed categories into {} chunks of size {}", chunks.size(), CHUNK_SIZE);
 
-      // Process chunks in parallel
-      List<CompletableFuture<List<CategoryWithLinkDTO>>> futures = chunks.stream()
-          .map(chunk -> {
-            logger.info("Creating CompletableFuture for chunk: {}", chunk);
-            // Capture the current cache bypass state
-            boolean cacheBypass = CacheBypassUtil.isCacheBypass();
-            return CompletableFuture.supplyAsync(
-                () -> {
-                  try {
-                    logger.info("Starting parallel processing for chunk: {}", chunk);
-                    // Set the cache bypass flag in the new thread
-                    if (cacheBypass) {
-                      CacheBypassUtil.setCacheBypass(true);
-                      logger.info("Cache bypass enabled for chunk: {}", chunk);
-                    }
-
-                    // Get link categories
-                    logger.info("Finding random links for {} categories in chunk", chunk.size());
-                    List<LinkCategory> linkCategories = linkCategoryService.findRandomLinksByCategoryNames(
-                        tenantId, chunk);
-                    logger.info("Found {} link categories for chunk", linkCategories.size());
-
-                    // Get categories and build a map by name
-                    logger.info("Fetching categories from database for chunk: {}", chunk);
-                    Map<String, AllCat> categoryMap = new HashMap<>();
-                    List<AllCat> categories = allCatRepository.findByTenantIdAndNameIn(tenantId,
-                        chunk);
-                    for (AllCat category : categories) {
-                      categoryMap.put(category.getName(), category);
-                    }
-                    logger.info("Created category map with {} entries for chunk", categoryMap.size());
-                    
-                    return processChunk(tenantId, chunk, categoryMap, linkCategories);
-                  } catch (Exception e) {
-                    logger.error("Exception occurred while processing chunk {}: {}", chunk,
-                        e.getMessage(), e);
-                    return new ArrayList<CategoryWithLinkDTO>();
-                  } finally {
-                    // Clear the cache bypass flag in the new thread
-                    CacheBypassUtil.clearCacheBypass();
-                    logger.info("Completed parallel processing for chunk: {}", chunk);
-                  }
-                },
-                executorService);
-          })
+      // Start the Elasticsearch lookups of all chunks at once; they run without holding a thread
+      // and are bounded by the async client's in-flight limit
+      List<CompletableFuture<List<LinkCategory>>> futures = chunks.stream()
+          .map(chunk -> linkCategoryService.findRandomLinksByCategoryNamesAsync(tenantId, chunk))
           .collect(Collectors.toList());
+      logger.info("Started {} random link lookups", futures.size());
 
-      logger.info("Created {} CompletableFutures for parallel processing", futures.size());
+      // Load the categories from the database while Elasticsearch works
+      Map<String, AllCat> categoryMap = new HashMap<>();
+      for (AllCat category : allCatRepository.findByTenantIdAndNameIn(tenantId, missedCategories)) {
+        categoryMap.put(category.getName(), category);
+      }
+      logger.info("Created category map with {} entries", categoryMap.size());
 
       // Wait for all chunks to complete and collect results
       int totalProcessed = 0;
-      for (CompletableFuture<List<CategoryWithLinkDTO>> future : futures) {
+      for (int i = 0; i < chunks.size(); i++) {
         try {
-          List<CategoryWithLinkDTO> chunkResults = future.get();
+          List<CategoryWithLinkDTO> chunkResults = processChunk(tenantId, chunks.get(i),
+              categoryMap, futures.get(i).join());
           results.addAll(chunkResults);
           totalProcessed += chunkResults.size();
           logger.info("Completed chunk processing - {} results added, total so far: {}", 
@@ -467,7 +418,7 @@ public class CategoryService {
         }
       }
       
-      logger.info("Parallel processing completed - Total processed: {} DTOs from {} chunks", 
+      logger.info("Chunk processing completed - Total processed: {} DTOs from {} chunks", 
           totalProcessed, futures.size());
     }
 
@@ -483,7 +434,7 @@ public class CategoryService {
     logger.info("Request parameters - tenantId: {}", tenantId);
     
     String cacheKey = "homeSeoCategories_" + tenantId;
-    logger.info("Generated cache key: '{}'", cacheKey);
+    logger.debug("Generated cache key: '{}'", cacheKey);
 
     TypeReference<List<CategoryWithLinkDTO>> typeRef = new TypeReference<List<CategoryWithLinkDTO>>() {
     };
@@ -502,14 +453,22 @@ public class CategoryService {
     long cacheDuration = System.currentTimeMillis() - cacheStartTime;
 
     if (cachedResult.isPresent() && !cachedResult.get().isEmpty()) {
-      logger.info("Cache HIT for home SEO categories - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
+      logger.debug("Cache HIT for home SEO categories - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
           cacheKey, cacheDuration, cachedResult.get().size(), tenantId);
       return cachedResult.get();
     }
 
-    logger.info("Cache MISS for home SEO categories - key: '{}', cache lookup duration: {} ms for tenant {}",
+    logger.debug("Cache MISS for home SEO categories - key: '{}', cache lookup duration: {} ms for tenant {}",
         cacheKey, cacheDuration, tenantId);
 
+    return cacheService.loadSingleFlight(CacheService.CACHE_NAME_CATEGORIES, cacheKey,
+        () -> cacheService.getCollectionFromCache(CacheService.CACHE_NAME_CATEGORIES, cacheKey,
+            typeRef).filter(list -> !list.isEmpty()),
+        () -> loadHomeSeoCategories(tenantId, cacheKey, methodStartTime));
+  }
+
+  private List<CategoryWithLinkDTO> loadHomeSeoCategories(Integer tenantId, String cacheKey,
+      long methodStartTime) {
     // Get all categories with homeSEO=true
     logger.info("Fetching home SEO categories from database - tenantId: {}", tenantId);
     List<AllCat> categories = LoggingUtil.logOperationTime(
@@ -539,7 +498,7 @@ public class CategoryService {
     logger.info("Retrieved {} first links for home SEO categories", result.size());
 
     // Store in cache
-    logger.info("Storing {} home SEO categories in cache with key: '{}'", result.size(), cacheKey);
+    logger.debug("Storing {} home SEO categories in cache with key: '{}'", result.size(), cacheKey);
     LoggingUtil.logOperationTime(
         logger,
         "store home SEO categories in cache",
@@ -603,7 +562,7 @@ public class CategoryService {
     }
 
     String cacheKey = CacheService.generateCacheKey(ALL_CATEGORIES_CACHE, tenantId);
-    logger.info("Generated cache key: '{}'", cacheKey);
+    logger.debug("Generated cache key: '{}'", cacheKey);
     TypeReference<List<CategoryWithCountDTO>> typeRef = new TypeReference<List<CategoryWithCountDTO>>() {
     };
 
@@ -621,14 +580,22 @@ public class CategoryService {
     long cacheDuration = System.currentTimeMillis() - cacheStartTime;
 
     if (cachedResult.isPresent() && !cachedResult.get().isEmpty()) {
-      logger.info("Cache HIT for all categories - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
+      logger.debug("Cache HIT for all categories - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
           cacheKey, cacheDuration, cachedResult.get().size(), tenantId);
       return cachedResult.get();
     }
 
-    logger.info("Cache MISS for all categories - key: '{}', cache lookup duration: {} ms for tenant {}",
+    logger.debug("Cache MISS for all categories - key: '{}', cache lookup duration: {} ms for tenant {}",
         cacheKey, cacheDuration, tenantId);
 
+    return cacheService.loadSingleFlight(CacheService.CACHE_NAME_CATEGORIES, cacheKey,
+        () -> cacheService.getCollectionFromCache(CacheService.CACHE_NAME_CATEGORIES, cacheKey,
+            typeRef).filter(list -> !list.isEmpty()),
+        () -> loadAllCategoriesWithLinkCounts(tenantId, cacheKey, methodStartTime));
+  }
+
+  private List<CategoryWithCountDTO> loadAllCategoriesWithLinkCounts(Integer tenantId, String cacheKey,
+      long methodStartTime) {
     // Get all categories from database
     logger.info("Fetching all categories from database - tenantId: {}, createdViaLink=false", tenantId);
     List<AllCat> categories = LoggingUtil.logOperationTime(
@@ -652,7 +619,7 @@ public class CategoryService {
     logger.info("Extracted {} category names: {}", categoryNames.size(), categoryNames);
 
     // Get link counts from cache service
-    logger.info("Getting link counts from cache service for {} categories", categoryNames.size());
+    logger.debug("Getting link counts from cache service for {} categories", categoryNames.size());
     Map<String, Long> linkCountMap = linkCountCacheService.getLinkCounts(tenantId, categoryNames);
     logger.info("Retrieved link counts for {} categories", linkCountMap.size());
 
@@ -671,7 +638,7 @@ public class CategoryService {
         .collect(Collectors.toList());
 
     // Store in cache
-    logger.info("Storing {} categories in cache with key: '{}' (24 hour expiry)", result.size(), cacheKey);
+    logger.debug("Storing {} categories in cache with key: '{}' (24 hour expiry)", result.size(), cacheKey);
     LoggingUtil.logOperationTime(
         logger,
         "store all categories in cache",
@@ -704,32 +671,17 @@ public class CategoryService {
     }
 
     String cacheKey = CacheService.generateCacheKey("allCategoriesWithLinks", tenantId);
-    logger.info("Generated cache key: '{}'", cacheKey);
+    logger.debug("Generated cache key: '{}'", cacheKey);
     TypeReference<List<CategoryWithLinkDTO>> typeRef = new TypeReference<List<CategoryWithLinkDTO>>() {
     };
 
-    // Try to get from cache first
-    long cacheStartTime = System.currentTimeMillis();
-    Optional<List<CategoryWithLinkDTO>> cachedResult = LoggingUtil.logOperationTime(
-        logger,
-        "get all categories with links from cache",
-        () -> cacheService.getCollectionFromCache(
-            CacheService.CACHE_NAME_CATEGORIES,
-            cacheKey,
-            typeRef
-        )
-    );
-    long cacheDuration = System.currentTimeMillis() - cacheStartTime;
-
-    if (cachedResult.isPresent() && !cachedResult.get().isEmpty()) {
-      logger.info("Cache HIT for all categories with links - key: '{}', duration: {} ms, cached result size: {} for tenant {}",
-          cacheKey, cacheDuration, cachedResult.get().size(), tenantId);
-      return cachedResult.get();
-    }
-
-    logger.info("Cache MISS for all categories with links - key: '{}', cache lookup duration: {} ms for tenant {}",
-        cacheKey, cacheDuration, tenantId);
+    // Served stale while refreshing in the background once past the soft TTL
+    return cacheService.getOrRefresh(CacheService.CACHE_NAME_CATEGORIES, cacheKey, typeRef,
+        () -> loadAllCategories(tenantId, methodStartTime),
+        CATEGORY_LISTS_SOFT_TTL_MINUTES, CATEGORY_LISTS_HARD_TTL_MINUTES, TimeUnit.MINUTES);
+  }
 
+  private List<CategoryWithLinkDTO> loadAllCategories(Integer tenantId, long methodStartTime) {
     // Get all categories from database (not just home categories)
     logger.info("Fetching all categories from database - tenantId: {}, createdViaLink=false", tenantId);
     List<AllCat> categories = LoggingUtil.logOperationTime(
@@ -770,122 +722,9 @@ public class CategoryService {
         .collect(Collectors.toList());
     logger.info("Created final result list with {} items (preserving original order)", result.size());
 
-    // Store in cache
-    logger.info("Storing {} all categories in cache with key: '{}' (24 hour expiry)", result.size(), cacheKey);
-    LoggingUtil.logOperationTime(
-        logger,
-        "store all categories in cache",
-        () -> {
-          cacheService.putInCacheWithExpiry(
-              CacheService.CACHE_NAME_CATEGORIES,
-              cacheKey,
-              result,
-              24,
-              TimeUnit.HOURS
-          );
-          return null;
-        }
-    );
-
     long methodDuration = System.currentTimeMillis() - methodStartTime;
-    logger.info("=== Method completed in {} ms - stored {} all categories in cache for tenant {} ===", 
+    logger.info("=== Method completed in {} ms - loaded {} all categories for tenant {} ===", 
         methodDuration, result.size(), tenantId);
     return result;
   }
-
-
-  public void buildSystemCache() {
-    long methodStartTime = System.currentTimeMillis();
-    logger.info("=== Starting buildSystemCache method ===");
-    
-    try {
-      // Get all distinct category names
-      Set<String> allCategoryNames = new HashSet<>();
-      logger.info("Initializing system cache build process");
-
-      // Build home categories cache
-      logger.info("Building home categories cache for tenant 1");
-      List<CategoryWithLinkDTO> homeCategories = getHomeCategoriesWithLinks(1);
-      logger.info("Built home categories cache with {} categories", homeCategories.size());
-      allCategoryNames.addAll(
-          homeCategories.stream().map(CategoryWithLinkDTO::getName).collect(Collectors.toSet()));
-      logger.info("Added {} home category names to all categories set", 
-          homeCategories.stream().map(CategoryWithLinkDTO::getName).collect(Collectors.toSet()).size());
-
-      // Build home SEO categories cache
-      logger.info("Building home SEO categories cache for tenant 1");
-      List<CategoryWithLinkDTO> homeSeoCategories = getHomeSeoCategories(1);
-      logger.info("Built home SEO categories cache with {} categories", homeSeoCategories.size());
-      allCategoryNames.addAll(
-          homeSeoCategories.stream().map(CategoryWithLinkDTO::getName).collect(Collectors.toSet()));
-      logger.info("Added {} home SEO category names to all categories set", 
-          homeSeoCategories.stream().map(CategoryWithLinkDTO::getName).collect(Collectors.toSet()).size());
-
-      logger.info("Total unique category names collected: {}", allCategoryNames.size());
-
-      // Build cache for each category's first page
-      Pageable firstPage = PageRequest.of(0, 20, Sort.by("randomOrder"));
-      logger.info("Building first page cache for {} categories", allCategoryNames.size());
-      
-      int successCount = 0;
-      int errorCount = 0;
-      
-      for (String categoryName : allCategoryNames) {
-        try {
-          logger.info("Building cache for category: '{}'", categoryName);
-          
-          // Get links for the category
-          List<LinkCategory> linkCategories = linkCategoryService.findByCategoryWithFiltersPageable(
-              1, categoryName, null, null, null, 0, 20);
-          logger.info("Found {} link categories for category '{}'", linkCategories.size(), categoryName);
-
-          // Create DTOs from link categories
-          List<CategoryWithLinkDTO> dtos = linkCategories.stream()
-              .map(linkCategory -> {
-                Link link = linkCategory.getLink();
-                CategoryWithLinkDTO dto = new CategoryWithLinkDTO();
-                dto.setName(categoryName);
-                dto.setLink(link.getLink());
-                dto.setLinkTitle(link.getTitle());
-                dto.setLinkThumbnail(link.getThumbnail());
-                dto.setLinkThumbPath(link.getThumbpath());
-                dto.setLinkDuration(link.getDuration());
-                dto.setLinkSource(link.getSource());
-                dto.setLinkTrailer(link.getTrailer());
-                dto.setCreatedOn(link.getCreatedOn());
-                return dto;
-              })
-              .collect(Collectors.toList());
-          logger.info("Created {} DTOs for category '{}'", dtos.size(), categoryName);
-
-          // Store in cache
-          String cacheKey = String.format("%s_%s_%d_%d_null_null_null",
-              1, categoryName, 0, 20);
-          logger.info("Storing cache for category '{}' with key: '{}'", categoryName, cacheKey);
-          cacheService.putInCacheWithExpiry(
-              CATEGORY_LINKS_CACHE,
-              cacheKey,
-              new PageImpl<>(dtos, firstPage, dtos.size()),
-              1,
-              TimeUnit.HOURS
-          );
-
-          logger.info("Successfully built cache for category: '{}' with {} items", 
-              categoryName, dtos.size());
-          successCount++;
-        } catch (Exception e) {
-          logger.error("Error building cache for category '{}': {}", categoryName, e.getMessage(), e);
-          errorCount++;
-        }
-      }
-
-      long methodDuration = System.currentTimeMillis() - methodStartTime;
-      logger.info("=== System cache build completed in {} ms - Success: {}, Errors: {}, Total categories: {} ===",
-          methodDuration, successCount, errorCount, allCategoryNames.size());
-    } catch (Exception e) {
-      long methodDuration = System.currentTimeMillis() - methodStartTime;
-      logger.error("Error building system cache after {} ms: {}", methodDuration, e.getMessage(), e);
-      throw e;
-    }
-  }
-} 
\ No newline at end of file
+}
@@ -8,7 +8,6 @@ import com.fvp.entity.LinkCategory;
 import com.fvp.util.LoggingUtil;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.springframework.data.domain.Page;
@@ -21,6 +20,8 @@ public class CategoryUtilService {
 
   private static final Logger logger = LoggingUtil.getLogger(CategoryUtilService.class);
   private static final String CATEGORY_LINKS_CACHE = "categoryLinks";
+  private static final long CATEGORY_LINKS_SOFT_TTL_MINUTES = 15;
+  private static final long CATEGORY_LINKS_HARD_TTL_MINUTES = 60;
 
   private final AllCatService allCatService;
   private final LinkService linkService;
@@ -67,25 +68,18 @@ public class CategoryUtilService {
     );
     logger.info("Generated cache key: '{}'", cacheKey);
 
-    // Try to get from cache first
-    long cacheStartTime = System.currentTimeMillis();
+    // Served stale while refreshing in the background once past the soft TTL
     TypeReference<Page<CategoryWithLinkDTO>> typeRef = new TypeReference<Page<CategoryWithLinkDTO>>() {
     };
-    Optional<Page<CategoryWithLinkDTO>> cachedPage = cacheService.getCollectionFromCache(
-        CATEGORY_LINKS_CACHE,
-        cacheKey,
-        typeRef
-    );
-    long cacheDuration = System.currentTimeMillis() - cacheStartTime;
-
-    if (cachedPage.isPresent()) {
-      logger.info("Cache HIT for category links - key: '{}', duration: {} ms, cached result size: {}",
-          cacheKey, cacheDuration, cachedPage.get().getContent().size());
-      return cachedPage.get();
-    }
+    return cacheService.getOrRefresh(CATEGORY_LINKS_CACHE, cacheKey, typeRef,
+        () -> loadCategoryLinks(tenantId, categoryName, pageable, minDuration, maxDuration, quality,
+            methodStartTime),
+        CATEGORY_LINKS_SOFT_TTL_MINUTES, CATEGORY_LINKS_HARD_TTL_MINUTES, TimeUnit.MINUTES);
+  }
 
-    logger.info("Cache MISS for category links - key: '{}', cache lookup duration: {} ms", 
-        cacheKey, cacheDuration);
+  private Page<CategoryWithLinkDTO> loadCategoryLinks(Integer tenantId, String categoryName,
+      Pageable pageable, Integer minDuration, Integer maxDuration, String quality,
+      long methodStartTime) {
 
     // Get the category by name
     logger.info("Fetching category from database - tenantId: {}, categoryName: '{}'", tenantId, categoryName);
@@ -177,9 +171,6 @@ public class CategoryUtilService {
         if (pageable.getPageSize() == 1) {
           logger.info("Page size is 1 - returning only first link. No additional items needed.");
           Page<CategoryWithLinkDTO> result = new PageImpl<>(pageContent, pageable, totalCount);
-          logger.info("Caching result with key: '{}'", cacheKey);
-          cacheService.putInCacheWithExpiry(CATEGORY_LINKS_CACHE, cacheKey, result, 1,
-              TimeUnit.HOURS);
           long methodDuration = System.currentTimeMillis() - methodStartTime;
           logger.info("=== Method completed in {} ms - returning single first link ===", methodDuration);
           return result;
@@ -219,9 +210,6 @@ public class CategoryUtilService {
             pageContent.size(), dbItems.size(), tenantId, categoryName);
         
         Page<CategoryWithLinkDTO> result = new PageImpl<>(pageContent, pageable, totalCount);
-        logger.info("Caching first page result with key: '{}'", cacheKey);
-        cacheService.putInCacheWithExpiry(CATEGORY_LINKS_CACHE, cacheKey, result, 1,
-            TimeUnit.HOURS);
         long methodDuration = System.currentTimeMillis() - methodStartTime;
         logger.info("=== Method completed in {} ms - returning first page with {} items ===", methodDuration, pageContent.size());
         return result;
@@ -335,8 +323,6 @@ public class CategoryUtilService {
         pageable.getPageNumber(), pageContent.size(), tenantId, categoryName);
 
     Page<CategoryWithLinkDTO> result = new PageImpl<>(pageContent, pageable, totalCount);
-    logger.info("Caching page {} result with key: '{}'", pageable.getPageNumber(), cacheKey);
-    cacheService.putInCacheWithExpiry(CATEGORY_LINKS_CACHE, cacheKey, result, 1, TimeUnit.HOURS);
     long methodDuration = System.currentTimeMillis() - methodStartTime;
     logger.info("=== Method completed in {} ms - returning page {} with {} items ===", 
         methodDuration, pageable.getPageNumber(), pageContent.size());
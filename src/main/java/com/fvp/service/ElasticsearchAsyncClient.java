@@ -0,0 +1,183 @@
+package com.fvp.service;
+
+import com.fvp.config.ElasticsearchAsyncConfig;
+import com.fvp.util.LoggingUtil;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+/**
+ * Non-blocking Elasticsearch searches. Requests run on the REST client's asynchronous API, so no
+ * thread is parked while Elasticsearch works. At most {@code elasticsearch.async.max-in-flight}
+ * requests are sent at once; the rest wait in a queue without holding a thread. Every request
+ * fails with a {@link TimeoutException} once its timeout passes, and is cancelled if it was sent.
+ */
+@Service
+public class ElasticsearchAsyncClient {
+
+  private static final Logger logger = LoggingUtil.getLogger(ElasticsearchAsyncClient.class);
+
+  private final RestHighLevelClient esClient;
+  private final ElasticsearchAsyncConfig config;
+  private final Semaphore permits;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final ExecutorService callbackExecutor;
+  private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "es-async-timeout");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  public ElasticsearchAsyncClient(RestHighLevelClient esClient, ElasticsearchAsyncConfig config) {
+    this.esClient = esClient;
+    this.config = config;
+    this.permits = new Semaphore(config.getMaxInFlight());
+    AtomicInteger threadCount = new AtomicInteger();
+    this.callbackExecutor = Executors.newFixedThreadPool(config.getCallbackThreads(), runnable -> {
+      Thread thread = new Thread(runnable, "es-async-callback-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    timeoutScheduler.shutdownNow();
+    callbackExecutor.shutdown();
+  }
+
+  public CompletableFuture<SearchResponse> search(SearchRequest request) {
+    return search(request, config.getTimeoutMs());
+  }
+
+  public CompletableFuture<SearchResponse> search(SearchRequest request, long timeoutMs) {
+    return submit(listener -> esClient.searchAsync(request, RequestOptions.DEFAULT, listener),
+        timeoutMs);
+  }
+
+  public CompletableFuture<MultiSearchResponse> msearch(MultiSearchRequest request) {
+    return msearch(request, config.getTimeoutMs());
+  }
+
+  public CompletableFuture<MultiSearchResponse> msearch(MultiSearchRequest request,
+      long timeoutMs) {
+    return submit(listener -> esClient.msearchAsync(request, RequestOptions.DEFAULT, listener),
+        timeoutMs);
+  }
+
+  /**
+   * Number of requests currently waiting for a slot
+   */
+  public int getQueuedCount() {
+    return queued.get();
+  }
+
+  private <T> CompletableFuture<T> submit(Function<ActionListener<T>, Cancellable> sender,
+      long timeoutMs) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (queued.incrementAndGet() > config.getMaxQueued()) {
+      queued.decrementAndGet();
+      future.completeExceptionally(new RejectedExecutionException(
+          "Too many Elasticsearch requests waiting: " + config.getMaxQueued()));
+      return future;
+    }
+
+    AtomicReference<Cancellable> cancellable = new AtomicReference<>();
+    ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+      if (future.completeExceptionally(new TimeoutException(
+          "Elasticsearch request timed out after " + timeoutMs + " ms"))) {
+        Cancellable sent = cancellable.get();
+        if (sent != null) {
+          sent.cancel();
+        }
+      }
+    }, timeoutMs, TimeUnit.MILLISECONDS);
+    future.whenComplete((result, error) -> timeout.cancel(false));
+
+    pending.add(() -> {
+      queued.decrementAndGet();
+      if (future.isDone()) {
+        // Timed out while waiting for a slot
+        release();
+        return;
+      }
+      try {
+        cancellable.set(sender.apply(new ActionListener<T>() {
+          @Override
+          public void onResponse(T response) {
+            release();
+            complete(() -> future.complete(response));
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            release();
+            complete(() -> future.completeExceptionally(e));
+          }
+        }));
+        if (future.isDone()) {
+          // Timed out while being sent, before the cancellable was known
+          cancellable.get().cancel();
+        }
+      } catch (Exception e) {
+        release();
+        future.completeExceptionally(e);
+      }
+    });
+    drain();
+    return future;
+  }
+
+  /**
+   * Start waiting requests while slots are free. Called after every enqueue and every release, so
+   * a waiting request is never left behind with a slot available.
+   */
+  private void drain() {
+    while (!pending.isEmpty() && permits.tryAcquire()) {
+      Runnable start = pending.poll();
+      if (start == null) {
+        permits.release();
+        return;
+      }
+      start.run();
+    }
+  }
+
+  private void release() {
+    permits.release();
+    drain();
+  }
+
+  private void complete(Runnable completion) {
+    try {
+      callbackExecutor.execute(completion);
+    } catch (RejectedExecutionException e) {
+      logger.warn("Callback executor rejected an Elasticsearch response, completing inline");
+      completion.run();
+    }
+  }
+}
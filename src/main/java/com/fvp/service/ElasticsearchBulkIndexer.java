@@ -0,0 +1,334 @@
+package com.fvp.service;
+
+import com.fvp.config.ElasticsearchSyncConfig;
+import com.fvp.document.LinkDocument;
+import com.fvp.repository.LinkQueryFactory;
+import com.fvp.util.LoggingUtil;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk indexing for syncs. Documents are collected by a {@link BulkProcessor} and sent in bulk
+ * requests of elasticsearch.sync.bulk-actions documents or bulk-size-mb megabytes, with
+ * bulk-concurrent-requests of them in flight; {@link #index} blocks while all are busy, so a
+ * sync runs as fast as Elasticsearch accepts documents. Whole requests rejected with 429 are
+ * retried by the processor; single items failing with a retryable status are resent after a
+ * growing delay, up to bulk-item-retries times, and counted as failed after that.
+ */
+@Service
+public class ElasticsearchBulkIndexer {
+
+  private static final Logger logger = LoggingUtil.getLogger(ElasticsearchBulkIndexer.class);
+  private static final long AWAIT_POLL_MS = 50;
+
+  private final ElasticsearchClientService elasticsearchClientService;
+  private final LinkQueryFactory linkQueryFactory;
+  private final ElasticsearchSyncConfig config;
+  private final BulkProcessor bulkProcessor;
+  private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "es-bulk-retry");
+        thread.setDaemon(true);
+        return thread;
+      });
+  // Keyed by the request instance, which the processor hands back unchanged in afterBulk, so two
+  // queued writes of the same document are counted separately
+  private final Map<DocWriteRequest<?>, InFlight> inFlight =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong indexed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+
+  public ElasticsearchBulkIndexer(ElasticsearchClientService elasticsearchClientService,
+      LinkQueryFactory linkQueryFactory, ElasticsearchSyncConfig config) {
+    this.elasticsearchClientService = elasticsearchClientService;
+    this.linkQueryFactory = linkQueryFactory;
+    this.config = config;
+    RestHighLevelClient esClient = elasticsearchClientService.getEsClient();
+    this.bulkProcessor = BulkProcessor.builder(
+        (request, listener) -> esClient.bulkAsync(request, RequestOptions.DEFAULT, listener),
+        new Listener(), "es-bulk")
+        .setBulkActions(config.getBulkActions())
+        .setBulkSize(new ByteSizeValue(config.getBulkSizeMb(), ByteSizeUnit.MB))
+        .setConcurrentRequests(config.getBulkConcurrentRequests())
+        .setFlushInterval(TimeValue.timeValueMillis(config.getBulkFlushIntervalMs()))
+        .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+            TimeValue.timeValueMillis(config.getBulkRetryBackoffMs()), config.getBulkItemRetries()))
+        .build();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    try {
+      bulkProcessor.awaitClose(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    retryScheduler.shutdownNow();
+  }
+
+  /**
+   * Queue a link document for indexing into the links index, routed by tenant when enabled
+   */
+  public void index(LinkDocument document) {
+    index(document, null);
+  }
+
+  /**
+   * Queue a link document, counting its outcome on a tracker
+   */
+  public void index(LinkDocument document, Tracker tracker) {
+    index(LinkQueryFactory.LINKS_INDEX, document, tracker);
+  }
+
+  /**
+   * Queue a link document for another index than the live one, e.g. an index being rebuilt
+   */
+  public void index(String index, LinkDocument document, Tracker tracker) {
+    IndexRequest request = new IndexRequest(index)
+        .id(document.getLinkId())
+        .source(elasticsearchClientService.convertToMap(document));
+    if (linkQueryFactory.isTenantRoutingEnabled() && document.getTenantId() != null) {
+      request.routing(LinkQueryFactory.routing(document.getTenantId()));
+    }
+    index(request, tracker);
+  }
+
+  /**
+   * Queue any index request
+   */
+  public void index(IndexRequest request) {
+    index(request, null);
+  }
+
+  /**
+   * Queue any index request, counting its outcome on a tracker
+   *
+   * @param request the request
+   * @param tracker tracker of the caller's documents, or null
+   */
+  public void index(IndexRequest request, Tracker tracker) {
+    add(request, tracker);
+  }
+
+  /**
+   * Queue the removal of a link from the links index, routed by tenant when enabled. A link that
+   * is not in the index counts as done.
+   */
+  public void deleteLink(Integer linkId, Integer tenantId, Tracker tracker) {
+    DeleteRequest request = new DeleteRequest(LinkQueryFactory.LINKS_INDEX, linkId.toString());
+    if (linkQueryFactory.isTenantRoutingEnabled() && tenantId != null) {
+      request.routing(LinkQueryFactory.routing(tenantId));
+    }
+    add(request, tracker);
+  }
+
+  private void add(DocWriteRequest<?> request, Tracker tracker) {
+    pending.incrementAndGet();
+    if (tracker != null) {
+      tracker.queued();
+    }
+    inFlight.put(request, new InFlight(tracker));
+    bulkProcessor.add(request);
+  }
+
+  /**
+   * Send what has been collected and wait until every queued document is indexed or has failed
+   * for good
+   *
+   * @param timeoutMs longest time to wait
+   * @return whether everything completed in time
+   */
+  public boolean flushAndWait(long timeoutMs) {
+    return flushAndWait(pending, timeoutMs);
+  }
+
+  /**
+   * Like {@link #flushAndWait(long)}, but only for the documents of one tracker, so concurrent
+   * callers do not wait for each other
+   */
+  public boolean flushAndWait(Tracker tracker, long timeoutMs) {
+    return flushAndWait(tracker.pending, timeoutMs);
+  }
+
+  private boolean flushAndWait(AtomicLong pending, long timeoutMs) {
+    bulkProcessor.flush();
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (pending.get() > 0) {
+      if (System.currentTimeMillis() >= deadline) {
+        logger.warn("{} documents still pending after waiting {} ms", pending.get(), timeoutMs);
+        return false;
+      }
+      try {
+        Thread.sleep(AWAIT_POLL_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      // Resent items may be sitting in a partly filled request
+      bulkProcessor.flush();
+    }
+    return true;
+  }
+
+  public long getPendingCount() {
+    return pending.get();
+  }
+
+  public long getIndexedCount() {
+    return indexed.get();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  public long getRetriedCount() {
+    return retried.get();
+  }
+
+  private static boolean isRetryable(RestStatus status) {
+    return status == RestStatus.TOO_MANY_REQUESTS || status == RestStatus.SERVICE_UNAVAILABLE
+        || status == RestStatus.GATEWAY_TIMEOUT;
+  }
+
+  private static String key(DocWriteRequest<?> request) {
+    return request.index() + "/" + request.id();
+  }
+
+  /**
+   * Resend a failed document later, or give up on it once its retries are used up
+   */
+  private void retryOrFail(DocWriteRequest<?> request, boolean retryable, String reason) {
+    InFlight state = inFlight.computeIfAbsent(request, unknown -> new InFlight(null));
+    int attempt = ++state.attempts;
+    if (retryable && attempt <= config.getBulkItemRetries()) {
+      retried.incrementAndGet();
+      long delay = config.getBulkRetryBackoffMs() << (attempt - 1);
+      // Not on the listener's thread: add() may block until a bulk request completes
+      retryScheduler.schedule(() -> bulkProcessor.add(request), delay, TimeUnit.MILLISECONDS);
+      return;
+    }
+    inFlight.remove(request);
+    failed.incrementAndGet();
+    pending.decrementAndGet();
+    if (state.tracker != null) {
+      state.tracker.failed();
+    }
+    logger.error("Giving up on document {} after {} attempts: {}", key(request), attempt, reason);
+  }
+
+  /**
+   * Tracker and delivery attempts of one queued request
+   */
+  private static class InFlight {
+
+    private final Tracker tracker;
+    private int attempts;
+
+    private InFlight(Tracker tracker) {
+      this.tracker = tracker;
+    }
+  }
+
+  /**
+   * Outcome counts of the documents one caller queued, e.g. one slice of a partitioned sync
+   */
+  public static class Tracker {
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public long getPendingCount() {
+      return pending.get();
+    }
+
+    public long getIndexedCount() {
+      return indexed.get();
+    }
+
+    public long getFailedCount() {
+      return failed.get();
+    }
+
+    void queued() {
+      pending.incrementAndGet();
+    }
+
+    void indexed() {
+      indexed.incrementAndGet();
+      pending.decrementAndGet();
+    }
+
+    void failed() {
+      failed.incrementAndGet();
+      pending.decrementAndGet();
+    }
+  }
+
+  private class Listener implements BulkProcessor.Listener {
+
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {
+      logger.debug("Sending bulk request {} with {} actions ({} bytes)", executionId,
+          request.numberOfActions(), request.estimatedSizeInBytes());
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      List<DocWriteRequest<?>> requests = request.requests();
+      BulkItemResponse[] items = response.getItems();
+      int failures = 0;
+      for (int i = 0; i < items.length; i++) {
+        if (items[i].isFailed()) {
+          failures++;
+          retryOrFail(requests.get(i), isRetryable(items[i].status()),
+              items[i].getFailureMessage());
+        } else {
+          InFlight state = inFlight.remove(requests.get(i));
+          indexed.incrementAndGet();
+          pending.decrementAndGet();
+          if (state != null && state.tracker != null) {
+            state.tracker.indexed();
+          }
+        }
+      }
+      logger.debug("Bulk request {} done in {} ms: {} indexed, {} failed", executionId,
+          response.getTook().millis(), items.length - failures, failures);
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      logger.warn("Bulk request {} with {} actions failed: {}", executionId,
+          request.numberOfActions(), failure.getMessage());
+      for (DocWriteRequest<?> itemRequest : request.requests()) {
+        retryOrFail(itemRequest, true, failure.getMessage());
+      }
+    }
+  }
+}
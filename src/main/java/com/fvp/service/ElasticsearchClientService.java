@@ -1,46 +1,84 @@
 package com.fvp.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fvp.document.CategoryDocument;
 import com.fvp.document.LinkDocument;
 import com.fvp.document.ModelDocument;
 import com.fvp.dto.AutosuggestItem;
+import com.fvp.entity.Link;
+import com.fvp.repository.LinkQueryFactory;
 import com.fvp.util.LoggingUtil;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.core.CountRequest;
 import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.ResizeRequest;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.query.MultiMatchQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.index.reindex.ReindexRequest;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.xcontent.XContentType;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
 @Service
 public class ElasticsearchClientService {
 
   private static final Logger logger = LoggingUtil.getLogger(ElasticsearchClientService.class);
   private static final String LINKS_INDEX = "links";
-  private static final String CATEGORIES_INDEX = "categories";
-  private static final String MODELS_INDEX = "models";
+  public static final String CATEGORIES_INDEX = "categories";
+  public static final String MODELS_INDEX = "models";
+  private static final long TASK_POLL_MS = 5000;
+  private static final int DELETE_BY_IDS_BATCH = 1000;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final RestHighLevelClient esClient;
+  private final Map<String, Set<String>> deletesDuringRebuild = new ConcurrentHashMap<>();
+
+  @Value("${elasticsearch.tenant-routing.enabled:false}")
+  private boolean tenantRoutingEnabled;
 
   @Autowired
   public ElasticsearchClientService(
@@ -100,6 +138,9 @@ public class ElasticsearchClientService {
               "PUT",
               "/" + LINKS_INDEX + "/_doc/" + document.getLinkId()
           );
+          if (tenantRoutingEnabled && document.getTenantId() != null) {
+            lowLevelRequest.addParameter("routing", LinkQueryFactory.routing(document.getTenantId()));
+          }
 
           // Convert map to JSON string
           String jsonBody = objectMapper.writeValueAsString(documentMap);
@@ -170,7 +211,374 @@ public class ElasticsearchClientService {
     });
   }
 
-  private Map<String, Object> convertToMap(LinkDocument document) {
+  /**
+   * Start setting the hasThumb flag on link documents indexed before it existed. The update runs
+   * as a task, as it outlasts the client's socket timeout; see {@link #awaitTask}.
+   *
+   * @return ID of the update-by-query task
+   */
+  public String startHasThumbBackfill() {
+    try {
+      UpdateByQueryRequest request = new UpdateByQueryRequest(LINKS_INDEX);
+      request.setQuery(QueryBuilders.boolQuery()
+          .mustNot(QueryBuilders.existsQuery("hasThumb")));
+      request.setScript(new Script(ScriptType.INLINE, "painless",
+          "def p = ctx._source.thumbPath; "
+              + "ctx._source.hasThumb = p != null && p != '' && p != 'NA' && p != 'null';",
+          Collections.emptyMap()));
+      request.setConflicts("proceed");
+      request.setRefresh(true);
+      String task = esClient.submitUpdateByQueryTask(request, RequestOptions.DEFAULT).getTask();
+      logger.info("Backfilling hasThumb on link documents in task {}", task);
+      return task;
+    } catch (Exception e) {
+      logger.error("Error backfilling hasThumb: {}", e.getMessage(), e);
+      throw new RuntimeException("Failed to backfill hasThumb", e);
+    }
+  }
+
+  /**
+   * Start copying the links index into a new index whose documents are routed by tenant, for
+   * switching on elasticsearch.tenant-routing.enabled. The routing of existing documents cannot
+   * be changed in place. The new index takes the mappings of es-settings.json. The copy runs as a
+   * task, as it outlasts the client's socket timeout; see {@link #awaitTask}.
+   *
+   * @param targetIndex name of the index to create
+   * @param numberOfShards shard count of the new index
+   * @return ID of the reindex task
+   */
+  public String startTenantRoutingReindex(String targetIndex, int numberOfShards) {
+    try {
+      if (esClient.indices().exists(new GetIndexRequest(targetIndex), RequestOptions.DEFAULT)) {
+        throw new IllegalStateException("Index " + targetIndex + " already exists");
+      }
+      // Same analysis and mappings as the links index, with the requested shard count
+      ObjectNode source = readLinksIndexSource();
+      source.with("settings").with("index").put("number_of_shards", numberOfShards);
+      CreateIndexRequest createRequest = new CreateIndexRequest(targetIndex);
+      createRequest.source(objectMapper.writeValueAsString(source), XContentType.JSON);
+      esClient.indices().create(createRequest, RequestOptions.DEFAULT);
+
+      ReindexRequest request = new ReindexRequest();
+      request.setSourceIndices(LINKS_INDEX);
+      request.setDestIndex(targetIndex);
+      request.setScript(new Script(ScriptType.INLINE, "painless",
+          "if (ctx._source.tenantId != null) { ctx._routing = String.valueOf(ctx._source.tenantId); }",
+          Collections.emptyMap()));
+      request.setSourceBatchSize(1000);
+      request.setRefresh(true);
+      String task = esClient.submitReindexTask(request, RequestOptions.DEFAULT).getTask();
+      logger.info("Reindexing links into {} with tenant routing in task {}", targetIndex, task);
+      return task;
+    } catch (Exception e) {
+      logger.error("Error reindexing links into {}: {}", targetIndex, e.getMessage(), e);
+      throw new RuntimeException("Failed to reindex links with tenant routing", e);
+    }
+  }
+
+  /**
+   * Poll a task started with wait_for_completion=false until it is done
+   *
+   * @param task the task ID
+   * @param timeoutMs how long to wait
+   * @return the task's response, e.g. the counts of a reindex
+   * @throws IllegalStateException when the task fails, reports failed documents or is not done
+   * within the timeout
+   */
+  public JsonNode awaitTask(String task, long timeoutMs)
+      throws java.io.IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    JsonNode status;
+    while (!(status = getTask(task)).path("completed").asBoolean()) {
+      if (System.currentTimeMillis() >= deadline) {
+        throw new IllegalStateException("Task " + task + " not done after " + timeoutMs + " ms");
+      }
+      Thread.sleep(TASK_POLL_MS);
+    }
+    if (status.hasNonNull("error")) {
+      throw new IllegalStateException("Task " + task + " failed: "
+          + status.path("error").path("reason").asText(status.path("error").toString()));
+    }
+    JsonNode failures = status.path("response").path("failures");
+    if (failures.size() > 0) {
+      throw new IllegalStateException("Task " + task + " had " + failures.size()
+          + " failures, first: " + failures.get(0));
+    }
+    return status.path("response");
+  }
+
+  /**
+   * @param task the task ID
+   * @return the task as reported by the _tasks API, with its progress under task.status
+   */
+  public JsonNode getTask(String task) throws java.io.IOException {
+    return readJson(new Request("GET", "/_tasks/" + task));
+  }
+
+  private ObjectNode readLinksIndexSource() throws java.io.IOException {
+    return (ObjectNode) objectMapper.readTree(StreamUtils.copyToString(
+        new ClassPathResource("es-settings.json").getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Name of the next version of an index served behind an alias, e.g. links_v3 when links_v2 is
+   * the newest one
+   */
+  public String nextIndexVersion(String alias) {
+    try {
+      GetIndexRequest request = new GetIndexRequest(alias + "_v*");
+      request.indicesOptions(IndicesOptions.lenientExpandOpen());
+      int latest = 0;
+      for (String index : esClient.indices().get(request, RequestOptions.DEFAULT).getIndices()) {
+        try {
+          latest = Math.max(latest, Integer.parseInt(index.substring(alias.length() + 2)));
+        } catch (NumberFormatException e) {
+          logger.debug("Ignoring index {} without a version number", index);
+        }
+      }
+      return alias + "_v" + (latest + 1);
+    } catch (Exception e) {
+      logger.error("Error finding versions of index {}: {}", alias, e.getMessage(), e);
+      throw new RuntimeException("Failed to find index versions", e);
+    }
+  }
+
+  /**
+   * Create an index for a bulk load: no replicas and no refreshes until
+   * {@link #finishBulkLoad} restores them. Links take the mappings of es-settings.json; the shard
+   * count is carried over from the index currently behind the alias.
+   *
+   * @param alias name the index will be served under
+   * @param index name of the index to create
+   */
+  public void createBulkLoadIndex(String alias, String index) {
+    try {
+      if (esClient.indices().exists(new GetIndexRequest(index), RequestOptions.DEFAULT)) {
+        throw new IllegalStateException("Index " + index + " already exists");
+      }
+      ObjectNode source = LINKS_INDEX.equals(alias) ? readLinksIndexSource()
+          : objectMapper.createObjectNode();
+      ObjectNode settings = source.with("settings").with("index");
+      settings.put("number_of_shards", currentShardCount(alias));
+      settings.put("number_of_replicas", 0);
+      settings.put("refresh_interval", "-1");
+      CreateIndexRequest request = new CreateIndexRequest(index);
+      request.source(objectMapper.writeValueAsString(source), XContentType.JSON);
+      esClient.indices().create(request, RequestOptions.DEFAULT);
+      logger.info("Created index {} for bulk loading", index);
+    } catch (Exception e) {
+      logger.error("Error creating index {}: {}", index, e.getMessage(), e);
+      throw new RuntimeException("Failed to create index for bulk loading", e);
+    }
+  }
+
+  private int currentShardCount(String alias) throws java.io.IOException {
+    if (!esClient.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+      return 1;
+    }
+    GetSettingsRequest request = new GetSettingsRequest().indices(alias)
+        .names("index.number_of_shards");
+    for (Settings settings : esClient.indices().getSettings(request, RequestOptions.DEFAULT)
+        .getIndexToSettings().values()) {
+      return settings.getAsInt("index.number_of_shards", 1);
+    }
+    return 1;
+  }
+
+  /**
+   * Make a bulk-loaded index ready to serve: restore refreshes, add replicas and force-merge it.
+   * The merge runs as a task that is polled, as it can outlast the client's socket timeout; see
+   * {@link #awaitTask}.
+   *
+   * @param index the loaded index
+   * @param replicas replicas to add
+   * @param maxSegments segments per shard to merge down to
+   * @param timeoutMs how long to wait for the merge
+   */
+  public void finishBulkLoad(String index, int replicas, int maxSegments, long timeoutMs) {
+    try {
+      esClient.indices().putSettings(new UpdateSettingsRequest(index).settings(Settings.builder()
+          .putNull("index.refresh_interval")
+          .put("index.number_of_replicas", replicas)), RequestOptions.DEFAULT);
+
+      Request forceMerge = new Request("POST", "/" + index + "/_forcemerge");
+      forceMerge.addParameter("max_num_segments", String.valueOf(maxSegments));
+      forceMerge.addParameter("wait_for_completion", "false");
+      String task = readJson(forceMerge).path("task").asText();
+      logger.info("Force-merging {} to {} segments per shard in task {}", index, maxSegments, task);
+      awaitTask(task, timeoutMs);
+
+      esClient.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while finishing bulk load", e);
+    } catch (Exception e) {
+      logger.error("Error finishing bulk load of {}: {}", index, e.getMessage(), e);
+      throw new RuntimeException("Failed to finish bulk load", e);
+    }
+  }
+
+  private JsonNode readJson(Request request) throws java.io.IOException {
+    return objectMapper.readTree(EntityUtils.toString(
+        esClient.getLowLevelClient().performRequest(request).getEntity()));
+  }
+
+  public long countDocuments(String index) {
+    try {
+      return esClient.count(new CountRequest(index), RequestOptions.DEFAULT).getCount();
+    } catch (Exception e) {
+      logger.error("Error counting documents in {}: {}", index, e.getMessage(), e);
+      throw new RuntimeException("Failed to count documents", e);
+    }
+  }
+
+  /**
+   * Point an alias at an index in one atomic request, detaching it from the indices it pointed
+   * at before; those are kept for a rollback. When the alias name is still taken by a concrete
+   * index from before versioning, that index is first cloned to name_v0 and then dropped in the
+   * same request. Writes to it are blocked during the clone and fail for that moment.
+   *
+   * @param alias the alias
+   * @param index index to serve under the alias
+   * @return the indices the alias pointed at before
+   */
+  public List<String> swapAlias(String alias, String index) {
+    try {
+      List<String> previous = new ArrayList<>(esClient.indices()
+          .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT).getAliases().keySet());
+      IndicesAliasesRequest request = new IndicesAliasesRequest();
+      request.addAliasAction(AliasActions.add().index(index).alias(alias));
+      for (String old : previous) {
+        if (!old.equals(index)) {
+          request.addAliasAction(AliasActions.remove().index(old).alias(alias));
+        }
+      }
+      if (previous.isEmpty()
+          && esClient.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+        String copy = alias + "_v0";
+        cloneIndex(alias, copy);
+        request.addAliasAction(AliasActions.removeIndex().index(alias));
+        previous.add(copy);
+      }
+      esClient.indices().updateAliases(request, RequestOptions.DEFAULT);
+      previous.remove(index);
+      logger.info("Alias {} now points at {}; previous indices: {}", alias, index, previous);
+      return previous;
+    } catch (Exception e) {
+      logger.error("Error pointing alias {} at {}: {}", alias, index, e.getMessage(), e);
+      throw new RuntimeException("Failed to swap alias", e);
+    }
+  }
+
+  /**
+   * The categories the indexed documents of some links have now, read in one request, e.g. before
+   * the documents are overwritten
+   *
+   * @param links the links
+   * @return link ID to categories, for the links that have a document
+   */
+  public Map<Integer, List<String>> findLinkCategories(Collection<Link> links) {
+    Map<Integer, List<String>> categories = new HashMap<>();
+    if (links.isEmpty()) {
+      return categories;
+    }
+    MultiGetRequest request = new MultiGetRequest();
+    FetchSourceContext source = new FetchSourceContext(true, new String[]{"categories"}, null);
+    for (Link link : links) {
+      MultiGetRequest.Item item = new MultiGetRequest.Item(LINKS_INDEX, String.valueOf(link.getId()))
+          .fetchSourceContext(source);
+      if (tenantRoutingEnabled && link.getTenantId() != null) {
+        item.routing(LinkQueryFactory.routing(link.getTenantId()));
+      }
+      request.add(item);
+    }
+    try {
+      for (MultiGetItemResponse item : esClient.mget(request, RequestOptions.DEFAULT)
+          .getResponses()) {
+        if (item.isFailed()) {
+          throw new IllegalStateException(item.getFailure().getMessage());
+        }
+        if (item.getResponse().isExists()) {
+          Object value = item.getResponse().getSourceAsMap().get("categories");
+          categories.put(Integer.valueOf(item.getId()), value instanceof List
+              ? objectMapper.convertValue(value, new TypeReference<List<String>>() {
+              }) : Collections.emptyList());
+        }
+      }
+      return categories;
+    } catch (Exception e) {
+      logger.error("Error reading categories of {} links: {}", links.size(), e.getMessage(), e);
+      throw new RuntimeException("Failed to read link categories", e);
+    }
+  }
+
+  /**
+   * Start recording the IDs of documents deleted under an alias, while its index is rebuilt: the
+   * deletes reach the previous index only, and the rebuild may already have copied the rows
+   */
+  public void recordDeletes(String alias) {
+    deletesDuringRebuild.put(alias, ConcurrentHashMap.newKeySet());
+  }
+
+  /**
+   * Note a document deleted under an alias, if deletes are being recorded for it
+   */
+  public void deleted(String alias, String id) {
+    Set<String> ids = deletesDuringRebuild.get(alias);
+    if (ids != null) {
+      ids.add(id);
+    }
+  }
+
+  /**
+   * Stop recording deletes for an alias
+   *
+   * @return the IDs deleted since {@link #recordDeletes} was called
+   */
+  public Set<String> stopRecordingDeletes(String alias) {
+    Set<String> ids = deletesDuringRebuild.remove(alias);
+    return ids != null ? ids : Collections.emptySet();
+  }
+
+  /**
+   * Delete documents by ID wherever they are routed
+   *
+   * @return number of documents deleted
+   */
+  public long deleteByIds(String index, Collection<String> ids) {
+    long deleted = 0;
+    List<String> remaining = new ArrayList<>(ids);
+    try {
+      for (int from = 0; from < remaining.size(); from += DELETE_BY_IDS_BATCH) {
+        List<String> batch = remaining.subList(from,
+            Math.min(from + DELETE_BY_IDS_BATCH, remaining.size()));
+        DeleteByQueryRequest request = new DeleteByQueryRequest(index);
+        request.setQuery(QueryBuilders.idsQuery().addIds(batch.toArray(new String[0])));
+        request.setRefresh(true);
+        deleted += esClient.deleteByQuery(request, RequestOptions.DEFAULT).getDeleted();
+      }
+      return deleted;
+    } catch (Exception e) {
+      logger.error("Error deleting {} documents from {}: {}", ids.size(), index, e.getMessage(), e);
+      throw new RuntimeException("Failed to delete documents", e);
+    }
+  }
+
+  private void cloneIndex(String index, String copy) throws java.io.IOException {
+    esClient.indices().putSettings(new UpdateSettingsRequest(index).settings(Settings.builder()
+        .put("index.blocks.write", true)), RequestOptions.DEFAULT);
+    try {
+      ResizeRequest request = new ResizeRequest(copy, index);
+      request.setSettings(Settings.builder().put("index.blocks.write", false).build());
+      esClient.indices().clone(request, RequestOptions.DEFAULT);
+    } catch (Exception e) {
+      esClient.indices().putSettings(new UpdateSettingsRequest(index).settings(Settings.builder()
+          .putNull("index.blocks.write")), RequestOptions.DEFAULT);
+      throw e;
+    }
+  }
+
+  public Map<String, Object> convertToMap(LinkDocument document) {
     Map<String, Object> map = new HashMap<>();
     map.put("id", document.getLinkId());
     map.put("tenantId", document.getTenantId());
@@ -202,6 +610,8 @@ public class ElasticsearchClientService {
     map.put("thumbPathProcessed", document.getThumbPathProcessed());
     map.put("trailerPresent", document.getTrailerPresent());
     map.put("hd", document.getHd());
+    map.put("hasThumb", document.getHasThumb() != null ? document.getHasThumb()
+        : LinkDocument.isUsableThumbPath(document.getLinkThumbPath()));
 
     // Format createdOn date for Elasticsearch
     if (document.getCreatedOn() != null) {
@@ -217,6 +627,10 @@ public class ElasticsearchClientService {
 
   public LinkDocument convertToLinkDocument(Map<String, Object> map) {
     LinkDocument document = new LinkDocument();
+    if (map == null) {
+      // Hit fetched without _source (LinkProjection.ID_ONLY): only the ID is set by the caller
+      return document;
+    }
     document.setLinkId((String) map.get("id"));
     document.setTenantId((Integer) map.get("tenantId"));
     document.setLinkTitle((String) map.get("title"));
@@ -273,6 +687,7 @@ public class ElasticsearchClientService {
     document.setThumbPathProcessed((Integer) map.get("thumbPathProcessed"));
     document.setTrailerPresent((Integer) map.get("trailerPresent"));
     document.setHd((Integer) map.get("hd"));
+    document.setHasThumb((Boolean) map.get("hasThumb"));
 
     // Parse createdOn date from Elasticsearch format
     String createdOnStr = (String) map.get("createdOn");
@@ -416,7 +831,7 @@ public class ElasticsearchClientService {
   }
 
   // Helper methods for converting documents to maps
-  private Map<String, Object> convertToMap(CategoryDocument document) {
+  public Map<String, Object> convertToMap(CategoryDocument document) {
     Map<String, Object> map = new HashMap<>();
     map.put("id", document.getId());
     map.put("tenantId", document.getTenantId());
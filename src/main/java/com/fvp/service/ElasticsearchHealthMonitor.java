@@ -0,0 +1,178 @@
+package com.fvp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fvp.config.ElasticsearchFallbackConfig;
+import com.fvp.util.LoggingUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether category and model reads go to Elasticsearch or to the MySQL fallback. The
+ * cluster health is probed with a short timeout; after elasticsearch.fallback.failure-threshold
+ * failed or slow probes reads switch to MySQL, and they switch back after
+ * elasticsearch.fallback.recovery-threshold good ones. With elasticsearch.enabled=false the client
+ * is a placeholder, so MySQL serves all reads.
+ */
+@Component
+public class ElasticsearchHealthMonitor implements HealthIndicator {
+
+  private static final Logger logger = LoggingUtil.getLogger(ElasticsearchHealthMonitor.class);
+
+  private final RestHighLevelClient esClient;
+  private final ElasticsearchFallbackConfig config;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final boolean elasticsearchEnabled;
+  private volatile boolean available;
+  private volatile boolean forced;
+  private volatile String lastProblem;
+  private int consecutiveFailures;
+  private int consecutiveSuccesses;
+
+  public ElasticsearchHealthMonitor(RestHighLevelClient esClient,
+      ElasticsearchFallbackConfig config, MeterRegistry meterRegistry,
+      @Value("${elasticsearch.enabled:false}") boolean elasticsearchEnabled) {
+    this.esClient = esClient;
+    this.config = config;
+    this.elasticsearchEnabled = elasticsearchEnabled;
+    this.available = elasticsearchEnabled;
+    this.forced = config.isForced();
+    this.lastProblem = elasticsearchEnabled ? null : "Elasticsearch is disabled";
+    Gauge.builder("fvp.es.fallback.active", this, monitor -> monitor.useFallback() ? 1 : 0)
+        .description("1 while category and model reads are served from MySQL")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Whether reads should be served from MySQL right now
+   */
+  public boolean useFallback() {
+    return config.isEnabled() && (forced || !available);
+  }
+
+  /**
+   * The TTL for a value cached now: while reads come from MySQL it is capped to
+   * elasticsearch.fallback.cache-ttl-seconds
+   *
+   * @param ttlSeconds the TTL the value would normally get
+   */
+  public long cacheTtlSeconds(long ttlSeconds) {
+    return useFallback() ? Math.min(ttlSeconds, config.getCacheTtlSeconds()) : ttlSeconds;
+  }
+
+  public boolean isAvailable() {
+    return available;
+  }
+
+  /**
+   * Force reads to MySQL, or hand the decision back to the health probes
+   */
+  public void setForced(boolean forced) {
+    this.forced = forced;
+    logger.info("MySQL read fallback {}", forced ? "forced" : "back to health-driven");
+  }
+
+  public boolean isForced() {
+    return forced;
+  }
+
+  @Scheduled(fixedDelayString = "${elasticsearch.fallback.probe-interval-ms:5000}")
+  public synchronized void probe() {
+    if (!elasticsearchEnabled) {
+      return;
+    }
+    String problem = check();
+    if (problem == null) {
+      consecutiveFailures = 0;
+      if (!available && ++consecutiveSuccesses >= config.getRecoveryThreshold()) {
+        available = true;
+        lastProblem = null;
+        logger.info("Elasticsearch is healthy again, reads go back to Elasticsearch");
+      }
+      return;
+    }
+    consecutiveSuccesses = 0;
+    lastProblem = problem;
+    if (available && ++consecutiveFailures >= config.getFailureThreshold()) {
+      available = false;
+      logger.warn("Elasticsearch unhealthy ({}), serving reads from MySQL", problem);
+    }
+  }
+
+  /**
+   * One probe of the cluster health
+   *
+   * @return null when healthy, otherwise what is wrong
+   */
+  private String check() {
+    long start = System.currentTimeMillis();
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    Cancellable cancellable = null;
+    try {
+      Request request = new Request("GET", "/_cluster/health");
+      request.addParameter("timeout", config.getProbeTimeoutMs() + "ms");
+      // Asynchronous so the wait is bounded by the probe timeout, not the client's socket timeout
+      cancellable = esClient.getLowLevelClient().performRequestAsync(request,
+          new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+              future.complete(response);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+              future.completeExceptionally(exception);
+            }
+          });
+      Response response = future.get(config.getProbeTimeoutMs(), TimeUnit.MILLISECONDS);
+      String status;
+      try (InputStream content = response.getEntity().getContent()) {
+        status = objectMapper.readTree(content).path("status").asText();
+      }
+      long elapsed = System.currentTimeMillis() - start;
+      if ("red".equals(status)) {
+        return "cluster status red";
+      }
+      if (elapsed > config.getSlowThresholdMs()) {
+        return "health check took " + elapsed + " ms";
+      }
+      return null;
+    } catch (TimeoutException e) {
+      cancellable.cancel();
+      return "health check timed out after " + config.getProbeTimeoutMs() + " ms";
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "health check interrupted";
+    } catch (Exception e) {
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+  }
+
+  @Override
+  public Health health() {
+    // Reported as up either way: the service keeps serving from MySQL
+    Health.Builder builder = Health.up()
+        .withDetail("elasticsearch", available ? "available" : "unavailable")
+        .withDetail("readSource", useFallback() ? "mysql" : "elasticsearch")
+        .withDetail("forced", forced);
+    if (lastProblem != null) {
+      builder.withDetail("lastProblem", lastProblem);
+    }
+    return builder.build();
+  }
+}
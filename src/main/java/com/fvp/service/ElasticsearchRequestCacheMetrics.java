@@ -0,0 +1,95 @@
+package com.fvp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fvp.repository.LinkQueryFactory;
+import com.fvp.util.LoggingUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer gauges for the shard request cache of the links index, which serves the repeated
+ * count and aggregation queries. Elasticsearch keeps the statistics, so they are polled from the
+ * index stats API.
+ * <ul>
+ *   <li>fvp.es.request_cache.hits and fvp.es.request_cache.misses, totals since node start</li>
+ *   <li>fvp.es.request_cache.hit_ratio over the last polling interval</li>
+ *   <li>fvp.es.request_cache.evictions</li>
+ *   <li>fvp.es.request_cache.memory in bytes</li>
+ * </ul>
+ */
+@Component
+public class ElasticsearchRequestCacheMetrics {
+
+  private static final Logger logger = LoggingUtil.getLogger(ElasticsearchRequestCacheMetrics.class);
+  private static final String TAG_INDEX = "index";
+
+  private final RestHighLevelClient esClient;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong memoryBytes = new AtomicLong();
+  private volatile double hitRatio = Double.NaN;
+
+  public ElasticsearchRequestCacheMetrics(RestHighLevelClient esClient,
+      MeterRegistry meterRegistry) {
+    this.esClient = esClient;
+    String index = LinkQueryFactory.LINKS_INDEX;
+    Gauge.builder("fvp.es.request_cache.hits", hits, AtomicLong::get)
+        .description("Shard request cache hits")
+        .tag(TAG_INDEX, index)
+        .register(meterRegistry);
+    Gauge.builder("fvp.es.request_cache.misses", misses, AtomicLong::get)
+        .description("Shard request cache misses")
+        .tag(TAG_INDEX, index)
+        .register(meterRegistry);
+    Gauge.builder("fvp.es.request_cache.hit_ratio", this, metrics -> metrics.hitRatio)
+        .description("Share of request cache lookups that hit, over the last polling interval")
+        .tag(TAG_INDEX, index)
+        .register(meterRegistry);
+    Gauge.builder("fvp.es.request_cache.evictions", evictions, AtomicLong::get)
+        .description("Shard request cache evictions")
+        .tag(TAG_INDEX, index)
+        .register(meterRegistry);
+    Gauge.builder("fvp.es.request_cache.memory", memoryBytes, AtomicLong::get)
+        .description("Memory held by the shard request cache")
+        .baseUnit("bytes")
+        .tag(TAG_INDEX, index)
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${elasticsearch.request-cache.stats-interval-ms:60000}",
+      initialDelayString = "${elasticsearch.request-cache.stats-interval-ms:60000}")
+  public void refresh() {
+    try {
+      Response response = esClient.getLowLevelClient().performRequest(
+          new Request("GET", "/" + LinkQueryFactory.LINKS_INDEX + "/_stats/request_cache"));
+      JsonNode stats;
+      try (InputStream content = response.getEntity().getContent()) {
+        stats = objectMapper.readTree(content).path("_all").path("total").path("request_cache");
+      }
+      long newHits = stats.path("hit_count").asLong();
+      long newMisses = stats.path("miss_count").asLong();
+      long hitDelta = newHits - hits.getAndSet(newHits);
+      long missDelta = newMisses - misses.getAndSet(newMisses);
+      // Deltas go negative when nodes restart; keep the last ratio then
+      if (hitDelta >= 0 && missDelta >= 0 && hitDelta + missDelta > 0) {
+        hitRatio = (double) hitDelta / (hitDelta + missDelta);
+      }
+      evictions.set(stats.path("evictions").asLong());
+      memoryBytes.set(stats.path("memory_size_in_bytes").asLong());
+    } catch (Exception e) {
+      logger.warn("Could not read request cache stats of index {}: {}",
+          LinkQueryFactory.LINKS_INDEX, e.getMessage());
+    }
+  }
+}
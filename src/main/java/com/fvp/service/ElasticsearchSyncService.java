@@ -1,38 +1,83 @@
 package com.fvp.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fvp.config.ElasticsearchSyncConfig;
 import com.fvp.document.CategoryDocument;
+import com.fvp.document.LinkDocument;
 import com.fvp.document.ModelDocument;
 import com.fvp.entity.AllCat;
 import com.fvp.entity.Link;
 import com.fvp.entity.Model;
 import com.fvp.repository.AllCatRepository;
 import com.fvp.repository.LinkModelRepository;
+import com.fvp.repository.LinkQueryFactory;
 import com.fvp.repository.LinkRepository;
+import com.fvp.repository.LinkRowReader;
 import com.fvp.repository.ModelRepository;
-import com.fvp.repository.ElasticsearchLinkCategoryRepository;
 import com.fvp.util.LoggingUtil;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.elasticsearch.action.index.IndexRequest;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
 
 @Service
 public class ElasticsearchSyncService {
 
   private static final Logger logger = LoggingUtil.getLogger(ElasticsearchSyncService.class);
+  private static final long BULK_DRAIN_TIMEOUT_MS = 10 * 60 * 1000L;
+  private static final String LINK_SYNC_JOB = "links";
+  private static final String PARTITIONED_SYNC_JOB = "links-partitioned";
+  private static final String FULL_LINK_SYNC = "full";
+  private static final String PARTITIONED_LINK_SYNC = "partitioned";
+  private static final String TENANT_ROUTING_TASK = "tenant-routing";
+  private static final String HAS_THUMB_TASK = "has-thumb";
+  /**
+   * Indices served behind an alias that {@link #rebuildIndex} can rebuild
+   */
+  public static final List<String> REBUILDABLE_INDICES = Arrays.asList(
+      LinkQueryFactory.LINKS_INDEX, ElasticsearchClientService.CATEGORIES_INDEX,
+      ElasticsearchClientService.MODELS_INDEX);
+  private static final List<Link> END_OF_SCAN = new ArrayList<>();
+  // Held by the node running a full or partitioned link sync, as "<kind>:<token>"
+  private static final String LINK_SYNC_LOCK_KEY = "lock:es-sync:links";
+  private static final String RELEASE_LOCK_SCRIPT =
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+          + "else return 0 end";
+  private static final String REFRESH_LOCK_SCRIPT =
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) "
+          + "else return 0 end";
 
   private final LinkRepository linkRepository;
   private final LinkModelRepository linkModelRepository;
@@ -43,11 +88,29 @@ public class ElasticsearchSyncService {
   private final JdbcTemplate jdbcTemplate;
   private final AllCatRepository allCatRepository;
   private final ModelRepository modelRepository;
-  private final ElasticsearchLinkCategoryRepository elasticsearchLinkCategoryRepository;
+  private final CategoryLinkCountStore categoryLinkCountStore;
+  private final ElasticsearchBulkIndexer elasticsearchBulkIndexer;
+  private final LinkCategoryService linkCategoryService;
+  private final LinkRowReader linkRowReader;
+  private final SyncCheckpointStore syncCheckpointStore;
+  private final JedisPool jedisPool;
+  // Looked up when needed, as it depends on this service
+  private final ObjectProvider<IncrementalSyncService> incrementalSyncService;
   // Track sync status
   private static final AtomicReference<String> linkSyncStatus = new AtomicReference<>("not_started");
   private final AtomicReference<String> categorySyncStatus = new AtomicReference<>("not_started");
   private final AtomicReference<String> modelSyncStatus = new AtomicReference<>("not_started");
+  private final AtomicReference<String> partitionedSyncStatus = new AtomicReference<>("not_started");
+  // "full" or "partitioned" while a full link sync runs; the two kinds never run together
+  private final AtomicReference<String> activeLinkSync = new AtomicReference<>();
+  private final AtomicReference<String> linkSyncLockValue = new AtomicReference<>();
+  private final List<SliceProgress> sliceProgress = new CopyOnWriteArrayList<>();
+  private final Map<String, String> rebuildStatus = new ConcurrentHashMap<>();
+  private final Map<String, String> taskStatus = new ConcurrentHashMap<>();
+
+  @Value("${scheduler.enabled:true}")
+  private boolean schedulerEnabled;
+
   @Autowired
   public ElasticsearchSyncService(
       LinkRepository linkRepository,
@@ -58,7 +121,13 @@ public class ElasticsearchSyncService {
       JdbcTemplate jdbcTemplate,
       AllCatRepository allCatRepository,
       ModelRepository modelRepository,
-      ElasticsearchLinkCategoryRepository elasticsearchLinkCategoryRepository) {
+      CategoryLinkCountStore categoryLinkCountStore,
+      ElasticsearchBulkIndexer elasticsearchBulkIndexer,
+      LinkCategoryService linkCategoryService,
+      LinkRowReader linkRowReader,
+      SyncCheckpointStore syncCheckpointStore,
+      JedisPool jedisPool,
+      ObjectProvider<IncrementalSyncService> incrementalSyncService) {
     this.linkRepository = linkRepository;
     this.linkModelRepository = linkModelRepository;
     this.linkProcessingService = linkProcessingService;
@@ -68,88 +137,386 @@ public class ElasticsearchSyncService {
     this.jdbcTemplate = jdbcTemplate;
     this.allCatRepository = allCatRepository;
     this.modelRepository = modelRepository;
-    this.elasticsearchLinkCategoryRepository = elasticsearchLinkCategoryRepository;
+    this.categoryLinkCountStore = categoryLinkCountStore;
+    this.elasticsearchBulkIndexer = elasticsearchBulkIndexer;
+    this.linkCategoryService = linkCategoryService;
+    this.linkRowReader = linkRowReader;
+    this.syncCheckpointStore = syncCheckpointStore;
+    this.jedisPool = jedisPool;
+    this.incrementalSyncService = incrementalSyncService;
   }
 
   /**
-   * Start a full sync of all links from MySQL to Elasticsearch
+   * Start a full sync of all links from MySQL to Elasticsearch. Links are read in ID order by
+   * keyset pages on a reader thread, which stays at most elasticsearch.sync.scan-queue-batches
+   * pages ahead of the indexer. Every checkpoint-interval-rows rows the bulk indexer is drained
+   * and the last ID is saved, so an interrupted sync resumes from there. Refused while a
+   * full or partitioned link sync is running on any node.
    *
-   * @param startIndex Optional start index for pagination. If null, starts from beginning.
+   * @param startIndex Optional link ID to start after. If null, resumes from the last checkpoint
+   * of an unfinished sync, or starts from the beginning.
    * @return CompletableFuture with the result of the sync operation
    */
   @Async
   public CompletableFuture<String> syncAllLinksToElasticsearch(Integer startIndex) {
+    String refused = claimLinkSync(FULL_LINK_SYNC);
+    if (refused != null) {
+      logger.warn(refused);
+      return CompletableFuture.completedFuture(refused);
+    }
     linkSyncStatus.set("in_progress");
     return CompletableFuture.supplyAsync(() -> {
-      if (!syncConfig.isEnabled()) {
-        linkSyncStatus.set("disabled");
-        return "Elasticsearch sync is disabled";
+      try {
+        return runFullLinkSync(startIndex);
+      } finally {
+        releaseLinkSync();
       }
+    }, executorService);
+  }
 
-      logger.info("Starting sync of links to Elasticsearch" + (startIndex != null ? " from index " + startIndex : ""));
-      long startTime = System.currentTimeMillis();
+  private String runFullLinkSync(Integer startIndex) {
+    if (!syncConfig.isEnabled()) {
+      linkSyncStatus.set("disabled");
+      return "Elasticsearch sync is disabled";
+    }
 
-      try {
-        // Get total count of links
-        long totalLinks = linkRepository.count();
-        logger.info("Found {} links to sync", totalLinks);
+    Integer checkpoint = startIndex == null ? syncCheckpointStore.getLastId(LINK_SYNC_JOB) : null;
+    int afterId = startIndex != null ? startIndex : checkpoint != null ? checkpoint : 0;
+    logger.info("Starting sync of links to Elasticsearch after link ID {}{}", afterId,
+        checkpoint != null ? " (resumed from checkpoint)" : "");
+    long startTime = System.currentTimeMillis();
 
-        if (totalLinks == 0) {
-          return "No links found to sync";
+    BlockingQueue<List<Link>> pages = new ArrayBlockingQueue<>(syncConfig.getScanQueueBatches());
+    AtomicReference<Exception> readError = new AtomicReference<>();
+    // Its own thread rather than the sync pool, which may be fully taken by indexing tasks
+    Thread reader = new Thread(() -> readLinkPages(afterId, pages, readError),
+        "es-sync-link-reader");
+    reader.setDaemon(true);
+    reader.start();
+    try {
+      // Get total count of links
+      long totalLinks = linkRepository.countByThumbPathProcessed(1);
+      logger.info("Found {} links to sync", totalLinks);
+
+      int processedCount = 0;
+      int sinceCheckpoint = 0;
+      int lastId = afterId;
+      Set<Integer> tenantIds = new HashSet<>();
+      // Checkpoints only wait for this sync's documents, not for other writers of the indexer
+      ElasticsearchBulkIndexer.Tracker tracker = new ElasticsearchBulkIndexer.Tracker();
+      long lastLogTime = System.currentTimeMillis();
+
+      List<Link> links;
+      while ((links = pages.take()) != END_OF_SCAN) {
+        processLinksBatch(links, tenantIds, tracker, LinkQueryFactory.LINKS_INDEX);
+        processedCount += links.size();
+        sinceCheckpoint += links.size();
+        lastId = links.get(links.size() - 1).getId();
+
+        if (sinceCheckpoint >= syncConfig.getCheckpointIntervalRows()
+            && elasticsearchBulkIndexer.flushAndWait(tracker, BULK_DRAIN_TIMEOUT_MS)) {
+          syncCheckpointStore.save(LINK_SYNC_JOB, lastId);
+          sinceCheckpoint = 0;
         }
 
-        // Use a smaller batch size for memory efficiency
-        int batchSize = 100; // Reduced from default to prevent OOM
-        int processedCount = 0;
-        long lastLogTime = System.currentTimeMillis();
+        // Log progress every 30 seconds
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastLogTime > 30000) {
+          logger.info("Processed {} of {} links, at link ID {}", processedCount, totalLinks,
+              lastId);
+          lastLogTime = currentTime;
+        }
+      }
+      if (readError.get() != null) {
+        throw readError.get();
+      }
+      if (!elasticsearchBulkIndexer.flushAndWait(tracker, BULK_DRAIN_TIMEOUT_MS)) {
+        // The checkpoint is kept, so the next start resumes before the pending documents
+        throw new IllegalStateException(tracker.getPendingCount()
+            + " documents still pending at the end of the sync");
+      }
+
+      finishBulkSync(tenantIds);
+      syncCheckpointStore.clear(LINK_SYNC_JOB);
+      long duration = System.currentTimeMillis() - startTime;
+      String result = String.format("Sync completed. Processed %d links in %d seconds",
+          processedCount, duration / 1000);
+      logger.info(result);
+      linkSyncStatus.set("completed");
+      return result;
+
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      reader.interrupt();
+      logger.error("Error during Elasticsearch sync: {}", e.getMessage(), e);
+      linkSyncStatus.set("error");
+      return "Error during sync: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Reader side of the full sync: put keyset pages of links on the queue until the table is
+   * exhausted, blocking while the indexer is behind. Always ends with {@link #END_OF_SCAN}.
+   */
+  private void readLinkPages(int afterId, BlockingQueue<List<Link>> pages,
+      AtomicReference<Exception> readError) {
+    int lastId = afterId;
+    try {
+      List<Link> links;
+      while (!(links = linkRowReader.readAfter(lastId, syncConfig.getBatchSize())).isEmpty()) {
+        pages.put(links);
+        lastId = links.get(links.size() - 1).getId();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception e) {
+      logger.error("Error reading links after ID {}: {}", lastId, e.getMessage(), e);
+      readError.set(e);
+    }
+    try {
+      pages.put(END_OF_SCAN);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
-        // Calculate starting offset
-        int offset = startIndex != null ? startIndex : 0;
-        if (offset >= totalLinks) {
-          return "Start index " + offset + " is greater than total links " + totalLinks;
+  /**
+   * Resume a partitioned link sync that was interrupted by a restart or crash. Only the scheduler
+   * node resumes it; the link sync lock keeps it from running twice.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumePartitionedLinkSync() {
+    if (schedulerEnabled && syncConfig.isEnabled() && syncCheckpointStore.getPlan(PARTITIONED_SYNC_JOB) != null) {
+      logger.info("Found an unfinished partitioned link sync, resuming it");
+      startPartitionedLinkSync(0);
+    }
+  }
+
+  /**
+   * Start a full sync of all links that splits the link ID space into ranges and syncs them
+   * concurrently on the sync thread pool. Every slice reads its range by keyset pages and
+   * checkpoints its own last ID once its documents are confirmed indexed, so slices never wait
+   * for each other. The ranges are saved with the checkpoints: an unfinished sync is resumed
+   * with its original slices, on request or at startup. Links created after the ranges were
+   * planned are left to regular indexing. Refused while a full or partitioned link sync is
+   * running on any node.
+   *
+   * @param slices number of ID ranges; ignored when an unfinished sync is resumed
+   * @return a description of what was started
+   */
+  public String startPartitionedLinkSync(int slices) {
+    if (!syncConfig.isEnabled()) {
+      partitionedSyncStatus.set("disabled");
+      return "Elasticsearch sync is disabled";
+    }
+    String refused = claimLinkSync(PARTITIONED_LINK_SYNC);
+    if (refused != null) {
+      logger.warn(refused);
+      return refused;
+    }
+    try {
+      int[][] ranges = syncCheckpointStore.getPlan(PARTITIONED_SYNC_JOB);
+      boolean resumed = ranges != null;
+      if (!resumed) {
+        ranges = planSlices(slices);
+        if (ranges.length == 0) {
+          releaseLinkSync();
+          partitionedSyncStatus.set("completed");
+          return "No links to sync";
         }
+        syncCheckpointStore.savePlan(PARTITIONED_SYNC_JOB, ranges);
+      }
 
-        for (; offset < totalLinks; offset += batchSize) {
-          // Clear any existing references to help GC
-          System.gc();
-
-          // Process batch
-          logger.info("Pulling links from db starting at position {}", offset);
-          PageRequest pageRequest = PageRequest.of(offset / batchSize, batchSize);
-          Page<Link> linkPage = linkRepository.findAllProcessedLinks(pageRequest);
-          // Create a new modifiable list from the page content
-          List<Link> links = new ArrayList<>(linkPage.getContent());
-          processLinksBatch(links);
-          processedCount += links.size();
-
-          // Clear references after processing
-          links.clear();
-
-          // Log progress every 30 seconds or every 10,000 records
-          long currentTime = System.currentTimeMillis();
-          if (currentTime - lastLogTime > 30000 || processedCount % 10000 == 0) {
-            logger.info("Processed {}/{} links ({}%) - Memory: {}MB",
-                processedCount,
-                totalLinks - (startIndex != null ? startIndex : 0),
-                Math.round((processedCount * 100.0) / (totalLinks - (startIndex != null ? startIndex : 0))),
-                Runtime.getRuntime().totalMemory() / (1024 * 1024));
-            lastLogTime = currentTime;
-          }
+      sliceProgress.clear();
+      for (int i = 0; i < ranges.length; i++) {
+        sliceProgress.add(new SliceProgress(i, ranges[i][0], ranges[i][1]));
+      }
+      partitionedSyncStatus.set("in_progress");
+      long startTime = System.currentTimeMillis();
+      Set<Integer> tenantIds = ConcurrentHashMap.newKeySet();
+      CompletableFuture<?>[] futures = sliceProgress.stream()
+          .map(slice -> CompletableFuture.runAsync(() -> runSlice(slice, tenantIds), executorService))
+          .toArray(CompletableFuture[]::new);
+      CompletableFuture.allOf(futures).whenComplete((ignored, error) ->
+          finishPartitionedSync(tenantIds, startTime));
+
+      String result = String.format("%s partitioned link sync with %d slices",
+          resumed ? "Resumed" : "Started", ranges.length);
+      logger.info(result);
+      return result;
+    } catch (Exception e) {
+      releaseLinkSync();
+      partitionedSyncStatus.set("error");
+      logger.error("Error starting partitioned link sync: {}", e.getMessage(), e);
+      return "Error starting partitioned link sync: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Split the link ID space into equal ranges
+   *
+   * @return {afterId, toId} pairs, empty when there are no links
+   */
+  private int[][] planSlices(int slices) {
+    Integer minId = linkRepository.findMinLinkId();
+    Integer maxId = linkRepository.findMaxLinkId();
+    if (minId == null || maxId == null) {
+      return new int[0][];
+    }
+    long span = (long) maxId - minId + 1;
+    int count = (int) Math.max(1, Math.min(slices, span));
+    long size = (span + count - 1) / count;
+    int[][] ranges = new int[count][];
+    for (int i = 0; i < count; i++) {
+      long afterId = minId - 1 + i * size;
+      ranges[i] = new int[]{(int) afterId, (int) Math.min(maxId, afterId + size)};
+    }
+    return ranges;
+  }
+
+  private static String sliceJob(int slice) {
+    return PARTITIONED_SYNC_JOB + ":" + slice;
+  }
+
+  /**
+   * Sync one ID range, resuming after its checkpoint. A finished slice keeps the end of its
+   * range as checkpoint, so it reads nothing when the sync is resumed.
+   */
+  private void runSlice(SliceProgress slice, Set<Integer> tenantIds) {
+    String job = sliceJob(slice.index);
+    Integer checkpoint = syncCheckpointStore.getLastId(job);
+    int lastId = checkpoint != null ? checkpoint : slice.afterId;
+    slice.start(lastId);
+    try {
+      int sinceCheckpoint = 0;
+      List<Link> links;
+      while (!(links = linkRowReader.readRange(lastId, slice.toId, syncConfig.getBatchSize()))
+          .isEmpty()) {
+        processLinksBatch(links, tenantIds, slice.tracker, LinkQueryFactory.LINKS_INDEX);
+        lastId = links.get(links.size() - 1).getId();
+        slice.advance(lastId, links.size());
+        sinceCheckpoint += links.size();
+        if (sinceCheckpoint >= syncConfig.getCheckpointIntervalRows()
+            && elasticsearchBulkIndexer.flushAndWait(slice.tracker, BULK_DRAIN_TIMEOUT_MS)) {
+          syncCheckpointStore.save(job, lastId);
+          sinceCheckpoint = 0;
         }
+      }
+      if (!elasticsearchBulkIndexer.flushAndWait(slice.tracker, BULK_DRAIN_TIMEOUT_MS)) {
+        throw new IllegalStateException(slice.tracker.getPendingCount()
+            + " documents still pending at the end of the slice");
+      }
+      syncCheckpointStore.save(job, slice.toId);
+      slice.state = "completed";
+      logger.info("Slice {} of partitioned link sync completed: {} links up to ID {}",
+          slice.index, slice.processed.get(), slice.toId);
+    } catch (Exception e) {
+      slice.state = "error";
+      logger.error("Error in slice {} of partitioned link sync after link ID {}: {}", slice.index,
+          lastId, e.getMessage(), e);
+    }
+  }
 
-        long duration = System.currentTimeMillis() - startTime;
-        String result = String.format("Sync completed. Processed %d links in %d seconds",
-            processedCount, duration / 1000);
-        logger.info(result);
-        linkSyncStatus.set("completed");
-        return result;
+  /**
+   * Once all slices are done, drop the synced tenants' caches and the saved ranges. When a slice
+   * failed, ranges and checkpoints are kept so the next start resumes where each slice stopped.
+   */
+  private void finishPartitionedSync(Set<Integer> tenantIds, long startTime) {
+    try {
+      boolean failed = sliceProgress.stream().anyMatch(slice -> !"completed".equals(slice.state));
+      finishBulkSync(tenantIds);
+      if (failed) {
+        logger.warn("Partitioned link sync finished with failed slices; start it again to resume");
+        partitionedSyncStatus.set("error");
+        return;
+      }
+      for (SliceProgress slice : sliceProgress) {
+        syncCheckpointStore.clear(sliceJob(slice.index));
+      }
+      syncCheckpointStore.clearPlan(PARTITIONED_SYNC_JOB);
+      long processed = sliceProgress.stream().mapToLong(slice -> slice.processed.get()).sum();
+      logger.info("Partitioned link sync completed. Processed {} links in {} seconds", processed,
+          (System.currentTimeMillis() - startTime) / 1000);
+      partitionedSyncStatus.set("completed");
+    } catch (Exception e) {
+      logger.error("Error finishing partitioned link sync: {}", e.getMessage(), e);
+      partitionedSyncStatus.set("error");
+    } finally {
+      releaseLinkSync();
+    }
+  }
 
+  /**
+   * Claim the full link sync for this node: the in-process flag keeps the two kinds apart here,
+   * the Redis lock keeps other nodes out. Refused when Redis cannot be reached, as the other
+   * nodes could not see the claim.
+   *
+   * @param kind {@link #FULL_LINK_SYNC} or {@link #PARTITIONED_LINK_SYNC}
+   * @return null when claimed, otherwise why it was refused
+   */
+  private String claimLinkSync(String kind) {
+    if (!activeLinkSync.compareAndSet(null, kind)) {
+      return "A " + activeLinkSync.get() + " link sync is already running";
+    }
+    String lockValue = kind + ":" + UUID.randomUUID();
+    try (Jedis jedis = jedisPool.getResource()) {
+      if ("OK".equals(jedis.set(LINK_SYNC_LOCK_KEY, lockValue,
+          SetParams.setParams().nx().px(syncConfig.getLockTtlMs())))) {
+        linkSyncLockValue.set(lockValue);
+        return null;
+      }
+      String holder = lockHolder(jedis.get(LINK_SYNC_LOCK_KEY));
+      activeLinkSync.set(null);
+      return "A " + (holder != null ? holder : FULL_LINK_SYNC)
+          + " link sync is already running on another node";
+    } catch (Exception e) {
+      activeLinkSync.set(null);
+      logger.error("Error claiming the link sync lock: {}", e.getMessage(), e);
+      return "Could not claim the link sync lock: " + e.getMessage();
+    }
+  }
+
+  private void releaseLinkSync() {
+    String lockValue = linkSyncLockValue.getAndSet(null);
+    if (lockValue != null) {
+      try (Jedis jedis = jedisPool.getResource()) {
+        jedis.eval(RELEASE_LOCK_SCRIPT, Collections.singletonList(LINK_SYNC_LOCK_KEY),
+            Collections.singletonList(lockValue));
       } catch (Exception e) {
-        logger.error("Error during Elasticsearch sync: {}", e.getMessage(), e);
-        linkSyncStatus.set("error");
-        return "Error during sync: " + e.getMessage();
+        // The lock expires after lock-ttl-ms
+        logger.warn("Failed to release the link sync lock: {}", e.getMessage());
       }
-    }, executorService);
+    }
+    activeLinkSync.set(null);
+  }
+
+  /**
+   * Keep the link sync lock alive while this node runs a full link sync
+   */
+  @Scheduled(fixedDelayString = "${elasticsearch.sync.lock-refresh-ms:20000}")
+  public void refreshLinkSyncLock() {
+    String lockValue = linkSyncLockValue.get();
+    if (lockValue == null) {
+      return;
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      Object refreshed = jedis.eval(REFRESH_LOCK_SCRIPT,
+          Collections.singletonList(LINK_SYNC_LOCK_KEY),
+          Arrays.asList(lockValue, String.valueOf(syncConfig.getLockTtlMs())));
+      if (Long.valueOf(0).equals(refreshed) && lockValue.equals(linkSyncLockValue.get())) {
+        logger.error("Lost the link sync lock while a {} link sync is running; another node may "
+            + "start one", activeLinkSync.get());
+      }
+    } catch (Exception e) {
+      logger.warn("Failed to refresh the link sync lock: {}", e.getMessage());
+    }
+  }
+
+  private static String lockHolder(String lockValue) {
+    return lockValue != null ? lockValue.substring(0, lockValue.indexOf(':')) : null;
   }
 
   /**
@@ -163,12 +530,16 @@ public class ElasticsearchSyncService {
   }
 
   /**
-   * Process a batch of links and sync them to Elasticsearch
+   * Queue a batch of links for bulk indexing. Documents are built from the rows alone, so there
+   * is no round trip per link; the bulk indexer sends them as its requests fill up.
    *
    * @param links List of links to process
+   * @param tenantIds collects the tenants of the batch, whose caches are dropped once indexed
+   * @param tracker counts the outcome of the batch's documents, or null
+   * @param index index or alias to write to
    */
-  @Transactional(readOnly = true)
-  private void processLinksBatch(List<Link> links) {
+  private void processLinksBatch(List<Link> links, Set<Integer> tenantIds,
+      ElasticsearchBulkIndexer.Tracker tracker, String index) {
     logger.debug("Processing batch of {} links for Elasticsearch sync", links.size());
     long startTime = System.currentTimeMillis();
     int successCount = 0;
@@ -176,8 +547,9 @@ public class ElasticsearchSyncService {
     
     for (Link link : links) {
       try {
-        logger.debug("Processing link ID {} into Elasticsearch", link.getId());
-        linkProcessingService.updateElasticsearchDocument(link);
+        LinkDocument document = linkProcessingService.buildLinkDocument(link);
+        elasticsearchBulkIndexer.index(index, document, tracker);
+        tenantIds.add(link.getTenantId());
         successCount++;
       } catch (Exception e) {
         logger.error("Error creating document for link ID {}: {}", link.getId(), e.getMessage(), e);
@@ -186,10 +558,24 @@ public class ElasticsearchSyncService {
     }
     
     long duration = System.currentTimeMillis() - startTime;
-    logger.info("Batch processing completed - Success: {}, Errors: {}, Duration: {} ms", 
+    logger.info("Batch queued - Success: {}, Errors: {}, Duration: {} ms", 
         successCount, errorCount, duration);
   }
 
+  /**
+   * Drop the cached lookups and link counts of the synced tenants, which may have been filled
+   * from documents the sync replaced. Callers first wait for their own tracker to drain.
+   */
+  private void finishBulkSync(Set<Integer> tenantIds) {
+    for (Integer tenantId : tenantIds) {
+      linkCategoryService.invalidateTenantCaches(tenantId);
+      categoryLinkCountStore.markStale(tenantId);
+    }
+    logger.info("Bulk indexer totals - indexed: {}, failed: {}, retried: {}",
+        elasticsearchBulkIndexer.getIndexedCount(), elasticsearchBulkIndexer.getFailedCount(),
+        elasticsearchBulkIndexer.getRetriedCount());
+  }
+
 
   /**
    * Start a full sync of all categories from MySQL to Elasticsearch
@@ -219,39 +605,16 @@ public class ElasticsearchSyncService {
           try {
             // Get all categories for this tenant
             List<AllCat> categories = allCatRepository.findByTenantId(tenantId);
+            // One aggregation for all link counts of the tenant, which also refreshes the count table
+            Map<String, Long> linkCounts = categoryLinkCountStore.refresh(tenantId);
 
             for (AllCat category : categories) {
               try {
-                if (category.getName() == null || category.getName().isEmpty()
-                    || true == category.getCreatedViaLink()) {
+                CategoryDocument doc = toCategoryDocument(category, linkCounts);
+                if (doc == null) {
                   continue;
                 }
 
-                CategoryDocument doc = new CategoryDocument();
-                doc.setId(sanitizeForDocumentId(category.getName()));
-                doc.setTenantId(category.getTenantId());
-                doc.setName(category.getName());
-                doc.setDescription(category.getDescription());
-                doc.setHomeThumb(category.getHomeThumb());
-                doc.setHeader(category.getHeader());
-                doc.setHomeSEO(category.getHomeSEO());
-                doc.setHomeCatOrder(category.getHomeCatOrder());
-                doc.setHome(category.getHome());
-                doc.setCreatedViaLink(category.getCreatedViaLink());
-                // Handle null createdAt field
-                if (category.getCreatedAt() != null) {
-                  doc.setCreatedAt(java.util.Date.from(
-                      category.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()));
-                } else {
-                  // Use current time as fallback for null createdAt
-                  doc.setCreatedAt(new java.util.Date());
-                  logger.warn("Category '{}' has null createdAt, using current time as fallback", category.getName());
-                }
-
-                // Get link count for this category
-                Long count = elasticsearchLinkCategoryRepository.countByTenantIdAndCategory(tenantId, category.getName());
-                doc.setLinkCount(count);
-
                 elasticsearchClientService.saveCategoryDocument(doc);
                 processedCount++;
 
@@ -284,6 +647,83 @@ public class ElasticsearchSyncService {
     }, executorService);
   }
 
+  /**
+   * Build the document of a category
+   *
+   * @param category the category row
+   * @param linkCounts link counts of the category's tenant by lower-case category name
+   * @return the document, or null for categories that are not indexed
+   */
+  CategoryDocument toCategoryDocument(AllCat category, Map<String, Long> linkCounts) {
+    if (category.getName() == null || category.getName().isEmpty()
+        || true == category.getCreatedViaLink()) {
+      return null;
+    }
+
+    CategoryDocument doc = new CategoryDocument();
+    doc.setId(sanitizeForDocumentId(category.getName()));
+    doc.setTenantId(category.getTenantId());
+    doc.setName(category.getName());
+    doc.setDescription(category.getDescription());
+    doc.setHomeThumb(category.getHomeThumb());
+    doc.setHeader(category.getHeader());
+    doc.setHomeSEO(category.getHomeSEO());
+    doc.setHomeCatOrder(category.getHomeCatOrder());
+    doc.setHome(category.getHome());
+    doc.setCreatedViaLink(category.getCreatedViaLink());
+    // Handle null createdAt field
+    if (category.getCreatedAt() != null) {
+      doc.setCreatedAt(java.util.Date.from(
+          category.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()));
+    } else {
+      // Use current time as fallback for null createdAt
+      doc.setCreatedAt(new java.util.Date());
+      logger.warn("Category '{}' has null createdAt, using current time as fallback", category.getName());
+    }
+
+    // Get link count for this category
+    doc.setLinkCount(linkCounts.getOrDefault(category.getName().toLowerCase(), 0L));
+    return doc;
+  }
+
+  /**
+   * Build the document of a model
+   *
+   * @param model the model row
+   * @return the document, or null for models that are not indexed
+   */
+  ModelDocument toModelDocument(Model model) {
+    if (model.getName() == null || model.getName().isEmpty() || model.getDataPresent() == 0) {
+      return null;
+    }
+    // Clean the model name
+    String cleanedModel = cleanModelName(model.getName());
+    if (cleanedModel.isEmpty()) {
+      return null;
+    }
+
+    ModelDocument doc = new ModelDocument();
+    doc.setId(model.getTenantId() + "_" + sanitizeForDocumentId(cleanedModel));
+    doc.setTenantId(model.getTenantId());
+    doc.setName(cleanedModel);
+    doc.setDescription(model.getDescription());
+    doc.setCountry(model.getCountry());
+    doc.setThumbnail(model.getThumbnail());
+    doc.setThumbPath(model.getThumbpath());
+    doc.setAge(model.getAge());
+    doc.setLinkCount(model.getDataPresent());
+    // Handle null createdAt field
+    if (model.getCreatedAt() != null) {
+      doc.setCreatedAt(java.util.Date.from(
+          model.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()));
+    } else {
+      // Use current time as fallback for null createdAt
+      doc.setCreatedAt(new java.util.Date());
+      logger.warn("Model '{}' has null createdAt, using current time as fallback", model.getName());
+    }
+    return doc;
+  }
+
   /**
    * Sanitize a string for use in document IDs by removing or replacing illegal characters
    *
@@ -334,45 +774,20 @@ public class ElasticsearchSyncService {
         final int[] processedCount = {0};
 
         for (Model model : models) {
-          if (model.getName() == null || model.getName().isEmpty() || model.getDataPresent() == 0) {
-            continue;
-          }
-
           try {
-            // Clean the model name
-            String cleanedModel = cleanModelName(model.getName());
-            if (cleanedModel.isEmpty()) {
+            ModelDocument doc = toModelDocument(model);
+            if (doc == null) {
               continue;
             }
 
             // Create a unique key for the model
-            String modelKey = model.getTenantId() + "_" + cleanedModel;
+            String modelKey = model.getTenantId() + "_" + doc.getName();
 
             // Skip if we've already processed this model
             if (processedModels.containsKey(modelKey)) {
               continue;
             }
 
-            ModelDocument doc = new ModelDocument();
-            doc.setId(model.getTenantId() + "_" + sanitizeForDocumentId(cleanedModel));
-            doc.setTenantId(model.getTenantId());
-            doc.setName(cleanedModel);
-            doc.setDescription(model.getDescription());
-            doc.setCountry(model.getCountry());
-            doc.setThumbnail(model.getThumbnail());
-            doc.setThumbPath(model.getThumbpath());
-            doc.setAge(model.getAge());
-            doc.setLinkCount(model.getDataPresent());
-            // Handle null createdAt field
-            if (model.getCreatedAt() != null) {
-              doc.setCreatedAt(java.util.Date.from(
-                  model.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()));
-            } else {
-              // Use current time as fallback for null createdAt
-              doc.setCreatedAt(new java.util.Date());
-              logger.warn("Model '{}' has null createdAt, using current time as fallback", model.getName());
-            }
-
             // Save the document and track it
             elasticsearchClientService.saveModelDocument(doc);
             processedModels.put(modelKey, doc);
@@ -403,6 +818,242 @@ public class ElasticsearchSyncService {
     }, executorService);
   }
 
+  /**
+   * Start backfilling the hasThumb flag on existing link documents. Once it completes the
+   * thumbnail filter can be switched to the flag with elasticsearch.has-thumb-filter.enabled. The
+   * backfill runs as an Elasticsearch task that is followed in the background; its outcome is
+   * shown by {@link #getTaskStatus}.
+   *
+   * @return ID of the backfill task
+   */
+  public String backfillHasThumb() {
+    String task = elasticsearchClientService.startHasThumbBackfill();
+    followTask(HAS_THUMB_TASK, task, response -> "Backfilled hasThumb on "
+        + response.path("updated").asLong() + " link documents");
+    return task;
+  }
+
+  /**
+   * Start copying the links index into a new index routed by tenant. Once it completes, the links
+   * index can be replaced by an alias to the new one and elasticsearch.tenant-routing.enabled
+   * turned on. The copy runs as an Elasticsearch task that is followed in the background; its
+   * outcome is shown by {@link #getTaskStatus}.
+   *
+   * @param targetIndex name of the index to create
+   * @param numberOfShards shard count of the new index
+   * @return ID of the reindex task
+   */
+  public String reindexWithTenantRouting(String targetIndex, int numberOfShards) {
+    String task = elasticsearchClientService.startTenantRoutingReindex(targetIndex,
+        numberOfShards);
+    followTask(TENANT_ROUTING_TASK, task, response -> "Reindexed "
+        + (response.path("created").asLong() + response.path("updated").asLong())
+        + " link documents into " + targetIndex + " with tenant routing");
+    return task;
+  }
+
+  /**
+   * Wait for an Elasticsearch task on the sync pool and record how it ended
+   *
+   * @param name name the outcome is shown under
+   * @param task the task ID
+   * @param describe result message built from the task's response
+   */
+  private void followTask(String name, String task, Function<JsonNode, String> describe) {
+    taskStatus.put(name, "in_progress: task " + task);
+    CompletableFuture.runAsync(() -> {
+      try {
+        String result = describe.apply(
+            elasticsearchClientService.awaitTask(task, syncConfig.getTaskTimeoutMs()));
+        logger.info(result);
+        taskStatus.put(name, "completed: " + result);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        taskStatus.put(name, "error: interrupted while waiting for task " + task);
+      } catch (Exception e) {
+        logger.error("Error in Elasticsearch task {} ({}): {}", task, name, e.getMessage(), e);
+        taskStatus.put(name, "error: " + e.getMessage());
+      }
+    }, executorService);
+  }
+
+  /**
+   * Rebuild the links, categories or models index without downtime. The documents are built
+   * from MySQL into a new versioned index, e.g. links_v3, loaded without replicas or refreshes
+   * and force-merged afterwards. Only when its document count matches MySQL is the alias
+   * switched to it, atomically; the previous index is kept for a rollback with
+   * {@link #switchAlias}. Writes keep going to the previous index through the alias while the
+   * new one is loaded, so after the switch the rows changed since the rebuild started are indexed
+   * again by their updated_at, and the links deleted meanwhile are deleted again.
+   *
+   * @param alias links, categories or models
+   * @return CompletableFuture with the result of the rebuild
+   */
+  @Async
+  public CompletableFuture<String> rebuildIndex(String alias) {
+    return CompletableFuture.supplyAsync(() -> {
+      if (!REBUILDABLE_INDICES.contains(alias)) {
+        return "Unknown index: " + alias;
+      }
+      if (!syncConfig.isEnabled()) {
+        return "Elasticsearch sync is disabled";
+      }
+      if ("in_progress".equals(rebuildStatus.put(alias, "in_progress"))) {
+        return "A rebuild of " + alias + " is already running";
+      }
+
+      long startTime = System.currentTimeMillis();
+      String index = null;
+      try {
+        index = elasticsearchClientService.nextIndexVersion(alias);
+        elasticsearchClientService.createBulkLoadIndex(alias, index);
+        logger.info("Rebuilding {} into {}", alias, index);
+
+        // Taken before anything is read, on the database clock like updated_at, and as far back
+        // as the incremental lag for rows committed late
+        Timestamp rebuildStart = jdbcTemplate.queryForObject("SELECT NOW(3) - INTERVAL ? SECOND",
+            Timestamp.class, syncConfig.getIncrementalLagSeconds());
+        elasticsearchClientService.recordDeletes(alias);
+        ElasticsearchBulkIndexer.Tracker tracker = new ElasticsearchBulkIndexer.Tracker();
+        Set<Integer> tenantIds = ConcurrentHashMap.newKeySet();
+        long expected;
+        if (LinkQueryFactory.LINKS_INDEX.equals(alias)) {
+          Integer maxLinkId = linkRepository.findMaxLinkId();
+          expected = loadLinks(index, maxLinkId != null ? maxLinkId : 0, tenantIds, tracker);
+        } else if (ElasticsearchClientService.CATEGORIES_INDEX.equals(alias)) {
+          expected = loadCategories(index, tracker);
+        } else {
+          expected = loadModels(index, tracker);
+        }
+        if (!elasticsearchBulkIndexer.flushAndWait(tracker, BULK_DRAIN_TIMEOUT_MS)) {
+          throw new IllegalStateException(tracker.getPendingCount() + " documents still pending");
+        }
+
+        elasticsearchClientService.finishBulkLoad(index, syncConfig.getRebuildReplicas(),
+            syncConfig.getRebuildMaxSegments(), syncConfig.getRebuildMergeTimeoutMs());
+        long actual = elasticsearchClientService.countDocuments(index);
+        if (actual != expected) {
+          throw new IllegalStateException(String.format(
+              "%s has %d documents where MySQL has %d; %s was not switched", index, actual,
+              expected, alias));
+        }
+
+        List<String> previous = elasticsearchClientService.swapAlias(alias, index);
+        try {
+          // Changes made during the load went to the previous index
+          int replayed = incrementalSyncService.getObject().replayChanges(alias, rebuildStart);
+          Set<String> deleted = elasticsearchClientService.stopRecordingDeletes(alias);
+          if (!deleted.isEmpty()) {
+            elasticsearchClientService.deleteByIds(alias, deleted);
+          }
+          finishBulkSync(tenantIds);
+          logger.info("Replayed {} changes and {} deletes on {}", replayed, deleted.size(), index);
+        } catch (Exception e) {
+          logger.error("Error replaying changes made during the rebuild of {}: {}", alias,
+              e.getMessage(), e);
+          rebuildStatus.put(alias, "error");
+          return String.format("%s now serves %s, but the changes made during the rebuild were "
+              + "not all replayed: %s; previous %s kept for rollback", alias, index,
+              e.getMessage(), previous);
+        }
+
+        String result = String.format(
+            "%s now serves %s with %d documents, rebuilt in %d seconds; previous %s kept for rollback",
+            alias, index, actual, (System.currentTimeMillis() - startTime) / 1000, previous);
+        logger.info(result);
+        rebuildStatus.put(alias, "completed");
+        return result;
+      } catch (Exception e) {
+        logger.error("Error rebuilding {} into {}: {}", alias, index, e.getMessage(), e);
+        rebuildStatus.put(alias, "error");
+        return "Error rebuilding " + alias + ": " + e.getMessage();
+      } finally {
+        elasticsearchClientService.stopRecordingDeletes(alias);
+      }
+    }, executorService);
+  }
+
+  /**
+   * Load the processed links up to an ID into an index
+   *
+   * @return the number of such links in MySQL
+   */
+  private long loadLinks(String index, int maxLinkId, Set<Integer> tenantIds,
+      ElasticsearchBulkIndexer.Tracker tracker) {
+    int lastId = 0;
+    List<Link> links;
+    while (!(links = linkRowReader.readRange(lastId, maxLinkId, syncConfig.getBatchSize()))
+        .isEmpty()) {
+      processLinksBatch(links, tenantIds, tracker, index);
+      lastId = links.get(links.size() - 1).getId();
+    }
+    return linkRepository.countByThumbPathProcessedUpTo(1, maxLinkId);
+  }
+
+  /**
+   * Load the documents of all categories into an index
+   *
+   * @return the number of distinct category documents built from MySQL
+   */
+  private long loadCategories(String index, ElasticsearchBulkIndexer.Tracker tracker) {
+    Map<String, CategoryDocument> documents = new LinkedHashMap<>();
+    for (Integer tenantId : allCatRepository.findAllDistinctTenantIds()) {
+      Map<String, Long> linkCounts = categoryLinkCountStore.refresh(tenantId);
+      for (AllCat category : allCatRepository.findByTenantId(tenantId)) {
+        CategoryDocument doc = toCategoryDocument(category, linkCounts);
+        if (doc != null) {
+          documents.put(doc.getId(), doc);
+        }
+      }
+    }
+    for (CategoryDocument doc : documents.values()) {
+      elasticsearchBulkIndexer.index(new IndexRequest(index).id(doc.getId())
+          .source(elasticsearchClientService.convertToMap(doc)), tracker);
+    }
+    return documents.size();
+  }
+
+  /**
+   * Load the documents of all models into an index
+   *
+   * @return the number of distinct model documents built from MySQL
+   */
+  private long loadModels(String index, ElasticsearchBulkIndexer.Tracker tracker) {
+    Map<String, ModelDocument> documents = new LinkedHashMap<>();
+    for (Model model : modelRepository.findAll()) {
+      ModelDocument doc = toModelDocument(model);
+      if (doc != null) {
+        documents.putIfAbsent(doc.getId(), doc);
+      }
+    }
+    for (ModelDocument doc : documents.values()) {
+      elasticsearchBulkIndexer.index(new IndexRequest(index).id(doc.getId())
+          .source(elasticsearchClientService.convertToMap(doc)), tracker);
+    }
+    return documents.size();
+  }
+
+  /**
+   * Point links, categories or models at another index, e.g. back at the previous version after
+   * a rebuild
+   *
+   * @return the indices the alias pointed at before
+   */
+  public List<String> switchAlias(String alias, String index) {
+    return elasticsearchClientService.swapAlias(alias, index);
+  }
+
+  /**
+   * Outcome of the reindex and backfill tasks started since this node started
+   */
+  public Map<String, String> getTaskStatus() {
+    return taskStatus;
+  }
+
+  public Map<String, String> getRebuildStatus() {
+    return rebuildStatus;
+  }
+
   public String getLinkSyncStatus() {
     return linkSyncStatus.get();
   }
@@ -414,4 +1065,90 @@ public class ElasticsearchSyncService {
   public String getModelSyncStatus() {
     return modelSyncStatus.get();
   }
+
+  /**
+   * The kind of full link sync running now on any node, "full" or "partitioned", or null
+   */
+  public String getActiveLinkSync() {
+    String kind = activeLinkSync.get();
+    if (kind != null) {
+      return kind;
+    }
+    try (Jedis jedis = jedisPool.getResource()) {
+      return lockHolder(jedis.get(LINK_SYNC_LOCK_KEY));
+    } catch (Exception e) {
+      logger.warn("Failed to read the link sync lock: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  public String getPartitionedSyncStatus() {
+    return partitionedSyncStatus.get();
+  }
+
+  /**
+   * Progress of the slices of the current or last partitioned link sync
+   */
+  public List<Map<String, Object>> getPartitionedSyncProgress() {
+    List<Map<String, Object>> progress = new ArrayList<>();
+    for (SliceProgress slice : sliceProgress) {
+      progress.add(slice.toMap());
+    }
+    return progress;
+  }
+
+  /**
+   * Progress of one slice of a partitioned link sync. The ETA assumes the rest of the range is
+   * read at the ID rate seen so far.
+   */
+  private static class SliceProgress {
+
+    private final int index;
+    private final int afterId;
+    private final int toId;
+    private final ElasticsearchBulkIndexer.Tracker tracker = new ElasticsearchBulkIndexer.Tracker();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile String state = "pending";
+    private volatile int startId;
+    private volatile int lastId;
+    private volatile long startedAt;
+
+    SliceProgress(int index, int afterId, int toId) {
+      this.index = index;
+      this.afterId = afterId;
+      this.toId = toId;
+      this.lastId = afterId;
+    }
+
+    void start(int fromId) {
+      startId = fromId;
+      lastId = fromId;
+      startedAt = System.currentTimeMillis();
+      state = "in_progress";
+    }
+
+    void advance(int id, int rows) {
+      lastId = id;
+      processed.addAndGet(rows);
+    }
+
+    Map<String, Object> toMap() {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("slice", index);
+      map.put("fromId", afterId + 1);
+      map.put("toId", toId);
+      map.put("lastId", lastId);
+      map.put("state", state);
+      map.put("processed", processed.get());
+      map.put("indexed", tracker.getIndexedCount());
+      map.put("failed", tracker.getFailedCount());
+      double seconds = startedAt > 0 ? (System.currentTimeMillis() - startedAt) / 1000.0 : 0;
+      map.put("linksPerSecond", seconds > 0 ? Math.round(processed.get() / seconds) : 0);
+      long idsDone = (long) lastId - startId;
+      if ("in_progress".equals(state) && idsDone > 0) {
+        map.put("etaSeconds", Math.round(((long) toId - lastId) * seconds / idsDone));
+      }
+      return map;
+    }
+  }
 } 
\ No newline at end of file
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -366,6 +367,8 @@ public class GoogleSheetProcessingService {
     int successCount = 0;
     int failureCount = 0;
     boolean processModelsAndCategory = false;
+    // Category caches are invalidated once per tenant with each progress update
+    LinkChanges changedLinks = new LinkChanges();
     
     logger.debug("Starting sheet processing - workbookId: {}, sheetName: {}, rowCount: {}", 
         workbookId, sheetName, rows.size());
@@ -383,7 +386,7 @@ public class GoogleSheetProcessingService {
               categoryProcessingService.processCategories(link, link.getCategory());
               modelProcessingService.processModels(link, link.getStar());
             }
-            linkProcessingService.processLink(link);
+            linkProcessingService.processLink(link, changedLinks);
             links.add(link);
 
             // Calculate and log time taken for this row
@@ -396,6 +399,8 @@ public class GoogleSheetProcessingService {
             if (successCount % 1000 == 0) {
               logger.info("Progress update - processed {} rows for sheet: {}", successCount, sheetName);
               updateSheetStatus(sheetName, 1, successCount);
+              linkProcessingService.invalidateLinkChanges(changedLinks);
+              changedLinks.clear();
             }
 
             logger.debug("Row processed successfully in {} ms: {} (title: {})",
@@ -431,6 +436,8 @@ public class GoogleSheetProcessingService {
       logger.error("Error processing sheet {}: {}", sheetName, e.getMessage(), e);
       updateSheetStatus(sheetName, 3, successCount); // Mark as failed
       throw e;
+    } finally {
+      linkProcessingService.invalidateLinkChanges(changedLinks);
     }
   }
 
@@ -0,0 +1,372 @@
+package com.fvp.service;
+
+import com.fvp.config.ElasticsearchSyncConfig;
+import com.fvp.document.CategoryDocument;
+import com.fvp.document.LinkDocument;
+import com.fvp.document.ModelDocument;
+import com.fvp.entity.AllCat;
+import com.fvp.entity.Link;
+import com.fvp.entity.Model;
+import com.fvp.repository.AllCatRepository;
+import com.fvp.repository.LinkQueryFactory;
+import com.fvp.repository.LinkRowReader;
+import com.fvp.repository.ModelRepository;
+import com.fvp.service.SyncCheckpointStore.Watermark;
+import com.fvp.util.LoggingUtil;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.elasticsearch.action.index.IndexRequest;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Indexes what changed in MySQL since the last run. Links, categories and models carry an
+ * updated_at column maintained by MySQL; every run reads the rows changed after the watermark of
+ * the previous one by keyset pages on (updated_at, id), queues their documents on the bulk indexer
+ * and moves the watermark, kept in MySQL too, once they are indexed. A job that has never run
+ * starts at the current time: the existing rows are the full sync's job. Changed links that are not processed are
+ * removed from the index; deleted rows are not seen.
+ */
+@Service
+public class IncrementalSyncService {
+
+  private static final Logger logger = LoggingUtil.getLogger(IncrementalSyncService.class);
+  private static final long BULK_DRAIN_TIMEOUT_MS = 5 * 60 * 1000L;
+  private static final String LINKS_JOB = "incremental:link";
+  private static final String CATEGORIES_JOB = "incremental:all_cat";
+  private static final String MODELS_JOB = "incremental:model";
+
+  private final ElasticsearchSyncConfig syncConfig;
+  private final JdbcTemplate jdbcTemplate;
+  private final LinkRowReader linkRowReader;
+  private final AllCatRepository allCatRepository;
+  private final ModelRepository modelRepository;
+  private final LinkProcessingService linkProcessingService;
+  private final ElasticsearchSyncService elasticsearchSyncService;
+  private final ElasticsearchClientService elasticsearchClientService;
+  private final ElasticsearchBulkIndexer elasticsearchBulkIndexer;
+  private final SyncCheckpointStore syncCheckpointStore;
+  private final LinkCategoryService linkCategoryService;
+  private final CategoryLinkCountStore categoryLinkCountStore;
+  private final Map<String, Object> lastRun = new LinkedHashMap<>();
+
+  @Value("${scheduler.enabled:true}")
+  private boolean schedulerEnabled;
+
+  public IncrementalSyncService(ElasticsearchSyncConfig syncConfig, JdbcTemplate jdbcTemplate,
+      LinkRowReader linkRowReader, AllCatRepository allCatRepository,
+      ModelRepository modelRepository, LinkProcessingService linkProcessingService,
+      ElasticsearchSyncService elasticsearchSyncService,
+      ElasticsearchClientService elasticsearchClientService,
+      ElasticsearchBulkIndexer elasticsearchBulkIndexer, SyncCheckpointStore syncCheckpointStore,
+      LinkCategoryService linkCategoryService, CategoryLinkCountStore categoryLinkCountStore) {
+    this.syncConfig = syncConfig;
+    this.jdbcTemplate = jdbcTemplate;
+    this.linkRowReader = linkRowReader;
+    this.allCatRepository = allCatRepository;
+    this.modelRepository = modelRepository;
+    this.linkProcessingService = linkProcessingService;
+    this.elasticsearchSyncService = elasticsearchSyncService;
+    this.elasticsearchClientService = elasticsearchClientService;
+    this.elasticsearchBulkIndexer = elasticsearchBulkIndexer;
+    this.syncCheckpointStore = syncCheckpointStore;
+    this.linkCategoryService = linkCategoryService;
+    this.categoryLinkCountStore = categoryLinkCountStore;
+  }
+
+  /**
+   * Runs on the scheduler node only, like the other node-level jobs: the watermarks are shared
+   */
+  @Scheduled(fixedDelayString = "${elasticsearch.sync.incremental-interval-ms:30000}",
+      initialDelayString = "${elasticsearch.sync.incremental-interval-ms:30000}")
+  public void syncChanges() {
+    if (!schedulerEnabled || !syncConfig.isEnabled() || !syncConfig.isIncrementalEnabled()) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    try {
+      // The database clock decides what is old enough, as it also sets updated_at
+      Timestamp before = jdbcTemplate.queryForObject("SELECT NOW(3) - INTERVAL ? SECOND",
+          Timestamp.class, syncConfig.getIncrementalLagSeconds());
+
+      int links = syncJob(LINKS_JOB, before, linkChanges(before),
+          link -> Watermark.of(link.getUpdatedAt(), link.getId()), this::indexLinks);
+      int categories = syncJob(CATEGORIES_JOB, before, categoryChanges(before),
+          category -> Watermark.of(category.getUpdatedAt(), category.getId()),
+          this::indexCategories);
+      int models = syncJob(MODELS_JOB, before, modelChanges(before),
+          model -> Watermark.of(model.getUpdatedAt(), model.getId()), this::indexModels);
+
+      synchronized (lastRun) {
+        lastRun.put("finishedAt", System.currentTimeMillis());
+        lastRun.put("durationMs", System.currentTimeMillis() - startTime);
+        lastRun.put("links", links);
+        lastRun.put("categories", categories);
+        lastRun.put("models", models);
+        lastRun.remove("error");
+      }
+      if (links + categories + models > 0) {
+        logger.info("Incremental sync indexed {} links, {} categories and {} models in {} ms",
+            links, categories, models, System.currentTimeMillis() - startTime);
+      }
+    } catch (Exception e) {
+      logger.error("Error during incremental Elasticsearch sync: {}", e.getMessage(), e);
+      synchronized (lastRun) {
+        lastRun.put("error", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Index the rows of one table changed after its watermark. Every page is tracked on its own;
+   * every checkpoint-interval-rows rows and at the end the watermark moves past the pages whose
+   * documents are all indexed, up to the first page with a document that failed for good. The run
+   * stops there and the next one reads that page again, so a failed document is retried rather
+   * than skipped.
+   *
+   * @return number of changed rows read
+   */
+  private <T> int syncJob(String job, Timestamp before, ChangeReader<T> reader,
+      Function<T, Watermark> position,
+      BiConsumer<List<T>, ElasticsearchBulkIndexer.Tracker> indexer) {
+    Watermark mark = syncCheckpointStore.getWatermark(job);
+    if (mark == null) {
+      syncCheckpointStore.saveWatermark(job, new Watermark(before.getTime(), 0));
+      logger.warn("Incremental sync job {} has no watermark and starts with changes after {}; "
+          + "earlier changes are left to a full sync", job, before);
+      return 0;
+    }
+
+    List<QueuedPage> queued = new ArrayList<>();
+    int rows = 0;
+    int sinceCheckpoint = 0;
+    List<T> page;
+    while (!(page = reader.read(mark, syncConfig.getBatchSize())).isEmpty()) {
+      ElasticsearchBulkIndexer.Tracker tracker = new ElasticsearchBulkIndexer.Tracker();
+      indexer.accept(page, tracker);
+      mark = position.apply(page.get(page.size() - 1));
+      queued.add(new QueuedPage(tracker, mark));
+      rows += page.size();
+      sinceCheckpoint += page.size();
+      if (sinceCheckpoint >= syncConfig.getCheckpointIntervalRows()) {
+        if (!checkpoint(job, queued)) {
+          return rows;
+        }
+        sinceCheckpoint = 0;
+      }
+    }
+    checkpoint(job, queued);
+    return rows;
+  }
+
+  /**
+   * Wait for the queued pages in order and save the watermark of the last one before the first
+   * that is not fully indexed
+   *
+   * @return whether all pages were indexed
+   */
+  private boolean checkpoint(String job, List<QueuedPage> queued) {
+    Watermark confirmed = null;
+    boolean complete = true;
+    for (QueuedPage page : queued) {
+      if (!elasticsearchBulkIndexer.flushAndWait(page.tracker, BULK_DRAIN_TIMEOUT_MS)) {
+        complete = false;
+        break;
+      }
+      if (page.tracker.getFailedCount() > 0) {
+        logger.warn("Incremental sync job {} failed to index {} documents; holding its watermark "
+            + "before them to retry", job, page.tracker.getFailedCount());
+        complete = false;
+        break;
+      }
+      confirmed = page.end;
+    }
+    if (confirmed != null) {
+      syncCheckpointStore.saveWatermark(job, confirmed);
+    }
+    queued.clear();
+    return complete;
+  }
+
+  /**
+   * Index the links, categories or models changed since a time, up to now, without touching the
+   * job watermarks: a rebuilt index that went live misses the changes made while it was loaded,
+   * as they went to the previous index.
+   *
+   * @param alias links, categories or models
+   * @param since database time from which to index changes
+   * @return number of changed rows indexed
+   * @throws IllegalStateException when some documents could not be indexed
+   */
+  public int replayChanges(String alias, Timestamp since) {
+    Timestamp before = jdbcTemplate.queryForObject("SELECT NOW(3)", Timestamp.class);
+    Watermark from = new Watermark(since.getTime(), 0);
+    ElasticsearchBulkIndexer.Tracker tracker = new ElasticsearchBulkIndexer.Tracker();
+    int rows;
+    if (LinkQueryFactory.LINKS_INDEX.equals(alias)) {
+      rows = replay(from, linkChanges(before),
+          link -> Watermark.of(link.getUpdatedAt(), link.getId()), this::indexLinks, tracker);
+    } else if (ElasticsearchClientService.CATEGORIES_INDEX.equals(alias)) {
+      rows = replay(from, categoryChanges(before),
+          category -> Watermark.of(category.getUpdatedAt(), category.getId()),
+          this::indexCategories, tracker);
+    } else {
+      rows = replay(from, modelChanges(before),
+          model -> Watermark.of(model.getUpdatedAt(), model.getId()), this::indexModels, tracker);
+    }
+    if (!elasticsearchBulkIndexer.flushAndWait(tracker, BULK_DRAIN_TIMEOUT_MS)
+        || tracker.getFailedCount() > 0) {
+      throw new IllegalStateException(String.format(
+          "%d of %d changed %s not indexed", tracker.getFailedCount() + tracker.getPendingCount(),
+          rows, alias));
+    }
+    logger.info("Replayed {} {} changed since {}", rows, alias, since);
+    return rows;
+  }
+
+  private <T> int replay(Watermark mark, ChangeReader<T> reader, Function<T, Watermark> position,
+      BiConsumer<List<T>, ElasticsearchBulkIndexer.Tracker> indexer,
+      ElasticsearchBulkIndexer.Tracker tracker) {
+    int rows = 0;
+    List<T> page;
+    while (!(page = reader.read(mark, syncConfig.getBatchSize())).isEmpty()) {
+      indexer.accept(page, tracker);
+      mark = position.apply(page.get(page.size() - 1));
+      rows += page.size();
+    }
+    return rows;
+  }
+
+  private ChangeReader<Link> linkChanges(Timestamp before) {
+    return (mark, limit) -> linkRowReader.readChangedAfter(mark.updatedAtTimestamp(),
+        mark.getId(), before, limit);
+  }
+
+  private ChangeReader<AllCat> categoryChanges(Timestamp before) {
+    return (mark, limit) -> allCatRepository.findChangedAfter(
+        mark.updatedAtTimestamp().toLocalDateTime(), mark.getId(), before.toLocalDateTime(),
+        PageRequest.of(0, limit));
+  }
+
+  private ChangeReader<Model> modelChanges(Timestamp before) {
+    return (mark, limit) -> modelRepository.findChangedAfter(
+        mark.updatedAtTimestamp().toLocalDateTime(), mark.getId(), before.toLocalDateTime(),
+        PageRequest.of(0, limit));
+  }
+
+  private void indexLinks(List<Link> links, ElasticsearchBulkIndexer.Tracker tracker) {
+    // The categories the links had, as lookups of categories a link left are stale too
+    Map<Integer, List<String>> previousCategories = null;
+    try {
+      previousCategories = elasticsearchClientService.findLinkCategories(links);
+    } catch (Exception e) {
+      logger.warn("Invalidating the whole tenants of {} changed links instead", links.size());
+    }
+    LinkChanges changes = new LinkChanges();
+    for (Link link : links) {
+      try {
+        LinkDocument document = linkProcessingService.buildLinkDocument(link);
+        if (Integer.valueOf(1).equals(link.getThumbPathProcessed())) {
+          elasticsearchBulkIndexer.index(document, tracker);
+        } else {
+          elasticsearchBulkIndexer.deleteLink(link.getId(), link.getTenantId(), tracker);
+        }
+        changes.add(link.getTenantId(), link.getId(), document.getCategories());
+        if (previousCategories != null) {
+          changes.add(link.getTenantId(), link.getId(), previousCategories.get(link.getId()));
+        }
+      } catch (Exception e) {
+        logger.error("Error creating document for link ID {}: {}", link.getId(), e.getMessage(), e);
+      }
+    }
+    if (previousCategories != null) {
+      linkProcessingService.invalidateLinkChanges(changes);
+      return;
+    }
+    for (Integer tenantId : changes.getTenantIds()) {
+      linkCategoryService.invalidateTenantCaches(tenantId);
+      categoryLinkCountStore.markStale(tenantId);
+    }
+  }
+
+  private void indexCategories(List<AllCat> categories,
+      ElasticsearchBulkIndexer.Tracker tracker) {
+    Map<Integer, List<AllCat>> byTenant = new HashMap<>();
+    for (AllCat category : categories) {
+      if (category.getName() != null) {
+        byTenant.computeIfAbsent(category.getTenantId(), tenantId -> new ArrayList<>())
+            .add(category);
+      }
+    }
+    for (Map.Entry<Integer, List<AllCat>> entry : byTenant.entrySet()) {
+      List<String> names = new ArrayList<>();
+      for (AllCat category : entry.getValue()) {
+        names.add(category.getName().toLowerCase());
+      }
+      Map<String, Long> linkCounts = categoryLinkCountStore.getCounts(entry.getKey(), names);
+      for (AllCat category : entry.getValue()) {
+        CategoryDocument doc = elasticsearchSyncService.toCategoryDocument(category, linkCounts);
+        if (doc != null) {
+          elasticsearchBulkIndexer.index(
+              new IndexRequest(ElasticsearchClientService.CATEGORIES_INDEX).id(doc.getId())
+                  .source(elasticsearchClientService.convertToMap(doc)), tracker);
+        }
+      }
+    }
+  }
+
+  private void indexModels(List<Model> models, ElasticsearchBulkIndexer.Tracker tracker) {
+    for (Model model : models) {
+      try {
+        ModelDocument doc = elasticsearchSyncService.toModelDocument(model);
+        if (doc != null) {
+          elasticsearchBulkIndexer.index(
+              new IndexRequest(ElasticsearchClientService.MODELS_INDEX).id(doc.getId())
+                  .source(elasticsearchClientService.convertToMap(doc)), tracker);
+        }
+      } catch (Exception e) {
+        logger.error("Error creating document for model ID {}: {}", model.getId(), e.getMessage(),
+            e);
+      }
+    }
+  }
+
+  /**
+   * Counts and time of the last run
+   */
+  public Map<String, Object> getLastRun() {
+    synchronized (lastRun) {
+      return new LinkedHashMap<>(lastRun);
+    }
+  }
+
+  /**
+   * Outcome of one page of changed rows and the watermark after it
+   */
+  private static class QueuedPage {
+
+    private final ElasticsearchBulkIndexer.Tracker tracker;
+    private final Watermark end;
+
+    private QueuedPage(ElasticsearchBulkIndexer.Tracker tracker, Watermark end) {
+      this.tracker = tracker;
+      this.end = end;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChangeReader<T> {
+
+    List<T> read(Watermark mark, int limit);
+  }
+}
@@ -7,11 +7,17 @@ import com.fvp.repository.ElasticsearchLinkCategoryRepository;
 import com.fvp.document.LinkDocument;
 import com.fvp.entity.Link;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
+import com.fvp.util.CompactNames;
 import com.fvp.util.LoggingUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,28 +57,22 @@ public class LinkCategoryService {
   public Optional<LinkCategory> findRandomRecentLinkByCategory(Integer tenantId, String category) {
     String cacheKey = generateCacheKey(tenantId, "recent:" + category);
 
-    Optional<LinkCategory> cachedModel = cacheService.getFromCache(
-        LINK_CATEGORY_CACHE,
-        cacheKey,
-        LinkCategory.class
-    );
-
-    if (cachedModel.isPresent()) {
-      return cachedModel;
-    }
-
-    try {
-      Optional<LinkDocument> result = elasticsearchLinkCategoryRepository.findRandomRecentLinkByCategory(
-          tenantId, category, recentLinksDays);
-      Optional<LinkCategory> linkCategory = result.map(doc -> convertToLinkCategory(doc, category));
-      linkCategory.ifPresent(
-          model -> cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, model));
-      return linkCategory;
-    } catch (Exception e) {
-      logger.error("Error finding random recent link for category {} in Elasticsearch: {}",
-          category, e.getMessage());
-      throw e;
-    }
+    return Optional.ofNullable(cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey,
+        () -> cacheService.getFromCache(LINK_CATEGORY_CACHE, cacheKey, LinkCategory.class), () -> {
+      try {
+        Optional<LinkDocument> result = elasticsearchLinkCategoryRepository.findRandomRecentLinkByCategory(
+            tenantId, category, recentLinksDays);
+        Optional<LinkCategory> linkCategory = result.map(doc -> convertToLinkCategory(doc, category));
+        linkCategory.ifPresent(
+            model -> cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, model,
+                tagsFor(tenantId, category)));
+        return linkCategory.orElse(null);
+      } catch (Exception e) {
+        logger.error("Error finding random recent link for category {} in Elasticsearch: {}",
+            category, e.getMessage());
+        throw e;
+      }
+    }));
   }
 
   /**
@@ -85,28 +85,18 @@ public class LinkCategoryService {
   public Optional<LinkCategory> findRandomLinkByCategory(Integer tenantId, String category) {
     String cacheKey = generateCacheKey(tenantId, "random:" + category);
 
-    Optional<LinkCategory> cachedModel = cacheService.getFromCache(
-        LINK_CATEGORY_CACHE,
-        cacheKey,
-        LinkCategory.class
-    );
-
-    if (cachedModel.isPresent()) {
-      return cachedModel;
-    }
-
-    try {
-      Optional<LinkDocument> result = elasticsearchLinkCategoryRepository.findRandomLinkByCategory(tenantId,
-          category);
-      Optional<LinkCategory> linkCategory = result.map(doc -> convertToLinkCategory(doc, category));
-      linkCategory.ifPresent(
-          model -> cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, model));
-      return linkCategory;
-    } catch (Exception e) {
-      logger.error("Error finding random link for category {} in Elasticsearch: {}",
-          category, e.getMessage());
-      throw e;
-    }
+    return Optional.ofNullable(cacheService.getOrLoadNullable(LINK_CATEGORY_CACHE, cacheKey,
+        LinkCategory.class, () -> {
+      try {
+        Optional<LinkDocument> result = elasticsearchLinkCategoryRepository.findRandomLinkByCategory(tenantId,
+            category);
+        return result.map(doc -> convertToLinkCategory(doc, category)).orElse(null);
+      } catch (Exception e) {
+        logger.error("Error finding random link for category {} in Elasticsearch: {}",
+            category, e.getMessage());
+        throw e;
+      }
+    }, tagsFor(tenantId, category)));
   }
 
   /**
@@ -119,14 +109,15 @@ public class LinkCategoryService {
   public Long countByTenantIdAndCategory(Integer tenantId, String category) {
     String cacheKey = generateCacheKey(tenantId, "count:" + category);
 
-    return cacheService.getFromCache(
+    return cacheService.getOrLoad(CATEGORY_COUNT_CACHE, cacheKey, () -> cacheService.getFromCache(
         CATEGORY_COUNT_CACHE,
         cacheKey,
         Long.class
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         Long count = elasticsearchLinkCategoryRepository.countByTenantIdAndCategory(tenantId, category);
-        cacheService.putInCache(CATEGORY_COUNT_CACHE, cacheKey, count);
+        cacheService.putInCacheWithTags(CATEGORY_COUNT_CACHE, cacheKey, count,
+            tagsFor(tenantId, category));
         return count;
       } catch (Exception e) {
         logger.error("Error counting links for category {} in Elasticsearch: {}",
@@ -136,6 +127,28 @@ public class LinkCategoryService {
     });
   }
 
+  /**
+   * Non-blocking {@link #countByTenantIdAndCategory}: the cache is read on the calling thread and
+   * a miss is counted without holding a thread while Elasticsearch works.
+   *
+   * @param tenantId the tenant ID
+   * @param category the category name
+   * @return the count of matching links
+   */
+  public CompletableFuture<Long> countByTenantIdAndCategoryAsync(Integer tenantId, String category) {
+    String cacheKey = generateCacheKey(tenantId, "count:" + category);
+    Optional<Long> cached = cacheService.getFromCache(CATEGORY_COUNT_CACHE, cacheKey, Long.class);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached.get());
+    }
+    return elasticsearchLinkCategoryRepository.countByTenantIdAndCategoryAsync(tenantId, category)
+        .thenApply(count -> {
+          cacheService.putInCacheWithTags(CATEGORY_COUNT_CACHE, cacheKey, count,
+              tagsFor(tenantId, category));
+          return count;
+        });
+  }
+
   /**
    * Finds links by tenant ID and link ID
    *
@@ -146,16 +159,18 @@ public class LinkCategoryService {
   public List<LinkCategory> findByTenantIdAndLinkId(Integer tenantId, Integer linkId) {
     String cacheKey = generateCacheKey(tenantId, "linkId:" + linkId);
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByTenantIdAndLinkId(tenantId, linkId);
         List<LinkCategory> result = docs.stream().map(this::convertToLinkCategory).collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, result);
+        // Evicted by key when the link is written, see invalidateLinkCaches
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, result,
+            tagsFor(tenantId, null));
         return result;
         } catch (Exception e) {
         logger.error("Error finding links for tenant {} and link {} in Elasticsearch: {}",
@@ -172,23 +187,22 @@ public class LinkCategoryService {
    * @return a list of distinct category names
    */
   public List<String> findAllDistinctCategories(Integer tenantId) {
-    String cacheKey = generateCacheKey(tenantId, "distinct");
+    // Cached as one compact string, built while the categories are paged in
+    String cacheKey = generateCacheKey(tenantId, "distinctNames");
 
-    return cacheService.getCollectionFromCache(
-        CATEGORIES_CACHE,
-        cacheKey,
-        new TypeReference<List<String>>() {
-        }
-    ).orElseGet(() -> {
+    return CompactNames.split(cacheService.getOrLoad(CATEGORIES_CACHE, cacheKey,
+        () -> cacheService.getFromCache(CATEGORIES_CACHE, cacheKey, String.class), () -> {
       try {
-        List<String> result = elasticsearchLinkCategoryRepository.findAllDistinctCategories(tenantId);
-        cacheService.putInCache(CATEGORIES_CACHE, cacheKey, result);
-        return result;
-        } catch (Exception e) {
+        String names = CompactNames.join(
+            elasticsearchLinkCategoryRepository.iterateDistinctCategories(tenantId));
+        cacheService.putInCacheWithTags(CATEGORIES_CACHE, cacheKey, names,
+            CacheService.tenantTag(tenantId), CacheService.categoryNamesTag(tenantId));
+        return names;
+      } catch (Exception e) {
         logger.error("Error finding distinct categories in Elasticsearch: {}", e.getMessage());
-          throw e;
+        throw e;
       }
-    });
+    }));
   }
 
   /**
@@ -200,12 +214,12 @@ public class LinkCategoryService {
   public List<LinkCategory> findByLinkId(Integer linkId) {
     String cacheKey = generateCacheKey(null, "linkId:" + linkId);
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByLinkId(linkId);
         List<LinkCategory> result = docs.stream().map(this::convertToLinkCategory).collect(Collectors.toList());
@@ -240,14 +254,83 @@ public class LinkCategoryService {
    *
    * @param tenantId the tenant ID
    * @param categoryNames the list of category names
-   * @return a list of random LinkCategory objects
+   * @return a list of random LinkCategory objects, in the order of the category names
    */
   public List<LinkCategory> findRandomLinksByCategoryNames(Integer tenantId, List<String> categoryNames) {
-    List<LinkCategory> result = new ArrayList<>();
+    return findRandomLinksByCategoryNamesAsync(tenantId, categoryNames).join();
+  }
+
+  /**
+   * Non-blocking {@link #findRandomLinksByCategoryNames}: the cache is read on the calling thread
+   * and the misses are fetched without holding a thread while Elasticsearch works.
+   *
+   * @param tenantId the tenant ID
+   * @param categoryNames the list of category names
+   * @return a list of random LinkCategory objects, in the order of the category names
+   */
+  public CompletableFuture<List<LinkCategory>> findRandomLinksByCategoryNamesAsync(Integer tenantId,
+      List<String> categoryNames) {
+    // Same entries as findRandomLinkByCategory: one MGET for all of them, then a single
+    // multi-search for the misses
+    Map<String, String> cacheKeys = new LinkedHashMap<>();
     for (String category : categoryNames) {
-      findRandomLinkByCategory(tenantId, category).ifPresent(result::add);
+      cacheKeys.put(category, generateCacheKey(tenantId, "random:" + category));
     }
-    return result;
+    Map<String, LinkCategory> cached = cacheService.getManyFromCache(LINK_CATEGORY_CACHE,
+        cacheKeys.values(), LinkCategory.class);
+
+    List<String> misses = new ArrayList<>();
+    for (Map.Entry<String, String> entry : cacheKeys.entrySet()) {
+      if (!cached.containsKey(entry.getValue())) {
+        misses.add(entry.getKey());
+      }
+    }
+
+    CompletableFuture<Map<String, LinkCategory>> loaded = misses.isEmpty()
+        ? CompletableFuture.completedFuture(Collections.<String, LinkCategory>emptyMap())
+        : elasticsearchLinkCategoryRepository.findRandomLinksByCategoryNamesAsync(tenantId, misses)
+            .thenApply(docs -> cacheRandomLinks(tenantId, misses, cacheKeys, docs))
+            .exceptionally(e -> {
+              logger.error("Error finding random links for {} categories in Elasticsearch: {}",
+                  misses.size(), e.getMessage());
+              return Collections.emptyMap();
+            });
+
+    return loaded.thenApply(loadedLinks -> {
+      List<LinkCategory> result = new ArrayList<>();
+      for (Map.Entry<String, String> entry : cacheKeys.entrySet()) {
+        LinkCategory linkCategory = cached.get(entry.getValue());
+        if (linkCategory == null) {
+          linkCategory = loadedLinks.get(entry.getKey());
+        }
+        if (linkCategory != null) {
+          result.add(linkCategory);
+        }
+      }
+      return result;
+    });
+  }
+
+  private Map<String, LinkCategory> cacheRandomLinks(Integer tenantId, List<String> misses,
+      Map<String, String> cacheKeys, Map<String, Optional<LinkDocument>> docs) {
+    Map<String, LinkCategory> loaded = new HashMap<>();
+    for (String category : misses) {
+      String cacheKey = cacheKeys.get(category);
+      Optional<LinkDocument> doc = docs.get(category);
+      if (doc == null) {
+        // The lookup of this category failed: leave it uncached so the next request retries
+        continue;
+      }
+      if (!doc.isPresent()) {
+        cacheService.putNotFound(LINK_CATEGORY_CACHE, cacheKey);
+      } else {
+        LinkCategory linkCategory = convertToLinkCategory(doc.get(), category);
+        loaded.put(category, linkCategory);
+        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, linkCategory);
+      }
+      cacheService.tagKey(LINK_CATEGORY_CACHE, cacheKey, tagsFor(tenantId, category));
+    }
+    return loaded;
   }
 
   /**
@@ -260,18 +343,19 @@ public class LinkCategoryService {
   public List<LinkCategory> findByTenantIdAndCategory(Integer tenantId, String category) {
     String cacheKey = generateCacheKey(tenantId, "category:" + category);
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByTenantIdAndCategory(tenantId, category);
         List<LinkCategory> models = docs.stream()
-            .map(this::convertToLinkCategory)
+            .map(doc -> convertToLinkCategory(doc, category))
             .collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, models);
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, models,
+            tagsFor(tenantId, category));
         return models;
       } catch (Exception e) {
         logger.error("Error finding links for category {} in Elasticsearch: {}",
@@ -292,18 +376,19 @@ public class LinkCategoryService {
       String category) {
     String cacheKey = generateCacheKey(tenantId, "categoryOrder:" + category);
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByTenantIdAndCategoryOrderByRandomOrder(tenantId, category);
         List<LinkCategory> models = docs.stream()
-            .map(this::convertToLinkCategory)
+            .map(doc -> convertToLinkCategory(doc, category))
             .collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, models);
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, models,
+            tagsFor(tenantId, category));
         return models;
       } catch (Exception e) {
         logger.error("Error finding links for category {} in Elasticsearch: {}",
@@ -323,18 +408,19 @@ public class LinkCategoryService {
   public List<LinkCategory> findByCategoryAndTenantId(String category, Integer tenantId) {
     String cacheKey = generateCacheKey(tenantId, "category:" + category);
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByCategoryAndTenantId(category, tenantId);
         List<LinkCategory> models = docs.stream()
-            .map(this::convertToLinkCategory)
+            .map(doc -> convertToLinkCategory(doc, category))
             .collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, models);
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, models,
+            tagsFor(tenantId, category));
         return models;
       } catch (Exception e) {
         logger.error("Error finding links for category {} in Elasticsearch: {}",
@@ -368,19 +454,20 @@ public class LinkCategoryService {
         String.format("categoryFilters:%s:%d:%d:%s:%d:%d",
             category, minDuration, maxDuration, quality, offset, limit));
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByCategoryWithFiltersPageable(
             tenantId, category, minDuration, maxDuration, quality, offset, limit);
         List<LinkCategory> models = docs.stream()
-            .map(this::convertToLinkCategory)
+            .map(doc -> convertToLinkCategory(doc, category))
             .collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, models);
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, models,
+            tagsFor(tenantId, category));
         return models;
       } catch (Exception e) {
         logger.error("Error finding links for category {} with filters in Elasticsearch: {}",
@@ -410,15 +497,16 @@ public class LinkCategoryService {
         String.format("categoryCountFilters:%s:%d:%d:%s",
             category, minDuration, maxDuration, quality));
 
-    return cacheService.getFromCache(
+    return cacheService.getOrLoad(CATEGORY_COUNT_CACHE, cacheKey, () -> cacheService.getFromCache(
         CATEGORY_COUNT_CACHE,
         cacheKey,
         Long.class
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         Long count = elasticsearchLinkCategoryRepository.countByCategoryWithFilters(
             tenantId, category, minDuration, maxDuration, quality);
-        cacheService.putInCache(CATEGORY_COUNT_CACHE, cacheKey, count);
+        cacheService.putInCacheWithTags(CATEGORY_COUNT_CACHE, cacheKey, count,
+            tagsFor(tenantId, category));
         return count;
       } catch (Exception e) {
         logger.error("Error counting links for category {} with filters in Elasticsearch: {}",
@@ -454,19 +542,20 @@ public class LinkCategoryService {
         String.format("categoryFiltersExclude:%s:%d:%d:%s:%d:%d:%d",
             category, minDuration, maxDuration, quality, excludeId, offset, limit));
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(LINK_CATEGORY_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         LINK_CATEGORY_CACHE,
         cacheKey,
         new TypeReference<List<LinkCategory>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<LinkDocument> docs = elasticsearchLinkCategoryRepository.findByCategoryWithFiltersExcludingLinkPageable(
             tenantId, category, minDuration, maxDuration, quality, excludeId, offset, limit);
         List<LinkCategory> models = docs.stream()
-            .map(this::convertToLinkCategory)
+            .map(doc -> convertToLinkCategory(doc, category))
             .collect(Collectors.toList());
-        cacheService.putInCache(LINK_CATEGORY_CACHE, cacheKey, models);
+        cacheService.putInCacheWithTags(LINK_CATEGORY_CACHE, cacheKey, models,
+            tagsFor(tenantId, category));
         return models;
       } catch (Exception e) {
         logger.error(
@@ -488,15 +577,16 @@ public class LinkCategoryService {
     String cacheKey = generateCacheKey(tenantId,
         "categoryCounts:" + String.join(",", categoryNames));
 
-    return cacheService.getCollectionFromCache(
+    return cacheService.getOrLoad(CATEGORY_COUNT_CACHE, cacheKey, () -> cacheService.getCollectionFromCache(
         CATEGORY_COUNT_CACHE,
         cacheKey,
         new TypeReference<List<Object[]>>() {
         }
-    ).orElseGet(() -> {
+    ), () -> {
       try {
         List<Object[]> result = elasticsearchLinkCategoryRepository.countByTenantIdAndCategories(tenantId, categoryNames);
-        cacheService.putInCache(CATEGORY_COUNT_CACHE, cacheKey, result);
+        cacheService.putInCacheWithTags(CATEGORY_COUNT_CACHE, cacheKey, result,
+            tagsForAll(tenantId, categoryNames));
         return result;
         } catch (Exception e) {
         logger.error("Error counting categories in Elasticsearch: {}", e.getMessage());
@@ -571,33 +661,88 @@ public class LinkCategoryService {
   }
 
   /**
-   * Invalidate relevant caches for a LinkCategory
+   * Cache tags for a tenant and, when given, one of its categories
    *
-   * @param linkCategory the LinkCategory
+   * @param tenantId the tenant ID
+   * @param category the category name, may be null
+   * @return the tags
    */
-  private void invalidateCaches(LinkCategory linkCategory) {
-    if (linkCategory.getTenantId() != null) {
-      // Invalidate tenant-specific caches
-      cacheService.evictFromCache(LINK_CATEGORY_CACHE,
-          generateCacheKey(linkCategory.getTenantId(), "*"));
-      cacheService.evictFromCache(CATEGORY_COUNT_CACHE,
-          generateCacheKey(linkCategory.getTenantId(), "*"));
-      cacheService.evictFromCache(CATEGORIES_CACHE,
-          generateCacheKey(linkCategory.getTenantId(), "*"));
+  private String[] tagsFor(Integer tenantId, String category) {
+    if (tenantId == null) {
+      return new String[0];
     }
+    if (category == null) {
+      return new String[]{CacheService.tenantTag(tenantId)};
+    }
+    return new String[]{CacheService.tenantTag(tenantId),
+        CacheService.categoryTag(tenantId, category)};
+  }
 
-    if (linkCategory.getLinkId() != null) {
-      // Invalidate link-specific caches
-      cacheService.evictFromCache(LINK_CATEGORY_CACHE,
-          generateCacheKey(null, "linkId:" + linkCategory.getLinkId()));
+  /**
+   * Cache tags for a tenant and each of several of its categories
+   */
+  private String[] tagsForAll(Integer tenantId, Collection<String> categories) {
+    if (tenantId == null) {
+      return new String[0];
+    }
+    List<String> tags = new ArrayList<>(categories.size() + 1);
+    tags.add(CacheService.tenantTag(tenantId));
+    for (String category : categories) {
+      tags.add(CacheService.categoryTag(tenantId, category));
     }
+    return tags.toArray(new String[0]);
+  }
 
-    if (linkCategory.getCategory() != null) {
-      // Invalidate category-specific caches
-      cacheService.evictFromCache(LINK_CATEGORY_CACHE,
-          generateCacheKey(linkCategory.getTenantId(), "category:" + linkCategory.getCategory()));
-      cacheService.evictFromCache(CATEGORY_COUNT_CACHE,
-          generateCacheKey(linkCategory.getTenantId(), "count:" + linkCategory.getCategory()));
+  /**
+   * Invalidate the cached lookups of the given categories, e.g. after links were ingested, and
+   * the tenant's list of category names, which a new or emptied category changes
+   *
+   * @param tenantId the tenant ID
+   * @param categories the category names
+   */
+  public void invalidateCategoryCaches(Integer tenantId, Collection<String> categories) {
+    if (tenantId == null || categories == null) {
+      return;
+    }
+    for (String category : categories) {
+      cacheService.invalidateTag(CacheService.categoryTag(tenantId, category));
+    }
+    cacheService.invalidateTag(CacheService.categoryNamesTag(tenantId));
+  }
+
+  /**
+   * Evict the cached category lookups of single links, see {@link #findByTenantIdAndLinkId}
+   *
+   * @param tenantId the tenant ID
+   * @param linkIds the links
+   */
+  public void invalidateLinkCaches(Integer tenantId, Collection<Integer> linkIds) {
+    List<String> keys = new ArrayList<>(linkIds.size());
+    for (Integer linkId : linkIds) {
+      keys.add(generateCacheKey(tenantId, "linkId:" + linkId));
+    }
+    cacheService.deleteManyFromCache(LINK_CATEGORY_CACHE, keys);
+  }
+
+  /**
+   * Invalidate what a batch of link writes made stale: the lookups of each written link and of
+   * every category the links had before or have now
+   */
+  public void invalidateLinkChanges(LinkChanges changes) {
+    for (Integer tenantId : changes.getTenantIds()) {
+      invalidateLinkCaches(tenantId, changes.getLinkIds(tenantId));
+      invalidateCategoryCaches(tenantId, changes.getCategories(tenantId));
+    }
+  }
+
+  /**
+   * Invalidate every cached lookup of a tenant, e.g. after a full resync
+   *
+   * @param tenantId the tenant ID
+   */
+  public void invalidateTenantCaches(Integer tenantId) {
+    if (tenantId != null) {
+      cacheService.invalidateTag(CacheService.tenantTag(tenantId));
     }
   }
-}
\ No newline at end of file
+}
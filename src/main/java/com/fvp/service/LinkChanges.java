@@ -0,0 +1,54 @@
+package com.fvp.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Links written during a batch, per tenant, with the categories they had before and after the
+ * write, so the cached lookups they affect are invalidated once per tenant at the end of the batch.
+ * Thread safe, as batches write their links in parallel.
+ */
+public class LinkChanges {
+
+  private final Map<Integer, Set<Integer>> linkIds = new ConcurrentHashMap<>();
+  private final Map<Integer, Set<String>> categories = new ConcurrentHashMap<>();
+
+  /**
+   * @param tenantId tenant of the link
+   * @param linkId the link
+   * @param linkCategories categories it had before or has after the write, may be null
+   */
+  public void add(Integer tenantId, Integer linkId, Collection<String> linkCategories) {
+    if (tenantId == null) {
+      return;
+    }
+    if (linkId != null) {
+      linkIds.computeIfAbsent(tenantId, id -> ConcurrentHashMap.newKeySet()).add(linkId);
+    }
+    Set<String> tenantCategories = categories.computeIfAbsent(tenantId,
+        id -> ConcurrentHashMap.newKeySet());
+    if (linkCategories != null) {
+      tenantCategories.addAll(linkCategories);
+    }
+  }
+
+  public Set<Integer> getTenantIds() {
+    return categories.keySet();
+  }
+
+  public Set<Integer> getLinkIds(Integer tenantId) {
+    return linkIds.getOrDefault(tenantId, Collections.emptySet());
+  }
+
+  public Set<String> getCategories(Integer tenantId) {
+    return categories.getOrDefault(tenantId, Collections.emptySet());
+  }
+
+  public void clear() {
+    linkIds.clear();
+    categories.clear();
+  }
+}
@@ -6,6 +6,7 @@ import com.fvp.repository.ElasticsearchLinkModelRepository;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
+import com.fvp.util.CompactNames;
 import com.fvp.util.LoggingUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -38,17 +39,15 @@ public class LinkModelService {
    * @return a list of distinct model names
    */
   public List<String> findAllDistinctModels(Integer tenantId) {
-    String cacheKey = generateCacheKey(tenantId, "distinct");
-    return cacheService.getCollectionFromCache(
-            MODELS_CACHE,
-            cacheKey,
-            new com.fasterxml.jackson.core.type.TypeReference<List<String>>() {
-            })
+    // Cached as one compact string, built while the models are paged in
+    String cacheKey = generateCacheKey(tenantId, "distinctNames");
+    return CompactNames.split(cacheService.getFromCache(MODELS_CACHE, cacheKey, String.class)
         .orElseGet(() -> {
-          List<String> result = elasticsearchLinkModelRepository.findAllDistinctModels(tenantId);
-          cacheService.putInCache(MODELS_CACHE, cacheKey, result);
-          return result;
-        });
+          String names = CompactNames.join(
+              elasticsearchLinkModelRepository.iterateDistinctModels(tenantId));
+          cacheService.putInCache(MODELS_CACHE, cacheKey, names);
+          return names;
+        }));
   }
 
   /**
@@ -82,18 +81,10 @@ public class LinkModelService {
    */
   public Optional<LinkDocument> findRandomLinkByModel(Integer tenantId, String modelName) {
     String cacheKey = generateCacheKey(tenantId, "random:" + modelName);
-    Optional<LinkDocument> cachedModel = cacheService.getFromCache(
-        LINK_MODEL_CACHE,
-        cacheKey,
-        LinkDocument.class
-    );
-    if (cachedModel.isPresent()) {
-      return cachedModel;
-    }
-    Optional<LinkDocument> result = elasticsearchLinkModelRepository.findRandomLinkByModel(
-        tenantId, modelName);
-    result.ifPresent(model -> cacheService.putInCache(LINK_MODEL_CACHE, cacheKey, model));
-    return result;
+    return Optional.ofNullable(cacheService.getOrLoadNullable(LINK_MODEL_CACHE, cacheKey,
+        LinkDocument.class,
+        () -> elasticsearchLinkModelRepository.findRandomLinkByModel(tenantId, modelName)
+            .orElse(null)));
   }
 
   /**
@@ -48,6 +48,7 @@ public class LinkProcessingService {
   private final LinkCategoryService linkCategoryService;
   private final LinkModelService linkModelService;
   private final ModelService modelService;
+  private final CategoryLinkCountStore categoryLinkCountStore;
   private final Util util;
   // Cache for storing categories by tenant ID
   private final Map<Integer, List<AllCat>> categoriesCache = new ConcurrentHashMap<>();
@@ -64,6 +65,7 @@ public class LinkProcessingService {
       LinkCategoryService linkCategoryService,
       LinkModelService linkModelService,
       ModelService modelService,
+      CategoryLinkCountStore categoryLinkCountStore,
       Util util) {
     this.dataSource = dataSource;
     this.linkRepository = linkRepository;
@@ -74,6 +76,7 @@ public class LinkProcessingService {
     this.linkCategoryService = linkCategoryService;
     this.linkModelService = linkModelService;
     this.modelService = modelService;
+    this.categoryLinkCountStore = categoryLinkCountStore;
     this.util = util;
   }
 
@@ -84,6 +87,22 @@ public class LinkProcessingService {
   }
 
   public void processLink(Link link) {
+    LinkChanges changes = new LinkChanges();
+    try {
+      processLink(link, changes);
+    } finally {
+      invalidateLinkChanges(changes);
+    }
+  }
+
+  /**
+   * Save a link and update its Elasticsearch document as part of a batch, collecting the link and
+   * the categories it had and has for {@link #invalidateLinkChanges}
+   *
+   * @param link the link
+   * @param changes links written by the batch
+   */
+  public void processLink(Link link, LinkChanges changes) {
     if (link == null) {
       logger.warn("Cannot process null link");
       return;
@@ -105,6 +124,8 @@ public class LinkProcessingService {
       if (existingLink != null) {
         logger.info("Found existing link with URL '{}' (ID: {}), updating instead of creating new",
             link.getLink(), existingLink.getId());
+        changes.add(existingLink.getTenantId(), existingLink.getId(),
+            getCategorySet(existingLink));
 
         // Update existing link with new data
         logger.debug("Updating existing link fields for ID: {}", existingLink.getId());
@@ -129,7 +150,7 @@ public class LinkProcessingService {
 
         // Update Elasticsearch document
         logger.debug("Updating Elasticsearch document for link ID: {}", link.getId());
-        updateElasticsearchDocument(link);
+        updateElasticsearchDocument(link, changes);
       } else {
         // Save the new link
         logger.info("Creating new link with title '{}' and URL: {}", link.getTitle(), link.getLink());
@@ -139,7 +160,7 @@ public class LinkProcessingService {
         logger.debug("New link creation completed in {} ms with ID: {}", saveLinkTimeMs, link.getId());
         
         logger.debug("Updating Elasticsearch document for new link ID: {}", link.getId());
-        updateElasticsearchDocument(link);
+        updateElasticsearchDocument(link, changes);
       }
       saveLinkTimeMs = System.currentTimeMillis() - saveStartMs;
 
@@ -258,62 +279,87 @@ public class LinkProcessingService {
    * Updates an existing Elasticsearch document for a link
    */
   public void updateElasticsearchDocument(Link link) {
+    LinkChanges changes = new LinkChanges();
+    updateElasticsearchDocument(link, changes);
+    invalidateLinkChanges(changes);
+  }
 
-    try {
-      // Find existing document
-      List<LinkDocument> existingDocs = elasticsearchClientService.searchByLinkId(
-          String.valueOf(link.getId()), null);
-      LinkDocument doc = null;
-      if (!existingDocs.isEmpty()) {
-        logger.info("Existing link found for link ID {} with document ID {}", link.getId(),
-            existingDocs.get(0).getLinkId());
-        doc = existingDocs.get(0);
-      } else {
-        doc = new LinkDocument();
-        doc.setLinkId(String.valueOf(link.getId()));
-      }
-
-      // Update all fields from Link entity
-      doc.setTenantId(link.getTenantId());
-      doc.setLinkTitle(link.getTitle());
-      doc.setLink(link.getLink());
-      doc.setLinkThumbnail(link.getThumbnail());
-      doc.setLinkThumbPath(link.getThumbpath());
-      doc.setLinkDuration(link.getDuration());
-      doc.setLinkSource(link.getSource());
-      doc.setLinkTrailer(link.getTrailer());
-      doc.setCreatedAt(link.getCreatedAt() != null ?
-          java.util.Date.from(
-              link.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()) : null);
-      doc.setSearchableText(generateSearchableText(link));
-      Set<String> categorySet = getCategorySet(link);
-      if (categorySet != null) {
-        doc.setCategories(categorySet.stream().collect(Collectors.toList()));
-      }
-
-      Set<String> modelSet = getModelSet(link);
-      if (modelSet != null) {
-        doc.setModels(modelSet.stream().collect(Collectors.toList()));
-      }
-      doc.setQuality(link.getQuality());
-      doc.setSheetName(link.getSheetName());
-      doc.setRandomOrder(link.getRandomOrder());
-      doc.setThumbPathProcessed(link.getThumbPathProcessed());
-      doc.setTrailerPresent(link.getTrailerPresent());
-      doc.setHd(link.getHd());
-      doc.setCreatedOn(link.getCreatedOn() != null ?
-          java.util.Date.from(
-              link.getCreatedOn().atZone(java.time.ZoneId.systemDefault()).toInstant()) : null);
+  /**
+   * Updates an existing Elasticsearch document for a link as part of a batch: the link and its
+   * categories are collected per tenant instead of invalidated right away, see
+   * {@link #invalidateLinkChanges}. Categories the link had before are added by the caller.
+   *
+   * @param link the link
+   * @param changes links written by the batch
+   */
+  public void updateElasticsearchDocument(Link link, LinkChanges changes) {
 
+    try {
+      // Every field comes from the row, so the document is overwritten without reading it first
+      LinkDocument doc = buildLinkDocument(link);
       logger.info("Updating Elasticsearch document for link ID {} with {} categories",
           link.getId(), doc.getCategories().size());
       elasticsearchClientService.saveLinkDocument(doc);
+      changes.add(link.getTenantId(), link.getId(), doc.getCategories());
     } catch (Exception e) {
       logger.error("Error updating Elasticsearch document for link ID {}: {}", link.getId(),
           e.getMessage(), e);
     }
   }
 
+  /**
+   * Invalidate the cached lookups and link counts of the links and categories collected by a
+   * batch of {@link #updateElasticsearchDocument(Link, LinkChanges)} calls, once per tenant
+   *
+   * @param changes links written by the batch
+   */
+  public void invalidateLinkChanges(LinkChanges changes) {
+    linkCategoryService.invalidateLinkChanges(changes);
+    for (Integer tenantId : changes.getTenantIds()) {
+      categoryLinkCountStore.markStale(tenantId);
+    }
+  }
+
+  /**
+   * The Elasticsearch document of a link, built from its MySQL row alone
+   */
+  public LinkDocument buildLinkDocument(Link link) {
+    LinkDocument doc = new LinkDocument();
+    doc.setLinkId(String.valueOf(link.getId()));
+    doc.setTenantId(link.getTenantId());
+    doc.setLinkTitle(link.getTitle());
+    doc.setLink(link.getLink());
+    doc.setLinkThumbnail(link.getThumbnail());
+    doc.setLinkThumbPath(link.getThumbpath());
+    doc.setHasThumb(LinkDocument.isUsableThumbPath(link.getThumbpath()));
+    doc.setLinkDuration(link.getDuration());
+    doc.setLinkSource(link.getSource());
+    doc.setLinkTrailer(link.getTrailer());
+    doc.setCreatedAt(link.getCreatedAt() != null ?
+        java.util.Date.from(
+            link.getCreatedAt().atZone(java.time.ZoneId.systemDefault()).toInstant()) : null);
+    doc.setSearchableText(generateSearchableText(link));
+    Set<String> categorySet = getCategorySet(link);
+    if (categorySet != null) {
+      doc.setCategories(categorySet.stream().collect(Collectors.toList()));
+    }
+
+    Set<String> modelSet = getModelSet(link);
+    if (modelSet != null) {
+      doc.setModels(modelSet.stream().collect(Collectors.toList()));
+    }
+    doc.setQuality(link.getQuality());
+    doc.setSheetName(link.getSheetName());
+    doc.setRandomOrder(link.getRandomOrder());
+    doc.setThumbPathProcessed(link.getThumbPathProcessed());
+    doc.setTrailerPresent(link.getTrailerPresent());
+    doc.setHd(link.getHd());
+    doc.setCreatedOn(link.getCreatedOn() != null ?
+        java.util.Date.from(
+            link.getCreatedOn().atZone(java.time.ZoneId.systemDefault()).toInstant()) : null);
+    return doc;
+  }
+
   /**
    * Generates searchable text for a link
    */
@@ -7,6 +7,7 @@ import com.fvp.entity.Model;
 import com.fvp.repository.ModelRepository;
 import com.fvp.util.LoggingUtil;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,65 +43,106 @@ public class ModelService {
   public List<ModelWithoutLinkDTO> getAllModels(Integer tenantId) {
     String cacheKey = generateCacheKey(tenantId, "home");
 
-    return LoggingUtil.logOperationTime(logger, "get home models", () -> {
-      Optional<List<ModelWithoutLinkDTO>> cachedModels = cacheService.getCollectionFromCache(
-          CacheService.CACHE_NAME_MODELS, cacheKey, new TypeReference<List<ModelWithoutLinkDTO>>() {
-          });
-      if (cachedModels.isPresent()) {
-        logger.info("Cache hit for home models for tenant: {}", tenantId);
-        return cachedModels.get();
-      }
+    return LoggingUtil.logOperationTime(logger, "get home models", () ->
+        cacheService.getOrLoad(CacheService.CACHE_NAME_MODELS, cacheKey,
+            () -> cacheService.getCollectionFromCache(CacheService.CACHE_NAME_MODELS, cacheKey,
+                new TypeReference<List<ModelWithoutLinkDTO>>() {
+                }),
+            () -> loadHomeModels(tenantId, cacheKey)));
+  }
 
-      logger.info("Cache miss for home models for tenant: {}", tenantId);
-      
-      // Fetch only models where dataPresent = 1 directly from database
-      List<Model> modelsWithDataPresent = modelRepository.findByTenantIdAndDataPresent(tenantId);
-      
-      // Update the cache with these models
-      for (Model model : modelsWithDataPresent) {
-        modelCache.put(model.getName(), model);
-      }
+  private List<ModelWithoutLinkDTO> loadHomeModels(Integer tenantId, String cacheKey) {
+    logger.info("Cache miss for home models for tenant: {}", tenantId);
+    
+    // Fetch only models where dataPresent = 1 directly from database
+    List<Model> modelsWithDataPresent = modelRepository.findByTenantIdAndDataPresent(tenantId);
+    
+    // Update the cache with these models
+    for (Model model : modelsWithDataPresent) {
+      modelCache.put(model.getName(), model);
+    }
 
-      List<ModelWithoutLinkDTO> modelDTOs = new ArrayList<>();
-      for (Model model : modelsWithDataPresent) {
-        ModelWithoutLinkDTO modelDTO = new ModelWithoutLinkDTO();
-        BeanUtils.copyProperties(model, modelDTO);
-        modelDTO.setName(model.getName());
-        modelDTO.setAge(model.getAge());
-        modelDTO.setDescription(model.getDescription());
-        modelDTO.setThumbnail(model.getThumbnail());
-        modelDTO.setThumbPath(model.getThumbpath());
-        modelDTO.setCountry(model.getCountry());
-        modelDTOs.add(modelDTO);
-      }
+    List<ModelWithoutLinkDTO> modelDTOs = new ArrayList<>();
+    for (Model model : modelsWithDataPresent) {
+      ModelWithoutLinkDTO modelDTO = new ModelWithoutLinkDTO();
+      BeanUtils.copyProperties(model, modelDTO);
+      modelDTO.setName(model.getName());
+      modelDTO.setAge(model.getAge());
+      modelDTO.setDescription(model.getDescription());
+      modelDTO.setThumbnail(model.getThumbnail());
+      modelDTO.setThumbPath(model.getThumbpath());
+      modelDTO.setCountry(model.getCountry());
+      modelDTOs.add(modelDTO);
+    }
 
-      if (!modelDTOs.isEmpty()) {
-        cacheService.putInCacheWithExpiry(CacheService.CACHE_NAME_MODELS, cacheKey, modelDTOs,
-            CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES);
-      }
-      return modelDTOs;
-    });
+    if (!modelDTOs.isEmpty()) {
+      cacheService.putInCacheWithExpiry(CacheService.CACHE_NAME_MODELS, cacheKey, modelDTOs,
+          CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES);
+    }
+    return modelDTOs;
   }
 
   public ModelWithLinkDTO getModelFirstLink(Integer tenantId, String modelName) {
     String cacheKey = generateCacheKey(tenantId, "first_" + modelName);
 
-    return LoggingUtil.logOperationTime(logger, "get model first link", () -> {
-      Optional<ModelWithLinkDTO> cachedModel = cacheService.getFromCache(
-          CacheService.CACHE_NAME_MODELS, cacheKey, ModelWithLinkDTO.class);
-      if (cachedModel.isPresent()) {
-        logger.info("Cache hit for model first link: {}", modelName);
-        return cachedModel.get();
+    return LoggingUtil.logOperationTime(logger, "get model first link", () ->
+        cacheService.getOrLoadNullable(CacheService.CACHE_NAME_MODELS, cacheKey,
+            ModelWithLinkDTO.class,
+            () -> {
+              logger.info("Cache miss for model first link: {}", modelName);
+              return modelUtilService.getModelWithFirstLink(tenantId, modelName);
+            },
+            CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES));
+  }
+
+  /**
+   * {@link #getModelFirstLink} for several models, sharing its cache entries. Cached models are
+   * read in one round trip and the others are loaded together.
+   *
+   * @param tenantId the tenant ID
+   * @param modelNames the model names
+   * @return the models with their first link, by model name; models without one are absent
+   */
+  public Map<String, ModelWithLinkDTO> getModelFirstLinks(Integer tenantId,
+      List<String> modelNames) {
+    Map<String, String> cacheKeys = new LinkedHashMap<>();
+    for (String modelName : modelNames) {
+      cacheKeys.put(modelName, generateCacheKey(tenantId, "first_" + modelName));
+    }
+    Map<String, ModelWithLinkDTO> cached = cacheService.getManyFromCache(
+        CacheService.CACHE_NAME_MODELS, cacheKeys.values(), ModelWithLinkDTO.class);
+
+    Map<String, ModelWithLinkDTO> results = new LinkedHashMap<>();
+    List<String> misses = new ArrayList<>();
+    for (Map.Entry<String, String> entry : cacheKeys.entrySet()) {
+      ModelWithLinkDTO dto = cached.get(entry.getValue());
+      if (dto != null) {
+        results.put(entry.getKey(), dto);
+      } else {
+        misses.add(entry.getKey());
       }
+    }
+    if (misses.isEmpty()) {
+      return results;
+    }
 
-      logger.info("Cache miss for model first link: {}", modelName);
-      ModelWithLinkDTO model = modelUtilService.getModelWithFirstLink(tenantId, modelName);
-      if (model != null) {
-        cacheService.putInCacheWithExpiry(CacheService.CACHE_NAME_MODELS, cacheKey, model,
-            CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES);
+    Map<String, Optional<ModelWithLinkDTO>> loaded =
+        modelUtilService.getModelsWithFirstLink(tenantId, misses);
+    for (String modelName : misses) {
+      Optional<ModelWithLinkDTO> dto = loaded.get(modelName);
+      if (dto == null) {
+        // Failed lookup: not cached, so the next request retries it
+        continue;
       }
-      return model;
-    });
+      if (!dto.isPresent()) {
+        cacheService.putNotFound(CacheService.CACHE_NAME_MODELS, cacheKeys.get(modelName));
+      } else {
+        cacheService.putInCacheWithExpiry(CacheService.CACHE_NAME_MODELS,
+            cacheKeys.get(modelName), dto.get(), CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES);
+        results.put(modelName, dto.get());
+      }
+    }
+    return results;
   }
 
   public Map<String, Model> getAllModels() {
@@ -12,9 +12,11 @@ import com.fvp.document.LinkDocument;
 import com.fvp.util.LoggingUtil;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -87,52 +89,85 @@ public class ModelUtilService {
       }
 
       // Get random link for the model
-      Optional<LinkDocument> randomLinkDoc = elasticsearchLinkModelRepository.findRandomLinkByModel(tenantId, modelName);
+      return toModelWithFirstLink(model,
+          elasticsearchLinkModelRepository.findRandomLinkByModel(tenantId, modelName));
+    });
+  }
 
-      if (!randomLinkDoc.isPresent()) {
-        return null;
-      }
+  /**
+   * {@link #getModelWithFirstLink} for several models. The random link lookups of all models are
+   * sent at once and run without holding a thread each.
+   *
+   * @param tenantId the tenant ID
+   * @param modelNames the model names
+   * @return by model name, the model with its first link, or empty when the model or its link
+   * does not exist; models whose lookup failed are absent
+   */
+  public Map<String, Optional<ModelWithLinkDTO>> getModelsWithFirstLink(Integer tenantId,
+      List<String> modelNames) {
+    Map<String, CompletableFuture<Optional<LinkDocument>>> randomLinks = new LinkedHashMap<>();
+    for (String modelName : modelNames) {
+      randomLinks.put(modelName,
+          elasticsearchLinkModelRepository.findRandomLinkByModelAsync(tenantId, modelName));
+    }
 
+    Map<String, Optional<ModelWithLinkDTO>> results = new LinkedHashMap<>();
+    for (Map.Entry<String, CompletableFuture<Optional<LinkDocument>>> entry : randomLinks.entrySet()) {
       try {
-        // Extract link ID from LinkDocument
-        String linkIdStr = randomLinkDoc.get().getLinkId();
-        if (linkIdStr == null) {
-          return null;
-        }
-        
-        Integer linkId = Integer.parseInt(linkIdStr);
-        Link link = linkRepository.findById(linkId).orElse(null);
-        if (link == null) {
-          return null;
-        }
-
-        ModelWithLinkDTO dto = new ModelWithLinkDTO();
-        dto.setId(model.getId());
-        dto.setTenantId(model.getTenantId());
-        dto.setName(model.getName());
-        dto.setDescription(model.getDescription());
-        dto.setCountry(model.getCountry());
-        dto.setThumbnail(model.getThumbnail());
-        dto.setThumbPath(model.getThumbpath());
-        dto.setAge(model.getAge());
-        
-        // Set link fields
-        dto.setLink(link.getLink());
-        dto.setLinkTitle(link.getTitle());
-        dto.setLinkThumbnail(link.getThumbnail());
-        dto.setLinkThumbPath(link.getThumbpath());
-        dto.setLinkSource(link.getSource());
-        dto.setLinkTrailer(link.getTrailer());
-        dto.setLinkDuration(link.getDuration());
-        dto.setLinkId((long) link.getId());
-
-        return dto;
+        Model model = modelRepository.findByTenantIdAndName(tenantId, entry.getKey());
+        results.put(entry.getKey(), model == null ? Optional.empty()
+            : Optional.ofNullable(toModelWithFirstLink(model, entry.getValue().join())));
       } catch (Exception e) {
-        logger.error("Error fetching link details for model {}: {}",
-            modelName, e.getMessage());
+        logger.error("Error loading first link of model {}: {}", entry.getKey(), e.getMessage());
+      }
+    }
+    return results;
+  }
+
+  private ModelWithLinkDTO toModelWithFirstLink(Model model, Optional<LinkDocument> randomLinkDoc) {
+    String modelName = model.getName();
+    if (!randomLinkDoc.isPresent()) {
+      return null;
+    }
+
+    try {
+      // Extract link ID from LinkDocument
+      String linkIdStr = randomLinkDoc.get().getLinkId();
+      if (linkIdStr == null) {
         return null;
       }
-    });
+      
+      Integer linkId = Integer.parseInt(linkIdStr);
+      Link link = linkRepository.findById(linkId).orElse(null);
+      if (link == null) {
+        return null;
+      }
+
+      ModelWithLinkDTO dto = new ModelWithLinkDTO();
+      dto.setId(model.getId());
+      dto.setTenantId(model.getTenantId());
+      dto.setName(model.getName());
+      dto.setDescription(model.getDescription());
+      dto.setCountry(model.getCountry());
+      dto.setThumbnail(model.getThumbnail());
+      dto.setThumbPath(model.getThumbpath());
+      dto.setAge(model.getAge());
+      
+      // Set link fields
+      dto.setLink(link.getLink());
+      dto.setLinkTitle(link.getTitle());
+      dto.setLinkThumbnail(link.getThumbnail());
+      dto.setLinkThumbPath(link.getThumbpath());
+      dto.setLinkSource(link.getSource());
+      dto.setLinkTrailer(link.getTrailer());
+      dto.setLinkDuration(link.getDuration());
+      dto.setLinkId((long) link.getId());
+
+      return dto;
+    } catch (NumberFormatException e) {
+      logger.error("Invalid link ID for model {}: {}", modelName, e.getMessage());
+      return null;
+    }
   }
 
   public Page<ModelLinksResponseDTO> getModelLinks(Integer tenantId, String modelName, Pageable pageable,
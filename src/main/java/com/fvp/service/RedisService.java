@@ -87,6 +87,20 @@ public class RedisService {
     }
   }
 
+  /**
+   * Like {@link #getHashValue}, but a Redis or parsing error is thrown instead of read as absent
+   *
+   * @throws IllegalStateException when the value cannot be read
+   */
+  public <T> T readHashValue(String key, String hashKey, Class<T> type) {
+    try (Jedis jedis = jedisPool.getResource()) {
+      String value = jedis.hget(key, hashKey);
+      return value != null ? objectMapper.readValue(value, type) : null;
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to read hash key " + hashKey + " of " + key, e);
+    }
+  }
+
   public void deleteHashValue(String key, String hashKey) {
     try (Jedis jedis = jedisPool.getResource()) {
       jedis.hdel(key, hashKey);
@@ -0,0 +1,115 @@
+package com.fvp.service;
+
+import com.fvp.entity.SyncWatermark;
+import com.fvp.repository.SyncWatermarkRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Progress of long-running syncs, kept so a sync can resume after a restart. A checkpoint is the
+ * ID of the last row whose document is confirmed indexed; checkpoints and plans of full syncs are
+ * kept in Redis, the watermarks of incremental syncs in MySQL.
+ */
+@Service
+public class SyncCheckpointStore {
+
+  private static final String CHECKPOINTS_KEY = "es:sync:checkpoints";
+  private static final String PLANS_KEY = "es:sync:plans";
+  private static final String WATERMARKS_KEY = "es:sync:watermarks";
+
+  private final RedisService redisService;
+  private final SyncWatermarkRepository syncWatermarkRepository;
+
+  public SyncCheckpointStore(RedisService redisService,
+      SyncWatermarkRepository syncWatermarkRepository) {
+    this.redisService = redisService;
+    this.syncWatermarkRepository = syncWatermarkRepository;
+  }
+
+  /**
+   * @param job name of the sync
+   * @return the last indexed ID, or null when the job has no unfinished run
+   */
+  public Integer getLastId(String job) {
+    return redisService.getHashValue(CHECKPOINTS_KEY, job, Integer.class);
+  }
+
+  public void save(String job, int lastId) {
+    redisService.setHashValue(CHECKPOINTS_KEY, job, lastId);
+  }
+
+  public void clear(String job) {
+    redisService.deleteHashValue(CHECKPOINTS_KEY, job);
+  }
+
+  /**
+   * @param job name of a partitioned sync
+   * @return the ID ranges of its slices as {afterId, toId} pairs, or null when the job has no
+   * unfinished run
+   */
+  public int[][] getPlan(String job) {
+    return redisService.getHashValue(PLANS_KEY, job, int[][].class);
+  }
+
+  public void savePlan(String job, int[][] ranges) {
+    redisService.setHashValue(PLANS_KEY, job, ranges);
+  }
+
+  public void clearPlan(String job) {
+    redisService.deleteHashValue(PLANS_KEY, job);
+  }
+
+  /**
+   * Watermarks are kept in MySQL; one still only in Redis, from before, is moved over on first
+   * read. Read errors are thrown rather than taken for a job that has never run.
+   *
+   * @param job name of an incremental sync
+   * @return position of the last change indexed, or null when the job has never run
+   */
+  public Watermark getWatermark(String job) {
+    Optional<SyncWatermark> stored = syncWatermarkRepository.findById(job);
+    if (stored.isPresent()) {
+      return new Watermark(stored.get().getUpdatedAtMs(), stored.get().getLastId());
+    }
+    Watermark legacy = redisService.readHashValue(WATERMARKS_KEY, job, Watermark.class);
+    if (legacy != null) {
+      saveWatermark(job, legacy);
+      redisService.deleteHashValue(WATERMARKS_KEY, job);
+    }
+    return legacy;
+  }
+
+  public void saveWatermark(String job, Watermark watermark) {
+    syncWatermarkRepository.save(
+        new SyncWatermark(job, watermark.getUpdatedAt(), watermark.getId()));
+  }
+
+  /**
+   * Position in a table read in (updated_at, id) order
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Watermark {
+
+    /**
+     * updated_at of the last row, in epoch milliseconds
+     */
+    private long updatedAt;
+
+    private int id;
+
+    public static Watermark of(LocalDateTime updatedAt, int id) {
+      return new Watermark(Timestamp.valueOf(updatedAt).getTime(), id);
+    }
+
+    public Timestamp updatedAtTimestamp() {
+      return new Timestamp(updatedAt);
+    }
+  }
+}
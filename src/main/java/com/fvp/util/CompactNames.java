@@ -0,0 +1,48 @@
+package com.fvp.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Long lists of names (distinct categories, models) cached as one newline-separated string. That
+ * is a single value to encode and compress instead of one element per name, and the list can be
+ * built while the names are still being streamed in.
+ */
+public final class CompactNames {
+
+  private static final char SEPARATOR = '\n';
+
+  private CompactNames() {
+  }
+
+  public static String join(Iterator<String> names) {
+    StringBuilder joined = new StringBuilder();
+    while (names.hasNext()) {
+      String name = names.next();
+      if (name == null || name.isEmpty() || name.indexOf(SEPARATOR) >= 0) {
+        continue;
+      }
+      if (joined.length() > 0) {
+        joined.append(SEPARATOR);
+      }
+      joined.append(name);
+    }
+    return joined.toString();
+  }
+
+  public static List<String> split(String joined) {
+    List<String> names = new ArrayList<>();
+    if (joined == null || joined.isEmpty()) {
+      return names;
+    }
+    int start = 0;
+    int end;
+    while ((end = joined.indexOf(SEPARATOR, start)) >= 0) {
+      names.add(joined.substring(start, end));
+      start = end + 1;
+    }
+    names.add(joined.substring(start));
+    return names;
+  }
+}
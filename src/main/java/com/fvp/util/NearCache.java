@@ -0,0 +1,131 @@
+package com.fvp.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded, per-entry TTL in-process cache used as the L1 tier in front of Redis.
+ * Entries are kept in access order so the least recently used entry is evicted first once
+ * the configured capacity is reached. Expired entries are not removed eagerly so they can
+ * still be served as a fallback while Redis is unavailable.
+ *
+ * <p>Each entry can also remember the object its value was last decoded to, so repeated hits
+ * skip decoding. Decoded objects are shared between callers and must be treated as immutable.
+ */
+public class NearCache<V> {
+
+  private final int maxEntries;
+  private final LinkedHashMap<String, Entry<V>> entries;
+
+  public NearCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        return size() > NearCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Get a value that has not yet expired
+   * @param key full cache key
+   * @return the cached value or null if absent or expired
+   */
+  public synchronized V get(String key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null || entry.isExpired()) {
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Get a value regardless of its expiry, used when the backing store cannot be reached
+   * @param key full cache key
+   * @return the cached value or null if absent
+   */
+  public synchronized V getStale(String key) {
+    Entry<V> entry = entries.get(key);
+    return entry != null ? entry.value : null;
+  }
+
+  public synchronized void put(String key, V value, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      entries.remove(key);
+      return;
+    }
+    entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+  }
+
+  /**
+   * Get the object an entry was decoded to by {@link #putDecoded}
+   * @param key full cache key
+   * @param value the value about to be decoded; the decoded object is only returned while the
+   *     entry still holds this exact value
+   * @param type the type the value is decoded to
+   * @return the decoded object or null if the entry was not decoded to this type yet
+   */
+  public synchronized Object getDecoded(String key, V value, Object type) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null || entry.value != value || !type.equals(entry.decodedType)) {
+      return null;
+    }
+    return entry.decoded;
+  }
+
+  /**
+   * Remember the object an entry's value was decoded to. Ignored when the entry has been
+   * replaced or removed since the value was read.
+   */
+  public synchronized void putDecoded(String key, V value, Object type, Object decoded) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.value == value) {
+      entry.decodedType = type;
+      entry.decoded = decoded;
+    }
+  }
+
+  public synchronized void remove(String key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Remove every entry whose key starts with the given prefix
+   * @param prefix key prefix, e.g. "categories:"
+   */
+  public synchronized void removeByPrefix(String prefix) {
+    Iterator<String> iterator = entries.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().startsWith(prefix)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long expiresAt;
+    private Object decodedType;
+    private Object decoded;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() > expiresAt;
+    }
+  }
+}
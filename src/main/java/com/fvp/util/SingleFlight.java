@@ -0,0 +1,67 @@
+package com.fvp.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key within the JVM. The first caller for a key runs the
+ * loader, every other caller arriving while it is in flight waits for and shares its result (or
+ * its exception).
+ */
+public class SingleFlight {
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Run the loader for the key unless a load for the same key is already in flight
+   * @param key the key to coalesce on
+   * @param loader the loader to run when this caller is the leader
+   * @param waitTimeoutMs how long a follower waits for the leader before loading on its own
+   * @return the loaded value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String key, Supplier<T> loader, long waitTimeoutMs) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+    if (existing != null) {
+      try {
+        return (T) existing.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        return loader.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for load of " + key, e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+
+    try {
+      T value = loader.get();
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+}
@@ -0,0 +1,13 @@
+-- Change watermark of the incremental Elasticsearch sync, maintained by MySQL on every write
+
+ALTER TABLE link
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_updated_at_id (updated_at, id);
+
+ALTER TABLE all_cat
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_updated_at_id (updated_at, id);
+
+ALTER TABLE model
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_updated_at_id (updated_at, id);
@@ -0,0 +1,7 @@
+-- Watermarks of the incremental Elasticsearch sync, moved out of Redis so a flush cannot reset them
+
+CREATE TABLE IF NOT EXISTS sync_watermark (
+    job VARCHAR(64) NOT NULL PRIMARY KEY,
+    updated_at_ms BIGINT NOT NULL,
+    last_id INT NOT NULL
+);
@@ -0,0 +1,83 @@
+package com.fvp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fvp.config.CacheCodecConfig;
+import com.fvp.dto.CacheEnvelope;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CacheCodecTest {
+
+  private static final TypeReference<List<String>> STRING_LIST = new TypeReference<List<String>>() {
+  };
+
+  @Test
+  public void testRoundTripForEveryFormatAndCompression() throws IOException {
+    List<String> value = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      value.add("category-" + i);
+    }
+    for (String format : new String[]{"json", "smile"}) {
+      for (String compression : new String[]{"none", "deflate", "lz4"}) {
+        CacheCodec codec = codec(format, compression);
+        byte[] encoded = codec.encode(value);
+        assertEquals(value, codec.decode(encoded, STRING_LIST), format + "/" + compression);
+      }
+    }
+  }
+
+  @Test
+  public void testEntriesOfOtherCodecSettingsStayReadable() throws IOException {
+    byte[] encoded = codec("smile", "lz4").encode("value");
+    assertEquals("value", codec("json", "none").decode(encoded, String.class));
+  }
+
+  @Test
+  public void testUnknownHeaderVersionIsRejected() throws IOException {
+    CacheCodec codec = codec("smile", "none");
+    byte[] encoded = codec.encode("value");
+    encoded[1] = 2;
+    assertThrows(IOException.class, () -> codec.decode(encoded, String.class));
+  }
+
+  @Test
+  public void testLegacyJsonEntriesAreDecoded() throws IOException {
+    byte[] legacy = "[\"a\",\"b\"]".getBytes(StandardCharsets.UTF_8);
+    assertEquals(2, codec("smile", "lz4").decode(legacy, STRING_LIST).size());
+  }
+
+  @Test
+  public void testTombstoneIsRecognized() throws IOException {
+    CacheCodec codec = codec("smile", "lz4");
+    assertTrue(codec.isTombstone(codec.tombstone()));
+    assertFalse(codec.isTombstone(codec.encode("")));
+    assertFalse(codec.isTombstone(null));
+  }
+
+  @Test
+  public void testEnvelopeRoundTrip() throws IOException {
+    CacheCodec codec = codec("smile", "lz4");
+    byte[] encoded = codec.encode(new CacheEnvelope<>(42L, "value"));
+    CacheEnvelope<String> envelope = codec.decodeEnvelope(encoded, new TypeReference<String>() {
+    });
+    assertEquals(42L, envelope.getSoftExpiresAt());
+    assertEquals("value", envelope.getValue());
+  }
+
+  private static CacheCodec codec(String format, String compression) {
+    CacheCodecConfig config = new CacheCodecConfig();
+    config.setFormat(format);
+    config.setCompression(compression);
+    config.setCompressionThreshold(0);
+    return new CacheCodec(new ObjectMapper(), config);
+  }
+}
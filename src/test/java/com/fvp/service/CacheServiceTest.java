@@ -0,0 +1,256 @@
+package com.fvp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fvp.config.CacheCodecConfig;
+import com.fvp.config.ElasticsearchFallbackConfig;
+import com.fvp.config.NearCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * CacheService against an in-memory stand-in for Redis, with the near cache off so every read
+ * goes to the store
+ */
+public class CacheServiceTest {
+
+  private static final String CACHE = "test";
+  private static final long LOCK_TTL_MS = 5000;
+
+  private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+  private final Map<String, Integer> ttls = new ConcurrentHashMap<>();
+  private final ElasticsearchFallbackConfig fallbackConfig = new ElasticsearchFallbackConfig();
+  private final ElasticsearchHealthMonitor healthMonitor = new ElasticsearchHealthMonitor(
+      mock(RestHighLevelClient.class), fallbackConfig, new SimpleMeterRegistry(), true);
+  private CacheService cacheService;
+
+  @AfterEach
+  public void tearDown() {
+    if (cacheService != null) {
+      cacheService.stopInvalidationSubscriber();
+    }
+  }
+
+  @Test
+  public void testWaiterUsesValueLoadedByLockOwner() throws Exception {
+    cacheService = cacheService(true);
+    store.put("lock:" + CACHE + ":key", "other-node".getBytes(StandardCharsets.UTF_8));
+    AtomicInteger loads = new AtomicInteger();
+
+    Thread owner = new Thread(() -> {
+      sleep(200);
+      cacheService.putInCache(CACHE, "key", "remote");
+      store.remove("lock:" + CACHE + ":key");
+    });
+    owner.start();
+
+    String value = cacheService.getOrCompute(CACHE, "key", () -> {
+      loads.incrementAndGet();
+      return "local";
+    }, String.class);
+    owner.join();
+
+    assertEquals("remote", value);
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  public void testWaiterStopsWaitingWhenLockOwnerCachedNothing() throws Exception {
+    cacheService = cacheService(true);
+    store.put("lock:" + CACHE + ":key", "other-node".getBytes(StandardCharsets.UTF_8));
+
+    Thread owner = new Thread(() -> {
+      sleep(100);
+      store.remove("lock:" + CACHE + ":key");
+    });
+    owner.start();
+
+    long startTime = System.currentTimeMillis();
+    String value = cacheService.getOrCompute(CACHE, "key", () -> "local", String.class);
+    long waited = System.currentTimeMillis() - startTime;
+    owner.join();
+
+    assertEquals("local", value);
+    assertTrue(waited < LOCK_TTL_MS / 2, "waited " + waited + " ms for a released lock");
+  }
+
+  @Test
+  public void testOwnerReleasesLockAfterLoading() {
+    cacheService = cacheService(true);
+    assertEquals("loaded", cacheService.getOrCompute(CACHE, "key", () -> "loaded", String.class));
+    assertFalse(store.containsKey("lock:" + CACHE + ":key"));
+    assertEquals("loaded", cacheService.getFromCache(CACHE, "key", String.class).orElse(null));
+  }
+
+  @Test
+  public void testFreshEnvelopeIsServedWithoutLoading() {
+    cacheService = cacheService(false);
+    AtomicInteger loads = new AtomicInteger();
+    TypeReference<String> type = new TypeReference<String>() {
+    };
+
+    assertEquals("v1", cacheService.getOrRefresh(CACHE, "key", type, () -> {
+      loads.incrementAndGet();
+      return "v1";
+    }, 60, 120, TimeUnit.SECONDS));
+    assertEquals("v1", cacheService.getOrRefresh(CACHE, "key", type, () -> {
+      loads.incrementAndGet();
+      return "v2";
+    }, 60, 120, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testExpiredEnvelopeIsServedStaleAndRefreshedInBackground() throws Exception {
+    cacheService = cacheService(false);
+    TypeReference<String> type = new TypeReference<String>() {
+    };
+    cacheService.getOrRefresh(CACHE, "key", type, () -> "v1", 50, 60000, TimeUnit.MILLISECONDS);
+    Thread.sleep(100);
+
+    // Past the soft expiry: the old value comes back at once, the new one is loaded behind it
+    assertEquals("v1", cacheService.getOrRefresh(CACHE, "key", type, () -> "v2", 50, 60000,
+        TimeUnit.MILLISECONDS));
+    long deadline = System.currentTimeMillis() + 5000;
+    String refreshed = null;
+    while (System.currentTimeMillis() < deadline && !"v2".equals(refreshed)) {
+      Thread.sleep(20);
+      refreshed = cacheService.getOrRefresh(CACHE, "key", type, () -> "v3", 60000, 60000,
+          TimeUnit.MILLISECONDS);
+    }
+    assertEquals("v2", refreshed);
+  }
+
+  @Test
+  public void testFailedRefreshKeepsServingStaleValue() throws Exception {
+    cacheService = cacheService(false);
+    TypeReference<String> type = new TypeReference<String>() {
+    };
+    cacheService.getOrRefresh(CACHE, "key", type, () -> "v1", 50, 60000, TimeUnit.MILLISECONDS);
+    Thread.sleep(100);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("v1", cacheService.getOrRefresh(CACHE, "key", type, () -> {
+        throw new IllegalStateException("backend down");
+      }, 50, 60000, TimeUnit.MILLISECONDS));
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  public void testConfirmedMissIsCachedAsTombstone() {
+    cacheService = cacheService(false);
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertNull(cacheService.getOrLoadNullable(CACHE, "missing", String.class, () -> {
+        loads.incrementAndGet();
+        return null;
+      }));
+    }
+    assertEquals(1, loads.get());
+    assertTrue(store.containsKey(CACHE + ":missing"));
+  }
+
+  @Test
+  public void testFailedLoadIsNotCachedAsTombstone() {
+    cacheService = cacheService(false);
+
+    assertThrows(IllegalStateException.class,
+        () -> cacheService.getOrLoadNullable(CACHE, "key", String.class, () -> {
+          throw new IllegalStateException("backend down");
+        }));
+    assertFalse(store.containsKey(CACHE + ":key"));
+    assertEquals("found", cacheService.getOrLoadNullable(CACHE, "key", String.class,
+        () -> "found"));
+  }
+
+  @Test
+  public void testValuesCachedDuringFallbackGetShortTtl() {
+    cacheService = cacheService(false);
+    cacheService.putInCacheWithExpiry(CACHE, "healthy", "v", 1, TimeUnit.HOURS);
+    healthMonitor.setForced(true);
+    cacheService.putInCacheWithExpiry(CACHE, "fallback", "v", 1, TimeUnit.HOURS);
+
+    assertEquals(3600, ttls.get(CACHE + ":healthy").intValue());
+    assertEquals(fallbackConfig.getCacheTtlSeconds(), ttls.get(CACHE + ":fallback").intValue());
+  }
+
+  private CacheService cacheService(boolean distributedLock) {
+    NearCacheConfig nearCacheConfig = new NearCacheConfig();
+    nearCacheConfig.setEnabled(false);
+    return new CacheService(inMemoryPool(), new CacheCodec(new ObjectMapper(),
+        new CacheCodecConfig()), nearCacheConfig, new CacheMetrics(new SimpleMeterRegistry()),
+        healthMonitor, distributedLock, LOCK_TTL_MS, 30000, 2, 10, 300);
+  }
+
+  /**
+   * A pool whose connections read and write {@link #store} and {@link #ttls}; enough of GET, SETEX, SET NX, EXISTS,
+   * DEL and the lock release script for CacheService
+   */
+  private JedisPool inMemoryPool() {
+    Jedis jedis = mock(Jedis.class);
+    when(jedis.get(any(byte[].class))).thenAnswer(
+        invocation -> store.get(SafeEncoder.encode((byte[]) invocation.getArgument(0))));
+    when(jedis.setex(any(byte[].class), anyInt(), any(byte[].class))).thenAnswer(invocation -> {
+      String key = SafeEncoder.encode((byte[]) invocation.getArgument(0));
+      store.put(key, invocation.getArgument(2));
+      ttls.put(key, invocation.getArgument(1));
+      return "OK";
+    });
+    when(jedis.set(anyString(), anyString(), any(SetParams.class))).thenAnswer(invocation -> {
+      byte[] value = ((String) invocation.getArgument(1)).getBytes(StandardCharsets.UTF_8);
+      return store.putIfAbsent(invocation.getArgument(0), value) == null ? "OK" : null;
+    });
+    when(jedis.exists(anyString())).thenAnswer(
+        invocation -> store.containsKey((String) invocation.getArgument(0)));
+    when(jedis.del(anyString())).thenAnswer(
+        invocation -> store.remove((String) invocation.getArgument(0)) != null ? 1L : 0L);
+    when(jedis.eval(anyString(), anyList(), anyList())).thenAnswer(invocation -> {
+      List<String> keys = invocation.getArgument(1);
+      List<String> args = invocation.getArgument(2);
+      byte[] current = store.get(keys.get(0));
+      if (current != null && Arrays.equals(current, args.get(0).getBytes(StandardCharsets.UTF_8))) {
+        store.remove(keys.get(0));
+        return 1L;
+      }
+      return 0L;
+    });
+    JedisPool pool = mock(JedisPool.class);
+    when(pool.getResource()).thenReturn(jedis);
+    return pool;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
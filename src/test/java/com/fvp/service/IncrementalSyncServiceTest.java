@@ -0,0 +1,230 @@
+package com.fvp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fvp.config.ElasticsearchSyncConfig;
+import com.fvp.document.LinkDocument;
+import com.fvp.entity.Link;
+import com.fvp.repository.AllCatRepository;
+import com.fvp.repository.LinkRowReader;
+import com.fvp.repository.ModelRepository;
+import com.fvp.service.SyncCheckpointStore.Watermark;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * IncrementalSyncService over an in-memory link table, with a bulk indexer that fails the
+ * documents of chosen links
+ */
+public class IncrementalSyncServiceTest {
+
+  private static final String LINKS_JOB = "incremental:link";
+  private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+  private final List<Link> links = new ArrayList<>();
+  private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+  private final Set<Integer> failingLinkIds = new HashSet<>();
+  private final List<Integer> indexedLinkIds = new ArrayList<>();
+  private final ElasticsearchSyncConfig syncConfig = new ElasticsearchSyncConfig();
+  private final LinkRowReader linkRowReader = mock(LinkRowReader.class);
+  private final ElasticsearchBulkIndexer bulkIndexer = mock(ElasticsearchBulkIndexer.class);
+  private final SyncCheckpointStore checkpointStore = mock(SyncCheckpointStore.class);
+  private final LinkProcessingService linkProcessingService = mock(LinkProcessingService.class);
+  private final ElasticsearchClientService clientService = mock(ElasticsearchClientService.class);
+  private IncrementalSyncService service;
+
+  @BeforeEach
+  public void setUp() {
+    syncConfig.setBatchSize(2);
+    for (int id = 1; id <= 5; id++) {
+      links.add(link(id, 1));
+    }
+    watermarks.put(LINKS_JOB, Watermark.of(START, 0));
+
+    // Every query of the service asks for the database time; all rows are older
+    Timestamp now = Timestamp.valueOf(START.plusDays(1));
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocation -> now);
+    when(linkRowReader.readChangedAfter(any(Timestamp.class), anyInt(), any(Timestamp.class),
+        anyInt())).thenAnswer(invocation -> readChangedAfter(invocation.getArgument(0),
+        invocation.getArgument(1), invocation.getArgument(3)));
+    when(checkpointStore.getWatermark(anyString()))
+        .thenAnswer(invocation -> watermarks.get(invocation.<String>getArgument(0)));
+    doAnswer(invocation -> watermarks.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(checkpointStore).saveWatermark(anyString(), any(Watermark.class));
+    doAnswer(invocation -> {
+      LinkDocument document = invocation.getArgument(0);
+      deliver(Integer.valueOf(document.getLinkId()), invocation.getArgument(1));
+      return null;
+    }).when(bulkIndexer).index(any(LinkDocument.class), any(ElasticsearchBulkIndexer.Tracker.class));
+    doAnswer(invocation -> {
+      deliver(invocation.getArgument(0), invocation.getArgument(2));
+      return null;
+    }).when(bulkIndexer).deleteLink(anyInt(), anyInt(), any(ElasticsearchBulkIndexer.Tracker.class));
+    when(bulkIndexer.flushAndWait(any(ElasticsearchBulkIndexer.Tracker.class), anyLong()))
+        .thenReturn(true);
+
+    when(linkProcessingService.buildLinkDocument(any(Link.class))).thenAnswer(invocation -> {
+      LinkDocument document = new LinkDocument();
+      document.setLinkId(String.valueOf(invocation.<Link>getArgument(0).getId()));
+      document.setCategories(Collections.singletonList("category"));
+      return document;
+    });
+
+    service = new IncrementalSyncService(syncConfig, jdbcTemplate, linkRowReader,
+        mock(AllCatRepository.class), mock(ModelRepository.class), linkProcessingService,
+        mock(ElasticsearchSyncService.class), clientService, bulkIndexer,
+        checkpointStore, mock(LinkCategoryService.class), mock(CategoryLinkCountStore.class));
+    ReflectionTestUtils.setField(service, "schedulerEnabled", true);
+  }
+
+  @Test
+  public void testWatermarkMovesPastIndexedRows() {
+    service.syncChanges();
+
+    assertEquals(ids(1, 5), indexedLinkIds);
+    assertEquals(position(5), watermarks.get(LINKS_JOB));
+  }
+
+  @Test
+  public void testWatermarkHeldBeforePageWithFailedDocument() {
+    failingLinkIds.add(3);
+
+    service.syncChanges();
+
+    assertEquals(position(2), watermarks.get(LINKS_JOB));
+
+    failingLinkIds.clear();
+    indexedLinkIds.clear();
+    service.syncChanges();
+
+    // The page with the failed link is read again
+    assertEquals(ids(3, 5), indexedLinkIds);
+    assertEquals(position(5), watermarks.get(LINKS_JOB));
+  }
+
+  @Test
+  public void testRunStopsAtCheckpointWithFailedDocument() {
+    syncConfig.setCheckpointIntervalRows(2);
+    failingLinkIds.add(3);
+
+    service.syncChanges();
+
+    assertEquals(ids(1, 4), indexedLinkIds);
+    assertEquals(position(2), watermarks.get(LINKS_JOB));
+  }
+
+  @Test
+  public void testUnprocessedLinkIsDeleted() {
+    links.set(1, link(2, 0));
+
+    service.syncChanges();
+
+    verify(bulkIndexer).deleteLink(eq(2), eq(1), any(ElasticsearchBulkIndexer.Tracker.class));
+    assertEquals(position(5), watermarks.get(LINKS_JOB));
+  }
+
+  @Test
+  public void testPreviousCategoriesOfChangedLinksAreInvalidated() {
+    when(clientService.findLinkCategories(anyList()))
+        .thenReturn(Collections.singletonMap(2, Collections.singletonList("removed")));
+
+    service.syncChanges();
+
+    ArgumentCaptor<LinkChanges> changes = ArgumentCaptor.forClass(LinkChanges.class);
+    verify(linkProcessingService, atLeastOnce()).invalidateLinkChanges(changes.capture());
+    assertEquals(new HashSet<>(Arrays.asList("category", "removed")),
+        changes.getAllValues().get(0).getCategories(1));
+    assertEquals(new HashSet<>(Arrays.asList(1, 2)), changes.getAllValues().get(0).getLinkIds(1));
+  }
+
+  @Test
+  public void testWatermarkReadErrorKeepsWatermark() {
+    when(checkpointStore.getWatermark(LINKS_JOB)).thenThrow(new IllegalStateException("down"));
+
+    service.syncChanges();
+
+    verify(checkpointStore, never()).saveWatermark(eq(LINKS_JOB), any(Watermark.class));
+    assertTrue(indexedLinkIds.isEmpty());
+    assertEquals("down", service.getLastRun().get("error"));
+  }
+
+  @Test
+  public void testNothingRunsOffTheSchedulerNode() {
+    ReflectionTestUtils.setField(service, "schedulerEnabled", false);
+
+    service.syncChanges();
+
+    assertTrue(indexedLinkIds.isEmpty());
+    assertFalse(service.getLastRun().containsKey("finishedAt"));
+  }
+
+  private List<Link> readChangedAfter(Timestamp updatedAt, int afterId, int limit) {
+    return links.stream()
+        .filter(link -> {
+          long linkUpdatedAt = Timestamp.valueOf(link.getUpdatedAt()).getTime();
+          return linkUpdatedAt > updatedAt.getTime()
+              || (linkUpdatedAt == updatedAt.getTime() && link.getId() > afterId);
+        })
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+
+  private void deliver(int linkId, ElasticsearchBulkIndexer.Tracker tracker) {
+    indexedLinkIds.add(linkId);
+    tracker.queued();
+    if (failingLinkIds.contains(linkId)) {
+      tracker.failed();
+    } else {
+      tracker.indexed();
+    }
+  }
+
+  private static Link link(int id, int thumbPathProcessed) {
+    Link link = new Link();
+    link.setId(id);
+    link.setTenantId(1);
+    link.setThumbPathProcessed(thumbPathProcessed);
+    link.setUpdatedAt(START.plusSeconds(id));
+    return link;
+  }
+
+  private static Watermark position(int linkId) {
+    return Watermark.of(START.plusSeconds(linkId), linkId);
+  }
+
+  private static List<Integer> ids(int from, int to) {
+    List<Integer> ids = new ArrayList<>();
+    for (int id = from; id <= to; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+}
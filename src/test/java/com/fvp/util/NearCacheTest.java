@@ -0,0 +1,51 @@
+package com.fvp.util;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class NearCacheTest {
+
+  private static final long TTL_MS = 60000;
+
+  private final NearCache<byte[]> nearCache = new NearCache<>(10);
+
+  @Test
+  public void testDecodedValueIsReusedForSameBytes() {
+    byte[] value = {1, 2, 3};
+    List<String> decoded = Collections.singletonList("decoded");
+    nearCache.put("key", value, TTL_MS);
+
+    nearCache.putDecoded("key", value, List.class, decoded);
+
+    assertSame(decoded, nearCache.getDecoded("key", value, List.class));
+    assertNull(nearCache.getDecoded("key", value, String.class));
+  }
+
+  @Test
+  public void testDecodedValueIsDroppedWhenEntryIsReplaced() {
+    byte[] oldValue = {1};
+    byte[] newValue = {1};
+    nearCache.put("key", oldValue, TTL_MS);
+    nearCache.putDecoded("key", oldValue, String.class, "old");
+
+    nearCache.put("key", newValue, TTL_MS);
+
+    assertNull(nearCache.getDecoded("key", newValue, String.class));
+    assertNull(nearCache.getDecoded("key", oldValue, String.class));
+  }
+
+  @Test
+  public void testDecodedValueIsNotKeptForRemovedEntry() {
+    byte[] value = {1};
+    nearCache.put("key", value, TTL_MS);
+    nearCache.remove("key");
+
+    nearCache.putDecoded("key", value, String.class, "decoded");
+
+    assertNull(nearCache.getDecoded("key", value, String.class));
+  }
+}
@@ -0,0 +1,101 @@
+package com.fvp.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+  private final SingleFlight singleFlight = new SingleFlight();
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentCallersShareOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+        loads.incrementAndGet();
+        await(release);
+        return "value";
+      }, 5000)));
+    }
+    waitForInFlight();
+    // Give the other callers time to join the in-flight load
+    Thread.sleep(100);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertEquals("value", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    assertEquals(0, singleFlight.inFlightCount());
+  }
+
+  @Test
+  public void testFollowersGetTheLeadersException() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+      await(release);
+      throw new IllegalStateException("load failed");
+    }, 5000));
+    waitForInFlight();
+    Future<String> follower = executor.submit(
+        () -> singleFlight.execute("key", () -> "not used", 5000));
+    Thread.sleep(100);
+    release.countDown();
+
+    ExecutionException leaderError = assertThrows(ExecutionException.class,
+        () -> leader.get(5, TimeUnit.SECONDS));
+    ExecutionException followerError = assertThrows(ExecutionException.class,
+        () -> follower.get(5, TimeUnit.SECONDS));
+    assertEquals("load failed", leaderError.getCause().getMessage());
+    assertEquals("load failed", followerError.getCause().getMessage());
+  }
+
+  @Test
+  public void testFollowerLoadsItselfAfterWaitTimeout() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+      await(release);
+      return "leader";
+    }, 5000));
+    waitForInFlight();
+
+    assertEquals("follower", singleFlight.execute("key", () -> "follower", 50));
+    release.countDown();
+    assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+  }
+
+  private void waitForInFlight() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (singleFlight.inFlightCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}